@@ -0,0 +1,82 @@
+package com.work.IGA.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line; unless -rf/-rff are
+ * given, results are written as JSON to results/&lt;label&gt;.json, where the label is the
+ * benchmark.label system property or else the short hash of the current git commit (with
+ * -dirty for uncommitted changes). The files are what CompareResults reads.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine;
+        try {
+            commandLine = new CommandLineOptions(args);
+        } catch (CommandLineOptionException ex) {
+            System.err.println("Error parsing command line: " + ex.getMessage());
+            System.exit(1);
+            return;
+        }
+        // Help, listing and the other informational flags behave exactly as in JMH
+        if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+                || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        Options options = commandLine;
+        if (!commandLine.getResultFormat().hasValue() && !commandLine.getResult().hasValue()) {
+            File resultFile = new File("results", label() + ".json");
+            resultFile.getParentFile().mkdirs();
+            options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.getPath())
+                .build();
+            System.out.println("Results will be written to " + resultFile.getAbsolutePath());
+        }
+        new Runner(options).run();
+    }
+
+    private static String label() {
+        String label = System.getProperty("benchmark.label");
+        if (label != null && !label.isBlank()) {
+            return label;
+        }
+        String commit = git("rev-parse", "--short", "HEAD");
+        if (commit == null) {
+            return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        }
+        String status = git("status", "--porcelain", "--untracked-files=no");
+        return status == null || status.isEmpty() ? commit : commit + "-dirty";
+    }
+
+    private static String git(String... args) {
+        String[] command = new String[args.length + 1];
+        command[0] = "git";
+        System.arraycopy(args, 0, command, 1, args.length);
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8).trim();
+            return process.waitFor() == 0 ? output : null;
+        } catch (IOException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.work.IGA.benchmarks;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wiring for benchmarks that use Spring beans without a Spring context
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * Sets what @Value would have injected
+     */
+    static void setField(Object target, String name, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException ex) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+        throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + name);
+    }
+
+    /**
+     * In-memory stand-in for a Spring Data repository. Methods are answered by name; calling
+     * any other method fails the benchmark rather than silently returning null.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                if (method.getDeclaringClass() == Object.class) {
+                    return switch (method.getName()) {
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "equals" -> proxy == args[0];
+                        default -> type.getSimpleName() + " stub";
+                    };
+                }
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return answer.apply(args);
+        });
+    }
+
+    /**
+     * Replaces stdout and stderr with streams that drop everything. Code that logs with
+     * println still pays for building its messages and for the synchronized PrintStream, but
+     * not for the terminal or log pipe, which would otherwise dominate and flood JMH's output.
+     * Returns the original streams for restoring at teardown.
+     */
+    static PrintStream[] discardConsole() {
+        PrintStream[] original = {System.out, System.err};
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream(), false);
+        System.setOut(discard);
+        System.setErr(discard);
+        return original;
+    }
+
+    static void restoreConsole(PrintStream[] original) {
+        System.setOut(original[0]);
+        System.setErr(original[1]);
+    }
+}
@@ -0,0 +1,94 @@
+package com.work.IGA.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files, benchmark by benchmark and parameter set by
+ * parameter set, and exits with status 1 if any score got worse by more than the threshold
+ * (percent, default 10; -Dbenchmark.threshold=5). Whether worse means higher or lower is
+ * read from the score unit: time per operation should go down, operations per time up.
+ * Changes smaller than the combined error of both runs are reported but never fail.
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+        double threshold = Double.parseDouble(System.getProperty("benchmark.threshold", "10"));
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> candidate = read(new File(args[1]));
+
+        List<String> regressions = new ArrayList<>();
+        System.out.printf("%-90s %14s %14s %10s %8s%n", "benchmark", "baseline", "candidate", "unit", "change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue().path("primaryMetric");
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %10s %8s%n", entry.getKey(), "-", after.path("score").asDouble(),
+                    after.path("scoreUnit").asText(), "new");
+                continue;
+            }
+            before = before.path("primaryMetric");
+            double oldScore = before.path("score").asDouble();
+            double newScore = after.path("score").asDouble();
+            double change = oldScore == 0 ? 0 : (newScore - oldScore) * 100 / oldScore;
+            // Throughput units look like ops/ms, time units like ms/op
+            boolean higherIsBetter = after.path("scoreUnit").asText().startsWith("ops/");
+            double worsening = higherIsBetter ? -change : change;
+            double noise = error(before) + error(after);
+            boolean significant = Math.abs(newScore - oldScore) > noise;
+
+            String verdict = "";
+            if (worsening > threshold && significant) {
+                verdict = "  REGRESSION";
+                regressions.add(entry.getKey());
+            } else if (worsening < -threshold && significant) {
+                verdict = "  improved";
+            }
+            System.out.printf("%-90s %14.3f %14.3f %10s %+7.1f%%%s%n", entry.getKey(), oldScore, newScore,
+                after.path("scoreUnit").asText(), change, verdict);
+        }
+        for (String key : baseline.keySet()) {
+            if (!candidate.containsKey(key)) {
+                System.out.printf("%-90s %14s%n", key, "missing");
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.println();
+            System.out.println(regressions.size() + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static double error(JsonNode metric) {
+        JsonNode error = metric.path("scoreError");
+        return error.isNumber() ? error.asDouble() : 0;
+    }
+
+    private static Map<String, JsonNode> read(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText())
+                .append(" [").append(result.path("mode").asText()).append(", ")
+                .append(result.path("threads").asInt()).append("t");
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(", ").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.append(']').toString(), result);
+        }
+        return results;
+    }
+}
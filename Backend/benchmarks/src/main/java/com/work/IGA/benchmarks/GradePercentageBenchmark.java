@@ -0,0 +1,96 @@
+package com.work.IGA.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.work.IGA.Models.Courses.AssignmentSubmission;
+import com.work.IGA.Models.Courses.AssignmentsSchema;
+import com.work.IGA.Models.Courses.CoursesSchema;
+import com.work.IGA.Models.Courses.Enrollment;
+import com.work.IGA.Models.Courses.Grades;
+import com.work.IGA.Repositories.EnrollmentRepository;
+import com.work.IGA.Repositories.GradesRepository;
+import com.work.IGA.Services.CourseServices.GradeServicesImpl;
+import com.work.IGA.Utils.GradeUtils.GradeResponse;
+
+/**
+ * Overall grade percentages in GradeServicesImpl: per enrolled course, the points awarded
+ * and the assignments' maximum points are summed over the student's grades. The
+ * repositories are in-memory stubs returning prepared entities, so this is the computation
+ * and response building only, not the per-course queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class GradePercentageBenchmark {
+
+    @Param({"5", "20"})
+    public int courses;
+
+    @Param({"10", "50"})
+    public int gradesPerCourse;
+
+    private GradeServicesImpl gradeService;
+    private UUID studentId;
+
+    @Setup
+    public void setup() {
+        SplittableRandom random = new SplittableRandom(20250101L);
+        studentId = UUID.randomUUID();
+
+        List<Enrollment> enrollments = new ArrayList<>(courses);
+        Map<UUID, List<Grades>> gradesByCourse = new HashMap<>();
+        for (int c = 0; c < courses; c++) {
+            CoursesSchema course = new CoursesSchema();
+            course.setId(UUID.randomUUID());
+            Enrollment enrollment = new Enrollment();
+            enrollment.setId(UUID.randomUUID());
+            enrollment.setCourse(course);
+            enrollments.add(enrollment);
+
+            List<Grades> grades = new ArrayList<>(gradesPerCourse);
+            for (int g = 0; g < gradesPerCourse; g++) {
+                AssignmentsSchema assignment = new AssignmentsSchema();
+                assignment.setMaxPoints(random.nextBoolean() ? 100 : 20);
+                AssignmentSubmission submission = new AssignmentSubmission();
+                submission.setAssignment(assignment);
+                Grades grade = new Grades();
+                grade.setAssignmentSubmission(submission);
+                grade.setPointAwarded(random.nextInt(assignment.getMaxPoints() + 1));
+                grades.add(grade);
+            }
+            gradesByCourse.put(course.getId(), grades);
+        }
+
+        EnrollmentRepository enrollmentRepository = BenchmarkSupport.repository(EnrollmentRepository.class,
+            Map.of("findByStudentIdOrderByEnrollmentDateDesc", args -> enrollments));
+        GradesRepository gradesRepository = BenchmarkSupport.repository(GradesRepository.class,
+            Map.of("findByStudentIdAndCourseId", args -> gradesByCourse.get((UUID) args[1])));
+        gradeService = new GradeServicesImpl(gradesRepository, null, null, enrollmentRepository);
+    }
+
+    @Benchmark
+    public GradeResponse<Map<UUID, Double>> overallGradePercentages() {
+        return gradeService.getOverallGradePercentages(studentId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.work.IGA.benchmarks;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.work.IGA.Configuration.JacksonConfig;
+import com.work.IGA.Models.Courses.CoursesSchema;
+import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Models.Courses.SubmissionStatus;
+import com.work.IGA.Models.Users.Roles;
+import com.work.IGA.Models.Users.UserSchema;
+import com.work.IGA.Utils.CoursesException.CoursesResponse;
+import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionDto;
+
+/**
+ * Response serialization with the ObjectMapper from JacksonConfig.
+ *
+ * Payloads are shaped like the ones the services return today: the course catalogue is a
+ * CoursesResponse holding the course entities with their instructor, a payment initiation
+ * is the PaymentResponse built by PaymentServiceImpl, and an instructor's submission list is
+ * a list of SubmissionDto. listSize is the number of courses and submissions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JsonSerializationBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int listSize;
+
+    private ObjectMapper mapper;
+    private CoursesResponse courses;
+    private PaymentResponse payment;
+    private List<SubmissionDto> submissions;
+
+    @Setup
+    public void setup() {
+        mapper = new JacksonConfig().objectMapper();
+        SplittableRandom random = new SplittableRandom(20250101L);
+
+        List<CoursesSchema> courseList = new ArrayList<>(listSize);
+        for (int i = 0; i < listSize; i++) {
+            UserSchema instructor = new UserSchema();
+            instructor.setId(UUID.randomUUID());
+            instructor.setFirstName("Instructor");
+            instructor.setLastName("Number " + (i % 20));
+            instructor.setEmail("instructor" + (i % 20) + "@bench.iga");
+            instructor.setPassword("$2a$10$abcdefghijklmnopqrstuv.abcdefghijklmnopqrstuvwxyz012");
+            instructor.setRole(Roles.INSTRUCTOR);
+
+            CoursesSchema course = new CoursesSchema();
+            course.setId(UUID.randomUUID());
+            course.setInstructor(instructor);
+            course.setCourseName("Course " + i + ": Foundations of Applied Data Analysis");
+            course.setCourseDescription(("A practical introduction to analysing and presenting data. ").repeat(8));
+            course.setDurationInHours(10 + random.nextInt(60));
+            course.setRating(random.nextInt(50) / 10.0);
+            course.setImageUrl("https://project.supabase.co/storage/v1/object/public/courses/images/"
+                + UUID.randomUUID() + "-cover.png");
+            course.setPrice(5_000 + random.nextInt(95_000));
+            course.setModules(new ArrayList<>());
+            courseList.add(course);
+        }
+        courses = new CoursesResponse("Courses retrieved successfully", true, courseList);
+
+        payment = PaymentResponse.builder()
+            .success(true)
+            .message("Payment initiated successfully")
+            .paymentLink("https://checkout.flutterwave.com/v3/hosted/pay/" + Long.toHexString(random.nextLong()))
+            .paymentReference("IGA-" + Long.toString(random.nextLong() & Long.MAX_VALUE, 36).toUpperCase())
+            .paymentId(UUID.randomUUID())
+            .amount(45_000.0)
+            .currency("RWF")
+            .paymentStatus(PaymentStatus.PENDING)
+            .courseId(UUID.randomUUID())
+            .courseName("Foundations of Applied Data Analysis")
+            .userId(UUID.randomUUID())
+            .customerName("Bench Student")
+            .customerEmail("student@bench.iga")
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        submissions = new ArrayList<>(listSize);
+        UUID assignmentId = UUID.randomUUID();
+        for (int i = 0; i < listSize; i++) {
+            boolean graded = random.nextBoolean();
+            boolean late = random.nextInt(10) == 0;
+            LocalDateTime submittedAt = LocalDateTime.now().minusMinutes(random.nextInt(10_000));
+            submissions.add(new SubmissionDto(
+                UUID.randomUUID(),
+                assignmentId,
+                "Week 3: Exploratory analysis",
+                UUID.randomUUID(),
+                "Student " + i,
+                "https://project.supabase.co/storage/v1/object/public/instructors/submissions/"
+                    + UUID.randomUUID() + "-report.pdf",
+                graded ? "Clear structure, check the outlier handling in section 2." : null,
+                submittedAt,
+                graded ? random.nextInt(101) : null,
+                graded ? submittedAt.plusHours(30) : null,
+                graded,
+                SubmissionStatus.STORED,
+                late,
+                late ? random.nextInt(600) : null
+            ));
+        }
+    }
+
+    @Benchmark
+    public byte[] coursesResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(courses);
+    }
+
+    @Benchmark
+    public byte[] paymentResponse() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(payment);
+    }
+
+    @Benchmark
+    public byte[] submissionDtos() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(submissions);
+    }
+}
@@ -0,0 +1,136 @@
+package com.work.IGA.benchmarks;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.work.IGA.Configuration.CustomUserDetailsServices;
+import com.work.IGA.Configuration.JwtAuthenticationFilter;
+import com.work.IGA.Configuration.JwtUtils;
+import com.work.IGA.Configuration.UserDetailsImpl;
+import com.work.IGA.Models.Users.Roles;
+import com.work.IGA.Models.Users.UserSchema;
+import com.work.IGA.Repositories.UserRepository;
+
+import jakarta.servlet.FilterChain;
+
+/**
+ * Token signing, validation and the authentication filter as they run on every request.
+ *
+ * The filter is run end to end on a mock request: header parsing, validation, reading the
+ * subject, loading the user and setting the security context. The user repository is an
+ * in-memory stub, so the database lookup the filter makes per request is not included.
+ * Console output of JwtUtils and the filter is discarded (see BenchmarkSupport).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmarkSecretThatIsLongEnoughForHs384SigningKeys-0123456789";
+    private static final String OTHER_SECRET = "anotherSecretThatIsLongEnoughForHs384SigningKeys-9876543210";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private PrintStream[] console;
+    private JwtUtils jwtUtils;
+    private JwtAuthenticationFilter filter;
+    private UserDetailsImpl user;
+    private String token;
+    private String foreignToken;
+
+    @Setup
+    public void setup() {
+        console = BenchmarkSupport.discardConsole();
+        jwtUtils = jwtUtils(SECRET);
+
+        UUID userId = UUID.randomUUID();
+        user = new UserDetailsImpl(userId, "student@bench.iga", "hash",
+            List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        token = jwtUtils.generateJwToken(user);
+        // Signed with a different secret, as after a secret rotation
+        foreignToken = jwtUtils(OTHER_SECRET).generateJwToken(user);
+
+        UserSchema student = new UserSchema();
+        student.setId(userId);
+        student.setEmail("student@bench.iga");
+        student.setPassword("hash");
+        student.setRole(Roles.STUDENT);
+        UserRepository users = BenchmarkSupport.repository(UserRepository.class,
+            Map.of("findByEmail", args -> Optional.of(student)));
+        filter = new JwtAuthenticationFilter(jwtUtils, new CustomUserDetailsServices(users));
+    }
+
+    @TearDown
+    public void tearDown() {
+        BenchmarkSupport.restoreConsole(console);
+    }
+
+    private static JwtUtils jwtUtils(String secret) {
+        JwtUtils utils = new JwtUtils();
+        BenchmarkSupport.setField(utils, "jwtSecret", secret);
+        BenchmarkSupport.setField(utils, "jwtExpirationMs", 86_400_000);
+        utils.init();
+        return utils;
+    }
+
+    @Benchmark
+    public String generateJwToken() {
+        return jwtUtils.generateJwToken(user);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public boolean validateJwtTokenWrongSignature() {
+        return jwtUtils.validateJwtToken(foreignToken);
+    }
+
+    @Benchmark
+    public Authentication filterAuthenticated() throws Exception {
+        return runFilter("Bearer " + token);
+    }
+
+    // Requests without a token still pass through the filter
+    @Benchmark
+    public Authentication filterAnonymous() throws Exception {
+        return runFilter(null);
+    }
+
+    private Authentication runFilter(String authorization) throws Exception {
+        // A fresh request each time: OncePerRequestFilter skips requests it has already seen
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/student/enrollments");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,52 @@
+package com.work.IGA.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.work.IGA.Utils.PaymentUtils.PaymentReferenceGenerator;
+
+/**
+ * Payment reference generation.
+ *
+ * Throughput is measured uncontended and with every thread sharing one generator, which
+ * is how it is used by concurrent payment initiations. Uniqueness and ordering under
+ * contention are checked by PaymentReferenceGeneratorTest, not here.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PaymentReferenceBenchmark {
+
+    private final PaymentReferenceGenerator generator = new PaymentReferenceGenerator(1);
+
+    @Benchmark
+    @Threads(1)
+    public String nextReference() {
+        return generator.nextReference();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String nextReferenceContended() {
+        return generator.nextReference();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long nextIdContended() {
+        return generator.nextId();
+    }
+}
@@ -0,0 +1,114 @@
+package com.work.IGA.benchmarks;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.work.IGA.Configuration.ServiceMetricsInterceptor;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cost of timing service methods.
+ *
+ * The same service call is made directly, through a class proxy with a pass-through
+ * interceptor (what any Spring proxy costs, e.g. @Transactional) and through a class proxy
+ * with ServiceMetricsInterceptor, recording into a registry with the SLO buckets configured
+ * in application.properties. workTokens is the CPU work inside the call
+ * (Blackhole.consumeCPU); the overhead target is timed - direct below 1% of the time of the
+ * cheapest service call, which the iga.service.calls timers themselves report.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ServiceMetricsBenchmark {
+
+    @Param({"0", "1000", "50000"})
+    public int workTokens;
+
+    public static class GradeService {
+        public double percentage(int workTokens, double earned, double max) {
+            Blackhole.consumeCPU(workTokens);
+            return max == 0 ? 0 : earned * 100 / max;
+        }
+    }
+
+    private GradeService direct;
+    private GradeService proxied;
+    private GradeService timed;
+    private double earned;
+
+    @Setup
+    public void setup() {
+        direct = new GradeService();
+        proxied = proxy((MethodInterceptor) invocation -> invocation.proceed());
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                    .serviceLevelObjectives(millis(5), millis(25), millis(100), millis(250), millis(1000), millis(5000))
+                    .build()
+                    .merge(config);
+            }
+        });
+        timed = proxy(new ServiceMetricsInterceptor(() -> registry));
+        earned = 42;
+    }
+
+    private static double millis(long millis) {
+        return Duration.ofMillis(millis).toNanos();
+    }
+
+    private GradeService proxy(MethodInterceptor interceptor) {
+        ProxyFactory factory = new ProxyFactory(new GradeService());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(interceptor);
+        return (GradeService) factory.getProxy();
+    }
+
+    @Benchmark
+    public double direct() {
+        return direct.percentage(workTokens, earned, 50);
+    }
+
+    @Benchmark
+    public double proxied() {
+        return proxied.percentage(workTokens, earned, 50);
+    }
+
+    @Benchmark
+    public double timed() {
+        return timed.percentage(workTokens, earned, 50);
+    }
+
+    // Request threads share the timers
+    @Benchmark
+    @Threads(8)
+    public double timedContended() {
+        return timed.percentage(workTokens, earned, 50);
+    }
+}
@@ -0,0 +1,146 @@
+package com.work.IGA.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.work.IGA.Services.SimilarityServices.LshIndex;
+import com.work.IGA.Services.SimilarityServices.MinHasher;
+
+/**
+ * Similarity engine over synthetic cohorts.
+ *
+ * Each cohort is random essays drawn from a shared vocabulary, plus plantedShare of the cohort
+ * rewritten as copies of another essay with editRate of the words replaced. The LSH report is
+ * compared with the all-pairs signature comparison it replaces, and recall of the planted copies is
+ * printed at teardown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SimilarityBenchmark {
+
+    @Param({"1000", "5000", "10000"})
+    public int cohortSize;
+
+    @Param({"600"})
+    public int wordsPerSubmission;
+
+    @Param({"0.02"})
+    public double plantedShare;
+
+    @Param({"0.1"})
+    public double editRate;
+
+    private static final int HASHES = 128;
+    private static final int BANDS = 32;
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private final MinHasher minHasher = new MinHasher(HASHES, 5, 20250101L);
+    private List<byte[]> documents;
+    private int[][] signatures;
+    private int plantedPairs;
+    private int lastFound;
+
+    @Setup(Level.Trial)
+    public void generateCohort() {
+        SplittableRandom random = new SplittableRandom(7);
+        String[] vocabulary = new String[8000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = "w" + Long.toString(random.nextLong(1L << 40), 36);
+        }
+
+        documents = new ArrayList<>(cohortSize);
+        for (int d = 0; d < cohortSize; d++) {
+            String[] words = new String[wordsPerSubmission];
+            for (int w = 0; w < words.length; w++) {
+                words[w] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+            documents.add(String.join(" ", words).getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Copy document i into slot cohortSize-1-i with some words replaced
+        plantedPairs = (int) (cohortSize * plantedShare);
+        for (int p = 0; p < plantedPairs; p++) {
+            String[] words = new String(documents.get(p), StandardCharsets.UTF_8).split(" ");
+            int edits = (int) (words.length * editRate);
+            for (int e = 0; e < edits; e++) {
+                words[random.nextInt(words.length)] = vocabulary[random.nextInt(vocabulary.length)];
+            }
+            documents.set(cohortSize - 1 - p, String.join(" ", words).getBytes(StandardCharsets.UTF_8));
+        }
+
+        signatures = new int[cohortSize][];
+        for (int d = 0; d < cohortSize; d++) {
+            signatures[d] = minHasher.signature(documents.get(d));
+        }
+    }
+
+    /** Fingerprinting cost for the whole cohort, what the ingestion workers pay per file */
+    @Benchmark
+    public void signCohort(Blackhole blackhole) {
+        for (byte[] document : documents) {
+            blackhole.consume(minHasher.signature(document));
+        }
+    }
+
+    /** What an instructor report costs: build the LSH index and verify candidate pairs */
+    @Benchmark
+    public List<LshIndex.SimilarPair<Integer>> lshReport() {
+        LshIndex<Integer> index = new LshIndex<>(BANDS, HASHES / BANDS, 500);
+        for (int d = 0; d < signatures.length; d++) {
+            index.add(d, signatures[d]);
+        }
+        List<LshIndex.SimilarPair<Integer>> pairs = index.similarPairs(MIN_SIMILARITY);
+        int found = 0;
+        for (LshIndex.SimilarPair<Integer> pair : pairs) {
+            if (pair.first() + pair.second() == cohortSize - 1 && pair.first() < plantedPairs) {
+                found++;
+            }
+        }
+        lastFound = found;
+        return pairs;
+    }
+
+    /** Baseline: compare every pair of signatures, the O(n^2) review LSH replaces */
+    @Benchmark
+    public int allPairsBaseline() {
+        int similar = 0;
+        for (int a = 0; a < signatures.length; a++) {
+            for (int b = a + 1; b < signatures.length; b++) {
+                if (MinHasher.estimateSimilarity(signatures[a], signatures[b]) >= MIN_SIMILARITY) {
+                    similar++;
+                }
+            }
+        }
+        return similar;
+    }
+
+    @TearDown(Level.Trial)
+    public void reportRecall() {
+        if (plantedPairs > 0 && lastFound > 0) {
+            System.out.printf("%ncohort=%d planted=%d found by LSH=%d recall=%.3f%n",
+                cohortSize, plantedPairs, lastFound, (double) lastFound / plantedPairs);
+        }
+    }
+}
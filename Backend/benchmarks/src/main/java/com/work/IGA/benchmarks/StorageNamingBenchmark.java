@@ -0,0 +1,92 @@
+package com.work.IGA.benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.work.IGA.Configuration.SupabaseStorageService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Storage object naming in SupabaseStorageService: sanitising the uploaded file name into
+ * an object key, and building the upload and public URLs for it. These are private, so
+ * they are called through method handles, which the JIT inlines like direct calls.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class StorageNamingBenchmark {
+
+    // A plain name and one with the spaces, brackets and accents that get replaced
+    @Param({"report.pdf", "Week 3 (Final) Résumé d'analyse – v2 copy.docx"})
+    public String originalFileName;
+
+    private static final MethodHandle GENERATED_FILE_NAME;
+    private static final MethodHandle BUILD_UPLOAD_URL;
+    private static final MethodHandle BUILD_PUBLIC_URL;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(SupabaseStorageService.class, MethodHandles.lookup());
+            MethodType twoStrings = MethodType.methodType(String.class, String.class, String.class);
+            GENERATED_FILE_NAME = lookup.findVirtual(SupabaseStorageService.class, "generatedFileName", twoStrings);
+            BUILD_UPLOAD_URL = lookup.findVirtual(SupabaseStorageService.class, "buildUploadUrl", twoStrings);
+            BUILD_PUBLIC_URL = lookup.findVirtual(SupabaseStorageService.class, "buildPublicUrl", twoStrings);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private SupabaseStorageService storage;
+    private String objectKey;
+
+    @Setup
+    public void setup() throws Throwable {
+        storage = new SupabaseStorageService(new SimpleMeterRegistry());
+        BenchmarkSupport.setField(storage, "supabaseUrl", "https://project.supabase.co");
+        BenchmarkSupport.setField(storage, "instructorsBucket", "instructors");
+        BenchmarkSupport.setField(storage, "coursesBucket", "courses");
+        objectKey = generatedFileName();
+    }
+
+    @Benchmark
+    public String generatedFileName() throws Throwable {
+        return (String) GENERATED_FILE_NAME.invokeExact(storage, originalFileName, "submissions");
+    }
+
+    @Benchmark
+    public String buildUploadUrl() throws Throwable {
+        return (String) BUILD_UPLOAD_URL.invokeExact(storage, "instructors", objectKey);
+    }
+
+    @Benchmark
+    public String buildPublicUrl() throws Throwable {
+        return (String) BUILD_PUBLIC_URL.invokeExact(storage, "instructors", objectKey);
+    }
+
+    // What an upload does: name the object, then build both URLs
+    @Benchmark
+    public String nameAndUrls() throws Throwable {
+        String key = (String) GENERATED_FILE_NAME.invokeExact(storage, originalFileName, "submissions");
+        String uploadUrl = (String) BUILD_UPLOAD_URL.invokeExact(storage, "instructors", key);
+        String publicUrl = (String) BUILD_PUBLIC_URL.invokeExact(storage, "instructors", key);
+        return uploadUrl.length() > publicUrl.length() ? uploadUrl : publicUrl;
+    }
+}
@@ -0,0 +1,212 @@
+package com.work.IGA.loadtest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Request rate (arrivals per second) as a function of time since the start of the run.
+ * Arrivals are drawn as a non-homogeneous Poisson process by thinning against the peak rate,
+ * so bursts look like real students rather than a fixed-interval metronome.
+ */
+public abstract class ArrivalCurve {
+
+    public abstract double rateAt(double seconds);
+
+    public abstract double durationSeconds();
+
+    public abstract double peakRate();
+
+    /**
+     * @return Offset in seconds of the next arrival after {@code now}, or a negative value once the curve has ended
+     */
+    public double nextArrival(double now, Random random) {
+        double peak = peakRate();
+        if (peak <= 0) {
+            return -1;
+        }
+        double t = now;
+        while (true) {
+            t += -Math.log(1.0 - random.nextDouble()) / peak;
+            if (t >= durationSeconds()) {
+                return -1;
+            }
+            if (random.nextDouble() * peak <= rateAt(t)) {
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Parses a curve spec such as {@code deadline(base=2,peak=150,duration=300,tau=45)}
+     */
+    public static ArrivalCurve parse(String spec) {
+        String trimmed = spec.trim();
+        int open = trimmed.indexOf('(');
+        if (open < 0 || !trimmed.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid arrival curve: " + spec);
+        }
+        String kind = trimmed.substring(0, open).trim().toLowerCase();
+        String body = trimmed.substring(open + 1, trimmed.length() - 1);
+
+        if (kind.equals("steps")) {
+            return new Steps(body);
+        }
+
+        Map<String, Double> params = new HashMap<>();
+        for (String part : body.split(",")) {
+            String[] kv = part.split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid arrival curve parameter: " + part);
+            }
+            params.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+        }
+
+        switch (kind) {
+            case "constant":
+                return new Ramp(param(params, "rate"), param(params, "rate"), param(params, "duration"));
+            case "ramp":
+                return new Ramp(param(params, "from"), param(params, "to"), param(params, "duration"));
+            case "deadline":
+                return new Deadline(param(params, "base"), param(params, "peak"),
+                    param(params, "duration"), param(params, "tau"));
+            default:
+                throw new IllegalArgumentException("Unknown arrival curve: " + kind);
+        }
+    }
+
+    private static double param(Map<String, Double> params, String name) {
+        Double value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Arrival curve is missing parameter: " + name);
+        }
+        return value;
+    }
+
+    /** Linear change from one rate to another; a constant curve is a flat ramp. */
+    static class Ramp extends ArrivalCurve {
+        private final double from;
+        private final double to;
+        private final double duration;
+
+        Ramp(double from, double to, double duration) {
+            this.from = from;
+            this.to = to;
+            this.duration = duration;
+        }
+
+        @Override
+        public double rateAt(double seconds) {
+            return from + (to - from) * Math.min(1.0, seconds / duration);
+        }
+
+        @Override
+        public double durationSeconds() {
+            return duration;
+        }
+
+        @Override
+        public double peakRate() {
+            return Math.max(from, to);
+        }
+
+        @Override
+        public String toString() {
+            return "ramp(from=" + from + ",to=" + to + ",duration=" + duration + ")";
+        }
+    }
+
+    /** Background rate that grows exponentially as the due date approaches at the end of the window. */
+    static class Deadline extends ArrivalCurve {
+        private final double base;
+        private final double peak;
+        private final double duration;
+        private final double tau;
+
+        Deadline(double base, double peak, double duration, double tau) {
+            this.base = base;
+            this.peak = peak;
+            this.duration = duration;
+            this.tau = tau;
+        }
+
+        @Override
+        public double rateAt(double seconds) {
+            return base + (peak - base) * Math.exp(-(duration - seconds) / tau);
+        }
+
+        @Override
+        public double durationSeconds() {
+            return duration;
+        }
+
+        @Override
+        public double peakRate() {
+            return Math.max(base, peak);
+        }
+
+        @Override
+        public String toString() {
+            return "deadline(base=" + base + ",peak=" + peak + ",duration=" + duration + ",tau=" + tau + ")";
+        }
+    }
+
+    /** Piecewise constant segments written as rate:seconds. */
+    static class Steps extends ArrivalCurve {
+        private final List<double[]> segments = new ArrayList<>();
+        private final double duration;
+        private final double peak;
+
+        Steps(String body) {
+            double total = 0;
+            double max = 0;
+            for (String part : body.split(",")) {
+                String[] rs = part.split(":");
+                if (rs.length != 2) {
+                    throw new IllegalArgumentException("Invalid step, expected rate:seconds: " + part);
+                }
+                double rate = Double.parseDouble(rs[0].trim());
+                double seconds = Double.parseDouble(rs[1].trim());
+                total += seconds;
+                max = Math.max(max, rate);
+                segments.add(new double[] { total, rate });
+            }
+            this.duration = total;
+            this.peak = max;
+        }
+
+        @Override
+        public double rateAt(double seconds) {
+            for (double[] segment : segments) {
+                if (seconds < segment[0]) {
+                    return segment[1];
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public double durationSeconds() {
+            return duration;
+        }
+
+        @Override
+        public double peakRate() {
+            return peak;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("steps(");
+            double start = 0;
+            for (int i = 0; i < segments.size(); i++) {
+                double[] segment = segments.get(i);
+                sb.append(i == 0 ? "" : ",").append(segment[1]).append(':').append(segment[0] - start);
+                start = segment[0];
+            }
+            return sb.append(')').toString();
+        }
+    }
+}
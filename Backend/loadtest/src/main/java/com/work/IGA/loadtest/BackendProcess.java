@@ -0,0 +1,157 @@
+package com.work.IGA.loadtest;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the packaged backend jar as a child process so it is measured exactly as deployed.
+ * Remote JMX is opened on localhost only, for sampling the Hikari pool.
+ */
+public class BackendProcess implements AutoCloseable {
+
+    private final Process process;
+    private final int port;
+    private final int jmxPort;
+    private final Path logFile;
+
+    private BackendProcess(Process process, int port, int jmxPort, Path logFile) {
+        this.process = process;
+        this.port = port;
+        this.jmxPort = jmxPort;
+        this.logFile = logFile;
+    }
+
+    public static BackendProcess start(LoadTestConfig config, String jdbcUrl, String stubUrl) throws IOException {
+        return start(config, jdbcUrl, stubUrl, stubUrl + "/v3", Map.of());
+    }
+
+    /**
+     * @param flutterwaveBaseUrl Base URL including the API version, e.g. a FlutterwaveSimulator's baseUrl() + "/v3"
+     * @param extraEnv Added after the defaults, so it can override any of them
+     */
+    public static BackendProcess start(LoadTestConfig config, String jdbcUrl, String storageUrl,
+                                       String flutterwaveBaseUrl, Map<String, String> extraEnv) throws IOException {
+        Path jar = Paths.get(config.get("loadtest.backend.jar")).toAbsolutePath().normalize();
+        if (!Files.isRegularFile(jar)) {
+            throw new IllegalStateException("Backend jar not found at " + jar + ", run ./mvnw -DskipTests package first");
+        }
+
+        int port = freePort();
+        int jmxPort = freePort();
+        Path workDir = Files.createTempDirectory("iga-loadtest-backend");
+        Path logFile = Paths.get("target", "backend-loadtest.log").toAbsolutePath();
+        Files.createDirectories(logFile.getParent());
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(Arrays.asList(config.getArgs("loadtest.backend.jvm-args")));
+        command.add("-Dcom.sun.management.jmxremote.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.rmi.port=" + jmxPort);
+        command.add("-Dcom.sun.management.jmxremote.authenticate=false");
+        command.add("-Dcom.sun.management.jmxremote.ssl=false");
+        command.add("-Dcom.sun.management.jmxremote.host=127.0.0.1");
+        command.add("-Djava.rmi.server.hostname=127.0.0.1");
+        command.add("-jar");
+        command.add(jar.toString());
+        command.add("--server.port=" + port);
+        command.add("--management.server.port=" + freePort());
+        command.add("--spring.datasource.hikari.register-mbeans=true");
+        // The default dev logging prints every statement and bind value, which would dominate the run
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.org.hibernate.SQL=WARN");
+        command.add("--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+        command.add("--logging.level.com.zaxxer.hikari=INFO");
+        command.add("--logging.level.com.work.IGA.Configuration=INFO");
+        command.addAll(Arrays.asList(config.getArgs("loadtest.backend.args")));
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+            .directory(workDir.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(logFile.toFile());
+
+        Map<String, String> env = builder.environment();
+        env.put("DB_URL", jdbcUrl);
+        env.put("DB_USERNAME", "postgres");
+        env.put("DB_PASSWORD", "postgres");
+        env.put("JWT_SECRET", config.get("loadtest.jwt-secret"));
+        env.put("JWT_EXPIRATION_MS", "86400000");
+        env.put("SUPABASE_URL", storageUrl);
+        env.put("SUPABASE_API_KEY", "loadtest");
+        env.put("SUPABASE_BUCKET_INSTRUCTORS", "instructors");
+        env.put("SUPABASE_BUCKET_COURSES", "courses");
+        env.put("FLW_PUBLIC_KEY", "FLWPUBK_TEST-loadtest");
+        env.put("FLW_SECRET_KEY", "FLWSECK_TEST-loadtest");
+        env.put("FLW_ENCRYPTION_KEY", "loadtest");
+        env.put("FLW_BASE_URL", flutterwaveBaseUrl);
+        env.put("PAYMENT_CALLBACK_URL", "http://127.0.0.1:" + port + "/api/payments/callback");
+        env.put("SUBMISSION_STAGING_DIR", workDir.resolve("submission-staging").toString());
+        env.putAll(extraEnv);
+
+        System.out.println("Starting backend on port " + port + ", log: " + logFile);
+        return new BackendProcess(builder.start(), port, jmxPort, logFile);
+    }
+
+    /**
+     * Blocks until the backend answers HTTP requests. Any status code counts, an
+     * unauthenticated 401/403 already proves the servlet container and security chain are up.
+     */
+    public void awaitReady(Duration timeout) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        HttpRequest probe = HttpRequest.newBuilder(URI.create(baseUrl() + "/api/v1/submissions/my-submissions/probe"))
+            .timeout(Duration.ofSeconds(5))
+            .GET()
+            .build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Backend exited with code " + process.exitValue() + ", see " + logFile);
+            }
+            try {
+                client.send(probe, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException ex) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("Backend did not start within " + timeout + ", see " + logFile);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    public int jmxPort() {
+        return jmxPort;
+    }
+
+    public Path logFile() {
+        return logFile;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.work.IGA.loadtest;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Reproduces the rush of submissions in the minutes before an assignment's dueDate.
+ *
+ * Starts an embedded Postgres, the Supabase/Flutterwave stub and the backend jar, seeds
+ * courses, assignments and enrollments, replays the configured arrival curve against
+ * /submit and /update and then waits for the ingestion backlog to drain. The report is
+ * printed and written as JSON to loadtest.report-file.
+ */
+public class DeadlineBurstLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        ArrivalCurve curve = ArrivalCurve.parse(config.get("loadtest.curve"));
+        System.out.println("Arrival curve: " + curve);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ExternalServicesStub stub = ExternalServicesStub.start(config);
+             BackendProcess backend = BackendProcess.start(config, postgres.getJdbcUrl("postgres", "postgres"), stub.baseUrl())) {
+
+            backend.awaitReady(Duration.ofSeconds(config.getLong("loadtest.backend.startup-timeout-seconds")));
+
+            LoadTestSeeder.SeedData seed = new LoadTestSeeder(postgres.getPostgresDatabase()).seed(config);
+            TokenFactory tokens = new TokenFactory(config.get("loadtest.jwt-secret"));
+            String adminToken = tokens.tokenFor(seed.admin(), "ADMIN");
+
+            try (PoolSampler sampler = new PoolSampler(backend.jmxPort(), backend.baseUrl(), adminToken)
+                    .start(config.getLong("loadtest.sample-interval-ms"))) {
+
+                SubmissionLoadDriver driver = new SubmissionLoadDriver(config, backend.baseUrl(), curve, seed, tokens);
+                double window = driver.run();
+                driver.close();
+
+                double drainSeconds = awaitDrain(sampler, config.getLong("loadtest.drain-timeout-seconds"));
+
+                Map<String, Object> report = new LinkedHashMap<>();
+                report.put("finishedAt", Instant.now().toString());
+                report.put("curve", curve.toString());
+                report.put("settings", config.asProperties());
+                report.put("windowSeconds", window);
+                List<Map<String, Object>> endpoints = new ArrayList<>();
+                for (EndpointStats stats : driver.stats()) {
+                    endpoints.add(stats.summary(window));
+                }
+                report.put("endpoints", endpoints);
+                report.put("pools", sampler.summary());
+                report.put("ingestionDrainSeconds", drainSeconds);
+                report.put("stubRequests", stub.requestCounts());
+
+                print(report, endpoints);
+                File reportFile = new File(config.get("loadtest.report-file"));
+                if (reportFile.getParentFile() != null) {
+                    reportFile.getParentFile().mkdirs();
+                }
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+                System.out.println("Report written to " + reportFile.getAbsolutePath());
+            }
+        }
+    }
+
+    /**
+     * @return Seconds until no submission is PENDING any more, or -1 if the timeout was hit
+     */
+    private static double awaitDrain(PoolSampler sampler, long timeoutSeconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(timeoutSeconds).toNanos();
+        while (System.nanoTime() < deadline) {
+            PoolSampler.Sample sample = sampler.latest();
+            if (sample != null && sample.pendingInDatabase() == 0 && sample.ingestionQueueDepth() == 0) {
+                return (System.nanoTime() - start) / 1e9;
+            }
+            Thread.sleep(250);
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report, List<Map<String, Object>> endpoints) {
+        System.out.println();
+        System.out.printf("%-48s %8s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "ok", "errors", "dropped", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map<String, Object> e : endpoints) {
+            long errors = (Long) e.get("rejected") + (Long) e.get("failed") + (Long) e.get("timedOut");
+            System.out.printf("%-48s %8d %8d %8d %8d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                e.get("endpoint"), e.get("requests"), e.get("succeeded"), errors, e.get("droppedByClient"),
+                e.get("throughputPerSecond"), e.get("p50Ms"), e.get("p90Ms"), e.get("p99Ms"), e.get("p999Ms"), e.get("maxMs"));
+        }
+
+        Map<String, Object> pools = (Map<String, Object>) report.get("pools");
+        System.out.println();
+        System.out.println("Connection pool: " + pools.get("connectionPool"));
+        System.out.println("Ingestion pool:  " + pools.get("ingestionPool"));
+        System.out.println("Ingestion drain: " + report.get("ingestionDrainSeconds") + " s");
+        System.out.println("Stub requests:   " + report.get("stubRequests"));
+    }
+}
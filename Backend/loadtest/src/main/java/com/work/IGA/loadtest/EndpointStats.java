@@ -0,0 +1,110 @@
+package com.work.IGA.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency samples and outcome counts for one endpoint.
+ * Latency is measured from the scheduled arrival time, not from when the request was
+ * actually sent, so a stalled client does not hide server-side queueing.
+ */
+public class EndpointStats {
+
+    private final String name;
+    private long[] latenciesMicros = new long[1024];
+    private int size;
+
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+
+    public EndpointStats(String name) {
+        this.name = name;
+    }
+
+    public String name() {
+        return name;
+    }
+
+    /**
+     * @param accepted True when the backend answered 2xx with success=true
+     */
+    public void record(long latencyMicros, int status, boolean accepted) {
+        synchronized (this) {
+            if (size == latenciesMicros.length) {
+                latenciesMicros = Arrays.copyOf(latenciesMicros, size * 2);
+            }
+            latenciesMicros[size++] = latencyMicros;
+        }
+        statusCodes.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (accepted) {
+            succeeded.increment();
+        } else if (status >= 200 && status < 500) {
+            // 2xx/4xx with success=false: the request was served but refused by the business rules
+            rejected.increment();
+        } else {
+            failed.increment();
+        }
+    }
+
+    public void recordTimeout(long latencyMicros) {
+        synchronized (this) {
+            if (size == latenciesMicros.length) {
+                latenciesMicros = Arrays.copyOf(latenciesMicros, size * 2);
+            }
+            latenciesMicros[size++] = latencyMicros;
+        }
+        timedOut.increment();
+    }
+
+    /** Arrival that was never sent because the client already had too many requests in flight */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    public Map<String, Object> summary(double windowSeconds) {
+        long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latenciesMicros, size);
+        }
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("endpoint", name);
+        summary.put("requests", sorted.length);
+        summary.put("succeeded", succeeded.sum());
+        summary.put("rejected", rejected.sum());
+        summary.put("failed", failed.sum());
+        summary.put("timedOut", timedOut.sum());
+        summary.put("droppedByClient", dropped.sum());
+        long errors = rejected.sum() + failed.sum() + timedOut.sum();
+        summary.put("errorRate", sorted.length == 0 ? 0.0 : (double) errors / sorted.length);
+        summary.put("throughputPerSecond", windowSeconds <= 0 ? 0.0 : succeeded.sum() / windowSeconds);
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p90Ms", percentileMillis(sorted, 0.90));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("p999Ms", percentileMillis(sorted, 0.999));
+        summary.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1000.0);
+
+        Map<String, Long> codes = new LinkedHashMap<>();
+        statusCodes.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> codes.put(String.valueOf(entry.getKey()), entry.getValue().sum()));
+        summary.put("statusCodes", codes);
+        return summary;
+    }
+
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,146 @@
+package com.work.IGA.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Local stand-in for Supabase storage and the Flutterwave API.
+ * Latency and error rate are configurable so storage slowness can be part of the scenario.
+ */
+public class ExternalServicesStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long storageLatencyMs;
+    private final long storageJitterMs;
+    private final double storageErrorRate;
+    private final long flutterwaveLatencyMs;
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+    private ExternalServicesStub(LoadTestConfig config) throws IOException {
+        this.storageLatencyMs = config.getLong("loadtest.stub.storage-latency-ms");
+        this.storageJitterMs = config.getLong("loadtest.stub.storage-latency-jitter-ms");
+        this.storageErrorRate = config.getDouble("loadtest.stub.storage-error-rate");
+        this.flutterwaveLatencyMs = config.getLong("loadtest.stub.flutterwave-latency-ms");
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        executor = Executors.newFixedThreadPool(64, runnable -> {
+            Thread thread = new Thread(runnable, "stub-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/storage/v1/object/", this::handleStorage);
+        server.createContext("/v3/", this::handleFlutterwave);
+    }
+
+    public static ExternalServicesStub start(LoadTestConfig config) throws IOException {
+        ExternalServicesStub stub = new ExternalServicesStub(config);
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public Map<String, Long> requestCounts() {
+        Map<String, Long> counts = new ConcurrentHashMap<>();
+        requestCounts.forEach((route, count) -> counts.put(route, count.sum()));
+        return counts;
+    }
+
+    private void handleStorage(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        count("storage " + method);
+        drain(exchange.getRequestBody());
+
+        if (method.equals("PUT") || method.equals("POST")) {
+            long jitter = storageJitterMs > 0 ? ThreadLocalRandom.current().nextLong(storageJitterMs + 1) : 0;
+            sleep(storageLatencyMs + jitter);
+            if (storageErrorRate > 0 && ThreadLocalRandom.current().nextDouble() < storageErrorRate) {
+                count("storage error");
+                respond(exchange, 500, "{\"error\":\"stubbed storage failure\"}");
+                return;
+            }
+            String key = exchange.getRequestURI().getPath().substring("/storage/v1/object/".length());
+            respond(exchange, 200, "{\"Key\":\"" + key + "\"}");
+        } else if (method.equals("DELETE")) {
+            respond(exchange, 200, "{\"message\":\"Successfully deleted\"}");
+        } else {
+            respond(exchange, 200, "stub file contents");
+        }
+    }
+
+    private void handleFlutterwave(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        count("flutterwave " + exchange.getRequestMethod() + " " + routeOf(path));
+        drain(exchange.getRequestBody());
+        sleep(flutterwaveLatencyMs);
+
+        if (path.startsWith("/v3/payments")) {
+            respond(exchange, 200, "{\"status\":\"success\",\"message\":\"Hosted Link\","
+                + "\"data\":{\"link\":\"" + baseUrl() + "/checkout/" + new Random().nextInt(1_000_000) + "\"}}");
+        } else if (path.startsWith("/v3/transactions")) {
+            respond(exchange, 200, "{\"status\":\"success\",\"message\":\"Transaction fetched successfully\","
+                + "\"data\":{\"id\":" + ThreadLocalRandom.current().nextInt(1, Integer.MAX_VALUE)
+                + ",\"status\":\"successful\",\"currency\":\"RWF\"}}");
+        } else {
+            respond(exchange, 404, "{\"status\":\"error\",\"message\":\"Not stubbed\"}");
+        }
+    }
+
+    private static String routeOf(String path) {
+        String[] parts = path.split("/");
+        return parts.length > 2 ? "/v3/" + parts[2] : path;
+    }
+
+    private void count(String route) {
+        requestCounts.computeIfAbsent(route, key -> new LongAdder()).increment();
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        try (body) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,545 @@
+package com.work.IGA.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Embeddable stand-in for the Flutterwave v3 API that also plays the customer and the
+ * webhook sender, so payment flows can be driven end to end without the sandbox.
+ *
+ * Every charge created through /payments gets an outcome drawn from the configured mix.
+ * After a simulated checkout the charge gets one or two gateway transactions and
+ * webhooks are sent to the backend with configurable delay, duplication and reordering.
+ * /transactions/{id}/verify and verify_by_reference then report the same transactions,
+ * and /transactions/{id}/refund refunds them. Each outcome implies the payment status
+ * the backend must end up with, which the load test compares with the database.
+ */
+public class FlutterwaveSimulator implements AutoCloseable {
+
+    public enum Outcome {
+        SUCCESSFUL("COMPLETED"),
+        FAILED("FAILED"),
+        CANCELLED("CANCELLED"),
+        // Gateway reports a successful charge for less than the course price
+        AMOUNT_MISMATCH("FAILED"),
+        // A failed attempt followed by a successful one on the same tx_ref
+        RETRIED("COMPLETED"),
+        // The customer never finishes checkout: no transaction, no webhook
+        ABANDONED("PENDING");
+
+        private final String expectedStatus;
+
+        Outcome(String expectedStatus) {
+            this.expectedStatus = expectedStatus;
+        }
+    }
+
+    public record Transaction(long id, String status, double reportedAmount) {
+    }
+
+    public static final class Charge {
+        private final String txRef;
+        private final double amount;
+        private final String currency;
+        private final String customerEmail;
+        private final Outcome outcome;
+        private final List<Transaction> transactions = new ArrayList<>();
+        private volatile boolean refunded;
+
+        Charge(String txRef, double amount, String currency, String customerEmail, Outcome outcome) {
+            this.txRef = txRef;
+            this.amount = amount;
+            this.currency = currency;
+            this.customerEmail = customerEmail;
+            this.outcome = outcome;
+        }
+
+        public String txRef() {
+            return txRef;
+        }
+
+        public String customerEmail() {
+            return customerEmail;
+        }
+
+        public Outcome outcome() {
+            return outcome;
+        }
+
+        public boolean refunded() {
+            return refunded;
+        }
+
+        public String expectedStatus() {
+            return refunded ? "REFUNDED" : outcome.expectedStatus;
+        }
+
+        public synchronized List<Transaction> transactions() {
+            return List.copyOf(transactions);
+        }
+
+        synchronized void add(Transaction transaction) {
+            transactions.add(transaction);
+        }
+
+        /** The transaction the gateway would report for this tx_ref, i.e. the latest attempt */
+        synchronized Transaction latest() {
+            return transactions.isEmpty() ? null : transactions.get(transactions.size() - 1);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService serverThreads;
+    private final ScheduledExecutorService scheduler;
+    private final HttpClient webhookClient;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Random outcomeRandom;
+
+    private final LatencyDistribution initiateLatency;
+    private final LatencyDistribution verifyLatency;
+    private final LatencyDistribution refundLatency;
+    private final LatencyDistribution checkoutDelay;
+    private final LatencyDistribution webhookDelay;
+    private final double errorRate;
+    private final double throttleRate;
+    private final double duplicateRate;
+    private final int maxDuplicates;
+    private final double reorderRate;
+    private final int webhookRetries;
+    private final String webhookHash;
+    private final Outcome[] outcomes = Outcome.values();
+    private final double[] outcomeWeights = new double[outcomes.length];
+
+    private final Map<String, Charge> chargesByRef = new ConcurrentHashMap<>();
+    private final Map<Long, Charge> chargesByTransaction = new ConcurrentHashMap<>();
+    private final AtomicLong transactionIds = new AtomicLong(1_000_000);
+    private final AtomicInteger pendingWebhooks = new AtomicInteger();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final EndpointStats webhookStats = new EndpointStats("POST /api/public/payments/webhook");
+
+    private volatile String webhookUrl;
+    private volatile BiConsumer<Charge, Transaction> checkoutListener = (charge, transaction) -> { };
+
+    private FlutterwaveSimulator(LoadTestConfig config) throws IOException {
+        this.outcomeRandom = new Random(config.getLong("loadtest.random-seed"));
+        this.initiateLatency = LatencyDistribution.parse(config.get("loadtest.flutterwave.initiate-latency"));
+        this.verifyLatency = LatencyDistribution.parse(config.get("loadtest.flutterwave.verify-latency"));
+        this.refundLatency = LatencyDistribution.parse(config.get("loadtest.flutterwave.refund-latency"));
+        this.checkoutDelay = LatencyDistribution.parse(config.get("loadtest.flutterwave.checkout-delay"));
+        this.webhookDelay = LatencyDistribution.parse(config.get("loadtest.flutterwave.webhook-delay"));
+        this.errorRate = config.getDouble("loadtest.flutterwave.error-rate");
+        this.throttleRate = config.getDouble("loadtest.flutterwave.throttle-rate");
+        this.duplicateRate = config.getDouble("loadtest.flutterwave.webhook-duplicate-rate");
+        this.maxDuplicates = config.getInt("loadtest.flutterwave.webhook-max-duplicates");
+        this.reorderRate = config.getDouble("loadtest.flutterwave.webhook-reorder-rate");
+        this.webhookRetries = config.getInt("loadtest.flutterwave.webhook-retries");
+        this.webhookHash = config.get("loadtest.flutterwave.webhook-hash");
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomeWeights[i] = config.getDouble("loadtest.flutterwave.outcome." + outcomes[i].name().toLowerCase().replace('_', '-'));
+        }
+
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        serverThreads = Executors.newFixedThreadPool(config.getInt("loadtest.flutterwave.server-threads"),
+            daemonFactory("flutterwave-sim-http"));
+        server.setExecutor(serverThreads);
+        server.createContext("/v3/payments", this::handleInitiate);
+        server.createContext("/v3/transactions/", this::handleTransactions);
+
+        scheduler = Executors.newScheduledThreadPool(4, daemonFactory("flutterwave-sim-scheduler"));
+        webhookClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(8, daemonFactory("flutterwave-sim-webhook")))
+            .build();
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    public static FlutterwaveSimulator start(LoadTestConfig config) throws IOException {
+        FlutterwaveSimulator simulator = new FlutterwaveSimulator(config);
+        simulator.server.start();
+        return simulator;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /** Where webhooks are delivered; checkouts that complete before this is set send none */
+    public void setWebhookUrl(String webhookUrl) {
+        this.webhookUrl = webhookUrl;
+    }
+
+    /** Called with the final transaction whenever a customer finishes checkout */
+    public void onCheckoutCompleted(BiConsumer<Charge, Transaction> listener) {
+        this.checkoutListener = listener;
+    }
+
+    public Collection<Charge> charges() {
+        return chargesByRef.values();
+    }
+
+    public Charge charge(String txRef) {
+        return chargesByRef.get(txRef);
+    }
+
+    public int pendingWebhooks() {
+        return pendingWebhooks.get();
+    }
+
+    public EndpointStats webhookStats() {
+        return webhookStats;
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> snapshot = new java.util.TreeMap<>();
+        counters.forEach((name, count) -> snapshot.put(name, count.sum()));
+        return snapshot;
+    }
+
+    public Map<String, Long> outcomeCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Outcome outcome : outcomes) {
+            counts.put(outcome.name(), chargesByRef.values().stream().filter(c -> c.outcome == outcome).count());
+        }
+        return counts;
+    }
+
+    // ---- Gateway API ----
+
+    private void handleInitiate(HttpExchange exchange) throws IOException {
+        count("api POST /payments");
+        byte[] body = readAll(exchange.getRequestBody());
+        sleep(initiateLatency.sampleMillis(ThreadLocalRandom.current()));
+        if (injectFailure(exchange, "/payments")) {
+            return;
+        }
+
+        JsonNode payload = mapper.readTree(body);
+        String txRef = payload.path("tx_ref").asText(null);
+        if (txRef == null || txRef.isBlank()) {
+            respond(exchange, 400, "{\"status\":\"error\",\"message\":\"tx_ref is required\",\"data\":null}");
+            return;
+        }
+        Charge charge = new Charge(txRef, payload.path("amount").asDouble(), payload.path("currency").asText("RWF"),
+            payload.path("customer").path("email").asText(null), nextOutcome());
+        if (chargesByRef.putIfAbsent(txRef, charge) != null) {
+            count("duplicate tx_ref");
+            respond(exchange, 400, "{\"status\":\"error\",\"message\":\"Duplicate tx_ref\",\"data\":null}");
+            return;
+        }
+
+        respond(exchange, 200, "{\"status\":\"success\",\"message\":\"Hosted Link\","
+            + "\"data\":{\"link\":\"" + baseUrl() + "/checkout/" + txRef + "\"}}");
+        scheduler.schedule(() -> completeCheckout(charge),
+            checkoutDelay.sampleMillis(ThreadLocalRandom.current()), TimeUnit.MILLISECONDS);
+    }
+
+    private void handleTransactions(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        drain(exchange.getRequestBody());
+
+        if (path.equals("/v3/transactions/verify_by_reference")) {
+            count("api GET /transactions/verify_by_reference");
+            sleep(verifyLatency.sampleMillis(ThreadLocalRandom.current()));
+            if (injectFailure(exchange, "/transactions/verify_by_reference")) {
+                return;
+            }
+            Charge charge = chargesByRef.get(queryParam(exchange.getRequestURI(), "tx_ref"));
+            Transaction latest = charge == null ? null : charge.latest();
+            if (latest == null) {
+                respond(exchange, 400, "{\"status\":\"error\",\"message\":\"No transaction was found for this reference\",\"data\":null}");
+                return;
+            }
+            respond(exchange, 200, transactionBody("Transaction fetched successfully", charge, latest));
+            return;
+        }
+
+        String[] parts = path.split("/");
+        // /v3/transactions/{id}/verify or /v3/transactions/{id}/refund
+        if (parts.length != 5) {
+            respond(exchange, 404, "{\"status\":\"error\",\"message\":\"Not simulated\",\"data\":null}");
+            return;
+        }
+        String operation = parts[4];
+        count("api " + exchange.getRequestMethod() + " /transactions/{id}/" + operation);
+        LatencyDistribution latency = operation.equals("refund") ? refundLatency : verifyLatency;
+        sleep(latency.sampleMillis(ThreadLocalRandom.current()));
+        if (injectFailure(exchange, "/transactions/{id}/" + operation)) {
+            return;
+        }
+
+        long transactionId;
+        try {
+            transactionId = Long.parseLong(parts[3]);
+        } catch (NumberFormatException ex) {
+            transactionId = -1;
+        }
+        Charge charge = chargesByTransaction.get(transactionId);
+        Transaction transaction = charge == null ? null : find(charge, transactionId);
+        if (transaction == null) {
+            respond(exchange, 400, "{\"status\":\"error\",\"message\":\"No transaction was found for this id\",\"data\":null}");
+            return;
+        }
+
+        if (operation.equals("verify")) {
+            respond(exchange, 200, transactionBody("Transaction fetched successfully", charge, transaction));
+        } else if (operation.equals("refund")) {
+            if (!"successful".equals(transaction.status()) || charge.refunded) {
+                respond(exchange, 400, "{\"status\":\"error\",\"message\":\"Transaction cannot be refunded\",\"data\":null}");
+                return;
+            }
+            charge.refunded = true;
+            count("refunded");
+            respond(exchange, 200, "{\"status\":\"success\",\"message\":\"Transaction refund initiated\","
+                + "\"data\":{\"id\":" + transactionIds.incrementAndGet() + ",\"tx_ref\":\"" + charge.txRef
+                + "\",\"amount_refunded\":" + transaction.reportedAmount() + ",\"status\":\"pending\"}}");
+        } else {
+            respond(exchange, 404, "{\"status\":\"error\",\"message\":\"Not simulated\",\"data\":null}");
+        }
+    }
+
+    private String transactionBody(String message, Charge charge, Transaction transaction) {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("status", "success");
+        root.put("message", message);
+        ObjectNode data = root.putObject("data");
+        data.put("id", transaction.id());
+        data.put("tx_ref", charge.txRef);
+        data.put("flw_ref", "FLW-SIM-" + transaction.id());
+        data.put("amount", transaction.reportedAmount());
+        data.put("charged_amount", transaction.reportedAmount());
+        data.put("currency", charge.currency);
+        data.put("status", transaction.status());
+        data.putObject("customer").put("email", charge.customerEmail);
+        return root.toString();
+    }
+
+    private static Transaction find(Charge charge, long transactionId) {
+        for (Transaction transaction : charge.transactions()) {
+            if (transaction.id() == transactionId) {
+                return transaction;
+            }
+        }
+        return null;
+    }
+
+    /** Answers with a 5xx or 429 for the configured share of calls */
+    private boolean injectFailure(HttpExchange exchange, String route) throws IOException {
+        double roll = ThreadLocalRandom.current().nextDouble();
+        if (roll < errorRate) {
+            count("injected 503 " + route);
+            respond(exchange, 503, "{\"status\":\"error\",\"message\":\"Service temporarily unavailable\",\"data\":null}");
+            return true;
+        }
+        if (roll < errorRate + throttleRate) {
+            count("injected 429 " + route);
+            respond(exchange, 429, "{\"status\":\"error\",\"message\":\"Too many requests\",\"data\":null}");
+            return true;
+        }
+        return false;
+    }
+
+    private Outcome nextOutcome() {
+        double total = 0;
+        for (double weight : outcomeWeights) {
+            total += weight;
+        }
+        double roll;
+        synchronized (outcomeRandom) {
+            roll = outcomeRandom.nextDouble() * total;
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            roll -= outcomeWeights[i];
+            if (roll < 0) {
+                return outcomes[i];
+            }
+        }
+        return Outcome.SUCCESSFUL;
+    }
+
+    // ---- Customer and webhook sender ----
+
+    private void completeCheckout(Charge charge) {
+        List<Transaction> attempts = new ArrayList<>();
+        switch (charge.outcome) {
+            case SUCCESSFUL -> attempts.add(newTransaction(charge, "successful", charge.amount));
+            case FAILED -> attempts.add(newTransaction(charge, "failed", charge.amount));
+            case CANCELLED -> attempts.add(newTransaction(charge, "cancelled", charge.amount));
+            case AMOUNT_MISMATCH -> attempts.add(newTransaction(charge, "successful", Math.floor(charge.amount / 2)));
+            case RETRIED -> {
+                attempts.add(newTransaction(charge, "failed", charge.amount));
+                attempts.add(newTransaction(charge, "successful", charge.amount));
+            }
+            case ABANDONED -> {
+                count("checkout abandoned");
+                return;
+            }
+        }
+        count("checkout " + charge.outcome.name().toLowerCase());
+
+        // Newest first: the stale failed attempt arrives after the success it was superseded by
+        if (attempts.size() > 1 && ThreadLocalRandom.current().nextDouble() < reorderRate) {
+            java.util.Collections.reverse(attempts);
+            count("webhooks reordered");
+        }
+        long offset = 0;
+        for (Transaction transaction : attempts) {
+            offset += webhookDelay.sampleMillis(ThreadLocalRandom.current());
+            int copies = 1;
+            if (ThreadLocalRandom.current().nextDouble() < duplicateRate) {
+                copies += 1 + ThreadLocalRandom.current().nextInt(Math.max(maxDuplicates, 1));
+                count("webhooks duplicated");
+            }
+            for (int copy = 0; copy < copies; copy++) {
+                long delay = offset + (copy == 0 ? 0 : webhookDelay.sampleMillis(ThreadLocalRandom.current()));
+                pendingWebhooks.incrementAndGet();
+                scheduler.schedule(() -> deliverWebhook(charge, transaction, 0), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+        checkoutListener.accept(charge, charge.latest());
+    }
+
+    private Transaction newTransaction(Charge charge, String status, double reportedAmount) {
+        Transaction transaction = new Transaction(transactionIds.incrementAndGet(), status, reportedAmount);
+        charge.add(transaction);
+        chargesByTransaction.put(transaction.id(), charge);
+        return transaction;
+    }
+
+    private void deliverWebhook(Charge charge, Transaction transaction, int attempt) {
+        String target = webhookUrl;
+        if (target == null) {
+            count("webhooks skipped, no target");
+            pendingWebhooks.decrementAndGet();
+            return;
+        }
+        ObjectNode root = mapper.createObjectNode();
+        root.put("event", "charge.completed");
+        ObjectNode data = root.putObject("data");
+        data.put("id", transaction.id());
+        data.put("tx_ref", charge.txRef);
+        data.put("amount", transaction.reportedAmount());
+        data.put("currency", charge.currency);
+        data.put("status", transaction.status());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(target))
+            .header("Content-Type", "application/json")
+            .header("verif-hash", webhookHash)
+            .timeout(Duration.ofSeconds(30))
+            .POST(HttpRequest.BodyPublishers.ofString(root.toString()))
+            .build();
+        long sentAt = System.nanoTime();
+        webhookClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long latencyMicros = (System.nanoTime() - sentAt) / 1000;
+            int status = error == null ? response.statusCode() : 0;
+            webhookStats.record(latencyMicros, status, status / 100 == 2);
+            count("webhooks sent");
+            if (status / 100 != 2 && attempt < webhookRetries) {
+                // Flutterwave retries failed deliveries; back off a little each time
+                count("webhooks redelivered");
+                scheduler.schedule(() -> deliverWebhook(charge, transaction, attempt + 1),
+                    1000L << attempt, TimeUnit.MILLISECONDS);
+                return;
+            }
+            pendingWebhooks.decrementAndGet();
+        });
+    }
+
+    // ---- Plumbing ----
+
+    private void count(String name) {
+        counters.computeIfAbsent(name, key -> new LongAdder()).increment();
+    }
+
+    private static String queryParam(URI uri, String name) {
+        String query = uri.getRawQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static byte[] readAll(InputStream body) throws IOException {
+        try (body) {
+            return body.readAllBytes();
+        }
+    }
+
+    private static void drain(InputStream body) throws IOException {
+        try (body) {
+            body.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+        serverThreads.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.work.IGA.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Simulated gateway response time in milliseconds. Parsed from specs such as
+ * {@code lognormal(median=180,sigma=0.5)} so the shape of the tail is part of the scenario:
+ * <pre>
+ *   fixed(ms=200)
+ *   uniform(min=50,max=400)
+ *   lognormal(median=180,sigma=0.5)                  long right tail, like real gateways
+ *   spiky(base=150,jitter=50,spike=4000,share=0.02)  mostly fast with rare stalls
+ * </pre>
+ */
+public abstract class LatencyDistribution {
+
+    public abstract long sampleMillis(Random random);
+
+    public static LatencyDistribution parse(String spec) {
+        String trimmed = spec.trim();
+        int open = trimmed.indexOf('(');
+        if (open < 0 || !trimmed.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid latency distribution: " + spec);
+        }
+        String kind = trimmed.substring(0, open).trim().toLowerCase();
+        Map<String, Double> params = new HashMap<>();
+        String body = trimmed.substring(open + 1, trimmed.length() - 1);
+        if (!body.isBlank()) {
+            for (String part : body.split(",")) {
+                String[] kv = part.split("=");
+                if (kv.length != 2) {
+                    throw new IllegalArgumentException("Invalid latency parameter: " + part);
+                }
+                params.put(kv[0].trim(), Double.parseDouble(kv[1].trim()));
+            }
+        }
+
+        switch (kind) {
+            case "fixed":
+                return new Fixed(param(params, "ms"));
+            case "uniform":
+                return new Uniform(param(params, "min"), param(params, "max"));
+            case "lognormal":
+                return new LogNormal(param(params, "median"), param(params, "sigma"));
+            case "spiky":
+                return new Spiky(param(params, "base"), param(params, "jitter"), param(params, "spike"), param(params, "share"));
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution: " + kind);
+        }
+    }
+
+    private static double param(Map<String, Double> params, String name) {
+        Double value = params.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Latency distribution is missing parameter: " + name);
+        }
+        return value;
+    }
+
+    static class Fixed extends LatencyDistribution {
+        private final double ms;
+
+        Fixed(double ms) {
+            this.ms = ms;
+        }
+
+        @Override
+        public long sampleMillis(Random random) {
+            return Math.round(ms);
+        }
+
+        @Override
+        public String toString() {
+            return "fixed(ms=" + ms + ")";
+        }
+    }
+
+    static class Uniform extends LatencyDistribution {
+        private final double min;
+        private final double max;
+
+        Uniform(double min, double max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public long sampleMillis(Random random) {
+            return Math.round(min + random.nextDouble() * (max - min));
+        }
+
+        @Override
+        public String toString() {
+            return "uniform(min=" + min + ",max=" + max + ")";
+        }
+    }
+
+    static class LogNormal extends LatencyDistribution {
+        private final double median;
+        private final double sigma;
+
+        LogNormal(double median, double sigma) {
+            this.median = median;
+            this.sigma = sigma;
+        }
+
+        @Override
+        public long sampleMillis(Random random) {
+            return Math.round(median * Math.exp(sigma * random.nextGaussian()));
+        }
+
+        @Override
+        public String toString() {
+            return "lognormal(median=" + median + ",sigma=" + sigma + ")";
+        }
+    }
+
+    /** Uniform jitter around a base latency, with a share of calls stalling for the spike duration. */
+    static class Spiky extends LatencyDistribution {
+        private final double base;
+        private final double jitter;
+        private final double spike;
+        private final double share;
+
+        Spiky(double base, double jitter, double spike, double share) {
+            this.base = base;
+            this.jitter = jitter;
+            this.spike = spike;
+            this.share = share;
+        }
+
+        @Override
+        public long sampleMillis(Random random) {
+            if (random.nextDouble() < share) {
+                return Math.round(spike);
+            }
+            return Math.round(base + random.nextDouble() * jitter);
+        }
+
+        @Override
+        public String toString() {
+            return "spiky(base=" + base + ",jitter=" + jitter + ",spike=" + spike + ",share=" + share + ")";
+        }
+    }
+}
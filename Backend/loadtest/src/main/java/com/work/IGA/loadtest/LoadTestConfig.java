@@ -0,0 +1,73 @@
+package com.work.IGA.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Settings for a load-test run. Defaults come from loadtest.properties on the
+ * classpath and any key can be overridden with a system property.
+ */
+public class LoadTestConfig {
+
+    private final Properties properties = new Properties();
+
+    private LoadTestConfig() {
+    }
+
+    public static LoadTestConfig load() throws IOException {
+        LoadTestConfig config = new LoadTestConfig();
+        try (InputStream in = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (in != null) {
+                config.properties.load(in);
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("loadtest.")) {
+                config.properties.setProperty(key, System.getProperty(key));
+            }
+        }
+        return config;
+    }
+
+    /**
+     * A copy with one setting replaced, for runs that vary a setting between phases
+     */
+    public LoadTestConfig with(String key, String value) {
+        LoadTestConfig copy = new LoadTestConfig();
+        copy.properties.putAll(properties);
+        copy.properties.setProperty(key, value);
+        return copy;
+    }
+
+    public String get(String key) {
+        String value = properties.getProperty(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing load-test setting: " + key);
+        }
+        return value.trim();
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(get(key));
+    }
+
+    public long getLong(String key) {
+        return Long.parseLong(get(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(get(key));
+    }
+
+    public String[] getArgs(String key) {
+        String value = properties.getProperty(key, "").trim();
+        return value.isEmpty() ? new String[0] : value.split("\\s+");
+    }
+
+    public Properties asProperties() {
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+}
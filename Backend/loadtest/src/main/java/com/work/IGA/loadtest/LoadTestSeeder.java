@@ -0,0 +1,221 @@
+package com.work.IGA.loadtest;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+/**
+ * Seeds users, courses, modules, assignments and enrollments straight into the schema
+ * that the backend created on startup. Every student is enrolled in every course, so each
+ * student has one submission slot per assignment. The payment catalog is seeded without
+ * enrollments instead, since enrolling is what a completed payment has to produce.
+ */
+public class LoadTestSeeder {
+
+    // Never checked: tokens are minted directly, the column just has to be non-empty
+    private static final String UNUSED_PASSWORD_HASH = "loadtest-password-not-used";
+    private static final int BATCH_SIZE = 500;
+
+    private final DataSource dataSource;
+
+    public LoadTestSeeder(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public record SeededUser(UUID id, String email) {
+    }
+
+    public record SeedData(SeededUser admin, List<SeededUser> students, List<UUID> assignments) {
+    }
+
+    public record SeededCourse(UUID id, double price) {
+    }
+
+    public record PaymentSeedData(SeededUser admin, List<SeededUser> students, List<SeededCourse> courses) {
+    }
+
+    public SeedData seed(LoadTestConfig config) throws SQLException {
+        int courses = config.getInt("loadtest.seed.courses");
+        int assignmentsPerCourse = config.getInt("loadtest.seed.assignments-per-course");
+        int studentCount = config.getInt("loadtest.seed.students");
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            SeededUser admin = insertUsers(connection, "ADMIN", "admin", 1).get(0);
+            SeededUser instructor = insertUsers(connection, "INSTRUCTOR", "instructor", 1).get(0);
+            List<SeededUser> students = insertUsers(connection, "STUDENT", "student", studentCount);
+
+            List<UUID> courseIds = new ArrayList<>();
+            List<UUID> assignmentIds = new ArrayList<>();
+            try (PreparedStatement course = connection.prepareStatement(
+                    "INSERT INTO courses_schema (id, instructor_id, course_name, course_description, duration_in_hours, rating, price) "
+                    + "VALUES (?, ?, ?, ?, ?, 0, 0)");
+                 PreparedStatement module = connection.prepareStatement(
+                    "INSERT INTO modules_schema (id, course_id, title, position, description) VALUES (?, ?, ?, 1, ?)");
+                 PreparedStatement assignment = connection.prepareStatement(
+                    "INSERT INTO assignments_schema (id, module_id, title, description, assignment_type, max_points, due_date) "
+                    + "VALUES (?, ?, ?, ?, 'SUMMATIVE', 100, ?)")) {
+
+                for (int c = 0; c < courses; c++) {
+                    UUID courseId = UUID.randomUUID();
+                    course.setObject(1, courseId);
+                    course.setObject(2, instructor.id());
+                    course.setString(3, "Load test course " + c);
+                    course.setString(4, "Seeded for the deadline burst load test");
+                    course.setInt(5, 10);
+                    course.executeUpdate();
+                    courseIds.add(courseId);
+
+                    UUID moduleId = UUID.randomUUID();
+                    module.setObject(1, moduleId);
+                    module.setObject(2, courseId);
+                    module.setString(3, "Module " + c);
+                    module.setString(4, "Seeded module");
+                    module.executeUpdate();
+
+                    for (int a = 0; a < assignmentsPerCourse; a++) {
+                        UUID assignmentId = UUID.randomUUID();
+                        assignment.setObject(1, assignmentId);
+                        assignment.setObject(2, moduleId);
+                        assignment.setString(3, "Assignment " + c + "." + a);
+                        assignment.setString(4, "Due today");
+                        // Due today so that both /submit and /update are still accepted
+                        assignment.setDate(5, Date.valueOf(LocalDate.now()));
+                        assignment.executeUpdate();
+                        assignmentIds.add(assignmentId);
+                    }
+                }
+            }
+
+            try (PreparedStatement enrollment = connection.prepareStatement(
+                    "INSERT INTO enrollments (id, course_id, student_id, enrollment_date, progress) VALUES (?, ?, ?, ?, 'NOT_STARTED')")) {
+                Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+                int pending = 0;
+                for (SeededUser student : students) {
+                    for (UUID courseId : courseIds) {
+                        enrollment.setObject(1, UUID.randomUUID());
+                        enrollment.setObject(2, courseId);
+                        enrollment.setObject(3, student.id());
+                        enrollment.setTimestamp(4, now);
+                        enrollment.addBatch();
+                        if (++pending % BATCH_SIZE == 0) {
+                            enrollment.executeBatch();
+                        }
+                    }
+                }
+                enrollment.executeBatch();
+            }
+
+            connection.commit();
+            System.out.printf("Seeded %d students, %d courses, %d assignments%n",
+                students.size(), courseIds.size(), assignmentIds.size());
+            return new SeedData(admin, students, assignmentIds);
+        }
+    }
+
+    public PaymentSeedData seedPaymentCatalog(LoadTestConfig config) throws SQLException {
+        int courses = config.getInt("loadtest.payment.seed.courses");
+        int studentCount = config.getInt("loadtest.payment.seed.students");
+        double basePrice = config.getDouble("loadtest.payment.seed.base-price");
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            SeededUser admin = insertUsers(connection, "ADMIN", "admin", 1).get(0);
+            SeededUser instructor = insertUsers(connection, "INSTRUCTOR", "instructor", 1).get(0);
+            List<SeededUser> students = insertUsers(connection, "STUDENT", "student", studentCount);
+
+            List<SeededCourse> catalog = new ArrayList<>();
+            try (PreparedStatement course = connection.prepareStatement(
+                    "INSERT INTO courses_schema (id, instructor_id, course_name, course_description, duration_in_hours, rating, price) "
+                    + "VALUES (?, ?, ?, ?, ?, 0, ?)")) {
+                for (int c = 0; c < courses; c++) {
+                    UUID courseId = UUID.randomUUID();
+                    // Distinct prices so a payment matched against the wrong course shows up as a mismatch
+                    double price = basePrice * (c + 1);
+                    course.setObject(1, courseId);
+                    course.setObject(2, instructor.id());
+                    course.setString(3, "Paid load test course " + c);
+                    course.setString(4, "Seeded for the payment load test");
+                    course.setInt(5, 10);
+                    course.setDouble(6, price);
+                    course.executeUpdate();
+                    catalog.add(new SeededCourse(courseId, price));
+                }
+            }
+
+            connection.commit();
+            System.out.printf("Seeded %d students and %d paid courses%n", students.size(), catalog.size());
+            return new PaymentSeedData(admin, students, catalog);
+        }
+    }
+
+    /**
+     * Seeds one empty course per roster run and a pool of students that rosters can list as existing accounts
+     */
+    public PaymentSeedData seedRosterTargets(LoadTestConfig config, int courses) throws SQLException {
+        int studentCount = config.getInt("loadtest.roster.seed.students");
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            SeededUser admin = insertUsers(connection, "ADMIN", "admin", 1).get(0);
+            SeededUser instructor = insertUsers(connection, "INSTRUCTOR", "instructor", 1).get(0);
+            List<SeededUser> students = insertUsers(connection, "STUDENT", "student", studentCount);
+
+            List<SeededCourse> targets = new ArrayList<>();
+            try (PreparedStatement course = connection.prepareStatement(
+                    "INSERT INTO courses_schema (id, instructor_id, course_name, course_description, duration_in_hours, rating, price) "
+                    + "VALUES (?, ?, ?, ?, ?, 0, 0)")) {
+                for (int c = 0; c < courses; c++) {
+                    UUID courseId = UUID.randomUUID();
+                    course.setObject(1, courseId);
+                    course.setObject(2, instructor.id());
+                    course.setString(3, "Roster load test course " + c);
+                    course.setString(4, "Seeded for the roster import load test");
+                    course.setInt(5, 10);
+                    course.executeUpdate();
+                    targets.add(new SeededCourse(courseId, 0));
+                }
+            }
+
+            connection.commit();
+            System.out.printf("Seeded %d students and %d roster courses%n", students.size(), targets.size());
+            return new PaymentSeedData(admin, students, targets);
+        }
+    }
+
+    private List<SeededUser> insertUsers(Connection connection, String role, String prefix, int count) throws SQLException {
+        List<SeededUser> users = new ArrayList<>(count);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, first_name, last_name, email, password, role) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < count; i++) {
+                UUID id = UUID.randomUUID();
+                String email = prefix + i + "@loadtest.iga";
+                insert.setObject(1, id);
+                insert.setString(2, "Load");
+                insert.setString(3, prefix + i);
+                insert.setString(4, email);
+                insert.setString(5, UNUSED_PASSWORD_HASH);
+                insert.setString(6, role);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                users.add(new SeededUser(id, email));
+            }
+            insert.executeBatch();
+        }
+        return users;
+    }
+}
@@ -0,0 +1,245 @@
+package com.work.IGA.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Open-model driver for StudentPaymentController. Each arrival initiates a payment for an
+ * unused (student, course) pair; when the simulator reports that the customer finished
+ * checkout, a share of them also call /course/verify from the redirect page, racing the
+ * webhook exactly like a real browser would.
+ */
+public class PaymentLoadDriver {
+
+    private record Slot(LoadTestSeeder.SeededUser student, String token, LoadTestSeeder.SeededCourse course) {
+    }
+
+    private final String baseUrl;
+    private final ArrivalCurve curve;
+    private final Random random;
+    private final double clientVerifyRatio;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService callbacks = Executors.newFixedThreadPool(8);
+    private final HttpClient httpClient;
+
+    private final ConcurrentLinkedQueue<Slot> unused = new ConcurrentLinkedQueue<>();
+    private final Map<String, String> tokensByEmail = new ConcurrentHashMap<>();
+
+    private final EndpointStats initiateStats = new EndpointStats("POST /api/v1/student/payments/initiate/course");
+    private final EndpointStats verifyStats = new EndpointStats("POST /api/v1/student/payments/course/verify");
+    private final EndpointStats refundStats = new EndpointStats("POST /api/v1/admin/payments/refund/{paymentId}");
+
+    public PaymentLoadDriver(LoadTestConfig config, String baseUrl, ArrivalCurve curve,
+                             LoadTestSeeder.PaymentSeedData seed, TokenFactory tokens,
+                             FlutterwaveSimulator simulator) {
+        this.baseUrl = baseUrl;
+        this.curve = curve;
+        this.random = new Random(config.getLong("loadtest.random-seed"));
+        this.clientVerifyRatio = config.getDouble("loadtest.payment.client-verify-ratio");
+        this.timeout = Duration.ofMillis(config.getLong("loadtest.client.timeout-ms"));
+        this.maxInFlight = config.getInt("loadtest.client.max-in-flight");
+        this.inFlight = new Semaphore(maxInFlight);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(callbacks)
+            .build();
+
+        List<Slot> slots = new ArrayList<>();
+        for (LoadTestSeeder.SeededUser student : seed.students()) {
+            String token = tokens.tokenFor(student, "STUDENT");
+            tokensByEmail.put(student.email(), token);
+            for (LoadTestSeeder.SeededCourse course : seed.courses()) {
+                slots.add(new Slot(student, token, course));
+            }
+        }
+        Collections.shuffle(slots, random);
+        unused.addAll(slots);
+
+        simulator.onCheckoutCompleted(this::afterCheckout);
+    }
+
+    public List<EndpointStats> stats() {
+        return List.of(initiateStats, verifyStats, refundStats);
+    }
+
+    /**
+     * Replays the arrival curve and waits for the outstanding initiations.
+     * @return Wall-clock seconds from the first arrival until the last response
+     */
+    public double run() throws InterruptedException {
+        long start = System.nanoTime();
+        double t = 0;
+        long arrivals = 0;
+        long nextProgress = 10;
+
+        while ((t = curve.nextArrival(t, random)) >= 0) {
+            long scheduledAt = start + (long) (t * 1_000_000_000L);
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            arrivals++;
+            initiate(scheduledAt);
+
+            if (t >= nextProgress) {
+                System.out.printf("t=%3.0fs rate=%6.1f/s arrivals=%d in-flight=%d%n",
+                    t, curve.rateAt(t), arrivals, inFlightCount());
+                nextProgress += 10;
+            }
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlightCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void initiate(long scheduledAt) {
+        Slot slot = unused.poll();
+        if (slot == null) {
+            // Every pair has paid or tried to, later arrivals have nothing left to buy
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            initiateStats.recordDropped();
+            unused.add(slot);
+            return;
+        }
+
+        ObjectNode body = mapper.createObjectNode();
+        body.put("courseId", slot.course().id().toString());
+        body.put("amount", slot.course().price());
+        body.put("currency", "RWF");
+        body.put("email", slot.student().email());
+        body.put("phoneNumber", "0780000000");
+        body.put("name", "Load " + slot.student().email());
+        body.put("redirectUrl", "http://127.0.0.1/loadtest/return");
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/student/payments/initiate/course"))
+            .header("Authorization", "Bearer " + slot.token())
+            .header("Content-Type", "application/json")
+            .timeout(timeout)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+        send(request, initiateStats, scheduledAt, null);
+    }
+
+    /**
+     * Runs on the simulator's scheduler: the customer lands on the redirect page, which
+     * asks the backend to verify before the webhook may have arrived.
+     */
+    private void afterCheckout(FlutterwaveSimulator.Charge charge, FlutterwaveSimulator.Transaction transaction) {
+        String token = charge.customerEmail() == null ? null : tokensByEmail.get(charge.customerEmail());
+        if (token == null || ThreadLocalRandom.current().nextDouble() >= clientVerifyRatio) {
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            verifyStats.recordDropped();
+            return;
+        }
+        ObjectNode body = mapper.createObjectNode();
+        body.put("transactionId", String.valueOf(transaction.id()));
+        body.put("paymentReference", charge.txRef());
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/student/payments/course/verify"))
+            .header("Authorization", "Bearer " + token)
+            .header("Content-Type", "application/json")
+            .timeout(timeout)
+            .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+            .build();
+        send(request, verifyStats, System.nanoTime(), null);
+    }
+
+    /**
+     * Refunds the given payments as the admin, a bounded number at a time, and waits for all of them
+     */
+    public void refund(List<UUID> paymentIds, String adminToken) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(paymentIds.size());
+        for (UUID paymentId : paymentIds) {
+            inFlight.acquire();
+            String reason = URLEncoder.encode("load test refund", StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(
+                    baseUrl + "/api/v1/admin/payments/refund/" + paymentId + "?reason=" + reason))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+            send(request, refundStats, System.nanoTime(), done);
+        }
+        done.await(timeout.toMillis() * 2, TimeUnit.MILLISECONDS);
+    }
+
+    private void send(HttpRequest request, EndpointStats stats, long startedAt, CountDownLatch done) {
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                try {
+                    long latencyMicros = (System.nanoTime() - startedAt) / 1000;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof HttpTimeoutException) {
+                            stats.recordTimeout(latencyMicros);
+                        } else {
+                            stats.record(latencyMicros, 0, false);
+                        }
+                        return;
+                    }
+                    // A rejected verify of a failed charge is still a correct answer, the status code says which it was
+                    JsonNode body = parse(response.body());
+                    boolean accepted = response.statusCode() / 100 == 2 && body.path("success").asBoolean(false);
+                    stats.record(latencyMicros, response.statusCode(), accepted);
+                } finally {
+                    inFlight.release();
+                    if (done != null) {
+                        done.countDown();
+                    }
+                }
+            });
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception ex) {
+            return mapper.createObjectNode();
+        }
+    }
+
+    public void close() {
+        callbacks.shutdownNow();
+    }
+}
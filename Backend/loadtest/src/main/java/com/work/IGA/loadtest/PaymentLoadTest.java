@@ -0,0 +1,148 @@
+package com.work.IGA.loadtest;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Drives the payment flow against the FlutterwaveSimulator instead of the sandbox.
+ *
+ * Starts an embedded Postgres, the storage stub, the simulator and the backend jar, seeds
+ * paid courses, replays loadtest.payment.curve against /initiate/course and lets the
+ * simulator complete checkouts and send (duplicated, reordered) webhooks. Once the backend
+ * has settled, every payment's final status and enrollment is audited against the
+ * simulated outcome. An optional refund phase then refunds a share of the completed
+ * payments and audits again. The report is written to loadtest.payment.report-file.
+ */
+public class PaymentLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        ArrivalCurve curve = ArrivalCurve.parse(config.get("loadtest.payment.curve"));
+        System.out.println("Arrival curve: " + curve);
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ExternalServicesStub stub = ExternalServicesStub.start(config);
+             FlutterwaveSimulator simulator = FlutterwaveSimulator.start(config);
+             BackendProcess backend = BackendProcess.start(config, postgres.getJdbcUrl("postgres", "postgres"),
+                 stub.baseUrl(), simulator.baseUrl() + "/v3",
+                 Map.of("FLW_WEBHOOK_HASH", config.get("loadtest.flutterwave.webhook-hash")))) {
+
+            simulator.setWebhookUrl(backend.baseUrl() + "/api/public/payments/webhook");
+            backend.awaitReady(Duration.ofSeconds(config.getLong("loadtest.backend.startup-timeout-seconds")));
+
+            LoadTestSeeder.PaymentSeedData seed = new LoadTestSeeder(postgres.getPostgresDatabase()).seedPaymentCatalog(config);
+            TokenFactory tokens = new TokenFactory(config.get("loadtest.jwt-secret"));
+            PaymentStateAudit audit = new PaymentStateAudit(postgres.getPostgresDatabase(), simulator);
+            long settleTimeout = config.getLong("loadtest.payment.settle-timeout-seconds");
+
+            PaymentLoadDriver driver = new PaymentLoadDriver(config, backend.baseUrl(), curve, seed, tokens, simulator);
+            double window = driver.run();
+
+            Settled afterPayments = awaitSettled(audit, simulator, settleTimeout);
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("finishedAt", Instant.now().toString());
+            report.put("curve", curve.toString());
+            report.put("settings", config.asProperties());
+            report.put("windowSeconds", window);
+            report.put("outcomes", simulator.outcomeCounts());
+            report.put("settleSeconds", afterPayments.seconds());
+            report.put("audit", afterPayments.result().summary());
+
+            double refundRatio = config.getDouble("loadtest.payment.refund-ratio");
+            if (refundRatio > 0) {
+                List<UUID> completed = new ArrayList<>(afterPayments.result().completedPaymentIds());
+                Collections.shuffle(completed, new Random(config.getLong("loadtest.random-seed")));
+                List<UUID> refunds = completed.subList(0, (int) Math.round(completed.size() * refundRatio));
+                System.out.printf("Refunding %d of %d completed payments%n", refunds.size(), completed.size());
+                driver.refund(refunds, tokens.tokenFor(seed.admin(), "ADMIN"));
+
+                Settled afterRefunds = awaitSettled(audit, simulator, settleTimeout);
+                report.put("refunds", refunds.size());
+                report.put("refundAudit", afterRefunds.result().summary());
+            }
+            driver.close();
+
+            List<Map<String, Object>> endpoints = new ArrayList<>();
+            for (EndpointStats stats : driver.stats()) {
+                endpoints.add(stats.summary(window));
+            }
+            endpoints.add(simulator.webhookStats().summary(window));
+            report.put("endpoints", endpoints);
+            report.put("simulator", simulator.counters());
+            report.put("stubRequests", stub.requestCounts());
+
+            print(report, endpoints);
+            File reportFile = new File(config.get("loadtest.payment.report-file"));
+            if (reportFile.getParentFile() != null) {
+                reportFile.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+            System.out.println("Report written to " + reportFile.getAbsolutePath());
+        }
+    }
+
+    private record Settled(double seconds, PaymentStateAudit.Result result) {
+    }
+
+    /**
+     * Polls until every webhook has been delivered and the database agrees with the
+     * simulated outcomes, or the timeout is hit (seconds is then -1).
+     */
+    private static Settled awaitSettled(PaymentStateAudit audit, FlutterwaveSimulator simulator, long timeoutSeconds)
+            throws Exception {
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(timeoutSeconds).toNanos();
+        PaymentStateAudit.Result result = audit.run();
+        while (System.nanoTime() < deadline) {
+            if (simulator.pendingWebhooks() == 0 && result.converged()) {
+                return new Settled((System.nanoTime() - start) / 1e9, result);
+            }
+            Thread.sleep(1000);
+            result = audit.run();
+        }
+        return new Settled(-1, result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(Map<String, Object> report, List<Map<String, Object>> endpoints) {
+        System.out.println();
+        System.out.printf("%-48s %8s %8s %8s %8s %8s %9s %9s %9s %9s %9s%n",
+            "endpoint", "requests", "ok", "errors", "dropped", "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map<String, Object> e : endpoints) {
+            long errors = (Long) e.get("rejected") + (Long) e.get("failed") + (Long) e.get("timedOut");
+            System.out.printf("%-48s %8d %8d %8d %8d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                e.get("endpoint"), e.get("requests"), e.get("succeeded"), errors, e.get("droppedByClient"),
+                e.get("throughputPerSecond"), e.get("p50Ms"), e.get("p90Ms"), e.get("p99Ms"), e.get("p999Ms"), e.get("maxMs"));
+        }
+
+        Map<String, Object> audit = (Map<String, Object>) report.get("audit");
+        System.out.println();
+        System.out.println("Outcomes:        " + report.get("outcomes"));
+        System.out.println("Settled after:   " + report.get("settleSeconds") + " s");
+        System.out.println("Expected status: " + audit.get("matchedExpectedStatus") + " of " + audit.get("payments"));
+        ((Map<String, Long>) audit.get("expectedToActual")).forEach((cell, count) ->
+            System.out.printf("    %-40s %d%n", cell, count));
+        System.out.println("Enrollments:     missing=" + audit.get("missingEnrollments")
+            + " unexpected=" + audit.get("unexpectedEnrollments") + " duplicate=" + audit.get("duplicateEnrollments"));
+        System.out.println("Backlogs:        outbox=" + audit.get("enrollmentOutboxBacklog")
+            + " webhookInbox=" + audit.get("webhookInboxBacklog") + " webhookInboxDead=" + audit.get("webhookInboxDead"));
+        if (report.containsKey("refundAudit")) {
+            System.out.println("After refunds:   " + report.get("refundAudit"));
+        }
+        System.out.println("Simulator:       " + report.get("simulator"));
+    }
+}
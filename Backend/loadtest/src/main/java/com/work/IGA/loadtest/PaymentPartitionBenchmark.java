@@ -0,0 +1,251 @@
+package com.work.IGA.loadtest;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Measures the payment queries on a plain payments table against the monthly range
+ * partitioned layout that PaymentPartitionManager produces, on the same synthetic rows.
+ *
+ * Both tables get loadtest.partition.rows payments spread over loadtest.partition.months
+ * months with the entity's indexes. Every query runs with its parameters bound through a
+ * prepared statement, the way Hibernate sends it, after a warm-up; the report has the
+ * median and p95 per layout and the number of partitions the plan touched.
+ *
+ *     ./mvnw -f loadtest/pom.xml compile exec:java -Dexec.mainClass=com.work.IGA.loadtest.PaymentPartitionBenchmark
+ */
+public class PaymentPartitionBenchmark {
+
+    private record Case(String name, String sql, Object[] params) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        long rows = config.getLong("loadtest.partition.rows");
+        int months = config.getInt("loadtest.partition.months");
+        int repetitions = config.getInt("loadtest.partition.repetitions");
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder()
+                .setServerConfig("shared_buffers", config.get("loadtest.partition.shared-buffers"))
+                .setServerConfig("max_wal_size", "4GB")
+                .start();
+             Connection connection = postgres.getPostgresDatabase().getConnection()) {
+
+            YearMonth current = YearMonth.now();
+            YearMonth oldest = current.minusMonths(months);
+            createSchema(connection, oldest, current);
+            load(connection, rows, months, config.getInt("loadtest.partition.students"),
+                config.getInt("loadtest.partition.courses"));
+
+            String reference = firstValue(connection,
+                "SELECT transaction_reference FROM payments_plain ORDER BY payment_date DESC OFFSET 5000 LIMIT 1");
+            String student = firstValue(connection, "SELECT user_id::text FROM payments_plain LIMIT 1");
+            String instructor = firstValue(connection, "SELECT instructor_id::text FROM bench_courses LIMIT 1");
+            String deepCursor = firstValue(connection,
+                "SELECT created_at::text FROM payments_plain ORDER BY created_at DESC OFFSET " + (rows / 2) + " LIMIT 1");
+
+            List<Case> cases = List.of(
+                new Case("status listing, unbounded (before)",
+                    "SELECT count(*) FROM %s p WHERE p.payment_status = ?",
+                    new Object[] { "COMPLETED" }),
+                new Case("status listing, last 365 days",
+                    "SELECT count(*) FROM %s p WHERE p.payment_status = ? AND p.created_at >= now() - interval '365 days'",
+                    new Object[] { "COMPLETED" }),
+                new Case("instructor listing, unbounded (before)",
+                    "SELECT count(*) FROM %s p JOIN bench_courses c ON c.id = p.course_id WHERE c.instructor_id = ?::uuid",
+                    new Object[] { instructor }),
+                new Case("instructor listing, last 365 days",
+                    "SELECT count(*) FROM %s p JOIN bench_courses c ON c.id = p.course_id "
+                    + "WHERE c.instructor_id = ?::uuid AND p.created_at >= now() - interval '365 days'",
+                    new Object[] { instructor }),
+                new Case("status history, first page",
+                    "SELECT p.id FROM %s p WHERE p.payment_status = ? AND p.created_at <= '9999-12-31'::timestamp "
+                    + "ORDER BY p.created_at DESC, p.id DESC LIMIT 20",
+                    new Object[] { "COMPLETED" }),
+                new Case("status history, deep cursor",
+                    "SELECT p.id FROM %s p WHERE p.payment_status = ? AND p.created_at <= ?::timestamp "
+                    + "AND (p.created_at < ?::timestamp OR (p.created_at = ?::timestamp AND p.id < 'ffffffff-ffff-ffff-ffff-ffffffffffff'::uuid)) "
+                    + "ORDER BY p.created_at DESC, p.id DESC LIMIT 20",
+                    new Object[] { "COMPLETED", deepCursor, deepCursor, deepCursor }),
+                new Case("student history, first page",
+                    "SELECT p.id FROM %s p WHERE p.user_id = ?::uuid ORDER BY p.created_at DESC, p.id DESC LIMIT 20",
+                    new Object[] { student }),
+                new Case("reconciliation scan, 7 day lookback",
+                    "SELECT p.id FROM %s p WHERE p.payment_status = 'PENDING' AND p.payment_date < now() - interval '30 minutes' "
+                    + "AND p.payment_date > now() - interval '7 days' AND p.created_at >= now() - interval '7 days' "
+                    + "ORDER BY p.payment_date, p.id LIMIT 100",
+                    new Object[] {}),
+                new Case("lookup by reference",
+                    "SELECT p.id FROM %s p WHERE p.transaction_reference = ?",
+                    new Object[] { reference })
+            );
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (Case c : cases) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("query", c.name());
+                for (String table : List.of("payments_plain", "payments")) {
+                    String sql = String.format(c.sql(), table);
+                    double[] millis = time(connection, sql, c.params(), repetitions);
+                    String prefix = table.equals("payments") ? "partitioned" : "plain";
+                    result.put(prefix + "MedianMs", percentile(millis, 0.5));
+                    result.put(prefix + "P95Ms", percentile(millis, 0.95));
+                    result.put(prefix + "RelationsScanned", relationsScanned(connection, sql, c.params()));
+                }
+                results.add(result);
+                System.out.printf("%-42s plain %8.2f ms   partitioned %8.2f ms   (%s partitions)%n",
+                    c.name(), result.get("plainMedianMs"), result.get("partitionedMedianMs"),
+                    result.get("partitionedRelationsScanned"));
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("finishedAt", Instant.now().toString());
+            report.put("rows", rows);
+            report.put("months", months);
+            report.put("repetitions", repetitions);
+            report.put("settings", config.asProperties());
+            report.put("queries", results);
+            File reportFile = new File(config.get("loadtest.partition.report-file"));
+            if (reportFile.getParentFile() != null) {
+                reportFile.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+            System.out.println("Report written to " + reportFile.getAbsolutePath());
+        }
+    }
+
+    private static void createSchema(Connection connection, YearMonth oldest, YearMonth newest) throws SQLException {
+        String columns = "(id uuid NOT NULL, user_id uuid, course_id uuid, amount float8 NOT NULL, "
+            + "payment_status varchar(255) NOT NULL, transaction_reference varchar(255) NOT NULL, "
+            + "payment_method varchar(255), payment_date timestamp(6) NOT NULL, created_at timestamp(6) NOT NULL)";
+        execute(connection, "CREATE TABLE bench_courses (id uuid PRIMARY KEY, instructor_id uuid NOT NULL)");
+        execute(connection, "CREATE TABLE payments_plain " + columns);
+        execute(connection, "CREATE TABLE payments " + columns + " PARTITION BY RANGE (created_at)");
+        execute(connection, "CREATE TABLE payments_default PARTITION OF payments DEFAULT");
+        for (YearMonth month = oldest; !month.isAfter(newest.plusMonths(3)); month = month.plusMonths(1)) {
+            execute(connection, String.format("CREATE TABLE payments_p%04d_%02d PARTITION OF payments FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1)));
+        }
+    }
+
+    private static void load(Connection connection, long rows, int months, int students, int courses) throws SQLException {
+        long start = System.nanoTime();
+        execute(connection, "INSERT INTO bench_courses "
+            + "SELECT md5('course' || c)::uuid, md5('instructor' || (c % 50))::uuid FROM generate_series(1, " + courses + ") c");
+        // Dates uniform over the window, statuses roughly as in production, PENDING only in the last few days
+        execute(connection, "INSERT INTO payments_plain "
+            + "SELECT md5('payment' || g)::uuid, md5('student' || (g % " + students + "))::uuid, "
+            + "md5('course' || (1 + g % " + courses + "))::uuid, 5000 * (1 + g % 5), "
+            + "CASE WHEN r < 0.82 THEN 'COMPLETED' WHEN r < 0.92 THEN 'FAILED' WHEN r < 0.97 THEN 'CANCELLED' ELSE 'REFUNDED' END, "
+            + "'IGA_' || lpad(to_hex(g), 13, '0'), 'FLUTTERWAVE', "
+            + "d, d - (random() * interval '30 minutes') "
+            + "FROM (SELECT g, random() AS r, now() - (random() * interval '" + months + " months') AS d "
+            + "FROM generate_series(1, " + rows + ") g) s");
+        execute(connection, "UPDATE payments_plain SET payment_status = 'PENDING', payment_date = created_at "
+            + "WHERE created_at > now() - interval '3 days' AND random() < 0.1");
+        execute(connection, "INSERT INTO payments SELECT * FROM payments_plain");
+        System.out.printf("Loaded %d payments into both layouts in %.1f s%n", rows, (System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        // As PaymentPartitionManager leaves them: the partitioned table keeps references unique through payment_references
+        execute(connection, "ALTER TABLE payments_plain ADD PRIMARY KEY (id)");
+        execute(connection, "ALTER TABLE payments_plain ADD UNIQUE (transaction_reference)");
+        execute(connection, "ALTER TABLE payments ADD PRIMARY KEY (id, created_at)");
+        execute(connection, "CREATE INDEX ON payments (transaction_reference)");
+        for (String table : List.of("payments_plain", "payments")) {
+            execute(connection, "CREATE INDEX ON " + table + " (payment_status, payment_date, id)");
+            execute(connection, "CREATE INDEX ON " + table + " (payment_status, created_at, id)");
+            execute(connection, "CREATE INDEX ON " + table + " (user_id, created_at, id)");
+            execute(connection, "CREATE INDEX ON " + table + " (course_id, created_at, id)");
+            execute(connection, "VACUUM ANALYZE " + table);
+        }
+        execute(connection, "ANALYZE bench_courses");
+        System.out.printf("Built indexes in %.1f s%n", (System.nanoTime() - start) / 1e9);
+    }
+
+    private static double[] time(Connection connection, String sql, Object[] params, int repetitions) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bind(statement, params);
+            // Past the driver's prepare threshold and the server's switch to a generic plan
+            for (int i = 0; i < 8; i++) {
+                drain(statement);
+            }
+            double[] millis = new double[repetitions];
+            for (int i = 0; i < repetitions; i++) {
+                long start = System.nanoTime();
+                drain(statement);
+                millis[i] = (System.nanoTime() - start) / 1e6;
+            }
+            return millis;
+        }
+    }
+
+    /**
+     * Tables and partitions that the executed plan actually read, after run-time pruning
+     */
+    private static long relationsScanned(Connection connection, String sql, Object[] params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, COSTS OFF, TIMING OFF) " + sql)) {
+            bind(statement, params);
+            long scanned = 0;
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    String line = result.getString(1);
+                    if (line.matches(".*Scan.* on payments(_p\\d{4}_\\d{2}|_default|_plain)?\\b.*") && !line.contains("never executed")) {
+                        scanned++;
+                    }
+                }
+            }
+            return scanned;
+        }
+    }
+
+    private static void bind(PreparedStatement statement, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+    }
+
+    private static void drain(PreparedStatement statement) throws SQLException {
+        try (ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                // Read every row, the way the repository would
+            }
+        }
+    }
+
+    private static double percentile(double[] values, double quantile) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String firstValue(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            return result.next() ? result.getString(1) : null;
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
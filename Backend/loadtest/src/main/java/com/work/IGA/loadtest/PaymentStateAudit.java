@@ -0,0 +1,128 @@
+package com.work.IGA.loadtest;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+/**
+ * Compares what the database ended up with against what the simulator's outcomes imply:
+ * every payment in its expected status, an enrollment for exactly the COMPLETED ones and
+ * never two enrollments for the same (student, course).
+ */
+public class PaymentStateAudit {
+
+    private static final int MAX_EXAMPLES = 20;
+
+    public record Result(
+        long payments,
+        long matched,
+        Map<String, Long> statusMatrix,
+        List<String> mismatchExamples,
+        long missingEnrollments,
+        long unexpectedEnrollments,
+        long duplicateEnrollments,
+        long outboxBacklog,
+        long outboxDead,
+        long webhookInboxBacklog,
+        long webhookInboxDead,
+        List<UUID> completedPaymentIds
+    ) {
+        public boolean converged() {
+            return matched == payments && missingEnrollments == 0 && unexpectedEnrollments == 0 && outboxBacklog == 0;
+        }
+
+        public Map<String, Object> summary() {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("payments", payments);
+            summary.put("matchedExpectedStatus", matched);
+            summary.put("expectedToActual", statusMatrix);
+            summary.put("mismatchExamples", mismatchExamples);
+            summary.put("missingEnrollments", missingEnrollments);
+            summary.put("unexpectedEnrollments", unexpectedEnrollments);
+            summary.put("duplicateEnrollments", duplicateEnrollments);
+            summary.put("enrollmentOutboxBacklog", outboxBacklog);
+            summary.put("enrollmentOutboxDead", outboxDead);
+            summary.put("webhookInboxBacklog", webhookInboxBacklog);
+            summary.put("webhookInboxDead", webhookInboxDead);
+            return summary;
+        }
+    }
+
+    private final DataSource dataSource;
+    private final FlutterwaveSimulator simulator;
+
+    public PaymentStateAudit(DataSource dataSource, FlutterwaveSimulator simulator) {
+        this.dataSource = dataSource;
+        this.simulator = simulator;
+    }
+
+    public Result run() throws SQLException {
+        long payments = 0;
+        long matched = 0;
+        long missingEnrollments = 0;
+        long unexpectedEnrollments = 0;
+        Map<String, Long> matrix = new TreeMap<>();
+        List<String> examples = new ArrayList<>();
+        List<UUID> completed = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT p.id, p.transaction_reference, p.payment_status, "
+                    + "EXISTS (SELECT 1 FROM enrollments e WHERE e.student_id = p.user_id AND e.course_id = p.course_id) "
+                    + "FROM payments p");
+                 ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    payments++;
+                    UUID paymentId = rows.getObject(1, UUID.class);
+                    String reference = rows.getString(2);
+                    String actual = rows.getString(3);
+                    boolean enrolled = rows.getBoolean(4);
+
+                    // No charge means initiation never reached the gateway, so nothing can complete it
+                    FlutterwaveSimulator.Charge charge = simulator.charge(reference);
+                    String expected = charge == null ? "PENDING" : charge.expectedStatus();
+                    String label = (charge == null ? "NOT_CHARGED" : charge.outcome().name()) + " " + expected + " -> " + actual;
+                    matrix.merge(label, 1L, Long::sum);
+
+                    if (expected.equals(actual)) {
+                        matched++;
+                    } else if (examples.size() < MAX_EXAMPLES) {
+                        examples.add(reference + ": expected " + expected + ", was " + actual);
+                    }
+                    if ("COMPLETED".equals(actual)) {
+                        completed.add(paymentId);
+                        if (!enrolled) {
+                            missingEnrollments++;
+                        }
+                    } else if (enrolled) {
+                        unexpectedEnrollments++;
+                    }
+                }
+            }
+
+            return new Result(payments, matched, matrix, examples, missingEnrollments, unexpectedEnrollments,
+                count(connection, "SELECT count(*) FROM (SELECT 1 FROM enrollments GROUP BY student_id, course_id HAVING count(*) > 1) d"),
+                count(connection, "SELECT count(*) FROM enrollment_outbox WHERE status IN ('PENDING', 'RETRY')"),
+                count(connection, "SELECT count(*) FROM enrollment_outbox WHERE status = 'DEAD'"),
+                count(connection, "SELECT count(*) FROM payment_webhook_inbox WHERE status IN ('RECEIVED', 'PROCESSING', 'RETRY')"),
+                count(connection, "SELECT count(*) FROM payment_webhook_inbox WHERE status = 'DEAD'"),
+                completed);
+        }
+    }
+
+    private static long count(Connection connection, String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet rows = statement.executeQuery()) {
+            return rows.next() ? rows.getLong(1) : 0;
+        }
+    }
+}
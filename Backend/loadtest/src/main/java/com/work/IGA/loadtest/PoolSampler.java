@@ -0,0 +1,183 @@
+package com.work.IGA.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import javax.management.MBeanServerConnection;
+import javax.management.ObjectName;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Periodically samples the backend's Hikari pool over JMX and the submission ingestion
+ * pool over its admin endpoint. Threads waiting for a connection is the pool wait signal:
+ * any sample above zero means requests were queueing for the database.
+ */
+public class PoolSampler implements AutoCloseable {
+
+    public record Sample(long atMillis, int activeConnections, int idleConnections, int totalConnections,
+                         int threadsAwaitingConnection, int ingestionQueueDepth, int ingestionActiveWorkers,
+                         long pendingInDatabase) {
+    }
+
+    private final int jmxPort;
+    private final String ingestionUrl;
+    private final String adminToken;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final List<Sample> samples = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pool-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private JMXConnector connector;
+    private MBeanServerConnection mbeans;
+    private ObjectName hikariPool;
+    private volatile Sample latest;
+
+    public PoolSampler(int jmxPort, String baseUrl, String adminToken) {
+        this.jmxPort = jmxPort;
+        this.ingestionUrl = baseUrl + "/api/v1/admin/submissions/ingestion";
+        this.adminToken = adminToken;
+    }
+
+    public PoolSampler start(long intervalMillis) throws Exception {
+        JMXServiceURL url = new JMXServiceURL("service:jmx:rmi:///jndi/rmi://127.0.0.1:" + jmxPort + "/jmxrmi");
+        connector = JMXConnectorFactory.connect(url);
+        mbeans = connector.getMBeanServerConnection();
+        Set<ObjectName> pools = mbeans.queryNames(new ObjectName("com.zaxxer.hikari:type=Pool (*"), null);
+        if (pools.isEmpty()) {
+            System.out.println("No Hikari pool MBean found, connection pool pressure will not be reported");
+        } else {
+            hikariPool = pools.iterator().next();
+        }
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    private void sample() {
+        try {
+            int active = 0;
+            int idle = 0;
+            int total = 0;
+            int awaiting = 0;
+            if (hikariPool != null) {
+                active = (Integer) mbeans.getAttribute(hikariPool, "ActiveConnections");
+                idle = (Integer) mbeans.getAttribute(hikariPool, "IdleConnections");
+                total = (Integer) mbeans.getAttribute(hikariPool, "TotalConnections");
+                awaiting = (Integer) mbeans.getAttribute(hikariPool, "ThreadsAwaitingConnection");
+            }
+
+            int queueDepth = -1;
+            int activeWorkers = -1;
+            long pending = -1;
+            JsonNode ingestion = fetchIngestionMetrics();
+            if (ingestion != null) {
+                queueDepth = ingestion.path("queueDepth").asInt();
+                activeWorkers = ingestion.path("activeWorkers").asInt();
+                pending = ingestion.path("pendingInDatabase").asLong();
+            }
+
+            Sample sample = new Sample(System.currentTimeMillis(), active, idle, total, awaiting,
+                queueDepth, activeWorkers, pending);
+            latest = sample;
+            synchronized (samples) {
+                samples.add(sample);
+            }
+        } catch (Exception ex) {
+            // A missed sample is not worth failing the run for
+        }
+    }
+
+    private JsonNode fetchIngestionMetrics() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(ingestionUrl))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofSeconds(2))
+                .GET()
+                .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            return mapper.readTree(response.body()).path("data");
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
+    public Sample latest() {
+        return latest;
+    }
+
+    public Map<String, Object> summary() {
+        List<Sample> copy;
+        synchronized (samples) {
+            copy = new ArrayList<>(samples);
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("samples", copy.size());
+        if (copy.isEmpty()) {
+            return summary;
+        }
+
+        Map<String, Object> hikari = new LinkedHashMap<>();
+        hikari.put("maxTotalConnections", max(copy, Sample::totalConnections));
+        hikari.put("meanActiveConnections", mean(copy, Sample::activeConnections));
+        hikari.put("maxActiveConnections", max(copy, Sample::activeConnections));
+        hikari.put("meanThreadsAwaitingConnection", mean(copy, Sample::threadsAwaitingConnection));
+        hikari.put("p95ThreadsAwaitingConnection", percentile(copy, Sample::threadsAwaitingConnection, 0.95));
+        hikari.put("maxThreadsAwaitingConnection", max(copy, Sample::threadsAwaitingConnection));
+        long waiting = copy.stream().filter(s -> s.threadsAwaitingConnection() > 0).count();
+        hikari.put("shareOfSamplesWithWaiters", (double) waiting / copy.size());
+        summary.put("connectionPool", hikari);
+
+        Map<String, Object> ingestion = new LinkedHashMap<>();
+        ingestion.put("meanQueueDepth", mean(copy, Sample::ingestionQueueDepth));
+        ingestion.put("maxQueueDepth", max(copy, Sample::ingestionQueueDepth));
+        ingestion.put("meanActiveWorkers", mean(copy, Sample::ingestionActiveWorkers));
+        ingestion.put("maxPendingInDatabase", max(copy, s -> s.pendingInDatabase()));
+        summary.put("ingestionPool", ingestion);
+        return summary;
+    }
+
+    private static double mean(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+        return samples.stream().mapToDouble(metric).average().orElse(0);
+    }
+
+    private static double max(List<Sample> samples, ToDoubleFunction<Sample> metric) {
+        return samples.stream().mapToDouble(metric).max().orElse(0);
+    }
+
+    private static double percentile(List<Sample> samples, ToDoubleFunction<Sample> metric, double percentile) {
+        double[] values = samples.stream().mapToDouble(metric).sorted().toArray();
+        int index = (int) Math.ceil(percentile * values.length) - 1;
+        return values[Math.max(0, Math.min(index, values.length - 1))];
+    }
+
+    @Override
+    public void close() throws Exception {
+        scheduler.shutdownNow();
+        if (connector != null) {
+            connector.close();
+        }
+    }
+}
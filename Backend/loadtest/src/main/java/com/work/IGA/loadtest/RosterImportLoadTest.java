@@ -0,0 +1,211 @@
+package com.work.IGA.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Measures roster import throughput in rows per second.
+ *
+ * Starts an embedded Postgres, the storage stub and the backend jar, seeds a pool of
+ * students and one empty course per roster size, then posts a generated roster of each
+ * size to /api/v1/admin/provisioning and polls the job until it finishes. Rosters mix new
+ * accounts, already seeded students and a few malformed rows; the resulting enrollments
+ * are counted in the database. With loadtest.roster.repeat every roster is imported a
+ * second time, which must create nothing. The report is written to loadtest.roster.report-file.
+ */
+public class RosterImportLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        List<Integer> sizes = new ArrayList<>();
+        for (String size : config.get("loadtest.roster.sizes").split(",")) {
+            sizes.add(Integer.parseInt(size.trim()));
+        }
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ExternalServicesStub stub = ExternalServicesStub.start(config);
+             BackendProcess backend = BackendProcess.start(config, postgres.getJdbcUrl("postgres", "postgres"), stub.baseUrl())) {
+
+            backend.awaitReady(Duration.ofSeconds(config.getLong("loadtest.backend.startup-timeout-seconds")));
+
+            DataSource dataSource = postgres.getPostgresDatabase();
+            LoadTestSeeder.PaymentSeedData seed = new LoadTestSeeder(dataSource).seedRosterTargets(config, sizes.size());
+            String adminToken = new TokenFactory(config.get("loadtest.jwt-secret")).tokenFor(seed.admin(), "ADMIN");
+            HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            Random random = new Random(config.getLong("loadtest.random-seed"));
+
+            List<Map<String, Object>> runs = new ArrayList<>();
+            for (int i = 0; i < sizes.size(); i++) {
+                UUID courseId = seed.courses().get(i).id();
+                Roster roster = generate(config, sizes.get(i), i, seed.students(), random);
+
+                Map<String, Object> first = runImport(config, httpClient, backend.baseUrl(), adminToken, courseId, roster);
+                first.put("pass", "initial");
+                first.put("enrollmentsInDatabase", countEnrollments(dataSource, courseId));
+                runs.add(first);
+
+                if (Boolean.parseBoolean(config.get("loadtest.roster.repeat"))) {
+                    Map<String, Object> again = runImport(config, httpClient, backend.baseUrl(), adminToken, courseId, roster);
+                    again.put("pass", "repeat");
+                    again.put("enrollmentsInDatabase", countEnrollments(dataSource, courseId));
+                    runs.add(again);
+                }
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("finishedAt", Instant.now().toString());
+            report.put("settings", config.asProperties());
+            report.put("runs", runs);
+
+            print(runs);
+            File reportFile = new File(config.get("loadtest.roster.report-file"));
+            if (reportFile.getParentFile() != null) {
+                reportFile.getParentFile().mkdirs();
+            }
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+            System.out.println("Report written to " + reportFile.getAbsolutePath());
+        }
+    }
+
+    private record Roster(String format, String body, int rows, int newAccounts, int existing, int invalid) {
+    }
+
+    private static Roster generate(LoadTestConfig config, int size, int run,
+                                   List<LoadTestSeeder.SeededUser> pool, Random random) throws Exception {
+        String format = config.get("loadtest.roster.format");
+        double existingRatio = config.getDouble("loadtest.roster.existing-ratio");
+        double invalidRatio = config.getDouble("loadtest.roster.invalid-ratio");
+
+        List<String[]> rows = new ArrayList<>(size);
+        int existing = 0;
+        int invalid = 0;
+        for (int r = 0; r < size; r++) {
+            double roll = random.nextDouble();
+            if (roll < invalidRatio) {
+                rows.add(new String[] {"not-an-email-" + r, "Roster", "Invalid"});
+                invalid++;
+            } else if (roll < invalidRatio + existingRatio && existing < pool.size()) {
+                // Distinct pool members, so every existing row is a separate enrollment
+                rows.add(new String[] {pool.get(existing).email(), "Load", "Existing"});
+                existing++;
+            } else {
+                rows.add(new String[] {"roster" + run + "-" + r + "@loadtest.iga", "Roster", "Student" + r});
+            }
+        }
+
+        String body;
+        if ("json".equals(format)) {
+            List<Map<String, String>> entries = new ArrayList<>(size);
+            for (String[] row : rows) {
+                entries.add(Map.of("email", row[0], "firstName", row[1], "lastName", row[2]));
+            }
+            body = MAPPER.writeValueAsString(entries);
+        } else {
+            StringBuilder csv = new StringBuilder("email,first_name,last_name\n");
+            for (String[] row : rows) {
+                csv.append(row[0]).append(',').append(row[1]).append(',').append(row[2]).append('\n');
+            }
+            body = csv.toString();
+        }
+        return new Roster(format, body, size, size - existing - invalid, existing, invalid);
+    }
+
+    private static Map<String, Object> runImport(LoadTestConfig config, HttpClient httpClient, String baseUrl,
+                                                 String adminToken, UUID courseId, Roster roster) throws Exception {
+        String base = baseUrl + "/api/v1/admin/provisioning";
+        long start = System.nanoTime();
+
+        HttpRequest submit = HttpRequest.newBuilder(URI.create(base + "/courses/" + courseId + "/roster"))
+            .header("Authorization", "Bearer " + adminToken)
+            .header("Content-Type", "json".equals(roster.format()) ? "application/json" : "text/csv")
+            .POST(HttpRequest.BodyPublishers.ofString(roster.body()))
+            .build();
+        HttpResponse<String> accepted = httpClient.send(submit, HttpResponse.BodyHandlers.ofString());
+        if (accepted.statusCode() != 202) {
+            throw new IllegalStateException("Roster import was not accepted: " + accepted.statusCode() + " " + accepted.body());
+        }
+        String jobId = MAPPER.readTree(accepted.body()).path("data").path("jobId").asText();
+
+        long pollInterval = config.getLong("loadtest.roster.poll-interval-ms");
+        long deadline = start + Duration.ofSeconds(config.getLong("loadtest.roster.timeout-seconds")).toNanos();
+        JsonNode job;
+        do {
+            Thread.sleep(pollInterval);
+            HttpRequest poll = HttpRequest.newBuilder(URI.create(base + "/jobs/" + jobId))
+                .header("Authorization", "Bearer " + adminToken)
+                .GET()
+                .build();
+            job = MAPPER.readTree(httpClient.send(poll, HttpResponse.BodyHandlers.ofString()).body());
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Roster import " + jobId + " did not finish in time: " + job);
+            }
+        } while ("QUEUED".equals(job.path("status").asText()) || "RUNNING".equals(job.path("status").asText()));
+        double wallSeconds = (System.nanoTime() - start) / 1e9;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("format", roster.format());
+        result.put("rows", roster.rows());
+        result.put("expectedNewAccounts", roster.newAccounts());
+        result.put("expectedExisting", roster.existing());
+        result.put("expectedInvalid", roster.invalid());
+        result.put("status", job.path("status").asText());
+        result.put("usersCreated", job.path("usersCreated").asLong());
+        result.put("usersExisting", job.path("usersExisting").asLong());
+        result.put("enrollmentsCreated", job.path("enrollmentsCreated").asLong());
+        result.put("alreadyEnrolled", job.path("alreadyEnrolled").asLong());
+        result.put("rejected", job.path("rejected").asLong());
+        // Server-side rate covers reading, hashing and writing; the wall rate adds upload and polling
+        result.put("serverRowsPerSecond", job.path("rowsPerSecond").asDouble());
+        result.put("wallSeconds", wallSeconds);
+        result.put("wallRowsPerSecond", roster.rows() / wallSeconds);
+        result.put("failureMessage", job.path("failureMessage").asText(null));
+        return result;
+    }
+
+    private static long countEnrollments(DataSource dataSource, UUID courseId) throws Exception {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement count = connection.prepareStatement("SELECT COUNT(*) FROM enrollments WHERE course_id = ?")) {
+            count.setObject(1, courseId);
+            try (ResultSet rs = count.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static void print(List<Map<String, Object>> runs) {
+        System.out.println();
+        System.out.printf("%-8s %8s %10s %8s %8s %8s %8s %8s %12s %12s%n",
+            "pass", "rows", "status", "created", "enrolled", "already", "rejected", "in db", "server r/s", "wall r/s");
+        for (Map<String, Object> run : runs) {
+            System.out.printf("%-8s %8d %10s %8d %8d %8d %8d %8d %12.1f %12.1f%n",
+                run.get("pass"), run.get("rows"), run.get("status"), run.get("usersCreated"),
+                run.get("enrollmentsCreated"), run.get("alreadyEnrolled"), run.get("rejected"),
+                run.get("enrollmentsInDatabase"), run.get("serverRowsPerSecond"), run.get("wallRowsPerSecond"));
+        }
+    }
+}
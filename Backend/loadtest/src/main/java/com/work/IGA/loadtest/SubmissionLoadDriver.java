@@ -0,0 +1,242 @@
+package com.work.IGA.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model driver for SubmissionController: arrivals follow the curve whether or not
+ * earlier requests have completed, which is how a deadline rush behaves. Each arrival is
+ * either a first /submit for an unused (student, assignment) slot or an /update of a
+ * submission that was accepted earlier.
+ */
+public class SubmissionLoadDriver {
+
+    private record Slot(LoadTestSeeder.SeededUser student, String token, UUID assignmentId) {
+    }
+
+    private record Submitted(String token, UUID submissionId) {
+    }
+
+    private final String baseUrl;
+    private final ArrivalCurve curve;
+    private final Random random;
+    private final double updateRatio;
+    private final byte[] fileContents;
+    private final Duration timeout;
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService callbacks = Executors.newFixedThreadPool(8);
+    private final HttpClient httpClient;
+
+    private final ConcurrentLinkedQueue<Slot> unsubmitted = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Submitted> submitted = new ConcurrentLinkedQueue<>();
+
+    private final EndpointStats submitStats = new EndpointStats("POST /api/v1/submissions/submit");
+    private final EndpointStats updateStats = new EndpointStats("PUT /api/v1/submissions/update/{submissionId}");
+
+    public SubmissionLoadDriver(LoadTestConfig config, String baseUrl, ArrivalCurve curve,
+                                LoadTestSeeder.SeedData seed, TokenFactory tokens) {
+        this.baseUrl = baseUrl;
+        this.curve = curve;
+        this.random = new Random(config.getLong("loadtest.random-seed"));
+        this.updateRatio = config.getDouble("loadtest.update-ratio");
+        this.timeout = Duration.ofMillis(config.getLong("loadtest.client.timeout-ms"));
+        this.maxInFlight = config.getInt("loadtest.client.max-in-flight");
+        this.inFlight = new Semaphore(maxInFlight);
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(callbacks)
+            .build();
+
+        this.fileContents = new byte[config.getInt("loadtest.file-size-kb") * 1024];
+        random.nextBytes(fileContents);
+
+        List<Slot> slots = new ArrayList<>();
+        for (LoadTestSeeder.SeededUser student : seed.students()) {
+            String token = tokens.tokenFor(student, "STUDENT");
+            for (UUID assignmentId : seed.assignments()) {
+                slots.add(new Slot(student, token, assignmentId));
+            }
+        }
+        Collections.shuffle(slots, random);
+        unsubmitted.addAll(slots);
+    }
+
+    public List<EndpointStats> stats() {
+        return List.of(submitStats, updateStats);
+    }
+
+    /**
+     * Replays the arrival curve and waits for the outstanding responses.
+     * @return Wall-clock seconds from the first arrival until the last response
+     */
+    public double run() throws InterruptedException {
+        long start = System.nanoTime();
+        double t = 0;
+        long arrivals = 0;
+        long nextProgress = 10;
+
+        while ((t = curve.nextArrival(t, random)) >= 0) {
+            long scheduledAt = start + (long) (t * 1_000_000_000L);
+            long wait = scheduledAt - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            arrivals++;
+            dispatch(scheduledAt);
+
+            if (t >= nextProgress) {
+                System.out.printf("t=%3.0fs rate=%6.1f/s arrivals=%d in-flight=%d%n",
+                    t, curve.rateAt(t), arrivals, inFlightCount());
+                nextProgress += 10;
+            }
+        }
+
+        // Wait for in-flight requests before closing the window
+        long deadline = System.nanoTime() + timeout.toNanos() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlightCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private int inFlightCount() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    private void dispatch(long scheduledAt) {
+        Submitted previous = random.nextDouble() < updateRatio ? submitted.poll() : null;
+        Slot slot = previous == null ? unsubmitted.poll() : null;
+        if (previous == null && slot == null) {
+            // Every slot is used, so late arrivals re-upload
+            previous = submitted.poll();
+        }
+        if (previous == null && slot == null) {
+            return;
+        }
+
+        EndpointStats stats = previous != null ? updateStats : submitStats;
+        if (!inFlight.tryAcquire()) {
+            stats.recordDropped();
+            if (previous != null) {
+                submitted.add(previous);
+            } else {
+                unsubmitted.add(slot);
+            }
+            return;
+        }
+
+        String boundary = "----igaloadtest" + Long.toHexString(random.nextLong());
+        HttpRequest request;
+        if (previous != null) {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/submissions/update/" + previous.submissionId()))
+                .header("Authorization", "Bearer " + previous.token())
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(timeout)
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, null)))
+                .build();
+        } else {
+            request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/submissions/submit"))
+                .header("Authorization", "Bearer " + slot.token())
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(timeout)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(multipart(boundary, slot.assignmentId())))
+                .build();
+        }
+
+        final Submitted resubmitted = previous;
+        final Slot firstSubmission = slot;
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+            .whenComplete((response, error) -> {
+                try {
+                    long latencyMicros = (System.nanoTime() - scheduledAt) / 1000;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        if (cause instanceof HttpTimeoutException) {
+                            stats.recordTimeout(latencyMicros);
+                        } else {
+                            stats.record(latencyMicros, 0, false);
+                        }
+                        requeue(resubmitted);
+                        return;
+                    }
+
+                    JsonNode body = parse(response.body());
+                    boolean accepted = response.statusCode() / 100 == 2 && body.path("success").asBoolean(false);
+                    stats.record(latencyMicros, response.statusCode(), accepted);
+
+                    if (accepted && resubmitted != null) {
+                        submitted.add(resubmitted);
+                    } else if (accepted) {
+                        UUID submissionId = UUID.fromString(body.path("data").path("id").asText());
+                        submitted.add(new Submitted(firstSubmission.token(), submissionId));
+                    } else {
+                        requeue(resubmitted);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+    }
+
+    private void requeue(Submitted resubmitted) {
+        if (resubmitted != null) {
+            submitted.add(resubmitted);
+        }
+        // A failed first submission is not retried, a real student would get an error page
+    }
+
+    private JsonNode parse(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (Exception ex) {
+            return mapper.createObjectNode();
+        }
+    }
+
+    private byte[] multipart(String boundary, UUID assignmentId) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(fileContents.length + 512);
+        if (assignmentId != null) {
+            write(out, "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"assignmentId\"\r\n\r\n"
+                + assignmentId + "\r\n");
+        }
+        write(out, "--" + boundary + "\r\n"
+            + "Content-Disposition: form-data; name=\"submissionFile\"; filename=\"submission.pdf\"\r\n"
+            + "Content-Type: application/pdf\r\n\r\n");
+        out.writeBytes(fileContents);
+        write(out, "\r\n--" + boundary + "--\r\n");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void close() {
+        callbacks.shutdownNow();
+    }
+}
@@ -0,0 +1,187 @@
+package com.work.IGA.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Compares request handling on platform threads with virtual threads under the same load.
+ *
+ * For every mode in loadtest.threading.modes a fresh embedded Postgres, storage stub,
+ * Flutterwave simulator and backend are started, the payment catalog is seeded and
+ * loadtest.threading.curve is replayed against /initiate/course, so the runs see the same
+ * arrivals and the same simulated gateway latencies. Each run records endpoint throughput
+ * and tail latency, Hikari waiters, the connection admission counters and, on virtual
+ * threads, how often a thread pinned its carrier (from -Djdk.tracePinnedThreads). The report
+ * is written to loadtest.threading.report-file.
+ *
+ * Virtual threads need the load test itself to run on Java 21 or later, the backend is
+ * started with the same JVM.
+ */
+public class ThreadingModeLoadTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.load();
+        ArrivalCurve curve = ArrivalCurve.parse(config.get("loadtest.threading.curve"));
+        List<String> modes = new ArrayList<>();
+        for (String mode : config.get("loadtest.threading.modes").split(",")) {
+            mode = mode.trim();
+            if (!mode.equals("platform") && !mode.equals("virtual")) {
+                throw new IllegalArgumentException("Unknown threading mode: " + mode);
+            }
+            modes.add(mode);
+        }
+        if (modes.contains("virtual") && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21+, running on " + Runtime.version());
+        }
+        System.out.println("Arrival curve: " + curve + ", modes: " + modes);
+
+        List<Map<String, Object>> runs = new ArrayList<>();
+        for (String mode : modes) {
+            runs.add(run(withMode(config, mode), mode, curve));
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("finishedAt", Instant.now().toString());
+        report.put("java", Runtime.version().toString());
+        report.put("curve", curve.toString());
+        report.put("settings", config.asProperties());
+        report.put("runs", runs);
+
+        print(runs);
+        File reportFile = new File(config.get("loadtest.threading.report-file"));
+        if (reportFile.getParentFile() != null) {
+            reportFile.getParentFile().mkdirs();
+        }
+        MAPPER.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, report);
+        System.out.println("Report written to " + reportFile.getAbsolutePath());
+    }
+
+    /**
+     * Appends the mode's switches to the backend arguments. Tomcat's thread cap only limits the
+     * platform run; with virtual threads every request gets its own thread.
+     */
+    private static LoadTestConfig withMode(LoadTestConfig config, String mode) {
+        boolean virtual = mode.equals("virtual");
+        String args = String.join(" ", config.getArgs("loadtest.backend.args"))
+            + " --spring.threads.virtual.enabled=" + virtual
+            + " --server.tomcat.threads.max=" + config.get("loadtest.threading.tomcat-max-threads");
+        String jvmArgs = String.join(" ", config.getArgs("loadtest.backend.jvm-args"));
+        if (virtual) {
+            jvmArgs += " -Djdk.tracePinnedThreads=short";
+        }
+        return config.with("loadtest.backend.args", args.trim()).with("loadtest.backend.jvm-args", jvmArgs.trim());
+    }
+
+    private static Map<String, Object> run(LoadTestConfig config, String mode, ArrivalCurve curve) throws Exception {
+        System.out.println();
+        System.out.println("==== " + mode + " threads ====");
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             ExternalServicesStub stub = ExternalServicesStub.start(config);
+             FlutterwaveSimulator simulator = FlutterwaveSimulator.start(config);
+             BackendProcess backend = BackendProcess.start(config, postgres.getJdbcUrl("postgres", "postgres"),
+                 stub.baseUrl(), simulator.baseUrl() + "/v3",
+                 Map.of("FLW_WEBHOOK_HASH", config.get("loadtest.flutterwave.webhook-hash")))) {
+
+            simulator.setWebhookUrl(backend.baseUrl() + "/api/public/payments/webhook");
+            backend.awaitReady(Duration.ofSeconds(config.getLong("loadtest.backend.startup-timeout-seconds")));
+
+            LoadTestSeeder.PaymentSeedData seed = new LoadTestSeeder(postgres.getPostgresDatabase()).seedPaymentCatalog(config);
+            TokenFactory tokens = new TokenFactory(config.get("loadtest.jwt-secret"));
+            String adminToken = tokens.tokenFor(seed.admin(), "ADMIN");
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("mode", mode);
+            try (PoolSampler sampler = new PoolSampler(backend.jmxPort(), backend.baseUrl(), adminToken)
+                    .start(config.getLong("loadtest.sample-interval-ms"))) {
+                PaymentLoadDriver driver = new PaymentLoadDriver(config, backend.baseUrl(), curve, seed, tokens, simulator);
+                double window = driver.run();
+                driver.close();
+
+                List<Map<String, Object>> endpoints = new ArrayList<>();
+                for (EndpointStats stats : driver.stats()) {
+                    endpoints.add(stats.summary(window));
+                }
+                result.put("windowSeconds", window);
+                result.put("endpoints", endpoints);
+                result.put("pools", sampler.summary());
+            }
+            result.put("admission", fetchAdmission(backend.baseUrl(), adminToken));
+            result.put("pinnedEvents", countPinned(backend.logFile()));
+            return result;
+        }
+    }
+
+    private static Map<?, ?> fetchAdmission(String baseUrl, String adminToken) {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/admin/payments/datasource/admission"))
+                .header("Authorization", "Bearer " + adminToken)
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+            HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Map.of("status", response.statusCode());
+            }
+            return MAPPER.readValue(response.body(), Map.class);
+        } catch (Exception ex) {
+            return Map.of("error", String.valueOf(ex.getMessage()));
+        }
+    }
+
+    /**
+     * Each pinned-thread trace names the monitors held, so this counts pinning events; zero on
+     * platform threads and on JDKs where synchronized no longer pins.
+     */
+    private static long countPinned(Path logFile) throws IOException {
+        try (Stream<String> lines = Files.lines(logFile, StandardCharsets.UTF_8)) {
+            return lines.filter(line -> line.contains("<== monitors")).count();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void print(List<Map<String, Object>> runs) {
+        System.out.println();
+        System.out.printf("%-9s %-48s %8s %8s %8s %8s %9s %9s %9s %9s%n",
+            "mode", "endpoint", "requests", "errors", "ok/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms", "err rate");
+        for (Map<String, Object> run : runs) {
+            for (Map<String, Object> e : (List<Map<String, Object>>) run.get("endpoints")) {
+                if (((Number) e.get("requests")).longValue() == 0) {
+                    continue;
+                }
+                long errors = (Long) e.get("rejected") + (Long) e.get("failed") + (Long) e.get("timedOut");
+                System.out.printf("%-9s %-48s %8d %8d %8.1f %8.1f %9.1f %9.1f %9.1f %9.3f%n",
+                    run.get("mode"), e.get("endpoint"), e.get("requests"), errors, e.get("throughputPerSecond"),
+                    e.get("p50Ms"), e.get("p99Ms"), e.get("p999Ms"), e.get("maxMs"), e.get("errorRate"));
+            }
+        }
+        System.out.println();
+        for (Map<String, Object> run : runs) {
+            Map<String, Object> pools = (Map<String, Object>) run.get("pools");
+            System.out.println(run.get("mode") + ":");
+            System.out.println("    Hikari:    " + pools.get("connectionPool"));
+            System.out.println("    Admission: " + run.get("admission"));
+            System.out.println("    Pinned:    " + run.get("pinnedEvents"));
+        }
+    }
+}
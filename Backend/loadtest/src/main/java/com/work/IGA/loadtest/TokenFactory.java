@@ -0,0 +1,35 @@
+package com.work.IGA.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Mints tokens in the same shape as JwtUtils so the harness can skip the login endpoint.
+ */
+public class TokenFactory {
+
+    private final SecretKey secretKey;
+
+    public TokenFactory(String secret) {
+        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String tokenFor(LoadTestSeeder.SeededUser user, String role) {
+        Date now = new Date();
+        return Jwts.builder()
+            .setSubject(user.email())
+            .setIssuedAt(now)
+            .setExpiration(new Date(now.getTime() + 24L * 60 * 60 * 1000))
+            .claim("id", user.id().toString())
+            .claim("role", List.of("ROLE_" + role))
+            .signWith(secretKey, SignatureAlgorithm.HS384)
+            .compact();
+    }
+}
@@ -0,0 +1,18 @@
+#!/bin/sh
+# Lets the replica stream WAL from the primary.
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "${POSTGRES_USER:-postgres}" --dbname "${POSTGRES_DB:-postgres}" <<SQL
+DO \$\$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_roles WHERE rolname = 'replicator') THEN
+        CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD:-replicator}';
+    END IF;
+END
+\$\$;
+SQL
+
+if ! grep -q "^host replication replicator" "$PGDATA/pg_hba.conf"; then
+    echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
+    psql --username "${POSTGRES_USER:-postgres}" --dbname "${POSTGRES_DB:-postgres}" -c "SELECT pg_reload_conf()"
+fi
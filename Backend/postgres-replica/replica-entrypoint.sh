@@ -0,0 +1,17 @@
+#!/bin/sh
+# Clones the primary on first start and then runs as a hot standby following it.
+set -e
+
+if [ ! -s "$PGDATA/PG_VERSION" ]; then
+    echo "Cloning ${PRIMARY_HOST} into $PGDATA"
+    export PGPASSWORD="$REPLICATION_PASSWORD"
+    until pg_basebackup --host="$PRIMARY_HOST" --username=replicator --pgdata="$PGDATA" \
+            --wal-method=stream --write-recovery-conf --checkpoint=fast; do
+        echo "Primary not ready for replication, retrying"
+        rm -rf "$PGDATA"/*
+        sleep 2
+    done
+    chmod 0700 "$PGDATA"
+fi
+
+exec postgres -c hot_standby=on
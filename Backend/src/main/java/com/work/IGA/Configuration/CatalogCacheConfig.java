@@ -0,0 +1,102 @@
+package com.work.IGA.Configuration;
+
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+/**
+ * Regions of the Hibernate second-level cache. Courses, modules, resources and assignments
+ * are read on nearly every request and change rarely, so they and their collections are
+ * cached in size-bounded Caffeine caches. Hibernate is set to fail on a region that is not
+ * created here, so every cached entity gets an explicit size.
+ *
+ * Entries also expire after a TTL. Changes made on this node update the cache directly;
+ * changes made on other nodes are evicted by CatalogCacheInvalidator, and the TTL bounds
+ * staleness if a notification is ever lost.
+ */
+@Configuration
+public class CatalogCacheConfig {
+
+    public static final String COURSES = "catalog.courses";
+    public static final String MODULES = "catalog.modules";
+    public static final String RESOURCES = "catalog.resources";
+    public static final String ASSIGNMENTS = "catalog.assignments";
+    public static final String COURSE_MODULES = "catalog.course-modules";
+    public static final String MODULE_RESOURCES = "catalog.module-resources";
+    public static final String MODULE_ASSIGNMENTS = "catalog.module-assignments";
+    public static final String QUERIES = "catalog.queries";
+
+    public static final List<String> CATALOG_REGIONS = List.of(
+        COURSES, MODULES, RESOURCES, ASSIGNMENTS, COURSE_MODULES, MODULE_RESOURCES, MODULE_ASSIGNMENTS, QUERIES);
+
+    // Created by Hibernate whenever the query cache is on
+    private static final String DEFAULT_QUERY_RESULTS = "default-query-results-region";
+    private static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Value("${catalog.cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${catalog.cache.max-courses:10000}")
+    private long maxCourses;
+
+    @Value("${catalog.cache.max-modules:50000}")
+    private long maxModules;
+
+    @Value("${catalog.cache.max-resources:200000}")
+    private long maxResources;
+
+    @Value("${catalog.cache.max-assignments:100000}")
+    private long maxAssignments;
+
+    @Value("${catalog.cache.max-query-results:5000}")
+    private long maxQueryResults;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager catalogCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("iga-catalog"), getClass().getClassLoader());
+
+        createRegion(cacheManager, COURSES, maxCourses, true);
+        createRegion(cacheManager, MODULES, maxModules, true);
+        createRegion(cacheManager, RESOURCES, maxResources, true);
+        createRegion(cacheManager, ASSIGNMENTS, maxAssignments, true);
+        // One entry per owner, holding the child ids
+        createRegion(cacheManager, COURSE_MODULES, maxCourses, true);
+        createRegion(cacheManager, MODULE_RESOURCES, maxModules, true);
+        createRegion(cacheManager, MODULE_ASSIGNMENTS, maxModules, true);
+        createRegion(cacheManager, QUERIES, maxQueryResults, true);
+        createRegion(cacheManager, DEFAULT_QUERY_RESULTS, maxQueryResults, true);
+        // One entry per table; evicting or expiring one would serve stale query results
+        createRegion(cacheManager, UPDATE_TIMESTAMPS, 0, false);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer catalogCacheProperties(CacheManager catalogCacheManager) {
+        return properties -> properties.put("hibernate.javax.cache.cache_manager", catalogCacheManager);
+    }
+
+    private void createRegion(CacheManager cacheManager, String name, long maximumSize, boolean expires) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maximumSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (expires) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
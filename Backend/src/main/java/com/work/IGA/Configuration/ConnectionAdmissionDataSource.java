@@ -0,0 +1,154 @@
+package com.work.IGA.Configuration;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import com.work.IGA.Utils.DatabaseUtils.ConnectionAdmissionMetricsDto;
+
+/**
+ * Admits at most as many connection requests to the pool as it has connections, in arrival order.
+ *
+ * With virtual threads a burst of requests no longer queues in Tomcat's thread pool; every
+ * one of them would wait inside Hikari for the full connection timeout and then fail at once.
+ * Here the waiters queue on a fair semaphore instead: at most max-waiting of them, each for at
+ * most timeout-ms, and any beyond that are refused straight away so the request fails fast
+ * instead of piling onto the database.
+ */
+public class ConnectionAdmissionDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final int maxWaiting;
+    private final long timeoutMillis;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public ConnectionAdmissionDataSource(DataSource target, int maxConnections, int maxWaiting, long timeoutMillis) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.maxWaiting = maxWaiting;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            Connection connection = obtainTargetDataSource().getConnection();
+            admitted.increment();
+            return (Connection) Proxy.newProxyInstance(
+                ConnectionProxy.class.getClassLoader(),
+                new Class<?>[] {ConnectionProxy.class},
+                new PermitReleasingHandler(connection)
+            );
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    private void admit() throws SQLException {
+        try {
+            // A zero timeout still honours fairness, unlike tryAcquire()
+            if (permits.tryAcquire(0, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+            if (waiting.incrementAndGet() > maxWaiting) {
+                waiting.decrementAndGet();
+                rejected.increment();
+                throw new SQLTransientConnectionException("Connection admission queue is full (" + maxWaiting + " waiting)");
+            }
+            queued.increment();
+            long start = System.nanoTime();
+            try {
+                if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    timedOut.increment();
+                    throw new SQLTransientConnectionException("No connection admitted within " + timeoutMillis + " ms");
+                }
+            } finally {
+                waiting.decrementAndGet();
+                waitNanos.add(System.nanoTime() - start);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection", ex);
+        }
+    }
+
+    public ConnectionAdmissionMetricsDto getMetrics() {
+        long queuedCount = queued.sum();
+        return new ConnectionAdmissionMetricsDto(
+            maxConnections,
+            maxWaiting,
+            maxConnections - permits.availablePermits(),
+            waiting.get(),
+            admitted.sum(),
+            queuedCount,
+            rejected.sum(),
+            timedOut.sum(),
+            queuedCount == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / queuedCount
+        );
+    }
+
+    /**
+     * Gives the permit back the first time the connection is closed
+     */
+    private final class PermitReleasingHandler implements InvocationHandler {
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Admitted " + target;
+                case "getTargetConnection":
+                    return target;
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getTargetException();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.work.IGA.Configuration;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Connection pools for the primary and, when datasource.replicas.urls is set, for its
+ * streaming replicas. Read-only transactions are routed to the replicas by
+ * ReplicaRoutingDataSource; with no replicas configured the primary pool is used directly.
+ * Requests for a primary connection pass ConnectionAdmissionDataSource first.
+ */
+@Configuration
+@Slf4j
+public class DataSourceConfig {
+
+    @Value("${datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${datasource.admission.enabled:${spring.threads.virtual.enabled:false}}")
+    private boolean admissionEnabled;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("iga-primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ConnectionAdmissionDataSource connectionAdmissionDataSource(
+            HikariDataSource primaryDataSource,
+            @Value("${datasource.admission.max-waiting:200}") int maxWaiting,
+            @Value("${datasource.admission.timeout-ms:0}") long timeoutMillis) {
+        // Unset, a request waits as long as it would have waited on the pool itself
+        long timeout = timeoutMillis > 0 ? timeoutMillis : primaryDataSource.getConnectionTimeout();
+        return new ConnectionAdmissionDataSource(primaryDataSource, primaryDataSource.getMaximumPoolSize(), maxWaiting, timeout);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ConnectionAdmissionDataSource connectionAdmissionDataSource,
+            MeterRegistry meterRegistry,
+            @Value("${datasource.replicas.username:${spring.datasource.username}}") String username,
+            @Value("${datasource.replicas.password:${spring.datasource.password}}") String password,
+            @Value("${datasource.replicas.maximum-pool-size:5}") int maximumPoolSize,
+            @Value("${datasource.replicas.connection-timeout:2000}") long connectionTimeout,
+            @Value("${datasource.replicas.max-lag-ms:1000}") long maxLagMillis,
+            @Value("${datasource.replicas.max-lag-bytes:16777216}") long maxLagBytes,
+            @Value("${datasource.replicas.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls()) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("iga-replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url);
+            config.setDriverClassName(primaryDataSource.getDriverClassName());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setConnectionTimeout(connectionTimeout);
+            config.setReadOnly(true);
+            // A replica that is down at startup is left out of rotation instead of failing the boot
+            config.setInitializationFailTimeout(-1);
+            config.setMetricRegistry(meterRegistry);
+            replicas.add(new HikariDataSource(config));
+        }
+        if (!replicas.isEmpty()) {
+            log.info("Routing read-only transactions to {} replica(s), max lag {} ms", replicas.size(), maxLagMillis);
+        }
+        DataSource primary = admissionEnabled ? connectionAdmissionDataSource : primaryDataSource;
+        return new ReplicaRoutingDataSource(primary, replicas, maxLagMillis, maxLagBytes, readYourWritesMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ConnectionAdmissionDataSource connectionAdmissionDataSource,
+                                 ReplicaRoutingDataSource replicaRoutingDataSource) {
+        if (!replicaRoutingDataSource.hasReplicas()) {
+            return admissionEnabled ? connectionAdmissionDataSource : primaryDataSource;
+        }
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+        // Hikari's defaults, so the proxy never opens a connection just to read them
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /**
+     * Spring keeps a session's connection until the session closes, which with open-in-view is the
+     * end of the request: a request calling Flutterwave or Supabase after its first query held one
+     * of the few connections for the whole call, and the first transaction would pick the database
+     * for every later one. Releasing it after each transaction frees it for other requests and
+     * lets every transaction be routed on its own.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer connectionHandling() {
+        return properties -> properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+    }
+
+    private List<String> replicaUrls() {
+        return Arrays.stream(replicaUrls.split(","))
+            .map(String::trim)
+            .filter(url -> !url.isEmpty())
+            .toList();
+    }
+}
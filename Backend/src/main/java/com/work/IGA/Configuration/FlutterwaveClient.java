@@ -0,0 +1,370 @@
+package com.work.IGA.Configuration;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.classic.methods.HttpUriRequestBase;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.work.IGA.Utils.PaymentUtils.GatewayCircuitBreaker;
+import com.work.IGA.Utils.PaymentUtils.GatewayMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.LatencyHistogram;
+import com.work.IGA.Utils.PaymentUtils.PaymentException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HTTP client for the Flutterwave v3 API.
+ *
+ * Connections come from a keep-alive pool and every operation has its own response
+ * timeout. Only transaction verification is retried, since it is a read; payment
+ * initiation and refunds are never replayed. Initiation is refused while the circuit
+ * breaker is open so checkout fails fast instead of tying up request threads on a
+ * degraded gateway.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlutterwaveClient {
+
+    public enum Operation {
+        INITIATE_PAYMENT,
+        VERIFY_TRANSACTION,
+        VERIFY_BY_REFERENCE,
+        REFUND
+    }
+
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${flutterwave.api.base.url}")
+    private String baseUrl;
+
+    @Value("${flutterwave.api.secret.key}")
+    private String secretKey;
+
+    @Value("${flutterwave.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${flutterwave.http.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${flutterwave.http.pool-timeout-ms:1000}")
+    private long poolTimeoutMs;
+
+    @Value("${flutterwave.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${flutterwave.http.initiate-timeout-ms:10000}")
+    private long initiateTimeoutMs;
+
+    @Value("${flutterwave.http.verify-timeout-ms:5000}")
+    private long verifyTimeoutMs;
+
+    @Value("${flutterwave.http.refund-timeout-ms:15000}")
+    private long refundTimeoutMs;
+
+    @Value("${flutterwave.http.verify-max-attempts:3}")
+    private int verifyMaxAttempts;
+
+    @Value("${flutterwave.http.retry-base-delay-ms:200}")
+    private long retryBaseDelayMs;
+
+    @Value("${flutterwave.http.retry-max-delay-ms:2000}")
+    private long retryMaxDelayMs;
+
+    @Value("${flutterwave.circuit.window-size:20}")
+    private int circuitWindowSize;
+
+    @Value("${flutterwave.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls;
+
+    @Value("${flutterwave.circuit.failure-rate-threshold:50}")
+    private int circuitFailureRateThreshold;
+
+    @Value("${flutterwave.circuit.open-ms:30000}")
+    private long circuitOpenMs;
+
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private GatewayCircuitBreaker circuitBreaker;
+
+    private final Map<Operation, LatencyHistogram> latency = new EnumMap<>(Operation.class);
+    private final LongAdder rejectedByCircuit = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            // Every call goes to the same host
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .setTimeToLive(TimeValue.ofMinutes(5))
+                .build())
+            .build();
+        httpClient = HttpClients.custom()
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+            .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+            .evictExpiredConnections()
+            // Retries are decided per operation below, never by the transport
+            .disableAutomaticRetries()
+            .build();
+        circuitBreaker = new GatewayCircuitBreaker(circuitWindowSize, circuitMinimumCalls,
+            circuitFailureRateThreshold, circuitOpenMs);
+        for (Operation operation : Operation.values()) {
+            latency.put(operation, new LatencyHistogram());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        httpClient.close();
+    }
+
+    /**
+     * Whether a new checkout should be attempted at all; lets callers refuse before
+     * creating a payment record.
+     */
+    public boolean isAcceptingPayments() {
+        return circuitBreaker.getState() != GatewayCircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Takes the circuit breaker's permit for one checkout before anything is persisted for it;
+     * refused while the breaker is open or its HALF_OPEN probe is in flight. Closing a permit
+     * that was not passed to {@link #initiatePayment} gives it back.
+     */
+    public CheckoutPermit acquireCheckout() throws PaymentException {
+        if (!circuitBreaker.tryAcquire()) {
+            rejectedByCircuit.increment();
+            throw PaymentException.gatewayUnavailable();
+        }
+        return new CheckoutPermit();
+    }
+
+    public Map<String, Object> initiatePayment(CheckoutPermit permit, Map<String, Object> payload) throws PaymentException {
+        permit.used = true;
+        HttpPost request = new HttpPost(baseUrl + "/payments");
+        request.setEntity(new StringEntity(toJson(payload), ContentType.APPLICATION_JSON));
+        return executeOnce(Operation.INITIATE_PAYMENT, request, initiateTimeoutMs);
+    }
+
+    /**
+     * GET /transactions/{id}/verify, retried with jittered backoff on connection
+     * errors, timeouts, 429 and 5xx responses
+     */
+    public Map<String, Object> verifyTransaction(String transactionId) throws PaymentException {
+        return withRetries(() -> execute(Operation.VERIFY_TRANSACTION,
+            new HttpGet(baseUrl + "/transactions/" + transactionId + "/verify"), verifyTimeoutMs, false));
+    }
+
+    /**
+     * GET /transactions/verify_by_reference for payments where only our tx_ref is known.
+     * Retried like {@link #verifyTransaction}. An unknown reference is answered with a 4xx
+     * whose body has status "error"; that body is returned instead of thrown.
+     */
+    public Map<String, Object> verifyByReference(String txRef) throws PaymentException {
+        String url = baseUrl + "/transactions/verify_by_reference?tx_ref="
+            + URLEncoder.encode(txRef, StandardCharsets.UTF_8);
+        return withRetries(() -> execute(Operation.VERIFY_BY_REFERENCE, new HttpGet(url), verifyTimeoutMs, true));
+    }
+
+    private Map<String, Object> withRetries(GatewayCall call) throws PaymentException {
+        int attempt = 1;
+        while (true) {
+            try {
+                return call.run();
+            } catch (RetryableGatewayException ex) {
+                if (attempt >= verifyMaxAttempts) {
+                    throw ex.toPaymentException();
+                }
+                retries.increment();
+                sleepBeforeRetry(attempt++);
+            }
+        }
+    }
+
+    public Map<String, Object> refund(String transactionId, Map<String, Object> payload) throws PaymentException {
+        HttpPost request = new HttpPost(baseUrl + "/transactions/" + transactionId + "/refund");
+        request.setEntity(new StringEntity(toJson(payload), ContentType.APPLICATION_JSON));
+        return executeOnce(Operation.REFUND, request, refundTimeoutMs);
+    }
+
+    private Map<String, Object> executeOnce(Operation operation, HttpUriRequestBase request, long responseTimeoutMs)
+            throws PaymentException {
+        try {
+            return execute(operation, request, responseTimeoutMs, false);
+        } catch (RetryableGatewayException ex) {
+            throw ex.toPaymentException();
+        }
+    }
+
+    private Map<String, Object> execute(Operation operation, HttpUriRequestBase request, long responseTimeoutMs,
+                                        boolean returnClientErrors) throws PaymentException {
+        request.setHeader(HttpHeaders.AUTHORIZATION, "Bearer " + secretKey);
+        request.setHeader(HttpHeaders.ACCEPT, "application/json");
+        request.setConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolTimeoutMs))
+            .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMs))
+            .build());
+
+        long start = System.nanoTime();
+        boolean gatewayFailure = true;
+        try {
+            GatewayReply reply = httpClient.execute(request, response -> new GatewayReply(
+                response.getCode(),
+                response.getEntity() == null ? null : EntityUtils.toString(response.getEntity())
+            ));
+            if (reply.status() == 429 || reply.status() >= 500) {
+                throw new RetryableGatewayException(operation + " returned HTTP " + reply.status());
+            }
+            // A 4xx is an answer about the request, not a sign that the gateway is unhealthy
+            gatewayFailure = false;
+            Map<String, Object> body = parse(reply.body());
+            if (reply.status() >= 400 && !returnClientErrors) {
+                Object message = body.get("message");
+                throw PaymentException.paymentGatewayError(operation + " rejected with HTTP " + reply.status()
+                    + (message != null ? ": " + message : ""));
+            }
+            return body;
+        } catch (IOException ex) {
+            throw new RetryableGatewayException(operation + " failed: " + ex.getMessage());
+        } finally {
+            long elapsedNanos = System.nanoTime() - start;
+            latency.get(operation).record(elapsedNanos / 1_000_000, gatewayFailure);
+            Timer.builder(MetricsConfig.EXTERNAL_REQUESTS)
+                .tag("service", "flutterwave")
+                .tag("operation", operation.name())
+                .tag("outcome", gatewayFailure ? "error" : "success")
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+            if (gatewayFailure) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+        }
+    }
+
+    private Map<String, Object> parse(String body) throws PaymentException {
+        if (body == null || body.isBlank()) {
+            throw PaymentException.paymentGatewayError("Empty response from payment gateway");
+        }
+        try {
+            return objectMapper.readValue(body, JSON_MAP);
+        } catch (IOException ex) {
+            throw PaymentException.paymentGatewayError("Unreadable response from payment gateway");
+        }
+    }
+
+    private String toJson(Map<String, Object> payload) throws PaymentException {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (IOException ex) {
+            throw PaymentException.paymentGatewayError("Could not serialise gateway request: " + ex.getMessage());
+        }
+    }
+
+    // Full jitter on an exponential backoff
+    private void sleepBeforeRetry(int attempt) throws PaymentException {
+        long ceiling = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw PaymentException.paymentGatewayError("Interrupted while waiting to retry");
+        }
+    }
+
+    public GatewayMetricsDto getMetrics() {
+        Map<String, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+        latency.forEach((operation, histogram) -> snapshots.put(operation.name(), histogram.snapshot()));
+        PoolStats pool = connectionManager.getTotalStats();
+        return new GatewayMetricsDto(
+            circuitBreaker.getState().name(),
+            circuitBreaker.getFailureRate(),
+            circuitBreaker.getTimesOpened(),
+            rejectedByCircuit.sum(),
+            retries.sum(),
+            pool.getLeased(),
+            pool.getAvailable(),
+            pool.getPending(),
+            snapshots
+        );
+    }
+
+    @FunctionalInterface
+    private interface GatewayCall {
+        Map<String, Object> run() throws PaymentException;
+    }
+
+    private record GatewayReply(int status, String body) {
+    }
+
+    /**
+     * Circuit breaker admission for one checkout; handed back on close if the call was never made.
+     */
+    public final class CheckoutPermit implements AutoCloseable {
+        private boolean used;
+
+        private CheckoutPermit() {
+        }
+
+        @Override
+        public void close() {
+            if (!used) {
+                circuitBreaker.releaseUnused();
+            }
+        }
+    }
+
+    /**
+     * Transport failure or a 429/5xx answer. Unchecked so it can leave the response
+     * handler; converted to a PaymentException before it reaches callers.
+     */
+    private static class RetryableGatewayException extends RuntimeException {
+        RetryableGatewayException(String message) {
+            super(message);
+        }
+
+        PaymentException toPaymentException() {
+            return PaymentException.paymentGatewayError(getMessage());
+        }
+    }
+}
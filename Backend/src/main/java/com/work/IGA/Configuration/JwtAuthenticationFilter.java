@@ -19,6 +19,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtils jwtUtils;
     private final CustomUserDetailsServices customUserDetailsServices;
 
+    private static final String NOTIFICATION_STREAM_PATH = "/api/v1/notifications/stream";
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -78,6 +80,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             System.out.println("Extracted token length: " + token.length());
             return token;
         }
+        // EventSource cannot send headers, so only the notification stream accepts the token as a query parameter
+        String queryToken = request.getParameter("token");
+        if (queryToken != null && !queryToken.isEmpty() && request.getRequestURI().equals(NOTIFICATION_STREAM_PATH)) {
+            return queryToken;
+        }
         return null;
     }
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.security.Keys;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.UUID;
 import jakarta.annotation.PostConstruct;
 
 
@@ -76,6 +77,19 @@ public class JwtUtils {
                 .getSubject();
     }
 
+    /**
+     * @return The user id carried in the "id" claim, or null for tokens without it
+     */
+    public UUID getUserIdFromJwtToken(String token) {
+        Object id = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .get("id");
+        return id == null ? null : UUID.fromString(id.toString());
+    }
+
     public boolean validateJwtToken(String token) {
         try {
             System.out.println("=== VALIDATING JWT TOKEN ===");
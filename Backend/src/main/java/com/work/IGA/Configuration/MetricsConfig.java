@@ -0,0 +1,275 @@
+package com.work.IGA.Configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import com.work.IGA.Services.CacheServices.CacheInvalidationBus;
+import com.work.IGA.Services.CourseServices.EnrollmentExistenceFilter;
+import com.work.IGA.Services.CourseServices.EnrollmentOutboxService;
+import com.work.IGA.Services.CourseServices.EntitlementCache;
+import com.work.IGA.Services.CourseServices.PaymentReconciliationService;
+import com.work.IGA.Services.CourseServices.PaymentWebhookInboxService;
+import com.work.IGA.Services.CourseServices.ProgressEventBuffer;
+import com.work.IGA.Services.CourseServices.SubmissionIngestionService;
+import com.work.IGA.Services.NotificationServices.NotificationHub;
+import com.work.IGA.Utils.CacheUtils.CacheInvalidationMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ConnectionAdmissionMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ReplicaRoutingMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ReplicaStatusDto;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentFilterMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentOutboxMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.EntitlementMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.ProgressEventMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.GatewayMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.ReconciliationMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.WebhookInboxMetricsDto;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.IngestionMetricsDto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Application metrics for the Prometheus endpoint.
+ *
+ * Service beans are timed by {@link ServiceMetricsInterceptor}. The in-memory components
+ * called on every request (entitlement cache, enrollment filter, progress buffer,
+ * counters, notification hub, cache invalidation bus) are left out of the pointcut: a proxy hop would cost more
+ * than the work they do, and they already keep their own counters, which are exported
+ * here from the same snapshots the admin metrics endpoints return. Snapshots that run a
+ * query are reused for a few seconds so one scrape does not repeat it per gauge.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String EXTERNAL_REQUESTS = "iga.external.requests";
+
+    private static final String SERVICE_POINTCUT =
+        "execution(public * com.work.IGA.Services..*(..))" +
+        " && !within(com.work.IGA.Services.CourseServices.EntitlementCache)" +
+        " && !within(com.work.IGA.Services.CourseServices.EnrollmentExistenceFilter)" +
+        " && !within(com.work.IGA.Services.CourseServices.ProgressEventBuffer)" +
+        " && !within(com.work.IGA.Services.CourseServices.EnrollmentCounterService)" +
+        " && !within(com.work.IGA.Services.NotificationServices.NotificationHub)" +
+        " && !within(com.work.IGA.Services.CacheServices.CacheInvalidationBus)" +
+        // Scrapes call these; timing them would only measure the scraper
+        " && !execution(* getMetrics())";
+
+    @Value("${metrics.snapshot-ttl-ms:5000}")
+    private long snapshotTtlMs;
+
+    // Meters only hold their object weakly and nothing else references a snapshot
+    private final List<Snapshot<?>> snapshots = new CopyOnWriteArrayList<>();
+
+    /**
+     * Ordered first so the timer includes the transaction commit. Static, and the registry is
+     * resolved lazily: advisors are created before the other beans are post-processed, and
+     * anything they pull in early (this class, the registry) would miss that processing.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "metrics.services.enabled", havingValue = "true", matchIfMissing = true)
+    public static Advisor serviceMetricsAdvisor(ObjectProvider<MeterRegistry> registry) {
+        AspectJExpressionPointcutAdvisor advisor = new AspectJExpressionPointcutAdvisor();
+        advisor.setExpression(SERVICE_POINTCUT);
+        advisor.setAdvice(new ServiceMetricsInterceptor(registry::getObject));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    public MeterBinder entitlementMetrics(EntitlementCache entitlementCache, EnrollmentExistenceFilter enrollmentFilter) {
+        return registry -> {
+            Supplier<EntitlementMetricsDto> cache = snapshot(entitlementCache::getMetrics);
+            gauge(registry, "iga.entitlements.cached.students", cache, EntitlementMetricsDto::getCachedStudents);
+            gauge(registry, "iga.entitlements.weighted.size", cache, EntitlementMetricsDto::getWeightedSize);
+            counter(registry, "iga.entitlements.hits", cache, EntitlementMetricsDto::getHits);
+            counter(registry, "iga.entitlements.misses", cache, EntitlementMetricsDto::getMisses);
+            counter(registry, "iga.entitlements.queries.avoided", cache, EntitlementMetricsDto::getDatabaseQueriesAvoided);
+            counter(registry, "iga.entitlements.grants", cache, EntitlementMetricsDto::getGrants);
+            counter(registry, "iga.entitlements.revocations", cache, EntitlementMetricsDto::getRevocations);
+            counter(registry, "iga.entitlements.remote.invalidations", cache, EntitlementMetricsDto::getRemoteInvalidations);
+
+            Supplier<EnrollmentFilterMetricsDto> filter = snapshot(enrollmentFilter::getMetrics);
+            gauge(registry, "iga.enrollment.filter.memory.bytes", filter, EnrollmentFilterMetricsDto::getMemoryBytes);
+            gauge(registry, "iga.enrollment.filter.insertions", filter, EnrollmentFilterMetricsDto::getInsertions);
+            gauge(registry, "iga.enrollment.filter.expected.fpp", filter, EnrollmentFilterMetricsDto::getExpectedFpp);
+            gauge(registry, "iga.enrollment.filter.observed.fpp", filter, EnrollmentFilterMetricsDto::getObservedFpp);
+            counter(registry, "iga.enrollment.filter.checks", filter, EnrollmentFilterMetricsDto::getChecks);
+            counter(registry, "iga.enrollment.filter.definite.negatives", filter, EnrollmentFilterMetricsDto::getDefiniteNegatives);
+            counter(registry, "iga.enrollment.filter.false.positives", filter, EnrollmentFilterMetricsDto::getFalsePositives);
+            counter(registry, "iga.enrollment.filter.rebuilds", filter, EnrollmentFilterMetricsDto::getRebuilds);
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheInvalidationMetrics(CacheInvalidationBus invalidationBus) {
+        return registry -> {
+            Supplier<CacheInvalidationMetricsDto> bus = snapshot(invalidationBus::getMetrics);
+            gauge(registry, "iga.cache.invalidation.listening", bus, metrics -> metrics.isListening() ? 1 : 0);
+            counter(registry, "iga.cache.invalidation.sent", bus, CacheInvalidationMetricsDto::getNotificationsSent);
+            counter(registry, "iga.cache.invalidation.received", bus, CacheInvalidationMetricsDto::getNotificationsReceived);
+            counter(registry, "iga.cache.invalidation.gaps", bus, CacheInvalidationMetricsDto::getGapsDetected);
+            counter(registry, "iga.cache.invalidation.full.refreshes", bus, CacheInvalidationMetricsDto::getFullRefreshes);
+            counter(registry, "iga.cache.invalidation.reconnects", bus, CacheInvalidationMetricsDto::getReconnects);
+        };
+    }
+
+    @Bean
+    public MeterBinder replicaRoutingMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return registry -> {
+            // Pool sizes of the replicas are exported by Hikari itself
+            Supplier<ReplicaRoutingMetricsDto> routing = snapshot(replicaRoutingDataSource::getMetrics);
+            gauge(registry, "iga.datasource.replicas.eligible", routing, ReplicaRoutingMetricsDto::getEligibleReplicas);
+            gauge(registry, "iga.datasource.replicas.max.lag.millis", routing,
+                metrics -> metrics.getReplicaStatus().stream().mapToLong(ReplicaStatusDto::getLagMillis).max().orElse(0));
+            counter(registry, "iga.datasource.reads.replica", routing, ReplicaRoutingMetricsDto::getReplicaReads);
+            counter(registry, "iga.datasource.reads.pinned", routing, ReplicaRoutingMetricsDto::getPinnedReads);
+            counter(registry, "iga.datasource.reads.fallback", routing, ReplicaRoutingMetricsDto::getFallbackReads);
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionAdmissionMetrics(ConnectionAdmissionDataSource connectionAdmission) {
+        return registry -> {
+            Supplier<ConnectionAdmissionMetricsDto> admission = snapshot(connectionAdmission::getMetrics);
+            gauge(registry, "iga.datasource.admission.in.use", admission, ConnectionAdmissionMetricsDto::getInUse);
+            gauge(registry, "iga.datasource.admission.waiting", admission, ConnectionAdmissionMetricsDto::getWaiting);
+            counter(registry, "iga.datasource.admission.queued", admission, ConnectionAdmissionMetricsDto::getQueued);
+            counter(registry, "iga.datasource.admission.rejected", admission, ConnectionAdmissionMetricsDto::getRejected);
+            counter(registry, "iga.datasource.admission.timed.out", admission, ConnectionAdmissionMetricsDto::getTimedOut);
+        };
+    }
+
+    @Bean
+    public MeterBinder enrollmentPipelineMetrics(EnrollmentOutboxService enrollmentOutbox, ProgressEventBuffer progressEventBuffer) {
+        return registry -> {
+            Supplier<EnrollmentOutboxMetricsDto> outbox = snapshot(enrollmentOutbox::getMetrics);
+            gauge(registry, "iga.enrollment.outbox.backlog", outbox, EnrollmentOutboxMetricsDto::getBacklog);
+            gauge(registry, "iga.enrollment.outbox.oldest.pending.seconds", outbox, EnrollmentOutboxMetricsDto::getOldestPendingSeconds);
+            counter(registry, "iga.enrollment.outbox.enrolled", outbox, EnrollmentOutboxMetricsDto::getEnrolled);
+            counter(registry, "iga.enrollment.outbox.retried", outbox, EnrollmentOutboxMetricsDto::getRetried);
+            counter(registry, "iga.enrollment.outbox.dead", outbox, EnrollmentOutboxMetricsDto::getDead);
+
+            Supplier<ProgressEventMetricsDto> progress = snapshot(progressEventBuffer::getMetrics);
+            gauge(registry, "iga.progress.events.buffered", progress, ProgressEventMetricsDto::getBuffered);
+            gauge(registry, "iga.progress.events.last.flush.millis", progress, ProgressEventMetricsDto::getLastFlushMillis);
+            counter(registry, "iga.progress.events.accepted", progress, ProgressEventMetricsDto::getAccepted);
+            counter(registry, "iga.progress.events.coalesced", progress, ProgressEventMetricsDto::getCoalesced);
+            counter(registry, "iga.progress.events.dropped", progress, ProgressEventMetricsDto::getDropped);
+            counter(registry, "iga.progress.events.failed.flushes", progress, ProgressEventMetricsDto::getFailedFlushes);
+            counter(registry, "iga.progress.events.rows.written", progress, ProgressEventMetricsDto::getRowsWritten);
+        };
+    }
+
+    @Bean
+    public MeterBinder paymentMetrics(FlutterwaveClient flutterwaveClient, PaymentWebhookInboxService webhookInbox,
+                                      PaymentReconciliationService reconciliationService) {
+        return registry -> {
+            // Request latency is timed per call as iga.external.requests; these are the pool and breaker
+            Supplier<GatewayMetricsDto> gateway = snapshot(flutterwaveClient::getMetrics);
+            gauge(registry, "iga.gateway.connections.leased", gateway, GatewayMetricsDto::getLeasedConnections);
+            gauge(registry, "iga.gateway.connections.available", gateway, GatewayMetricsDto::getAvailableConnections);
+            gauge(registry, "iga.gateway.connections.pending", gateway, GatewayMetricsDto::getPendingConnectionRequests);
+            gauge(registry, "iga.gateway.circuit.open", gateway, metrics -> "OPEN".equals(metrics.getCircuitState()) ? 1 : 0);
+            gauge(registry, "iga.gateway.failure.rate", gateway, GatewayMetricsDto::getFailureRate);
+            counter(registry, "iga.gateway.rejected.by.circuit", gateway, GatewayMetricsDto::getRejectedByCircuit);
+            counter(registry, "iga.gateway.retries", gateway, GatewayMetricsDto::getRetries);
+
+            Supplier<WebhookInboxMetricsDto> inbox = snapshot(webhookInbox::getMetrics);
+            gauge(registry, "iga.webhook.inbox.backlog", inbox, WebhookInboxMetricsDto::getBacklog);
+            gauge(registry, "iga.webhook.inbox.in.flight", inbox, WebhookInboxMetricsDto::getInFlight);
+            gauge(registry, "iga.webhook.inbox.oldest.pending.seconds", inbox, WebhookInboxMetricsDto::getOldestPendingSeconds);
+            counter(registry, "iga.webhook.inbox.received", inbox, WebhookInboxMetricsDto::getReceived);
+            counter(registry, "iga.webhook.inbox.duplicates", inbox, WebhookInboxMetricsDto::getDuplicates);
+            counter(registry, "iga.webhook.inbox.processed", inbox, WebhookInboxMetricsDto::getProcessed);
+            counter(registry, "iga.webhook.inbox.dead", inbox, WebhookInboxMetricsDto::getDead);
+
+            Supplier<ReconciliationMetricsDto> reconciliation = snapshot(reconciliationService::getMetrics);
+            gauge(registry, "iga.reconciliation.last.run.millis", reconciliation, ReconciliationMetricsDto::getLastRunDurationMillis);
+            counter(registry, "iga.reconciliation.examined", reconciliation, ReconciliationMetricsDto::getExamined);
+            counter(registry, "iga.reconciliation.completed", reconciliation, ReconciliationMetricsDto::getCompleted);
+            counter(registry, "iga.reconciliation.failed", reconciliation, ReconciliationMetricsDto::getFailed);
+            counter(registry, "iga.reconciliation.errors", reconciliation, ReconciliationMetricsDto::getErrors);
+        };
+    }
+
+    @Bean
+    public MeterBinder submissionMetrics(SubmissionIngestionService ingestionService, NotificationHub notificationHub) {
+        return registry -> {
+            Supplier<IngestionMetricsDto> ingestion = snapshot(ingestionService::getMetrics);
+            gauge(registry, "iga.ingestion.active.workers", ingestion, IngestionMetricsDto::getActiveWorkers);
+            gauge(registry, "iga.ingestion.queue.depth", ingestion, IngestionMetricsDto::getQueueDepth);
+            gauge(registry, "iga.ingestion.pending", ingestion, IngestionMetricsDto::getPendingInDatabase);
+            counter(registry, "iga.ingestion.accepted", ingestion, IngestionMetricsDto::getAccepted);
+            counter(registry, "iga.ingestion.uploaded", ingestion, IngestionMetricsDto::getUploaded);
+            counter(registry, "iga.ingestion.failed", ingestion, IngestionMetricsDto::getFailed);
+            counter(registry, "iga.ingestion.rejected", ingestion, IngestionMetricsDto::getRejected);
+
+            Gauge.builder("iga.notifications.open.streams", notificationHub, NotificationHub::getOpenStreams).register(registry);
+            Gauge.builder("iga.notifications.subscribed.users", notificationHub, NotificationHub::getSubscribedUsers).register(registry);
+            FunctionCounter.builder("iga.notifications.delivered", notificationHub, NotificationHub::getDelivered).register(registry);
+            FunctionCounter.builder("iga.notifications.dropped", notificationHub, NotificationHub::getDropped).register(registry);
+            FunctionCounter.builder("iga.notifications.disconnected", notificationHub, NotificationHub::getDisconnected).register(registry);
+            Gauge.builder("iga.notifications.dispatch.queue.depth", notificationHub, NotificationHub::getDispatchQueueDepth).register(registry);
+        };
+    }
+
+    private <T> Supplier<T> snapshot(Supplier<T> source) {
+        Snapshot<T> snapshot = new Snapshot<>(source, snapshotTtlMs * 1_000_000);
+        snapshots.add(snapshot);
+        return snapshot;
+    }
+
+    private static <T> void gauge(MeterRegistry registry, String name, Supplier<T> snapshot, ToDoubleFunction<T> value) {
+        Gauge.builder(name, snapshot, s -> value.applyAsDouble(s.get())).register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, Supplier<T> snapshot, ToDoubleFunction<T> value) {
+        FunctionCounter.builder(name, snapshot, s -> value.applyAsDouble(s.get())).register(registry);
+    }
+
+    /**
+     * Last value of a metrics DTO, refreshed once it is older than the TTL
+     */
+    private static final class Snapshot<T> implements Supplier<T> {
+        private final Supplier<T> source;
+        private final long ttlNanos;
+        // Sources run queries; a lock rather than synchronized keeps virtual threads unpinned while they wait
+        private final ReentrantLock lock = new ReentrantLock();
+        private T value;
+        private long takenAt;
+
+        Snapshot(Supplier<T> source, long ttlNanos) {
+            this.source = source;
+            this.ttlNanos = ttlNanos;
+        }
+
+        @Override
+        public T get() {
+            lock.lock();
+            try {
+                long now = System.nanoTime();
+                if (value == null || now - takenAt > ttlNanos) {
+                    value = source.get();
+                    takenAt = now;
+                }
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.work.IGA.Configuration;
+
+import java.net.InetAddress;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.work.IGA.Utils.PaymentUtils.PaymentReferenceGenerator;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@Slf4j
+public class PaymentReferenceConfig {
+
+    /**
+     * Every instance needs its own node id for references to stay unique across nodes.
+     * When none is configured it is derived from the host name, which is fine for a
+     * handful of containers but should be set explicitly once the service is scaled out.
+     */
+    @Bean
+    public PaymentReferenceGenerator paymentReferenceGenerator(@Value("${payment.reference.node-id:-1}") int nodeId) {
+        if (nodeId < 0) {
+            nodeId = Math.floorMod(hostName().hashCode(), 1024);
+            log.warn("payment.reference.node-id is not set, using {} derived from the host name", nodeId);
+        }
+        return new PaymentReferenceGenerator(nodeId);
+    }
+
+    private static String hostName() {
+        String hostName = System.getenv("HOSTNAME");
+        if (hostName != null && !hostName.isBlank()) {
+            return hostName;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            return "localhost";
+        }
+    }
+}
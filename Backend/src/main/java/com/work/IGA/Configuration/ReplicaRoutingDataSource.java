@@ -0,0 +1,285 @@
+package com.work.IGA.Configuration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.work.IGA.Utils.DatabaseUtils.ReplicaRoutingMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ReplicaStatusDto;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sends the connections of @Transactional(readOnly = true) work to a streaming replica and
+ * everything else to the primary.
+ *
+ * A replica is only used while its health check finds it in recovery and no further behind the
+ * primary than max-lag-ms / max-lag-bytes; a replica that refuses a connection is taken out
+ * until its next successful check, and the read falls back to the primary. Writers stay on the
+ * primary, and so do reads that must see a write just made: after a read-write transaction
+ * commits, the thread that ran it and the signed-in user who made it read from the primary for
+ * read-your-writes-ms. The user pin is per instance, so it assumes the lag is far below that
+ * window when a user's next request lands on another instance.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: Hibernate opens the connection when the
+ * transaction begins, before the read-only flag is bound, and the proxy defers it to the first
+ * statement.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements TransactionExecutionListener {
+
+    private static final String PRIMARY_LSN = "SELECT pg_current_wal_lsn()::text";
+
+    // Replay lag in time is only meaningful while WAL is pending; an idle primary ages the replay timestamp
+    private static final String REPLICA_LAG =
+        "SELECT pg_is_in_recovery(), "
+            + "COALESCE(pg_wal_lsn_diff(?::pg_lsn, pg_last_wal_replay_lsn()), 0)::bigint, "
+            + "COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0)::bigint";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final long maxLagBytes;
+    private final long readYourWritesNanos;
+
+    private final ThreadLocal<Long> lastWriteOnThread = new ThreadLocal<>();
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder pinnedReads = new LongAdder();
+    private final LongAdder fallbackReads = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicaPools,
+            long maxLagMillis, long maxLagBytes, long readYourWritesMillis) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(Replica::new).toList();
+        this.maxLagMillis = maxLagMillis;
+        this.maxLagBytes = maxLagBytes;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMillis);
+        this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(readYourWritesMillis, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    public boolean hasReplicas() {
+        return !replicas.isEmpty();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty()
+                || !TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primaryConnection();
+        }
+        if (pinnedToPrimary()) {
+            pinnedReads.increment();
+            return primaryConnection();
+        }
+        for (int attempt = 0; attempt < replicas.size(); attempt++) {
+            Replica replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (!replica.eligible) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.reads.increment();
+                replicaReads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.eligible = false;
+                replica.lastError = e.getMessage();
+                log.warn("Replica {} refused a connection, reading from the primary until it recovers: {}",
+                    replica.pool.getPoolName(), e.getMessage());
+            }
+        }
+        fallbackReads.increment();
+        return primaryConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new UnsupportedOperationException("Pools are configured with their own credentials");
+    }
+
+    private Connection primaryConnection() throws SQLException {
+        primaryConnections.increment();
+        return primary.getConnection();
+    }
+
+    private boolean pinnedToPrimary() {
+        Long lastWrite = lastWriteOnThread.get();
+        if (lastWrite != null && System.nanoTime() - lastWrite < readYourWritesNanos) {
+            return true;
+        }
+        String user = currentUser();
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    /**
+     * Registered with the transaction manager; any committed read-write transaction counts as a
+     * write, whether or not it changed a row.
+     */
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction() || replicas.isEmpty()) {
+            return;
+        }
+        lastWriteOnThread.set(System.nanoTime());
+        String user = currentUser();
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    @Scheduled(
+        fixedDelayString = "${datasource.replicas.health-check-interval-ms:2000}",
+        initialDelayString = "${datasource.replicas.health-check-interval-ms:2000}"
+    )
+    public void checkReplicas() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        String primaryLsn;
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(PRIMARY_LSN)) {
+            rs.next();
+            primaryLsn = rs.getString(1);
+        } catch (SQLException e) {
+            // Without a reference position lag cannot be measured; keep the last verdicts
+            log.warn("Could not read the primary WAL position for the replica check: {}", e.getMessage());
+            return;
+        }
+        for (Replica replica : replicas) {
+            replica.check(primaryLsn);
+        }
+    }
+
+    // Called on shutdown; the primary pool is a bean of its own
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    public ReplicaRoutingMetricsDto getMetrics() {
+        List<ReplicaStatusDto> status = new ArrayList<>();
+        int eligible = 0;
+        for (Replica replica : replicas) {
+            HikariPoolMXBean pool = replica.pool.getHikariPoolMXBean();
+            status.add(new ReplicaStatusDto(
+                replica.pool.getPoolName(),
+                replica.eligible,
+                replica.reachable,
+                replica.lagMillis,
+                replica.lagBytes,
+                pool == null ? 0 : pool.getActiveConnections(),
+                pool == null ? 0 : pool.getIdleConnections(),
+                replica.reads.sum(),
+                replica.lastError,
+                replica.lastCheckedAt
+            ));
+            if (replica.eligible) {
+                eligible++;
+            }
+        }
+        return new ReplicaRoutingMetricsDto(
+            replicas.size(),
+            eligible,
+            maxLagMillis,
+            replicaReads.sum(),
+            pinnedReads.sum(),
+            fallbackReads.sum(),
+            primaryConnections.sum(),
+            status
+        );
+    }
+
+    private final class Replica {
+        private final HikariDataSource pool;
+        private final LongAdder reads = new LongAdder();
+        // Starts out of rotation until the first check has measured it
+        private volatile boolean eligible;
+        private volatile boolean reachable;
+        private volatile long lagMillis;
+        private volatile long lagBytes;
+        private volatile String lastError;
+        private volatile LocalDateTime lastCheckedAt;
+
+        private Replica(HikariDataSource pool) {
+            this.pool = pool;
+        }
+
+        private void check(String primaryLsn) {
+            boolean wasEligible = eligible;
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(REPLICA_LAG)) {
+                statement.setString(1, primaryLsn);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    boolean inRecovery = rs.getBoolean(1);
+                    lagBytes = Math.max(0, rs.getLong(2));
+                    lagMillis = lagBytes == 0 ? 0 : Math.max(0, rs.getLong(3));
+                    reachable = true;
+                    if (!inRecovery) {
+                        // A promoted or standalone server no longer follows this primary
+                        lastError = "not in recovery";
+                        eligible = false;
+                    } else if (lagBytes > maxLagBytes || lagMillis > maxLagMillis) {
+                        lastError = "lagging " + lagMillis + " ms / " + lagBytes + " bytes";
+                        eligible = false;
+                    } else {
+                        lastError = null;
+                        eligible = true;
+                    }
+                }
+            } catch (SQLException e) {
+                reachable = false;
+                eligible = false;
+                lastError = e.getMessage();
+            }
+            lastCheckedAt = LocalDateTime.now();
+            if (wasEligible != eligible) {
+                if (eligible) {
+                    log.info("Replica {} back in rotation ({} ms behind)", pool.getPoolName(), lagMillis);
+                } else {
+                    log.warn("Replica {} out of rotation: {}", pool.getPoolName(), lastError);
+                }
+            }
+        }
+    }
+}
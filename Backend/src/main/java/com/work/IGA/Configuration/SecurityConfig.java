@@ -1,6 +1,7 @@
 package com.work.IGA.Configuration;
 
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.graphql.GraphQlProperties.Http;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,9 +15,12 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
@@ -26,6 +30,12 @@ public class SecurityConfig {
     private final JwtUtils jwtUtils;
     private final CorsConfigurationSource corsConfigSource;
 
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     public SecurityConfig(
         CustomUserDetailsServices customUserDetailsServices,
         JwtAuthenticationEntryPoint unauthorizedHandler,
@@ -63,8 +73,14 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         .authorizeHttpRequests(auth ->
             auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()  
+                // Async re-dispatches of the notification stream were already authorized on the initial request
+                .requestMatchers(asyncDispatchOf("/api/v1/notifications/stream")).permitAll()
                 .requestMatchers("/api/v1/auth/**").permitAll()
                 .requestMatchers("/api/public/**").permitAll()
+                // Liveness/readiness probes; the Prometheus scrape is open only on the separate management port
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers(onManagementPort("/actuator/prometheus")).permitAll()
+                .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                 .requestMatchers("/api/v1/student/**").hasAuthority("ROLE_STUDENT")
                 .requestMatchers("/api/v1/admin/**").hasAuthority("ROLE_ADMIN")
                 .requestMatchers("/api/v1/instructor/**").hasAuthority("ROLE_INSTRUCTOR")
@@ -73,6 +89,7 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
                 .requestMatchers("/api/v1/assignment/**").hasAnyAuthority("ROLE_INSTRUCTOR", "ROLE_STUDENT")
                 .requestMatchers("/api/v1/submissions/**").hasAnyAuthority("ROLE_INSTRUCTOR", "ROLE_STUDENT")
                 .requestMatchers("/api/v1/grades/**").hasAnyAuthority("ROLE_INSTRUCTOR", "ROLE_STUDENT")
+                .requestMatchers("/api/v1/notifications/**").hasAnyAuthority("ROLE_INSTRUCTOR", "ROLE_STUDENT")
                 .requestMatchers("/api/v1/instructor/payments/**").hasAuthority("ROLE_INSTRUCTOR")
 
                 // Public courses endpoints
@@ -101,6 +118,25 @@ public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
     return http.build();
 }
 
+    /**
+     * Matches only the async re-dispatch of the path, never the request that opens it
+     */
+    private RequestMatcher asyncDispatchOf(String path) {
+        return request -> request.getDispatcherType() == DispatcherType.ASYNC
+            && path.equals(request.getRequestURI());
+    }
+
+    /**
+     * Matches the path only on requests that arrived on management.server.port, and never when
+     * the actuator shares the public port
+     */
+    private RequestMatcher onManagementPort(String path) {
+        return request -> managementPort > 0
+            && managementPort != serverPort
+            && request.getLocalPort() == managementPort
+            && path.equals(request.getRequestURI());
+    }
+
 
 
 }
\ No newline at end of file
@@ -0,0 +1,61 @@
+package com.work.IGA.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every call to a service method as iga.service.calls, tagged with the class,
+ * method and outcome. The success timer of each method is looked up once and kept, so a
+ * call costs two nanoTime reads and one timer update; failures are rare and resolve
+ * their timer (tagged with the exception type) through the registry.
+ *
+ * The registry is only looked up when a timer is created: the advisor is built while the
+ * bean post-processors are registered, and taking the registry then would create it before
+ * Spring Boot can apply its binders and common tags.
+ */
+public class ServiceMetricsInterceptor implements MethodInterceptor {
+
+    public static final String METRIC = "iga.service.calls";
+
+    private final Supplier<MeterRegistry> registry;
+    private final ConcurrentHashMap<Method, Timer> successTimers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsInterceptor(Supplier<MeterRegistry> registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            Object result = invocation.proceed();
+            Timer timer = successTimers.get(invocation.getMethod());
+            if (timer == null) {
+                timer = successTimers.computeIfAbsent(invocation.getMethod(), method -> timer(method, "success", "none"));
+            }
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable ex) {
+            timer(invocation.getMethod(), "error", ex.getClass().getSimpleName())
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw ex;
+        }
+    }
+
+    private Timer timer(Method method, String outcome, String exception) {
+        return Timer.builder(METRIC)
+            .tag("class", method.getDeclaringClass().getSimpleName())
+            .tag("method", method.getName())
+            .tag("outcome", outcome)
+            .tag("exception", exception)
+            .register(registry.get());
+    }
+}
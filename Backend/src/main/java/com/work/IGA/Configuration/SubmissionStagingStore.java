@@ -0,0 +1,113 @@
+package com.work.IGA.Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Local disk staging area for submission files that are accepted on the request
+ * thread and uploaded to Supabase later by the ingestion workers.
+ * The directory must live on a persistent volume so that staged files survive a restart.
+ *
+ * The directory has an id, kept in a file inside it, that is stored with every submission
+ * staged here; only nodes that see the same directory (the same node after a restart, or
+ * nodes sharing the volume) pick those submissions up again.
+ */
+@Service
+public class SubmissionStagingStore {
+
+    private static final Logger logger = Logger.getLogger(SubmissionStagingStore.class.getName());
+
+    @Value("${submission.staging.dir}")
+    private String stagingDir;
+
+    private static final String NODE_ID_FILE = ".staging-node-id";
+
+    private Path root;
+    private String nodeId;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        nodeId = readOrCreateNodeId();
+        logger.info(String.format("Submission staging directory: %s (id %s)", root, nodeId));
+    }
+
+    private String readOrCreateNodeId() throws IOException {
+        Path file = root.resolve(NODE_ID_FILE);
+        try {
+            // Written to a temporary file and linked in, so nodes sharing the volume agree on one id
+            Path candidate = Files.createTempFile(root, NODE_ID_FILE, ".tmp");
+            Files.writeString(candidate, UUID.randomUUID().toString(), StandardCharsets.UTF_8);
+            try {
+                Files.createLink(file, candidate);
+            } finally {
+                Files.delete(candidate);
+            }
+        } catch (FileAlreadyExistsException ex) {
+            // Created by an earlier start or another node
+        }
+        return UUID.fromString(Files.readString(file, StandardCharsets.UTF_8).trim()).toString();
+    }
+
+    /**
+     * Id of the staging directory, recorded on the submissions staged into it
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Copies the multipart file into the staging directory
+     * @param file The uploaded file
+     * @return The URI of the staged copy
+     * @throws IOException If the file is empty or cannot be written
+     */
+    public URI stage(MultipartFile file) throws IOException {
+        if (file == null || file.isEmpty()) {
+            throw new IOException("file is Empty");
+        }
+        Path target = root.resolve(UUID.randomUUID() + ".upload");
+        file.transferTo(target);
+        return target.toUri();
+    }
+
+    /**
+     * Resolves a staged URI back to a path, refusing anything outside the staging directory
+     */
+    public Path resolve(String stagedUri) throws IOException {
+        Path path = Paths.get(URI.create(stagedUri)).toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            throw new IOException("Staged file is outside the staging directory: " + stagedUri);
+        }
+        return path;
+    }
+
+    public boolean isStaged(String fileReference) {
+        return fileReference != null && fileReference.startsWith("file:");
+    }
+
+    public void discard(String stagedUri) {
+        if (!isStaged(stagedUri)) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(resolve(stagedUri));
+        } catch (Exception ex) {
+            logger.warning("Could not delete staged file " + stagedUri + ": " + ex.getMessage());
+        }
+    }
+}
@@ -6,7 +6,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.logging.Logger;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -15,6 +18,9 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.io.UnsupportedEncodingException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 @Service
 public class SupabaseStorageService {
 
@@ -34,6 +40,12 @@ public class SupabaseStorageService {
 
     private final HttpClient httpClient = HttpClient.newHttpClient();
 
+    private final MeterRegistry meterRegistry;
+
+    public SupabaseStorageService(MeterRegistry meterRegistry) {
+           this.meterRegistry = meterRegistry;
+    }
+
 
     /**
      * Uploads a file to Supabase Storage
@@ -70,7 +82,7 @@ public class SupabaseStorageService {
 
                HttpResponse<String> response;
                try {
-                      response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                      response = send("upload", request);
                } catch (Exception ex) {
                       logger.severe("Error sending HTTP request for file upload: " + ex.getMessage());
                       throw new IOException("Error sending HTTP request: " + ex.getMessage(), ex);
@@ -112,6 +124,44 @@ public class SupabaseStorageService {
                             throw ex;
                      }
 
+     }
+
+      /**
+     * Uploads a file that was staged on local disk to the instructor bucket.
+     * The body is streamed from disk instead of being copied onto the heap.
+     * @param file The staged file
+     * @param originalFileName The name the user uploaded the file with
+     * @param contentType The content type reported by the client
+     * @param folder The folder within the instructor bucket
+     * @return The public URL of the uploaded file
+     */
+     public String uploadStagedFile(Path file, String originalFileName, String contentType, String folder) throws IOException, InterruptedException {
+               if (file == null || !Files.isRegularFile(file)) {
+                      logger.severe("uploadStagedFile: staged file is missing: " + file);
+                      throw new IOException("Staged file is missing");
+               }
+
+               String fileName = generatedFileName(originalFileName != null ? originalFileName : file.getFileName().toString(), folder);
+               String uploadUrl = buildUploadUrl(instructorsBucket, fileName);
+
+               HttpRequest request = HttpRequest.newBuilder()
+                      .uri(URI.create(uploadUrl))
+                      .header("apikey", supabaseKey)
+                      .header("Authorization", "Bearer " + supabaseKey)
+                      .header("Content-Type", contentType != null ? contentType : "application/octet-stream")
+                      .PUT(HttpRequest.BodyPublishers.ofFile(file))
+                      .build();
+
+               HttpResponse<String> response = send("upload", request);
+
+               if (response.statusCode() == 200 || response.statusCode() == 201) {
+                      String publicUrl = buildPublicUrl(instructorsBucket, fileName);
+                      logger.info(String.format("Staged file uploaded successfully. Public URL: %s", publicUrl));
+                      return publicUrl;
+               } else {
+                      logger.severe(String.format("Failed to upload staged file. Status Code: %d, Response: %s", response.statusCode(), response.body()));
+                      throw new IOException("Failed to upload file to Supabase Storage : " + response.body());
+               }
      }
 
        /**
@@ -127,7 +177,11 @@ public class SupabaseStorageService {
      }
 
     private String generatedFileName(MultipartFile file , String folder) {
-              String cleanFileName = file.getOriginalFilename()
+              return generatedFileName(file.getOriginalFilename(), folder);
+    }
+
+    private String generatedFileName(String originalFileName, String folder) {
+              String cleanFileName = originalFileName
                             .replaceAll("\\s+", "-")
                             .replaceAll("[()']", "")
                             .replaceAll("[^a-zA-Z0-9.-]", "-" );
@@ -210,7 +264,7 @@ public class SupabaseStorageService {
               .build();
        
        // Send delete request 
-       HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+       HttpResponse<String> response = send("delete", request);
 
        if (response.statusCode() == 200 || response.statusCode() == 204) {
               logger.info(String.format("File deleted successfully: %s", fileUrl));
@@ -222,6 +276,27 @@ public class SupabaseStorageService {
        }
    }
 
+   /**
+    * Sends a storage request, timed as iga.external.requests
+    */
+   private HttpResponse<String> send(String operation, HttpRequest request) throws IOException, InterruptedException {
+          long start = System.nanoTime();
+          String outcome = "error";
+          try {
+                 HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+                 int status = response.statusCode();
+                 outcome = status >= 500 ? "error" : status >= 400 ? "client_error" : "success";
+                 return response;
+          } finally {
+                 Timer.builder(MetricsConfig.EXTERNAL_REQUESTS)
+                        .tag("service", "supabase")
+                        .tag("operation", operation)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+          }
+   }
+
    private String buildDeleteUrl(String bucketName, String filePath) {
               try {
                      String encodedBucket  = URLEncoder.encode(bucketName, StandardCharsets.UTF_8.toString());
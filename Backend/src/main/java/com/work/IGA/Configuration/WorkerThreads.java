@@ -0,0 +1,65 @@
+package com.work.IGA.Configuration;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Threads for the services' own executors whose work mostly waits on Postgres, Supabase or
+ * Flutterwave. They are virtual threads when spring.threads.virtual.enabled is set and the JVM
+ * supports them (Java 21+), the same switch that puts request handling on virtual threads, and
+ * daemon platform threads otherwise. The executors keep their pool sizes and queues either way,
+ * so their concurrency limits do not change with the mode. CPU-bound work keeps platform threads.
+ */
+@Component
+@Slf4j
+public class WorkerThreads {
+
+    private final ThreadFactory virtualThreads;
+
+    public WorkerThreads(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            virtualThreads = new VirtualThreadTaskExecutor("worker-").getVirtualThreadFactory();
+            log.info("Running request handling and worker pools on virtual threads");
+        } else {
+            virtualThreads = null;
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    /**
+     * Threads named prefix1, prefix2, ...
+     */
+    public ThreadFactory numbered(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return factory(() -> prefix + count.incrementAndGet());
+    }
+
+    public ThreadFactory named(String name) {
+        return factory(() -> name);
+    }
+
+    private ThreadFactory factory(Supplier<String> names) {
+        return runnable -> {
+            Thread thread;
+            if (virtualThreads != null) {
+                thread = virtualThreads.newThread(runnable);
+                thread.setName(names.get());
+            } else {
+                thread = new Thread(runnable, names.get());
+                thread.setDaemon(true);
+            }
+            return thread;
+        };
+    }
+}
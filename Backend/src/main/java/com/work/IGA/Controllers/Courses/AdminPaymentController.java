@@ -17,11 +17,41 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.work.IGA.Configuration.FlutterwaveClient;
+import com.work.IGA.Configuration.ConnectionAdmissionDataSource;
+import com.work.IGA.Configuration.ReplicaRoutingDataSource;
+import com.work.IGA.Models.Courses.EnrollmentOutboxEvent;
 import com.work.IGA.Models.Courses.Payment;
 import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Services.CacheServices.CacheInvalidationBus;
+import com.work.IGA.Services.CourseServices.CatalogCacheInvalidator;
+import com.work.IGA.Services.CourseServices.EnrollmentCounterService;
+import com.work.IGA.Services.CourseServices.EnrollmentOutboxService;
+import com.work.IGA.Services.CourseServices.EnrollmentExistenceFilter;
+import com.work.IGA.Services.CourseServices.EntitlementCache;
+import com.work.IGA.Services.CourseServices.PaymentAnalyticsService;
+import com.work.IGA.Services.CourseServices.PaymentHistoryService;
+import com.work.IGA.Services.CourseServices.PaymentPartitionManager;
+import com.work.IGA.Services.CourseServices.PaymentReconciliationService;
 import com.work.IGA.Services.CourseServices.PaymentService;
+import com.work.IGA.Services.CourseServices.PaymentWebhookInboxService;
+import com.work.IGA.Services.CourseServices.ProgressEventBuffer;
+import com.work.IGA.Utils.CacheUtils.CacheInvalidationMetricsDto;
+import com.work.IGA.Utils.CoursesException.CatalogCacheMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ConnectionAdmissionMetricsDto;
+import com.work.IGA.Utils.DatabaseUtils.ReplicaRoutingMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentFilterMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentOutboxMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.EntitlementMetricsDto;
+import com.work.IGA.Utils.EnrollmentUtils.ProgressEventMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.DeadWebhookDto;
+import com.work.IGA.Utils.PaymentUtils.GatewayMetricsDto;
 import com.work.IGA.Utils.PaymentUtils.PaymentException;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryPage;
+import com.work.IGA.Utils.PaymentUtils.PaymentPartitionStatusDto;
 import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
+import com.work.IGA.Utils.PaymentUtils.ReconciliationMetricsDto;
+import com.work.IGA.Utils.PaymentUtils.WebhookInboxMetricsDto;
 
 import lombok.RequiredArgsConstructor;
 
@@ -32,6 +62,21 @@ import lombok.RequiredArgsConstructor;
 public class AdminPaymentController {
    
  private final PaymentService paymentService;
+ private final PaymentWebhookInboxService webhookInbox;
+ private final FlutterwaveClient flutterwaveClient;
+ private final PaymentReconciliationService reconciliationService;
+ private final PaymentAnalyticsService paymentAnalyticsService;
+ private final EntitlementCache entitlementCache;
+ private final EnrollmentExistenceFilter enrollmentFilter;
+ private final PaymentHistoryService paymentHistoryService;
+ private final EnrollmentOutboxService enrollmentOutbox;
+ private final EnrollmentCounterService enrollmentCounters;
+ private final ProgressEventBuffer progressEventBuffer;
+ private final PaymentPartitionManager partitionManager;
+ private final CatalogCacheInvalidator catalogCache;
+ private final CacheInvalidationBus invalidationBus;
+ private final ReplicaRoutingDataSource replicaRoutingDataSource;
+ private final ConnectionAdmissionDataSource connectionAdmissionDataSource;
 
     /**
      * Get all payments by status
@@ -61,6 +106,57 @@ public class AdminPaymentController {
         }
     }
 
+    /**
+     * Payments in a status, newest first, one cursor page at a time
+     */
+    @GetMapping("/status/{status}/history")
+    public ResponseEntity<PaymentHistoryPage> getPaymentHistoryByStatus(
+            @PathVariable PaymentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(paymentHistoryService.forStatus(status, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Payments of one user, newest first, one cursor page at a time
+     */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<PaymentHistoryPage> getUserPaymentHistory(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(paymentHistoryService.forStudent(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Payments for one course, newest first, one cursor page at a time
+     */
+    @GetMapping("/course/{courseId}/history")
+    public ResponseEntity<PaymentHistoryPage> getCoursePaymentHistory(
+            @PathVariable UUID courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(paymentHistoryService.forCourse(courseId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Update payment status
      */
@@ -111,4 +207,178 @@ public class AdminPaymentController {
         }
     }
     
+    /**
+     * Backlog, processing lag and retry counters of the webhook inbox
+     */
+    @GetMapping("/webhooks/metrics")
+    public ResponseEntity<WebhookInboxMetricsDto> getWebhookInboxMetrics() {
+        return ResponseEntity.ok(webhookInbox.getMetrics());
+    }
+
+    /**
+     * Notifications that ran out of attempts, without their gateway payload
+     */
+    @GetMapping("/webhooks/dead")
+    public ResponseEntity<List<DeadWebhookDto>> getDeadWebhooks(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(webhookInbox.getDeadEvents(Math.min(Math.max(limit, 1), 500)));
+    }
+
+    /**
+     * Retry a dead notification
+     */
+    @PostMapping("/webhooks/{eventId}/requeue")
+    public ResponseEntity<Void> requeueWebhook(@PathVariable UUID eventId) {
+        return webhookInbox.requeue(eventId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Circuit breaker state, connection pool usage and per-operation latency of the gateway client
+     */
+    @GetMapping("/gateway/metrics")
+    public ResponseEntity<GatewayMetricsDto> getGatewayMetrics() {
+        return ResponseEntity.ok(flutterwaveClient.getMetrics());
+    }
+
+    /**
+     * Counters of the stuck-payment reconciliation job
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<ReconciliationMetricsDto> getReconciliationMetrics() {
+        return ResponseEntity.ok(reconciliationService.getMetrics());
+    }
+
+    /**
+     * Start a reconciliation run now instead of waiting for the schedule
+     */
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<Void> runReconciliation() {
+        return reconciliationService.triggerRun()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Recompute the daily revenue rollup from the payments table
+     */
+    @PostMapping("/analytics/rebuild")
+    public ResponseEntity<Integer> rebuildRevenueRollup() {
+        return ResponseEntity.ok(paymentAnalyticsService.rebuildRollup());
+    }
+
+    /**
+     * Hit ratio and avoided queries of the paid/enrolled access check cache
+     */
+    @GetMapping("/entitlements/metrics")
+    public ResponseEntity<EntitlementMetricsDto> getEntitlementMetrics() {
+        return ResponseEntity.ok(entitlementCache.getMetrics());
+    }
+
+    /**
+     * Enrollment filter size, expected and observed false-positive rates, and checks it answered alone
+     */
+    @GetMapping("/entitlements/filter")
+    public ResponseEntity<EnrollmentFilterMetricsDto> getEnrollmentFilterMetrics() {
+        return ResponseEntity.ok(enrollmentFilter.getMetrics());
+    }
+
+    /**
+     * Size and hit ratio of each catalog cache region, and invalidations received from other instances
+     */
+    @GetMapping("/catalog-cache/metrics")
+    public ResponseEntity<CatalogCacheMetricsDto> getCatalogCacheMetrics() {
+        return ResponseEntity.ok(catalogCache.getMetrics());
+    }
+
+    /**
+     * Notifications sent and received by the cross-instance cache invalidation bus, gaps and full refreshes
+     */
+    @GetMapping("/cache-invalidation/metrics")
+    public ResponseEntity<CacheInvalidationMetricsDto> getCacheInvalidationMetrics() {
+        return ResponseEntity.ok(invalidationBus.getMetrics());
+    }
+
+    /**
+     * Read-only transactions served by replicas or kept on the primary, and each replica's lag and health
+     */
+    @GetMapping("/datasource/replicas")
+    public ResponseEntity<ReplicaRoutingMetricsDto> getReplicaRoutingMetrics() {
+        return ResponseEntity.ok(replicaRoutingDataSource.getMetrics());
+    }
+
+    /**
+     * Primary connections in use, requests queued for one, and those refused or timed out
+     */
+    @GetMapping("/datasource/admission")
+    public ResponseEntity<ConnectionAdmissionMetricsDto> getConnectionAdmissionMetrics() {
+        return ResponseEntity.ok(connectionAdmissionDataSource.getMetrics());
+    }
+
+    /**
+     * Backlog and throughput of the payment-to-enrollment outbox
+     */
+    @GetMapping("/enrollment-outbox/metrics")
+    public ResponseEntity<EnrollmentOutboxMetricsDto> getEnrollmentOutboxMetrics() {
+        return ResponseEntity.ok(enrollmentOutbox.getMetrics());
+    }
+
+    /**
+     * Enrollments that ran out of attempts
+     */
+    @GetMapping("/enrollment-outbox/dead")
+    public ResponseEntity<List<EnrollmentOutboxEvent>> getDeadEnrollmentEvents(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(enrollmentOutbox.getDeadEvents(Math.min(Math.max(limit, 1), 500)));
+    }
+
+    /**
+     * Retry a dead enrollment
+     */
+    @PostMapping("/enrollment-outbox/{eventId}/requeue")
+    public ResponseEntity<Void> requeueEnrollmentEvent(@PathVariable UUID eventId) {
+        return enrollmentOutbox.requeue(eventId)
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Buffer depth, coalescing and flush counters of resource progress events
+     */
+    @GetMapping("/progress-events/metrics")
+    public ResponseEntity<ProgressEventMetricsDto> getProgressEventMetrics() {
+        return ResponseEntity.ok(progressEventBuffer.getMetrics());
+    }
+
+    /**
+     * Recompute the per-course enrollment counters from the enrollments table
+     */
+    @PostMapping("/enrollment-counters/rebuild")
+    public ResponseEntity<Integer> rebuildEnrollmentCounters() {
+        return ResponseEntity.ok(enrollmentCounters.rebuildCounters());
+    }
+
+    /**
+     * Monthly partitions of the payments table and the archives written so far
+     */
+    @GetMapping("/partitions")
+    public ResponseEntity<PaymentPartitionStatusDto> getPartitionStatus() {
+        return ResponseEntity.ok(partitionManager.getStatus());
+    }
+
+    /**
+     * Create upcoming partitions and archive old ones now instead of waiting for the schedule
+     */
+    @PostMapping("/partitions/maintain")
+    public ResponseEntity<PaymentPartitionStatusDto> maintainPartitions() {
+        try {
+            return partitionManager.maintain()
+                    ? ResponseEntity.ok(partitionManager.getStatus())
+                    : ResponseEntity.status(HttpStatus.CONFLICT).body(partitionManager.getStatus());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(partitionManager.getStatus());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(partitionManager.getStatus());
+        }
+    }
+
 }
@@ -0,0 +1,102 @@
+package com.work.IGA.Controllers.Courses;
+
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.work.IGA.Services.ProvisioningServices.RosterImportService;
+import com.work.IGA.Utils.ApiResponse;
+import com.work.IGA.Utils.ProvisioningUtils.ProvisioningException;
+import com.work.IGA.Utils.ProvisioningUtils.RosterImportJobDto;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/provisioning")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminProvisioningController {
+
+    private final RosterImportService rosterImportService;
+
+    /**
+     * Import a roster into a course. The body is a CSV file with an email, first name and
+     * last name header, or a JSON array of {email, firstName, lastName} objects.
+     * Returns the queued job; poll it for progress.
+     */
+    @PostMapping(value = "/courses/{courseId}/roster", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<ApiResponse<RosterImportJobDto>> importRoster(
+            @PathVariable UUID courseId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        String format = contentType.toLowerCase().contains("csv") ? "csv" : "json";
+        try {
+            RosterImportJobDto job = rosterImportService.submit(courseId, format, body);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Roster import queued", job, null));
+        } catch (ProvisioningException e) {
+            HttpStatus status = switch (e.getErrorCode()) {
+                case ProvisioningException.COURSE_NOT_FOUND -> HttpStatus.NOT_FOUND;
+                case ProvisioningException.ROSTER_TOO_LARGE -> HttpStatus.PAYLOAD_TOO_LARGE;
+                case ProvisioningException.IMPORT_QUEUE_FULL -> HttpStatus.SERVICE_UNAVAILABLE;
+                default -> HttpStatus.BAD_REQUEST;
+            };
+            return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+        }
+    }
+
+    /**
+     * Roster imports on this node, newest first; finished jobs are kept for an hour
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<RosterImportJobDto>> listJobs() {
+        return ResponseEntity.ok(rosterImportService.listJobs());
+    }
+
+    /**
+     * Progress, throughput and rejected rows of one import
+     */
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<RosterImportJobDto> getJob(@PathVariable UUID jobId) {
+        return rosterImportService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Download the invite tokens of accounts created so far as CSV. Each token is the
+     * account's initial password and is returned once only.
+     */
+    @GetMapping(value = "/jobs/{jobId}/invites", produces = "text/csv")
+    public ResponseEntity<String> downloadInvites(@PathVariable UUID jobId) {
+        return rosterImportService.takeInvites(jobId)
+                .map(invites -> ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"invites-" + jobId + ".csv\"")
+                        .body(toCsv(invites)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static String toCsv(Map<String, String> invites) {
+        StringBuilder csv = new StringBuilder("email,invite_token\n");
+        invites.forEach((email, token) -> csv.append(csvField(email)).append(',').append(token).append('\n'));
+        return csv.toString();
+    }
+
+    private static String csvField(String value) {
+        return value.contains(",") || value.contains("\"")
+                ? "\"" + value.replace("\"", "\"\"") + "\""
+                : value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.work.IGA.Controllers.Courses;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.work.IGA.Services.CourseServices.SubmissionIngestionService;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.IngestionMetricsDto;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionResponse;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/admin/submissions")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class AdminSubmissionController {
+
+    private final SubmissionIngestionService ingestionService;
+
+    /**
+     * Queue depth, worker utilisation and upload counters of the ingestion pipeline
+     */
+    @GetMapping("/ingestion")
+    public ResponseEntity<SubmissionResponse<IngestionMetricsDto>> getIngestionMetrics() {
+        return ResponseEntity.ok(SubmissionResponse.success("Ingestion metrics", ingestionService.getMetrics()));
+    }
+}
@@ -0,0 +1,30 @@
+package com.work.IGA.Controllers.Courses;
+
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.work.IGA.Configuration.UserDetailsImpl;
+import com.work.IGA.Services.NotificationServices.NotificationHub;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/v1/notifications")
+@RequiredArgsConstructor
+public class NotificationController {
+
+    private final NotificationHub notificationHub;
+
+    /**
+     * Server-sent event stream of grade and submission events for the current user.
+     * Browsers' EventSource cannot set headers, so the token may also be passed as ?token=
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal UserDetailsImpl userDetails) { // JWT token provides user info
+        return notificationHub.subscribe(userDetails.getId());
+    }
+}
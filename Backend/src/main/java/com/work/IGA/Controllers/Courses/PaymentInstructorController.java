@@ -1,8 +1,10 @@
 package com.work.IGA.Controllers.Courses;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -17,9 +19,14 @@ import org.springframework.web.bind.annotation.RestController;
 import com.work.IGA.Configuration.UserDetailsImpl;
 import com.work.IGA.Models.Courses.Payment;
 import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Services.CourseServices.PaymentAnalyticsService;
+import com.work.IGA.Services.CourseServices.PaymentHistoryService;
 import com.work.IGA.Services.CourseServices.PaymentService;
 import com.work.IGA.Utils.PaymentUtils.PaymentAnalytics;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryPage;
 import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
+import com.work.IGA.Utils.PaymentUtils.RevenueBucketDto;
+import com.work.IGA.Utils.PaymentUtils.RevenueGranularity;
 
 import lombok.RequiredArgsConstructor;
 
@@ -30,6 +37,8 @@ import lombok.RequiredArgsConstructor;
 public class PaymentInstructorController{
     
     private final PaymentService paymentService;
+    private final PaymentAnalyticsService paymentAnalyticsService;
+    private final PaymentHistoryService paymentHistoryService;
 
     // Get payment for instructor's courses 
     @GetMapping("/course/{courseId}")
@@ -155,6 +164,46 @@ public class PaymentInstructorController{
         }
      }
 
+     // Revenue per day, week or month from the daily rollup, optionally for one course
+     @GetMapping("/earnings/series")
+     public ResponseEntity<List<RevenueBucketDto>> getRevenueSeries(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(defaultValue = "DAY") RevenueGranularity granularity,
+            @RequestParam(required = false) UUID courseId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate end = to != null ? to : LocalDate.now();
+            LocalDate start = from != null ? from : granularity.defaultFrom(end);
+            return ResponseEntity.ok(paymentAnalyticsService.getRevenueSeries(
+                userDetails.getId(), courseId, granularity, start, end));
+        }
+        catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+     }
+
+     // Payments across the instructor's courses, newest first, one cursor page at a time
+     @GetMapping("/history")
+     public ResponseEntity<PaymentHistoryPage> getPaymentHistory(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(required = false) UUID courseId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(paymentHistoryService.forInstructor(userDetails.getId(), courseId, cursor, limit));
+        }
+        catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+     }
+
      // Get all instructor payments
      @GetMapping("/all")
      public ResponseEntity<List<Payment>> getAllInstructorPayments(
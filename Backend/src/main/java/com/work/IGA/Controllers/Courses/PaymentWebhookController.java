@@ -1,5 +1,9 @@
 package com.work.IGA.Controllers.Courses;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,17 +14,36 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.work.IGA.Services.CourseServices.PaymentService;
+import com.work.IGA.Services.CourseServices.PaymentWebhookInboxService;
 import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @RestController
 @RequestMapping("/api/public/payments")
 @RequiredArgsConstructor
+@Slf4j
 public class PaymentWebhookController {
 
     private final PaymentService paymentService;
+    private final PaymentWebhookInboxService webhookInbox;
+    private final ObjectMapper objectMapper;
+
+    @Value("${flutterwave.webhook.secret-hash:}")
+    private String webhookSecretHash;
+
+    @PostConstruct
+    public void checkSecretHash() {
+        if (webhookSecretHash.isBlank()) {
+            log.error("flutterwave.webhook.secret-hash (FLW_WEBHOOK_HASH) is not set: Flutterwave webhooks will be "
+                + "refused and payments are only settled by callbacks and reconciliation");
+        }
+    }
 
     // Manual verification endpoint for testing
     @PostMapping("/verify-payment")
@@ -41,24 +64,47 @@ public class PaymentWebhookController {
         }
     }
 
-    // Handle Flutterwave webhhook notfications
-
+    // Handle Flutterwave webhhook notfications.
+    // The notification is only recorded in the inbox here; the gateway gets its
+    // acknowledgement without waiting for verification or enrollment.
     @PostMapping("/webhook")
     public ResponseEntity<String> handlePaymentWebhook(@RequestBody String webhookData , 
      @RequestHeader(value = "verif-hash", required = false) String verifHash) {
+          // Without a configured hash nothing can be authenticated; the reconciliation job still settles payments
+          if (webhookSecretHash.isBlank()) {
+              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Webhook secret hash is not configured");
+          }
+          if (verifHash == null || !MessageDigest.isEqual(
+                  webhookSecretHash.getBytes(StandardCharsets.UTF_8), verifHash.getBytes(StandardCharsets.UTF_8))) {
+              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid webhook signature");
+          }
+
+          String transactionId;
+          String reference;
+          String status;
           try {
+            JsonNode root = objectMapper.readTree(webhookData);
+            // v3 notifications nest the charge under "data"; older ones are flat
+            JsonNode data = root.hasNonNull("data") ? root.get("data") : root;
+            transactionId = data.path("id").asText(null);
+            reference = data.hasNonNull("tx_ref") ? data.get("tx_ref").asText() : data.path("txRef").asText(null);
+            status = data.path("status").asText(null);
+          }
+          catch (Exception e) {
+              return ResponseEntity.badRequest().body("Malformed webhook payload");
+          }
 
-            String transactionId = "extracted_from_webhook"; // Parse from webhookData
-            String reference = "extracted_from_webhook"; // Parse from webhookData  
-            String status = "extracted_from_webhook"; // Parse from webhookData
-            
-            PaymentResponse response = paymentService.handlePaymentWebhook(
-                transactionId, reference, status);
-            
-            return ResponseEntity.ok("Webhook processed successfully");
+          if (transactionId == null || transactionId.isBlank() || reference == null || reference.isBlank()) {
+              return ResponseEntity.badRequest().body("Webhook payload is missing the transaction id or reference");
+          }
 
+          try {
+            boolean accepted = webhookInbox.accept(transactionId, reference, status, "WEBHOOK", webhookData);
+            return ResponseEntity.ok(accepted ? "Webhook received" : "Webhook already received");
           }
           catch (Exception e) {
+              // Not persisted, so let the gateway redeliver
+              log.warn("Error storing payment webhook for transaction {}: {}", transactionId, e.getMessage());
               return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Internal error processing webhook");
           }
@@ -79,15 +125,16 @@ public class PaymentWebhookController {
                              ", Reference: " + tx_ref + 
                              ", Payment Reference: " + payment_reference);
             
-            // Auto-verify successful payments in the background
+            // Auto-verify successful payments in the background. The callback goes through
+            // the same inbox as the webhook, so whichever arrives second is a duplicate
             if ("successful".equals(status) && transaction_id != null && 
                 (tx_ref != null || payment_reference != null)) {
                 try {
                     String reference = tx_ref != null ? tx_ref : payment_reference;
-                    paymentService.handlePaymentWebhook(transaction_id, reference, status);
-                    System.out.println("Payment auto-verified successfully: " + reference);
+                    webhookInbox.accept(transaction_id, reference, status, "CALLBACK", null);
+                    log.info("Payment queued for verification: {}", reference);
                 } catch (Exception e) {
-                    System.err.println("Error during auto-verification: " + e.getMessage());
+                    log.warn("Error during auto-verification: {}", e.getMessage());
                     // Continue with redirect even if verification fails
                 }
             }
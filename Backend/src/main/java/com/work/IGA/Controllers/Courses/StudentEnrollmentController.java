@@ -4,7 +4,9 @@ import com.work.IGA.Services.CourseServices.EnrollmentService;
 import com.work.IGA.Utils.ApiResponse;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentDto;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentException;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentProgressDto;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentResponse;
+import com.work.IGA.Utils.EnrollmentUtils.ProgressEventRequest;
 import com.work.IGA.Models.Courses.ProgressEnum;
 
 import lombok.RequiredArgsConstructor;
@@ -17,6 +19,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -90,6 +93,62 @@ public class StudentEnrollmentController {
         }
     }
 
+    /**
+     * Report resource progress (e.g. video position, slides viewed). Events are buffered and
+     * written within a few seconds; the course progress status is derived from them.
+     */
+    @PostMapping("/{enrollmentId}/progress/events")
+    public ResponseEntity<ApiResponse<Integer>> recordProgressEvents(
+            @PathVariable UUID enrollmentId,
+            @RequestBody List<ProgressEventRequest> events,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            int accepted = enrollmentService.recordProgressEvents(enrollmentId, events, authHeader);
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                "Progress events accepted",
+                accepted,
+                null
+            ));
+
+        } catch (EnrollmentException e) {
+            HttpStatus status = "PROGRESS_BUFFER_FULL".equals(e.getErrorCode())
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Unexpected error recording progress events: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Internal server error"));
+        }
+    }
+
+    /**
+     * Get per-module and per-resource completion of an enrollment
+     */
+    @GetMapping("/{enrollmentId}/progress")
+    public ResponseEntity<ApiResponse<EnrollmentProgressDto>> getProgress(
+            @PathVariable UUID enrollmentId,
+            @RequestHeader("Authorization") String authHeader) {
+        try {
+            EnrollmentProgressDto progress = enrollmentService.getEnrollmentProgress(enrollmentId, authHeader);
+
+            return ResponseEntity.ok(ApiResponse.success(
+                "Progress retrieved successfully",
+                progress,
+                null
+            ));
+
+        } catch (EnrollmentException e) {
+            log.error("Error fetching progress: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Unexpected error fetching progress: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(ApiResponse.error("Internal server error"));
+        }
+    }
+
     /**
      * Check if student is enrolled in a specific course
      */
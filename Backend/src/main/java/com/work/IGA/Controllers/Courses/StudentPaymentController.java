@@ -8,10 +8,14 @@ import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import com.work.IGA.Configuration.UserDetailsImpl;
 import com.work.IGA.Models.Courses.Payment;
 import com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryPage;
+import com.work.IGA.Services.CourseServices.PaymentHistoryService;
 import com.work.IGA.Services.CourseServices.PaymentService;
 import com.work.IGA.Utils.PaymentUtils.PaymentException;
 import com.work.IGA.Utils.PaymentUtils.PaymentRequest;
@@ -28,6 +32,7 @@ import lombok.RequiredArgsConstructor;
 public class StudentPaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentHistoryService paymentHistoryService;
 
     /**
      * Initiate payment for a course
@@ -91,6 +96,23 @@ public class StudentPaymentController {
         }
     }
 
+    /**
+     * Get student's payment history, newest first, one cursor page at a time
+     */
+    @GetMapping("/history/cursor")
+    public ResponseEntity<PaymentHistoryPage> getPaymentHistoryPage(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(paymentHistoryService.forStudent(userDetails.getId(), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get specific payment details
      */
@@ -3,6 +3,8 @@ package com.work.IGA.Controllers.Courses;
 import com.work.IGA.Configuration.UserDetailsImpl;
 import com.work.IGA.Models.Courses.*;
 import com.work.IGA.Services.CourseServices.SubmitAssignmentService;
+import com.work.IGA.Services.SimilarityServices.SubmissionSimilarityService;
+import com.work.IGA.Utils.SimilarityUtils.SimilarityReportDto;
 import com.work.IGA.Utils.AssignmentUtils.*;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.GradeRequest;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionResponse;
@@ -25,6 +27,7 @@ import java.util.UUID;
 public class SubmissionController {
     
     private final SubmitAssignmentService submitAssignmentService;
+    private final SubmissionSimilarityService similarityService;
 
     // ================== STUDENT ENDPOINTS ==================
     // User info comes from JWT token (@AuthenticationPrincipal UserDetailsImpl userDetails)
@@ -100,6 +103,20 @@ public class SubmissionController {
             ResponseEntity.badRequest().body(response);
     }
     
+    @GetMapping("/status/{submissionId}")
+    public ResponseEntity<SubmissionResponse<SubmissionDto>> getMySubmissionStatus(
+            @PathVariable UUID submissionId,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) { // JWT token provides user info
+        
+        // Lets the client poll until the staged file has been uploaded (STORED) or FAILED
+        SubmissionResponse<SubmissionDto> response = submitAssignmentService
+            .getSubmissionStatus(submissionId, userDetails.getId());
+        
+        return response.isSuccess() ? 
+            ResponseEntity.ok(response) : 
+            ResponseEntity.badRequest().body(response);
+    }
+    
     @GetMapping("/available-assignments/{courseId}")
     public ResponseEntity<SubmissionResponse<List<AssignmentsSchema>>> getAvailableAssignments(
             @PathVariable UUID courseId,
@@ -178,6 +195,28 @@ public class SubmissionController {
         return ResponseEntity.ok(response);
     }
     
+    @GetMapping("/assignment/{assignmentId}/lateness")
+    public ResponseEntity<SubmissionResponse<List<SubmissionDto>>> getSubmissionsForAssignmentByLateness(
+            @PathVariable UUID assignmentId,
+            @RequestParam(value = "late", defaultValue = "true") boolean late,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        SubmissionResponse<List<SubmissionDto>> response = submitAssignmentService
+            .getSubmissionsForAssignmentByLateness(assignmentId, late, userDetails.getId());
+        return ResponseEntity.ok(response);
+    }
+    
+    @GetMapping("/similarity/{assignmentId}")
+    public ResponseEntity<SubmissionResponse<SimilarityReportDto>> getSimilarityReport(
+            @PathVariable UUID assignmentId,
+            @RequestParam(value = "minSimilarity", defaultValue = "0.5") double minSimilarity,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+        SubmissionResponse<SimilarityReportDto> response = similarityService
+            .getSimilarityReport(assignmentId, minSimilarity, userDetails.getId());
+        return response.isSuccess() ?
+            ResponseEntity.ok(response) :
+            ResponseEntity.badRequest().body(response);
+    }
+    
     @GetMapping("/course/{courseId}")
     public ResponseEntity<SubmissionResponse<List<SubmissionDto>>> getSubmissionsForCourse(
             @PathVariable UUID courseId,
@@ -11,7 +11,9 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "assignment_submissions")
+@Table(name = "assignment_submissions", indexes = {
+    @Index(name = "idx_submission_assignment_late", columnList = "assignment_id, late")
+})
 public class AssignmentSubmission {
 
     @Id
@@ -26,6 +28,8 @@ public class AssignmentSubmission {
     @JoinColumn(name = "student_id")
     private UserSchema student;
 
+    // Holds the local staging URI while the submission is PENDING and the
+    // public storage URL once the ingestion worker has uploaded it
     @Column(nullable = false)
     private String submissionFile;
 
@@ -35,6 +39,35 @@ public class AssignmentSubmission {
     @Column
     private LocalDateTime submittedAt = LocalDateTime.now();
 
+    // Precomputed from submittedAt and the assignment's dueDate, see SubmissionLateness
+    @Column
+    private Boolean late;
+
+    @Column
+    private Integer minutesLate;
+
+    // Ingestion pipeline state (null on rows created before the pipeline existed = STORED)
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private SubmissionStatus status = SubmissionStatus.STORED;
+
+    @Column
+    private String originalFileName;
+
+    @Column
+    private String contentType;
+
+    @Column
+    private Integer uploadAttempts = 0;
+
+    @Column(length = 1000)
+    private String uploadError;
+
+    // SubmissionStagingStore.nodeId() of the directory holding the PENDING file
+    // (null on rows staged before it was recorded)
+    @Column(length = 36)
+    private String stagingNode;
+
     // Add bidirectional relationship with JSON management
     @OneToOne(mappedBy = "assignmentSubmission", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonManagedReference
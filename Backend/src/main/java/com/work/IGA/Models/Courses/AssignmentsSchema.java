@@ -2,6 +2,9 @@ package com.work.IGA.Models.Courses;
 
 import lombok.*;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import com.work.IGA.Configuration.CatalogCacheConfig;
 import com.fasterxml.jackson.annotation.JsonBackReference;  // ← ADD THIS
 
 import java.time.LocalDate;
@@ -13,6 +16,8 @@ import java.util.UUID;
 @AllArgsConstructor
 @Entity
 @Table(name = "assignments_schema")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.ASSIGNMENTS)
 public class AssignmentsSchema {
 
   
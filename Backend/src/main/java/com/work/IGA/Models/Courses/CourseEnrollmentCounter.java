@@ -0,0 +1,46 @@
+package com.work.IGA.Models.Courses;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Enrollment and progress counts of one course. Rows are only changed by deltas written in
+ * the same transaction as the enrollment insert, progress update or removal, so statistics
+ * read one row per course instead of every enrollment.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "course_enrollment_counters")
+public class CourseEnrollmentCounter {
+
+    @Id
+    @Column(name = "course_id")
+    private UUID courseId;
+
+    @Column(name = "total_enrollments", nullable = false)
+    private Long totalEnrollments;
+
+    @Column(name = "not_started", nullable = false)
+    private Long notStarted;
+
+    @Column(name = "in_progress", nullable = false)
+    private Long inProgress;
+
+    @Column(nullable = false)
+    private Long completed;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -3,9 +3,14 @@ package com.work.IGA.Models.Courses;
 import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.work.IGA.Configuration.CatalogCacheConfig;
 import com.work.IGA.Models.Users.UserSchema;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -27,6 +32,8 @@ import lombok.Setter;
 @AllArgsConstructor
 @Entity
 @Table(name = "courses_schema")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.COURSES)
 public class CoursesSchema {
     
     @Id
@@ -59,6 +66,7 @@ public class CoursesSchema {
 
    @OneToMany(mappedBy = "course", cascade = jakarta.persistence.CascadeType.ALL, fetch = FetchType.LAZY)
    @JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "course"})
+   @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.COURSE_MODULES)
    private List<Modules> modules;
 
 
@@ -8,7 +8,15 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "enrollments")
+@Table(name = "enrollments", uniqueConstraints = {
+    // One enrollment per student and course; enrollment inserts rely on it being enforced,
+    // so EnrollmentOutboxService adds it at startup if the schema update could not
+    @UniqueConstraint(name = "uk_enrollments_student_course", columnNames = {"student_id", "course_id"})
+}, indexes = {
+    @Index(name = "idx_enrollments_course_student", columnList = "course_id, student_id"),
+    // Lets other nodes' enrollment filters poll for recent enrollments
+    @Index(name = "idx_enrollments_enrollment_date", columnList = "enrollment_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -34,6 +42,10 @@ public class Enrollment {
 
     @Column
     private String progress = ProgressEnum.NOT_STARTED.name();
+
+    // Average completion of the course's resources, maintained by the progress event flush
+    @Column(name = "completion_percent")
+    private Integer completionPercent;
     
 }
 
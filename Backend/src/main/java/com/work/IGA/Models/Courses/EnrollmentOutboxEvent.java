@@ -0,0 +1,62 @@
+package com.work.IGA.Models.Courses;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An enrollment owed for a completed payment. Written in the same transaction that
+ * marks the payment COMPLETED and turned into an enrollment by the outbox dispatcher.
+ * One row per payment; completing the same payment again re-arms it.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "enrollment_outbox", indexes = {
+    @Index(name = "idx_enrollment_outbox_status_next_attempt", columnList = "status, next_attempt_at")
+})
+public class EnrollmentOutboxEvent {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "payment_id", nullable = false, unique = true)
+    private UUID paymentId;
+
+    @Column(name = "student_id", nullable = false)
+    private UUID studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private UUID courseId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private OutboxStatus status;
+
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
@@ -1,5 +1,6 @@
 package com.work.IGA.Models.Courses;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
@@ -14,6 +15,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import java.util.List;
 import java.util.UUID;
 
@@ -21,6 +25,7 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
+import com.work.IGA.Configuration.CatalogCacheConfig;
 
 @JsonIdentityInfo(generator = ObjectIdGenerators.PropertyGenerator.class, property = "id")
 @Getter
@@ -29,6 +34,8 @@ import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 @NoArgsConstructor
 @Entity
 @Table(name = "modules_schema")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.MODULES)
 public class Modules {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -50,9 +57,11 @@ public class Modules {
 
     @OneToMany(mappedBy = "module", cascade = jakarta.persistence.CascadeType.ALL, fetch = jakarta.persistence.FetchType.LAZY)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.MODULE_RESOURCES)
     private List<ResourceSchema> resources;
 
     @OneToMany(mappedBy = "module", cascade = jakarta.persistence.CascadeType.ALL, fetch = jakarta.persistence.FetchType.LAZY)
     @JsonManagedReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.MODULE_ASSIGNMENTS)
     private List<AssignmentsSchema> assignments;
 }
\ No newline at end of file
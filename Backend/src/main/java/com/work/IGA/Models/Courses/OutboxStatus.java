@@ -0,0 +1,8 @@
+package com.work.IGA.Models.Courses;
+
+public enum OutboxStatus {
+    PENDING,
+    RETRY,
+    PROCESSED,
+    DEAD
+}
@@ -11,7 +11,14 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    // Keyset scan of aged PENDING payments by the reconciliation job
+    @Index(name = "idx_payments_status_date_id", columnList = "payment_status, payment_date, id"),
+    // Newest-first keyset listings by status, per student and per course, on the immutable creation time
+    @Index(name = "idx_payments_status_created_id", columnList = "payment_status, created_at, id"),
+    @Index(name = "idx_payments_student_created_id", columnList = "user_id, created_at, id"),
+    @Index(name = "idx_payments_course_created_id", columnList = "course_id, created_at, id")
+})
 public class Payment {
 
     @Id
@@ -35,13 +42,24 @@ public class Payment {
     @Column(nullable = false)
     private PaymentStatus paymentStatus = PaymentStatus.PENDING;
 
-    @Column(nullable = false, unique = true)
+    // Unique: PaymentPartitionManager keeps a unique index on the plain table, and the
+    // payment_references table once payments is partitioned
+    @Column(nullable = false)
     private String transactionReference;
 
     @Column(name = "payment_method")
     private String paymentMethod = "FLUTTERWAVE";
 
+    // Currency the checkout was opened in; rows from before it was recorded were charged in RWF
+    @Column(length = 3)
+    private String currency;
+
+    // Moves forward on every status change
     @Column
     private LocalDateTime paymentDate = LocalDateTime.now();
 
+    // Never changes, so it is the partition key; always at or before paymentDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
 }
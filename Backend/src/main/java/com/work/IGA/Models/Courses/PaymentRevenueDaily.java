@@ -0,0 +1,40 @@
+package com.work.IGA.Models.Courses;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Per-course, per-day revenue rollup. Rows are only ever incremented by payment status
+ * transitions, so dashboards read O(days) rows instead of scanning payments.
+ * A payment leaving COMPLETED (refund or manual correction) is booked as a reversal on
+ * the day it happens rather than rewriting the day it was completed.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_revenue_daily")
+public class PaymentRevenueDaily {
+
+    @EmbeddedId
+    private PaymentRevenueDailyId id;
+
+    @Column(name = "completed_count")
+    private Long completedCount;
+
+    @Column(name = "gross_revenue")
+    private Double grossRevenue;
+
+    @Column(name = "reversed_count")
+    private Long reversedCount;
+
+    @Column(name = "reversed_amount")
+    private Double reversedAmount;
+}
@@ -0,0 +1,79 @@
+package com.work.IGA.Models.Courses;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A gateway notification accepted into the webhook inbox. Redelivered webhooks collapse into
+ * a single row on (transaction id, reference), so a notification naming a real transaction
+ * with the wrong reference cannot shadow the genuine one.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_webhook_inbox", indexes = {
+    @Index(name = "idx_webhook_inbox_status_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_webhook_inbox_reference", columnList = "reference")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = PaymentWebhookEvent.DELIVERY_KEY, columnNames = {"transaction_id", "reference"})
+})
+public class PaymentWebhookEvent {
+
+    public static final String DELIVERY_KEY = "uk_webhook_inbox_transaction_reference";
+
+    @Id
+    private UUID id;
+
+    @Column(name = "transaction_id", nullable = false)
+    private String transactionId;
+
+    @Column(nullable = false)
+    private String reference;
+
+    @Column(name = "gateway_status")
+    private String gatewayStatus;
+
+    // Where the notification came from: WEBHOOK or CALLBACK
+    @Column(length = 20)
+    private String source;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private WebhookInboxStatus status;
+
+    private Integer attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    // Lease on a PROCESSING row; an expired lease means the worker node died
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
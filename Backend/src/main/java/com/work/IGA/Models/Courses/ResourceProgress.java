@@ -0,0 +1,39 @@
+package com.work.IGA.Models.Courses;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Completion percentage of one resource within one enrollment. Written only by the
+ * progress event flush, which keeps the highest percentage reported, so a row never
+ * moves backwards. Enrollment.completionPercent and progress are derived from these rows.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "resource_progress")
+public class ResourceProgress {
+
+    @EmbeddedId
+    private ResourceProgressId id;
+
+    @Column(name = "module_id", nullable = false)
+    private UUID moduleId;
+
+    @Column(nullable = false)
+    private Integer percent;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,27 @@
+package com.work.IGA.Models.Courses;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@Embeddable
+public class ResourceProgressId implements Serializable {
+
+    @Column(name = "enrollment_id", nullable = false)
+    private UUID enrollmentId;
+
+    @Column(name = "resource_id", nullable = false)
+    private UUID resourceId;
+}
@@ -3,6 +3,11 @@ package com.work.IGA.Models.Courses;
 import java.util.UUID;
 import com.fasterxml.jackson.annotation.JsonBackReference;  // ← ADD THIS
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.work.IGA.Configuration.CatalogCacheConfig;
+
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -12,6 +17,8 @@ import lombok.*;
 @AllArgsConstructor
 @Entity
 @Table(name = "resources")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CatalogCacheConfig.RESOURCES)
 public class ResourceSchema {
 
     public enum ResourceType {
@@ -0,0 +1,42 @@
+package com.work.IGA.Models.Courses;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * MinHash signature of a submission file, written by the ingestion workers.
+ * Submission and assignment are kept as plain ids so fingerprints never block deleting a submission.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "submission_fingerprints", indexes = {
+    @Index(name = "idx_fingerprint_assignment", columnList = "assignment_id")
+})
+public class SubmissionFingerprint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @Column(name = "submission_id", nullable = false, unique = true)
+    private UUID submissionId;
+
+    @Column(name = "assignment_id", nullable = false)
+    private UUID assignmentId;
+
+    // numHashes big-endian ints
+    @Column(nullable = false)
+    private byte[] signature;
+
+    @Column
+    private int shingleCount;
+
+    @Column(nullable = false)
+    private LocalDateTime fingerprintedAt = LocalDateTime.now();
+}
@@ -0,0 +1,7 @@
+package com.work.IGA.Models.Courses;
+
+public enum SubmissionStatus {
+    PENDING,
+    STORED,
+    FAILED
+}
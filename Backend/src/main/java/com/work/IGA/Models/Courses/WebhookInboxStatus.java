@@ -0,0 +1,9 @@
+package com.work.IGA.Models.Courses;
+
+public enum WebhookInboxStatus {
+    RECEIVED,
+    PROCESSING,
+    RETRY,
+    PROCESSED,
+    DEAD
+}
@@ -6,10 +6,14 @@ import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.work.IGA.Models.Courses.AssignmentsSchema;
 import com.work.IGA.Models.Courses.Modules;
+import com.work.IGA.Configuration.CatalogCacheConfig;
+
+import jakarta.persistence.QueryHint;
 
 
 public interface  AssignmentRepo extends JpaRepository<AssignmentsSchema, UUID> {
@@ -21,6 +25,10 @@ public interface  AssignmentRepo extends JpaRepository<AssignmentsSchema, UUID>
     
     // Find assignments by course
     @Query("SELECT a FROM AssignmentsSchema a WHERE a.module.course.id = :courseId")
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CatalogCacheConfig.QUERIES)
+    })
     List<AssignmentsSchema> findByCourseId(@Param("courseId") UUID courseId);
     
     // Find assignments by instructor
@@ -1,11 +1,15 @@
 package com.work.IGA.Repositories;
 
 import com.work.IGA.Models.Courses.AssignmentSubmission;
+import com.work.IGA.Models.Courses.SubmissionStatus;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -40,20 +44,50 @@ public interface AssignmentSubmissionRepository extends JpaRepository<Assignment
     @Query("SELECT COUNT(s) FROM AssignmentSubmission s WHERE s.assignment.id = :assignmentId AND s.grades IS NOT NULL")
     long countGradedByAssignmentId(@Param("assignmentId") UUID assignmentId);
     
-    // ...existing code...
+    // Late / on-time counts and filters, served by idx_submission_assignment_late
+    long countByAssignmentIdAndLateTrue(UUID assignmentId);
 
-@Query(
-  value = "SELECT COUNT(*) FROM assignment_submissions s " +
-          "JOIN assignments_schema a ON s.assignment_id = a.id " +
-          "WHERE s.assignment_id = :assignmentId AND s.submitted_at > a.due_date",
-  nativeQuery = true
-)
-long countLateSubmissionsByAssignmentId(@Param("assignmentId") UUID assignmentId);
+    List<AssignmentSubmission> findByAssignmentIdAndLate(UUID assignmentId, Boolean late);
 
-// ...existing code...
+    // Recompute lateness of every submission of an assignment after its due date changed.
+    // Same rule as SubmissionLateness: on time until the end of the due date
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Transactional
+    @Query(
+      value = "UPDATE assignment_submissions s SET " +
+              "late = (a.due_date IS NOT NULL AND s.submitted_at >= a.due_date + 1), " +
+              "minutes_late = CASE WHEN a.due_date IS NOT NULL AND s.submitted_at >= a.due_date + 1 " +
+              "THEN CAST(FLOOR(EXTRACT(EPOCH FROM (s.submitted_at - (a.due_date + 1))) / 60) AS integer) ELSE 0 END " +
+              "FROM assignments_schema a WHERE a.id = s.assignment_id AND a.id = :assignmentId",
+      nativeQuery = true
+    )
+    int recomputeLatenessByAssignmentId(@Param("assignmentId") UUID assignmentId);
+
+    // One-off backfill for rows created before lateness was stored
+    @Modifying
+    @Transactional
+    @Query(
+      value = "UPDATE assignment_submissions s SET " +
+              "late = (a.due_date IS NOT NULL AND s.submitted_at >= a.due_date + 1), " +
+              "minutes_late = CASE WHEN a.due_date IS NOT NULL AND s.submitted_at >= a.due_date + 1 " +
+              "THEN CAST(FLOOR(EXTRACT(EPOCH FROM (s.submitted_at - (a.due_date + 1))) / 60) AS integer) ELSE 0 END " +
+              "FROM assignments_schema a WHERE a.id = s.assignment_id AND s.late IS NULL",
+      nativeQuery = true
+    )
+    int backfillMissingLateness();
     
     // Get average grade for an assignment
     @Query("SELECT AVG(g.pointAwarded) FROM Grades g WHERE g.assignmentSubmission.assignment.id = :assignmentId")
     Double getAverageGradeByAssignmentId(@Param("assignmentId") UUID assignmentId);
 
-}
\ No newline at end of file
+    // Ingestion pipeline: oldest submissions still waiting for their storage upload whose file
+    // is in the given staging directory, or in an unrecorded one
+    @Query("SELECT s.id FROM AssignmentSubmission s WHERE s.status = :status " +
+           "AND (s.stagingNode = :stagingNode OR s.stagingNode IS NULL) ORDER BY s.submittedAt")
+    List<UUID> findIdsByStatusAndStagingNode(@Param("status") SubmissionStatus status,
+                                             @Param("stagingNode") String stagingNode,
+                                             Pageable pageable);
+
+    long countByStatus(SubmissionStatus status);
+
+}
@@ -0,0 +1,63 @@
+package com.work.IGA.Repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.CourseEnrollmentCounter;
+import com.work.IGA.Utils.EnrollmentUtils.CourseEnrollmentCounts;
+
+public interface CourseEnrollmentCounterRepository extends JpaRepository<CourseEnrollmentCounter, UUID> {
+
+    // Adds the deltas to the course's counters, creating the row on first use
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO course_enrollment_counters AS k " +
+                   "(course_id, total_enrollments, not_started, in_progress, completed, updated_at) " +
+                   "VALUES (:courseId, :total, :notStarted, :inProgress, :completed, :now) " +
+                   "ON CONFLICT (course_id) DO UPDATE SET " +
+                   "total_enrollments = k.total_enrollments + EXCLUDED.total_enrollments, " +
+                   "not_started = k.not_started + EXCLUDED.not_started, " +
+                   "in_progress = k.in_progress + EXCLUDED.in_progress, " +
+                   "completed = k.completed + EXCLUDED.completed, " +
+                   "updated_at = EXCLUDED.updated_at",
+           nativeQuery = true)
+    int addDeltas(@Param("courseId") UUID courseId,
+                  @Param("total") long total,
+                  @Param("notStarted") long notStarted,
+                  @Param("inProgress") long inProgress,
+                  @Param("completed") long completed,
+                  @Param("now") LocalDateTime now);
+
+    // Enrollments without a progress value count as NOT_STARTED, as EnrollmentDto shows them
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO course_enrollment_counters " +
+                   "(course_id, total_enrollments, not_started, in_progress, completed, updated_at) " +
+                   "SELECT e.course_id, COUNT(*), " +
+                   "COUNT(*) FILTER (WHERE e.progress IS NULL OR e.progress = 'NOT_STARTED'), " +
+                   "COUNT(*) FILTER (WHERE e.progress = 'IN_PROGRESS'), " +
+                   "COUNT(*) FILTER (WHERE e.progress = 'COMPLETED'), " +
+                   "CURRENT_TIMESTAMP " +
+                   "FROM enrollments e WHERE e.course_id IS NOT NULL GROUP BY e.course_id " +
+                   "ON CONFLICT (course_id) DO NOTHING",
+           nativeQuery = true)
+    int rebuildFromEnrollments();
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM course_enrollment_counters", nativeQuery = true)
+    int deleteAllCounters();
+
+    @Query("SELECT new com.work.IGA.Utils.EnrollmentUtils.CourseEnrollmentCounts(" +
+           "c.courseName, k.totalEnrollments, k.inProgress, k.completed) " +
+           "FROM CourseEnrollmentCounter k, CoursesSchema c " +
+           "WHERE c.id = k.courseId AND c.instructor.id = :instructorId AND k.totalEnrollments > 0")
+    List<CourseEnrollmentCounts> findCountsByInstructor(@Param("instructorId") UUID instructorId);
+}
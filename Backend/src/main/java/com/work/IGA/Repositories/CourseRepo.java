@@ -4,14 +4,26 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import com.work.IGA.Configuration.CatalogCacheConfig;
 import com.work.IGA.Models.Courses.CoursesSchema;
 
+import jakarta.persistence.QueryHint;
+
 public interface CourseRepo extends JpaRepository<CoursesSchema , UUID> {
      List<CoursesSchema> findByInstructorId(UUID instructorId);
 
      List<CoursesSchema> findByCourseNameContainingIgnoreCase(String  courseName);
      List<CoursesSchema> findCourseById(UUID courseId);
+
+     // Catalog listing; results are invalidated by any write to courses_schema
+     @Override
+     @QueryHints({
+         @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+         @QueryHint(name = "org.hibernate.cacheRegion", value = CatalogCacheConfig.QUERIES)
+     })
+     List<CoursesSchema> findAll();
      
      
 }
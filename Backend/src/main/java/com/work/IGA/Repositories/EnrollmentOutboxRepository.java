@@ -0,0 +1,50 @@
+package com.work.IGA.Repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.work.IGA.Models.Courses.EnrollmentOutboxEvent;
+import com.work.IGA.Models.Courses.OutboxStatus;
+
+public interface EnrollmentOutboxRepository extends JpaRepository<EnrollmentOutboxEvent, UUID> {
+
+    // Completing a payment that already has an event re-arms it; dispatching is idempotent
+    @Modifying
+    @Query(value = "INSERT INTO enrollment_outbox " +
+                   "(id, payment_id, student_id, course_id, status, attempts, created_at, next_attempt_at) " +
+                   "VALUES (:id, :paymentId, :studentId, :courseId, 'PENDING', 0, :createdAt, :createdAt) " +
+                   "ON CONFLICT (payment_id) DO UPDATE SET status = 'PENDING', attempts = 0, " +
+                   "last_error = NULL, next_attempt_at = EXCLUDED.next_attempt_at, processed_at = NULL",
+           nativeQuery = true)
+    int upsertPending(@Param("id") UUID id,
+                      @Param("paymentId") UUID paymentId,
+                      @Param("studentId") UUID studentId,
+                      @Param("courseId") UUID courseId,
+                      @Param("createdAt") LocalDateTime createdAt);
+
+    // Due events in creation order; rows held by another dispatcher are skipped
+    @Query(value = "SELECT * FROM enrollment_outbox " +
+                   "WHERE status IN ('PENDING', 'RETRY') AND next_attempt_at <= :now " +
+                   "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EnrollmentOutboxEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM enrollment_outbox " +
+                   "WHERE id = :id AND status IN ('PENDING', 'RETRY') FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EnrollmentOutboxEvent> lockIfDue(@Param("id") UUID id);
+
+    long countByStatusIn(Collection<OutboxStatus> statuses);
+
+    @Query("SELECT MIN(e.createdAt) FROM EnrollmentOutboxEvent e WHERE e.status IN :statuses")
+    LocalDateTime findOldestCreatedAt(@Param("statuses") Collection<OutboxStatus> statuses);
+
+    List<EnrollmentOutboxEvent> findByStatusOrderByCreatedAtDesc(OutboxStatus status, org.springframework.data.domain.Pageable pageable);
+}
@@ -1,5 +1,6 @@
 package com.work.IGA.Repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -7,10 +8,14 @@ import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.LockModeType;
+
 import com.work.IGA.Models.Courses.Enrollment;
 import com.work.IGA.Models.Courses.CoursesSchema;
 import com.work.IGA.Models.Users.UserSchema;
@@ -25,6 +30,23 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
     List<Enrollment> findByCourseIdOrderByEnrollmentDateDesc(UUID courseId);
     Page<Enrollment> findByCourseIdOrderByEnrollmentDateDesc(UUID courseId, Pageable pageable);
 
+    @Query("SELECT e.course.id FROM Enrollment e WHERE e.student.id = :studentId")
+    List<UUID> findCourseIdsByStudentId(@Param("studentId") UUID studentId);
+
+    // Enrolls only while the payment is still COMPLETED; the unique (student_id, course_id)
+    // constraint turns a repeated or concurrent enrollment into a no-op
+    @Modifying
+    @Query(value = "INSERT INTO enrollments (id, student_id, course_id, enrollment_date, progress) " +
+                   "SELECT :id, :studentId, :courseId, :enrolledAt, 'NOT_STARTED' " +
+                   "WHERE EXISTS (SELECT 1 FROM payments p WHERE p.id = :paymentId AND p.payment_status = 'COMPLETED') " +
+                   "ON CONFLICT (student_id, course_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfPaid(@Param("id") UUID id,
+                     @Param("studentId") UUID studentId,
+                     @Param("courseId") UUID courseId,
+                     @Param("paymentId") UUID paymentId,
+                     @Param("enrolledAt") LocalDateTime enrolledAt);
+
     long countByCourseId(UUID courseId);
     long countByStudentId(UUID studentId);
     
@@ -34,12 +56,20 @@ public interface EnrollmentRepository extends JpaRepository<Enrollment, UUID> {
     
     @Query("SELECT e FROM Enrollment e WHERE e.course.instructor.id = :instructorId")
     List<Enrollment> findByCourseInstructorId(@Param("instructorId") UUID instructorId);
+
+    // Distinct students cannot be summed from per-course counters; answered from the (course_id, student_id) index
+    @Query("SELECT COUNT(DISTINCT e.student.id) FROM Enrollment e WHERE e.course.instructor.id = :instructorId")
+    long countDistinctStudentsByInstructorId(@Param("instructorId") UUID instructorId);
+
+    // Serialises progress updates so the counter deltas see the value they replace
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM Enrollment e WHERE e.id = :id")
+    Optional<Enrollment> findByIdForUpdate(@Param("id") UUID id);
     
     // Entity-based methods
     boolean existsByStudentAndCourse(UserSchema student, CoursesSchema course);
     Page<Enrollment> findByStudentOrderByEnrollmentDateDesc(UserSchema student, Pageable pageable);
     Page<Enrollment> findByCourseOrderByEnrollmentDateDesc(CoursesSchema course, Pageable pageable);
     long countByCourse(CoursesSchema course);
-    boolean existsByCourseIdAndStudentId(UUID courseId, UUID studentId);
 
 } 
@@ -4,16 +4,24 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import com.work.IGA.Configuration.CatalogCacheConfig;
 import com.work.IGA.Models.Courses.Modules;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface ModulesRepository  extends JpaRepository<Modules, UUID>{
      // Find all modules by course ID
     List<Modules> findByCourseId(UUID courseId);
     
     // Find modules by course ID and order by position
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CatalogCacheConfig.QUERIES)
+    })
     List<Modules> findByCourseIdOrderByPosition(UUID courseId);
     
     // Check if module exists by title and course ID
@@ -1,5 +1,6 @@
 package com.work.IGA.Repositories;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -7,27 +8,112 @@ import java.util.UUID;
 import org.springframework.boot.autoconfigure.data.web.SpringDataWebProperties.Pageable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.LockModeType;
+
 import com.work.IGA.Models.Courses.Payment;
 import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto;
+import com.work.IGA.Utils.PaymentUtils.PaymentKey;
+import com.work.IGA.Utils.PaymentUtils.PaymentStatusTotals;
 
 public interface PaymentRepository extends JpaRepository<Payment, UUID >{
 
+     // Payment listings are projected straight into PaymentHistoryDto with one join per side,
+     // newest first and keyset-paged on (createdAt, id). paymentDate moves on every status change,
+     // so paging on it would skip or repeat payments settled while someone scrolls. The plain
+     // upper bound on createdAt, the partition key, lets the planner prune monthly partitions,
+     // which it cannot do from the OR alone.
+     String HISTORY_SELECT = "SELECT new com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto(" +
+            "p.id, c.courseName, c.id, CONCAT(s.firstName, ' ', s.lastName), s.id, " +
+            "p.amount, p.paymentStatus, p.transactionReference, p.paymentMethod, p.paymentDate, p.createdAt) " +
+            "FROM Payment p JOIN p.course c JOIN p.student s ";
+     String BEFORE_CURSOR = "AND p.createdAt <= :beforeDate AND (p.createdAt < :beforeDate OR (p.createdAt = :beforeDate AND p.id < :beforeId)) ";
+     String NEWEST_FIRST = "ORDER BY p.createdAt DESC, p.id DESC";
+
      List<Payment> findByStudentIdOrderByPaymentDateDesc(UUID studentId);
      Page<Payment> findByStudentIdOrderByPaymentDateDesc(UUID studentId, org.springframework.data.domain.Pageable pageable);
      
-     List<Payment> findByCourseIdOrderByPaymentDateDesc(UUID courseId);
+     @Query("SELECT p FROM Payment p JOIN FETCH p.student JOIN FETCH p.course WHERE p.course.id = :courseId ORDER BY p.paymentDate DESC")
+     List<Payment> findByCourseIdOrderByPaymentDateDesc(@Param("courseId") UUID courseId);
+
+     // Bounded by creation date so only the recent partitions are scanned; older payments are reached through the cursor listings
+     @Query("SELECT p FROM Payment p JOIN FETCH p.student JOIN FETCH p.course WHERE p.paymentStatus = :status AND p.createdAt >= :since")
+     List<Payment> findByPaymentStatus(@Param("status") PaymentStatus status, @Param("since") LocalDateTime since);
+
+     @Query(value = HISTORY_SELECT + "WHERE s.id = :studentId " + NEWEST_FIRST,
+            countQuery = "SELECT COUNT(p) FROM Payment p WHERE p.student.id = :studentId")
+     Page<PaymentHistoryDto> findHistoryPageByStudent(@Param("studentId") UUID studentId, org.springframework.data.domain.Pageable pageable);
+
+     @Query(HISTORY_SELECT + "WHERE s.id = :studentId " + BEFORE_CURSOR + NEWEST_FIRST)
+     List<PaymentHistoryDto> findHistoryByStudent(@Param("studentId") UUID studentId,
+                                                  @Param("beforeDate") LocalDateTime beforeDate,
+                                                  @Param("beforeId") UUID beforeId,
+                                                  org.springframework.data.domain.Pageable pageable);
+
+     @Query(HISTORY_SELECT + "WHERE c.id = :courseId " + BEFORE_CURSOR + NEWEST_FIRST)
+     List<PaymentHistoryDto> findHistoryByCourse(@Param("courseId") UUID courseId,
+                                                 @Param("beforeDate") LocalDateTime beforeDate,
+                                                 @Param("beforeId") UUID beforeId,
+                                                 org.springframework.data.domain.Pageable pageable);
+
+     @Query(HISTORY_SELECT + "WHERE p.paymentStatus = :status " + BEFORE_CURSOR + NEWEST_FIRST)
+     List<PaymentHistoryDto> findHistoryByStatus(@Param("status") PaymentStatus status,
+                                                 @Param("beforeDate") LocalDateTime beforeDate,
+                                                 @Param("beforeId") UUID beforeId,
+                                                 org.springframework.data.domain.Pageable pageable);
 
-     List<Payment> findByPaymentStatus(PaymentStatus status);
+     @Query(HISTORY_SELECT + "WHERE c.instructor.id = :instructorId " + BEFORE_CURSOR + NEWEST_FIRST)
+     List<PaymentHistoryDto> findHistoryByInstructor(@Param("instructorId") UUID instructorId,
+                                                     @Param("beforeDate") LocalDateTime beforeDate,
+                                                     @Param("beforeId") UUID beforeId,
+                                                     org.springframework.data.domain.Pageable pageable);
+
+     @Query(HISTORY_SELECT + "WHERE c.instructor.id = :instructorId AND c.id = :courseId " + BEFORE_CURSOR + NEWEST_FIRST)
+     List<PaymentHistoryDto> findHistoryByInstructorAndCourse(@Param("instructorId") UUID instructorId,
+                                                              @Param("courseId") UUID courseId,
+                                                              @Param("beforeDate") LocalDateTime beforeDate,
+                                                              @Param("beforeId") UUID beforeId,
+                                                              org.springframework.data.domain.Pageable pageable);
 
 
      boolean existsByStudentIdAndCourseIdAndPaymentStatus(UUID studentId, UUID courseId, PaymentStatus status);
 
      Optional<Payment> findByTransactionReference(String transactionReference);
+
+     // Serialises concurrent webhook deliveries for the same payment
+     @Lock(LockModeType.PESSIMISTIC_WRITE)
+     @Query("SELECT p FROM Payment p WHERE p.transactionReference = :reference")
+     Optional<Payment> findByTransactionReferenceForUpdate(@Param("reference") String reference);
      
-     @Query("SELECT p FROM Payment p WHERE p.course.instructor.id = :instructorId ORDER BY p.paymentDate DESC")
-     List<Payment> findPaymentsByInstructorId(@Param("instructorId") UUID instructorId);
+     // Keyset page of payments in a status, ordered by (paymentDate, id) and strictly after the given key;
+     // createdSince keeps the scan to the recent partitions
+     @Query("SELECT new com.work.IGA.Utils.PaymentUtils.PaymentKey(p.id, p.transactionReference, p.paymentDate) " +
+            "FROM Payment p WHERE p.paymentStatus = :status AND p.paymentDate < :olderThan AND p.createdAt >= :createdSince " +
+            "AND (p.paymentDate > :afterDate OR (p.paymentDate = :afterDate AND p.id > :afterId)) " +
+            "ORDER BY p.paymentDate, p.id")
+     List<PaymentKey> findKeysByStatusAfter(@Param("status") PaymentStatus status,
+                                            @Param("olderThan") LocalDateTime olderThan,
+                                            @Param("createdSince") LocalDateTime createdSince,
+                                            @Param("afterDate") LocalDateTime afterDate,
+                                            @Param("afterId") UUID afterId,
+                                            org.springframework.data.domain.Pageable pageable);
+
+     // Count and amount per status in one aggregate instead of loading every payment
+     @Query("SELECT new com.work.IGA.Utils.PaymentUtils.PaymentStatusTotals(p.paymentStatus, COUNT(p), SUM(p.amount)) " +
+            "FROM Payment p WHERE p.course.instructor.id = :instructorId GROUP BY p.paymentStatus")
+     List<PaymentStatusTotals> sumByStatusForInstructor(@Param("instructorId") UUID instructorId);
+
+     boolean existsByPaymentStatus(PaymentStatus status);
+
+     @Query("SELECT p.course.id FROM Payment p WHERE p.student.id = :studentId AND p.paymentStatus = :status")
+     List<UUID> findCourseIdsByStudentIdAndStatus(@Param("studentId") UUID studentId, @Param("status") PaymentStatus status);
+
+     @Query("SELECT p FROM Payment p JOIN FETCH p.student JOIN FETCH p.course c " +
+            "WHERE c.instructor.id = :instructorId AND p.createdAt >= :since ORDER BY p.paymentDate DESC")
+     List<Payment> findPaymentsByInstructorId(@Param("instructorId") UUID instructorId, @Param("since") LocalDateTime since);
      
 } 
@@ -0,0 +1,80 @@
+package com.work.IGA.Repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.PaymentRevenueDaily;
+import com.work.IGA.Models.Courses.PaymentRevenueDailyId;
+
+public interface PaymentRevenueDailyRepository extends JpaRepository<PaymentRevenueDaily, PaymentRevenueDailyId> {
+
+    // Adds the deltas to the day's bucket, creating it on first use
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO payment_revenue_daily AS r " +
+                   "(course_id, bucket_date, completed_count, gross_revenue, reversed_count, reversed_amount) " +
+                   "VALUES (:courseId, :bucketDate, :completedCount, :grossRevenue, :reversedCount, :reversedAmount) " +
+                   "ON CONFLICT (course_id, bucket_date) DO UPDATE SET " +
+                   "completed_count = r.completed_count + EXCLUDED.completed_count, " +
+                   "gross_revenue = r.gross_revenue + EXCLUDED.gross_revenue, " +
+                   "reversed_count = r.reversed_count + EXCLUDED.reversed_count, " +
+                   "reversed_amount = r.reversed_amount + EXCLUDED.reversed_amount",
+           nativeQuery = true)
+    int addToBucket(@Param("courseId") UUID courseId,
+                    @Param("bucketDate") LocalDate bucketDate,
+                    @Param("completedCount") long completedCount,
+                    @Param("grossRevenue") double grossRevenue,
+                    @Param("reversedCount") long reversedCount,
+                    @Param("reversedAmount") double reversedAmount);
+
+    /**
+     * Rebuilds buckets from the payments table. The original completion day of refunded
+     * payments is no longer known, so they are booked as completed and reversed on their
+     * last status date, which nets to zero.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO payment_revenue_daily " +
+                   "(course_id, bucket_date, completed_count, gross_revenue, reversed_count, reversed_amount) " +
+                   "SELECT p.course_id, CAST(p.payment_date AS date), COUNT(*), SUM(p.amount), " +
+                   "COUNT(*) FILTER (WHERE p.payment_status = 'REFUNDED'), " +
+                   "COALESCE(SUM(p.amount) FILTER (WHERE p.payment_status = 'REFUNDED'), 0) " +
+                   "FROM payments p " +
+                   "WHERE p.payment_status IN ('COMPLETED', 'REFUNDED') AND p.course_id IS NOT NULL AND p.payment_date IS NOT NULL " +
+                   "GROUP BY p.course_id, CAST(p.payment_date AS date) " +
+                   "ON CONFLICT (course_id, bucket_date) DO NOTHING",
+           nativeQuery = true)
+    int rebuildFromPayments();
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM payment_revenue_daily", nativeQuery = true)
+    int deleteAllBuckets();
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM payment_revenue_daily WHERE bucket_date >= :fromDate", nativeQuery = true)
+    int deleteBucketsFrom(@Param("fromDate") LocalDate fromDate);
+
+    // Rows: bucket start, completed count, gross revenue, reversed count, reversed amount
+    @Query(value = "SELECT CAST(date_trunc(CAST(:unit AS text), r.bucket_date) AS date) AS bucket, " +
+                   "SUM(r.completed_count), SUM(r.gross_revenue), SUM(r.reversed_count), SUM(r.reversed_amount) " +
+                   "FROM payment_revenue_daily r JOIN courses_schema c ON c.id = r.course_id " +
+                   "WHERE c.instructor_id = :instructorId " +
+                   "AND (CAST(:courseId AS uuid) IS NULL OR r.course_id = CAST(:courseId AS uuid)) " +
+                   "AND r.bucket_date BETWEEN :fromDate AND :toDate " +
+                   "GROUP BY 1 ORDER BY 1",
+           nativeQuery = true)
+    List<Object[]> findRevenueSeries(@Param("instructorId") UUID instructorId,
+                                     @Param("courseId") String courseId,
+                                     @Param("unit") String unit,
+                                     @Param("fromDate") LocalDate fromDate,
+                                     @Param("toDate") LocalDate toDate);
+}
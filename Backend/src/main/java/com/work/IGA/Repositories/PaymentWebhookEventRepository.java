@@ -0,0 +1,54 @@
+package com.work.IGA.Repositories;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.work.IGA.Models.Courses.PaymentWebhookEvent;
+import com.work.IGA.Models.Courses.WebhookInboxStatus;
+
+public interface PaymentWebhookEventRepository extends JpaRepository<PaymentWebhookEvent, UUID> {
+
+    // Returns 0 when the transaction id is already in the inbox for this reference
+    @Modifying
+    @Query(value = "INSERT INTO payment_webhook_inbox " +
+                   "(id, transaction_id, reference, gateway_status, source, payload, status, attempts, received_at, next_attempt_at) " +
+                   "VALUES (:id, :transactionId, :reference, :gatewayStatus, :source, :payload, 'RECEIVED', 0, :receivedAt, :receivedAt) " +
+                   "ON CONFLICT (transaction_id, reference) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id,
+                       @Param("transactionId") String transactionId,
+                       @Param("reference") String reference,
+                       @Param("gatewayStatus") String gatewayStatus,
+                       @Param("source") String source,
+                       @Param("payload") String payload,
+                       @Param("receivedAt") LocalDateTime receivedAt);
+
+    // Rows are locked until the claiming transaction commits; other nodes skip them
+    @Query(value = "SELECT id FROM payment_webhook_inbox " +
+                   "WHERE (status IN ('RECEIVED', 'RETRY') AND next_attempt_at <= :now) " +
+                   "OR (status = 'PROCESSING' AND locked_until < :now) " +
+                   "ORDER BY received_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<UUID> lockClaimable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE PaymentWebhookEvent e SET e.status = :status, e.lockedUntil = :lockedUntil, " +
+           "e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markClaimed(@Param("ids") Collection<UUID> ids,
+                    @Param("status") WebhookInboxStatus status,
+                    @Param("lockedUntil") LocalDateTime lockedUntil);
+
+    long countByStatusIn(Collection<WebhookInboxStatus> statuses);
+
+    @Query("SELECT MIN(e.receivedAt) FROM PaymentWebhookEvent e WHERE e.status IN :statuses")
+    LocalDateTime findOldestReceivedAt(@Param("statuses") Collection<WebhookInboxStatus> statuses);
+
+    List<PaymentWebhookEvent> findByStatusOrderByReceivedAtDesc(WebhookInboxStatus status, org.springframework.data.domain.Pageable pageable);
+}
@@ -0,0 +1,23 @@
+package com.work.IGA.Repositories;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.ResourceProgress;
+import com.work.IGA.Models.Courses.ResourceProgressId;
+
+public interface ResourceProgressRepository extends JpaRepository<ResourceProgress, ResourceProgressId> {
+
+    List<ResourceProgress> findByIdEnrollmentId(UUID enrollmentId);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM resource_progress WHERE enrollment_id = :enrollmentId", nativeQuery = true)
+    int deleteByEnrollmentId(@Param("enrollmentId") UUID enrollmentId);
+}
@@ -4,10 +4,24 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import com.work.IGA.Configuration.CatalogCacheConfig;
 import com.work.IGA.Models.Courses.ResourceSchema;
 
+import jakarta.persistence.QueryHint;
+
 public interface ResourceRepository extends JpaRepository<ResourceSchema, UUID> {
   
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+        @QueryHint(name = "org.hibernate.cacheRegion", value = CatalogCacheConfig.QUERIES)
+    })
     List<ResourceSchema> findByModuleId(UUID moduleId); 
+
+    // All resources of a course in one query, for progress views
+    @Query("SELECT r FROM ResourceSchema r JOIN FETCH r.module m WHERE m.course.id = :courseId ORDER BY m.position, r.title")
+    List<ResourceSchema> findByCourseIdWithModule(@Param("courseId") UUID courseId);
 } 
\ No newline at end of file
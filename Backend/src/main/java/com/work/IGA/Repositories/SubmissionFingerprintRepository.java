@@ -0,0 +1,31 @@
+package com.work.IGA.Repositories;
+
+import com.work.IGA.Models.Courses.SubmissionFingerprint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface SubmissionFingerprintRepository extends JpaRepository<SubmissionFingerprint, UUID> {
+
+    List<SubmissionFingerprint> findByAssignmentId(UUID assignmentId);
+
+    long countByAssignmentId(UUID assignmentId);
+
+    // Together with the count this tells whether a cached LSH index is still current
+    @Query("SELECT MAX(f.fingerprintedAt) FROM SubmissionFingerprint f WHERE f.assignmentId = :assignmentId")
+    LocalDateTime findLatestFingerprintedAt(@Param("assignmentId") UUID assignmentId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM SubmissionFingerprint f WHERE f.submissionId = :submissionId")
+    int deleteBySubmissionId(@Param("submissionId") UUID submissionId);
+}
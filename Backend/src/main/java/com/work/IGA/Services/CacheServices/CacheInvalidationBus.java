@@ -0,0 +1,633 @@
+package com.work.IGA.Services.CacheServices;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.work.IGA.Utils.CacheUtils.CacheInvalidationMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tells the in-process caches of every instance which entries another instance changed.
+ *
+ * Keys are published per topic, either explicitly or for every insert, update and delete of
+ * a registered entity type. The keys of one transaction are coalesced and sent as a single
+ * pg_notify just before it commits, so Postgres delivers them only once the write is visible
+ * and drops them on rollback; outside a transaction they are sent straight away. Every
+ * instance LISTENs on a dedicated connection outside the pool, coalesces what arrived in one
+ * poll per topic and hands the keys to the topic's subscribers, then hands them over again
+ * after a short delay for reads that raced the commit and cached the old row.
+ *
+ * Each notification carries the sender's id and a sequence number. Postgres does not lose
+ * notifications on a live connection, but it drops those of a transaction that rolls back after
+ * numbering; the sender then sends the number again with no keys, so the hole is closed. A gap
+ * that stays open after the grace period (commits finish out of order, so numbers may briefly
+ * arrive out of order) means a notification really went missing and makes every subscriber drop
+ * everything, as does every (re)connect of the listener.
+ *
+ * With read replicas configured, this instance's own keys are also handed to its subscribers
+ * once, after the delay: a read routed to a replica that had not yet replayed the commit may
+ * have cached the old row here too.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus {
+
+    private static final String CHANNEL = "cache_invalidation";
+    public static final String ALL_KEYS = "*";
+    // pg_notify payloads must stay under 8000 bytes
+    private static final int MAX_PAYLOAD_LENGTH = 7800;
+    private static final int MAX_TRACKED_MISSING = 10_000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.poll-ms:1000}")
+    private int pollMs;
+
+    @Value("${cache.invalidation.keepalive-ms:30000}")
+    private long keepaliveMs;
+
+    @Value("${cache.invalidation.re-deliver-delay-ms:2000}")
+    private long reDeliverDelayMs;
+
+    @Value("${cache.invalidation.gap-grace-ms:5000}")
+    private long gapGraceMs;
+
+    @Value("${cache.invalidation.reconnect-max-delay-ms:30000}")
+    private long reconnectMaxDelayMs;
+
+    @Value("${datasource.replicas.urls:}")
+    private String replicaUrls;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    // Tells this instance's notifications apart; its own caches are updated by the writers
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<String, List<CacheInvalidationSubscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, EntityTopic> entityTopics = new ConcurrentHashMap<>();
+    // Only used by the listener thread
+    private final Map<String, SenderState> senders = new HashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private Thread listener;
+    private volatile Connection listenConnection;
+    private volatile boolean running;
+    private volatile boolean listening;
+
+    private final LongAdder notificationsSent = new LongAdder();
+    private final LongAdder keysPublished = new LongAdder();
+    private final LongAdder oversizedBatches = new LongAdder();
+    private final LongAdder notificationsReceived = new LongAdder();
+    private final LongAdder keysReceived = new LongAdder();
+    private final LongAdder gapsDetected = new LongAdder();
+    private final LongAdder fullRefreshes = new LongAdder();
+    private final LongAdder reconnects = new LongAdder();
+    private final LongAdder subscriberErrors = new LongAdder();
+    private volatile int trackedSenders;
+    private volatile LocalDateTime lastNotificationAt;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        EntityChangeListener changeListener = new EntityChangeListener();
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, changeListener);
+        registry.appendListeners(EventType.POST_UPDATE, changeListener);
+        registry.appendListeners(EventType.POST_DELETE, changeListener);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startListening() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        listener = new Thread(this::listenLoop, "cache-invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        Connection connection = listenConnection;
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ex) {
+                // Closing only to unblock the listener
+            }
+        }
+        if (listener != null) {
+            listener.interrupt();
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    public void subscribe(String topic, CacheInvalidationSubscriber subscriber) {
+        subscribers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(subscriber);
+    }
+
+    /**
+     * Publishes a key on the topic for every insert, update and delete of the entity type.
+     * The key function gets the entity and its id and may return null to publish nothing.
+     */
+    public <T> void publishEntityChanges(Class<T> type, String topic, BiFunction<T, Object, Object> key) {
+        entityTopics.put(type, new EntityTopic(topic, (entity, id) -> key.apply(type.cast(entity), id)));
+    }
+
+    /**
+     * Sent when the current transaction commits, or now if there is none. Topics and keys
+     * must not contain '|' or ';'.
+     */
+    public void publish(String topic, Object key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        EventSource session = transactionalSession();
+        if (session != null) {
+            enqueue(session, topic, key.toString());
+        } else {
+            PendingBatch batch = new PendingBatch();
+            batch.add(topic, key.toString());
+            sendNow(batch);
+        }
+    }
+
+    private EventSource transactionalSession() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return null;
+        }
+        EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory);
+        return holder == null ? null : holder.getEntityManager().unwrap(EventSource.class);
+    }
+
+    private void enqueue(EventSource session, String topic, String key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A session Spring does not manage; send with its own transaction
+            PendingBatch batch = new PendingBatch();
+            batch.add(topic, key);
+            session.getActionQueue().registerProcess(new SendBeforeCompletion(batch));
+            return;
+        }
+        // Keyed by session: a suspended outer transaction keeps its own batch
+        PendingBatch batch = (PendingBatch) TransactionSynchronizationManager.getResource(session);
+        if (batch == null) {
+            batch = new PendingBatch();
+            TransactionSynchronizationManager.bindResource(session, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(session);
+                }
+            });
+            // Runs after Hibernate's final flush, so entity changes made by it are included
+            session.getActionQueue().registerProcess(new SendBeforeCompletion(batch));
+        }
+        if (batch.sent) {
+            // Published after the transaction's notification went out (e.g. from an after-commit
+            // hook); its connection is finished with, so send from another thread
+            PendingBatch late = new PendingBatch();
+            late.add(topic, key);
+            scheduler.execute(() -> sendNow(late));
+            return;
+        }
+        batch.add(topic, key);
+    }
+
+    private void sendNow(PendingBatch batch) {
+        String payload = payload(batch);
+        jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatement statement) -> {
+            statement.setString(1, CHANNEL);
+            statement.setString(2, payload);
+            return statement.execute();
+        });
+        notificationsSent.increment();
+    }
+
+    /**
+     * Closes the hole a rolled-back transaction left in this instance's sequence: the number is
+     * sent with no keys, outside any transaction
+     */
+    private void releaseSequence(long seq) {
+        try {
+            jdbcTemplate.execute("SELECT pg_notify(?, ?)", (PreparedStatement statement) -> {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, nodeId + "|" + seq + "|");
+                return statement.execute();
+            });
+        } catch (Exception ex) {
+            // The other instances see a gap and drop their caches, which is safe
+            log.warn("Could not release cache invalidation sequence {}: {}", seq, ex.getMessage());
+        }
+    }
+
+    private String payload(PendingBatch batch) {
+        batch.sent = true;
+        batch.sequence = sequence.incrementAndGet();
+        StringBuilder payload = new StringBuilder(nodeId).append('|').append(batch.sequence).append('|');
+        int header = payload.length();
+        for (Map.Entry<String, Set<String>> topic : batch.keys.entrySet()) {
+            for (String key : topic.getValue()) {
+                payload.append(topic.getKey()).append(':').append(key).append(';');
+            }
+            keysPublished.add(topic.getValue().size());
+        }
+        if (payload.length() > MAX_PAYLOAD_LENGTH) {
+            oversizedBatches.increment();
+            payload.setLength(header);
+            for (String topic : batch.keys.keySet()) {
+                payload.append(topic).append(':').append(ALL_KEYS).append(';');
+            }
+        }
+        return payload.toString();
+    }
+
+    private void listenLoop() {
+        long backoffMs = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+                listenConnection = connection;
+                statement.execute("LISTEN " + CHANNEL);
+                listening = true;
+                backoffMs = 1000;
+                // Whatever changed while nobody was listening is unknown
+                senders.clear();
+                fullRefresh();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long lastActivity = System.nanoTime();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null && notifications.length > 0) {
+                        handle(notifications);
+                        lastActivity = System.nanoTime();
+                    } else if (System.nanoTime() - lastActivity > keepaliveMs * 1_000_000) {
+                        // Surfaces a dead connection instead of waiting on it forever
+                        statement.execute("SELECT 1");
+                        lastActivity = System.nanoTime();
+                    }
+                    checkGaps();
+                }
+            } catch (SQLException ex) {
+                if (!running) {
+                    break;
+                }
+                reconnects.increment();
+                log.warn("Cache invalidation listener lost its connection, reconnecting in {} ms: {}", backoffMs, ex.getMessage());
+            } catch (Exception ex) {
+                if (!running) {
+                    break;
+                }
+                reconnects.increment();
+                log.error("Cache invalidation listener failed, reconnecting in {} ms", backoffMs, ex);
+            } finally {
+                listening = false;
+                listenConnection = null;
+            }
+            try {
+                Thread.sleep(backoffMs);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            backoffMs = Math.min(backoffMs * 2, reconnectMaxDelayMs);
+        }
+    }
+
+    private void handle(PGNotification[] notifications) {
+        Map<String, Set<String>> keysByTopic = new HashMap<>();
+        Map<String, Set<String>> ownKeysByTopic = new HashMap<>();
+        boolean reDeliverOwnKeys = !replicaUrls.isBlank();
+        for (PGNotification notification : notifications) {
+            notificationsReceived.increment();
+            String[] parts = notification.getParameter().split("\\|", 3);
+            if (parts.length != 3) {
+                continue;
+            }
+            if (nodeId.equals(parts[0])) {
+                if (reDeliverOwnKeys) {
+                    collect(parts[2], ownKeysByTopic);
+                }
+                continue;
+            }
+            try {
+                track(parts[0], Long.parseLong(parts[1]));
+            } catch (NumberFormatException ex) {
+                continue;
+            }
+            keysReceived.add(collect(parts[2], keysByTopic));
+        }
+        if (!ownKeysByTopic.isEmpty()) {
+            scheduler.schedule(() -> deliver(ownKeysByTopic), reDeliverDelayMs, TimeUnit.MILLISECONDS);
+        }
+        if (keysByTopic.isEmpty()) {
+            return;
+        }
+        lastNotificationAt = LocalDateTime.now();
+        deliver(keysByTopic);
+        scheduler.schedule(() -> deliver(keysByTopic), reDeliverDelayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static int collect(String entries, Map<String, Set<String>> keysByTopic) {
+        int collected = 0;
+        for (String entry : entries.split(";")) {
+            int separator = entry.indexOf(':');
+            if (separator > 0) {
+                keysByTopic.computeIfAbsent(entry.substring(0, separator), t -> new LinkedHashSet<>())
+                    .add(entry.substring(separator + 1));
+                collected++;
+            }
+        }
+        return collected;
+    }
+
+    private void deliver(Map<String, Set<String>> keysByTopic) {
+        keysByTopic.forEach((topic, keys) -> {
+            for (CacheInvalidationSubscriber subscriber : subscribers.getOrDefault(topic, List.of())) {
+                try {
+                    if (keys.contains(ALL_KEYS)) {
+                        subscriber.invalidateAll();
+                    } else {
+                        subscriber.invalidate(keys);
+                    }
+                } catch (Exception ex) {
+                    subscriberErrors.increment();
+                    log.error("Cache invalidation subscriber of topic {} failed", topic, ex);
+                }
+            }
+        });
+    }
+
+    private void fullRefresh() {
+        fullRefreshes.increment();
+        subscribers.forEach((topic, topicSubscribers) -> {
+            for (CacheInvalidationSubscriber subscriber : topicSubscribers) {
+                try {
+                    subscriber.invalidateAll();
+                } catch (Exception ex) {
+                    subscriberErrors.increment();
+                    log.error("Cache invalidation subscriber of topic {} failed to refresh", topic, ex);
+                }
+            }
+        });
+    }
+
+    private void track(String sender, long seq) {
+        long now = System.nanoTime();
+        SenderState state = senders.get(sender);
+        if (state == null) {
+            // Everything before the first notification was covered by the refresh on connect
+            senders.put(sender, new SenderState(seq, now));
+            trackedSenders = senders.size();
+            return;
+        }
+        state.lastSeenAt = now;
+        if (seq > state.highest) {
+            for (long missing = state.highest + 1; missing < seq; missing++) {
+                if (state.missing.size() >= MAX_TRACKED_MISSING) {
+                    state.overflowed = true;
+                    break;
+                }
+                state.missing.put(missing, now);
+            }
+            state.highest = seq;
+        } else {
+            state.missing.remove(seq);
+        }
+    }
+
+    private void checkGaps() {
+        long now = System.nanoTime();
+        long graceNanos = gapGraceMs * 1_000_000;
+        boolean gap = false;
+        Iterator<SenderState> it = senders.values().iterator();
+        while (it.hasNext()) {
+            SenderState state = it.next();
+            if (state.overflowed || (!state.missing.isEmpty() && now - state.missing.firstEntry().getValue() > graceNanos)) {
+                gap = true;
+                state.missing.clear();
+                state.overflowed = false;
+            } else if (state.missing.isEmpty() && now - state.lastSeenAt > TimeUnit.HOURS.toNanos(1)) {
+                // Instances get a new id on every start; forget the ones that went quiet
+                it.remove();
+            }
+        }
+        trackedSenders = senders.size();
+        if (gap) {
+            gapsDetected.increment();
+            log.warn("Cache invalidation notifications went missing, dropping every subscribed cache");
+            fullRefresh();
+        }
+    }
+
+    public CacheInvalidationMetricsDto getMetrics() {
+        return new CacheInvalidationMetricsDto(
+            enabled,
+            listening,
+            new ArrayList<>(subscribers.keySet()),
+            notificationsSent.sum(),
+            keysPublished.sum(),
+            oversizedBatches.sum(),
+            notificationsReceived.sum(),
+            keysReceived.sum(),
+            gapsDetected.sum(),
+            fullRefreshes.sum(),
+            reconnects.sum(),
+            subscriberErrors.sum(),
+            trackedSenders,
+            lastNotificationAt
+        );
+    }
+
+    private record EntityTopic(String topic, BiFunction<Object, Object, Object> key) {
+    }
+
+    private static final class PendingBatch {
+        private final Map<String, Set<String>> keys = new LinkedHashMap<>();
+        private boolean sent;
+        private long sequence;
+
+        void add(String topic, String key) {
+            keys.computeIfAbsent(topic, t -> new LinkedHashSet<>()).add(key);
+        }
+    }
+
+    private static final class SenderState {
+        private long highest;
+        private long lastSeenAt;
+        // Missing sequence number -> when it was first missed
+        private final TreeMap<Long, Long> missing = new TreeMap<>();
+        private boolean overflowed;
+
+        SenderState(long highest, long lastSeenAt) {
+            this.highest = highest;
+            this.lastSeenAt = lastSeenAt;
+        }
+    }
+
+    /**
+     * Sends the transaction's keys on its connection once Hibernate has flushed
+     */
+    private final class SendBeforeCompletion implements BeforeTransactionCompletionProcess {
+        private final PendingBatch batch;
+
+        SendBeforeCompletion(PendingBatch batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            if (batch.keys.isEmpty()) {
+                return;
+            }
+            String payload = payload(batch);
+            session.getActionQueue().registerProcess(new ReleaseOnRollback(batch.sequence));
+            // A failure here fails the commit rather than leaving other instances serving old entries
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+                    statement.setString(1, CHANNEL);
+                    statement.setString(2, payload);
+                    statement.execute();
+                }
+            });
+            notificationsSent.increment();
+        }
+    }
+
+    /**
+     * Postgres discards the notification of a transaction that does not commit
+     */
+    private final class ReleaseOnRollback implements AfterTransactionCompletionProcess {
+        private final long sequence;
+
+        ReleaseOnRollback(long sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            if (!success) {
+                try {
+                    // The session's connection is being released; send from another thread
+                    scheduler.execute(() -> releaseSequence(sequence));
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down; the other instances treat the hole as a gap
+                }
+            }
+        }
+    }
+
+    private class EntityChangeListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            changed(event.getSession(), event.getPersister(), event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            changed(event.getSession(), event.getPersister(), event.getEntity(), event.getId());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            changed(event.getSession(), event.getPersister(), event.getEntity(), event.getId());
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return false;
+        }
+
+        private void changed(EventSource session, EntityPersister persister, Object entity, Object id) {
+            EntityTopic topic = entityTopics.get(persister.getMappedClass());
+            if (topic == null) {
+                return;
+            }
+            Object key = topic.key().apply(entity, id);
+            if (key != null) {
+                enqueue(session, topic.topic(), key.toString());
+            }
+        }
+    }
+}
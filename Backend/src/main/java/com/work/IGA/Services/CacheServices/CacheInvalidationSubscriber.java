@@ -0,0 +1,20 @@
+package com.work.IGA.Services.CacheServices;
+
+import java.util.Set;
+
+/**
+ * An in-process cache kept in line with writes made by other instances.
+ * Called on the bus listener thread.
+ */
+public interface CacheInvalidationSubscriber {
+
+    /**
+     * Entries changed by another instance; the keys are those it published
+     */
+    void invalidate(Set<String> keys);
+
+    /**
+     * Changes may have been missed, drop everything
+     */
+    void invalidateAll();
+}
@@ -13,20 +13,24 @@ import com.work.IGA.Configuration.SupabaseStorageService;
 import com.work.IGA.Models.Courses.AssignmentsSchema;
 import com.work.IGA.Models.Courses.Modules;
 import com.work.IGA.Repositories.AssignmentRepo;
+import com.work.IGA.Repositories.AssignmentSubmissionRepository;
 import com.work.IGA.Repositories.ModulesRepository;
 import com.work.IGA.Utils.AssignmentUtils.AssignmentDto;
 import com.work.IGA.Utils.AssignmentUtils.AssignmentException;
 import com.work.IGA.Utils.AssignmentUtils.AssignmentResponse;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class AssignmentServices  implements AssignmentServicesImpl{
     private final AssignmentRepo assignmentRepo;
     private final ModulesRepository moduleRepo;
     private final JwtUtils jwtUtils;
     private final SupabaseStorageService supabaseStorage;
+    private final AssignmentSubmissionRepository submissionRepository;
 
     @Override
     public AssignmentResponse createAssignment(AssignmentDto assignmentDto, String token) {
@@ -220,12 +224,21 @@ public AssignmentResponse updateAssignment(UUID assignmentId, AssignmentDto assi
         if (assignmentDto.getMaxPoints() > 0) {
             assignment.setMaxPoints(assignmentDto.getMaxPoints());
         }
+        boolean dueDateChanged = false;
         if (assignmentDto.getDueDate() != null) {
-            assignment.setDueDate(LocalDate.parse(assignmentDto.getDueDate()));
+            LocalDate newDueDate = LocalDate.parse(assignmentDto.getDueDate());
+            dueDateChanged = !newDueDate.equals(assignment.getDueDate());
+            assignment.setDueDate(newDueDate);
         }
 
         // Save updated assignment
-        AssignmentsSchema updatedAssignment = assignmentRepo.save(assignment);
+        AssignmentsSchema updatedAssignment = assignmentRepo.saveAndFlush(assignment);
+
+        // Stored lateness depends on the due date, recompute it in one statement
+        if (dueDateChanged) {
+            int recomputed = submissionRepository.recomputeLatenessByAssignmentId(assignmentId);
+            log.info("Recomputed lateness for {} submissions of assignment {}", recomputed, assignmentId);
+        }
 
         return new AssignmentResponse(
             true,
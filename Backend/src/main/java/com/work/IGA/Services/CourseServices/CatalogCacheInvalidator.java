@@ -0,0 +1,148 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.cache.CacheManager;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Service;
+
+import com.work.IGA.Configuration.CatalogCacheConfig;
+import com.work.IGA.Models.Courses.AssignmentsSchema;
+import com.work.IGA.Models.Courses.CoursesSchema;
+import com.work.IGA.Models.Courses.Modules;
+import com.work.IGA.Models.Courses.ResourceSchema;
+import com.work.IGA.Services.CacheServices.CacheInvalidationBus;
+import com.work.IGA.Services.CacheServices.CacheInvalidationSubscriber;
+import com.work.IGA.Utils.CoursesException.CacheRegionStatsDto;
+import com.work.IGA.Utils.CoursesException.CatalogCacheMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Keeps the catalog second-level cache of every instance in line with writes made on the others.
+ *
+ * Every insert, update or delete of a course, module, resource or assignment is published on
+ * the cache invalidation bus. Other instances evict the entity, the collections that may
+ * contain it and the cached query results; when the bus may have missed something the whole
+ * catalog is evicted. The region TTL bounds anything else that slips through.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogCacheInvalidator implements CacheInvalidationSubscriber {
+
+    public static final String TOPIC = "catalog";
+
+    private static final Map<String, Class<?>> CATALOG_TYPES = Map.of(
+        CoursesSchema.class.getSimpleName(), CoursesSchema.class,
+        Modules.class.getSimpleName(), Modules.class,
+        ResourceSchema.class.getSimpleName(), ResourceSchema.class,
+        AssignmentsSchema.class.getSimpleName(), AssignmentsSchema.class
+    );
+
+    private static final String COURSE_MODULES_ROLE = CoursesSchema.class.getName() + ".modules";
+    private static final String MODULE_RESOURCES_ROLE = Modules.class.getName() + ".resources";
+    private static final String MODULE_ASSIGNMENTS_ROLE = Modules.class.getName() + ".assignments";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheManager catalogCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+
+    private SessionFactoryImplementor sessionFactory;
+
+    private final LongAdder remoteInvalidations = new LongAdder();
+    private final LongAdder fullEvictions = new LongAdder();
+    private volatile LocalDateTime lastRemoteInvalidationAt;
+
+    @PostConstruct
+    public void init() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        for (Class<?> type : CATALOG_TYPES.values()) {
+            invalidationBus.publishEntityChanges(type, TOPIC, (entity, id) -> type.getSimpleName() + ":" + id);
+        }
+        invalidationBus.subscribe(TOPIC, this);
+    }
+
+    @Override
+    public void invalidate(Set<String> keys) {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        for (String key : keys) {
+            int separator = key.indexOf(':');
+            Class<?> type = separator < 0 ? null : CATALOG_TYPES.get(key.substring(0, separator));
+            if (type == null) {
+                continue;
+            }
+            UUID id = UUID.fromString(key.substring(separator + 1));
+            cache.evictEntityData(type, id);
+            // A child moving between parents changes two collections, so the parent role is evicted whole
+            if (type == CoursesSchema.class) {
+                cache.evictCollectionData(COURSE_MODULES_ROLE, id);
+            } else if (type == Modules.class) {
+                cache.evictCollectionData(COURSE_MODULES_ROLE);
+                cache.evictCollectionData(MODULE_RESOURCES_ROLE, id);
+                cache.evictCollectionData(MODULE_ASSIGNMENTS_ROLE, id);
+            } else if (type == ResourceSchema.class) {
+                cache.evictCollectionData(MODULE_RESOURCES_ROLE);
+            } else {
+                cache.evictCollectionData(MODULE_ASSIGNMENTS_ROLE);
+            }
+        }
+        cache.evictQueryRegion(CatalogCacheConfig.QUERIES);
+        cache.evictDefaultQueryRegion();
+        remoteInvalidations.add(keys.size());
+        lastRemoteInvalidationAt = LocalDateTime.now();
+    }
+
+    @Override
+    public void invalidateAll() {
+        org.hibernate.Cache cache = sessionFactory.getCache();
+        CATALOG_TYPES.values().forEach(cache::evictEntityData);
+        cache.evictCollectionData(COURSE_MODULES_ROLE);
+        cache.evictCollectionData(MODULE_RESOURCES_ROLE);
+        cache.evictCollectionData(MODULE_ASSIGNMENTS_ROLE);
+        cache.evictQueryRegion(CatalogCacheConfig.QUERIES);
+        cache.evictDefaultQueryRegion();
+        fullEvictions.increment();
+    }
+
+    public CatalogCacheMetricsDto getMetrics() {
+        List<CacheRegionStatsDto> regions = new ArrayList<>();
+        for (String region : CatalogCacheConfig.CATALOG_REGIONS) {
+            regions.add(regionStats(region));
+        }
+        return new CatalogCacheMetricsDto(
+            remoteInvalidations.sum(),
+            fullEvictions.sum(),
+            lastRemoteInvalidationAt,
+            regions
+        );
+    }
+
+    private CacheRegionStatsDto regionStats(String region) {
+        long size = 0;
+        javax.cache.Cache<Object, Object> cache = catalogCacheManager.getCache(region);
+        if (cache != null) {
+            size = cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+        }
+        CacheRegionStatistics statistics = CatalogCacheConfig.QUERIES.equals(region)
+            ? sessionFactory.getStatistics().getQueryRegionStatistics(region)
+            : sessionFactory.getStatistics().getDomainDataRegionStatistics(region);
+        if (statistics == null) {
+            // Statistics disabled, or no query has used the region yet
+            return new CacheRegionStatsDto(region, size, 0, 0, 0, 0.0);
+        }
+        long hits = statistics.getHitCount();
+        long misses = statistics.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+        return new CacheRegionStatsDto(region, size, hits, misses, statistics.getPutCount(), hitRatio);
+    }
+}
@@ -7,6 +7,7 @@ import java.util.Collections;
 import java.util.List;
 import org.springframework.context.support.BeanDefinitionDsl.Role;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.work.IGA.Configuration.JwtUtils;
 import com.work.IGA.Configuration.SupabaseStorageService;
@@ -107,6 +108,7 @@ public class CoursesServicesImplements implements CoursesService{
     }
 
     @Override
+    @Transactional(readOnly = true)
     public CoursesResponse getAllCourses() {
          try  {
             // Retrieve all courses from the database
@@ -0,0 +1,112 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter over (student, course) pairs. Bits are set with atomic ORs, so
+ * adds from after-commit hooks can run while request threads query it. Bit positions use
+ * double hashing (h1 + i * h2) over two 64-bit mixes of the pair.
+ */
+final class EnrollmentBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashFunctions;
+    private final AtomicLong insertions = new AtomicLong();
+
+    private EnrollmentBloomFilter(long bits, int hashFunctions) {
+        int wordCount = (int) Math.max(1, (bits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bits = (long) wordCount * 64;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /**
+     * Sizes the filter for the expected number of pairs and target false-positive rate,
+     * capped at the memory budget. Past the cap the false-positive rate rises instead.
+     */
+    static EnrollmentBloomFilter create(long expectedPairs, double targetFpp, long memoryBudgetBytes) {
+        long n = Math.max(1, expectedPairs);
+        double optimalBits = -n * Math.log(targetFpp) / (Math.log(2) * Math.log(2));
+        // Budget is capped where an int-indexed array of longs ends
+        long budgetBits = Math.min(memoryBudgetBytes, (long) Integer.MAX_VALUE * 8L) * 8L;
+        long bits = Math.max(64, Math.min(budgetBits, (long) Math.ceil(optimalBits)));
+        int k = (int) Math.round((double) bits / n * Math.log(2));
+        return new EnrollmentBloomFilter(bits, Math.max(1, Math.min(16, k)));
+    }
+
+    void add(UUID studentId, UUID courseId) {
+        long h1 = hash1(studentId, courseId);
+        long h2 = hash2(studentId, courseId);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    boolean mightContain(UUID studentId, UUID courseId) {
+        long h1 = hash1(studentId, courseId);
+        long h2 = hash2(studentId, courseId);
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    long memoryBytes() {
+        return bits / 8;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // Counts re-adds of pairs already present too, so it can run slightly high
+    long insertions() {
+        return insertions.get();
+    }
+
+    /**
+     * False-positive rate predicted from the insertions so far: (1 - e^(-kn/m))^k
+     */
+    double expectedFpp() {
+        double fill = 1 - Math.exp(-hashFunctions * (double) insertions.get() / bits);
+        return Math.pow(fill, hashFunctions);
+    }
+
+    private static long hash1(UUID studentId, UUID courseId) {
+        return mix(studentId.getMostSignificantBits() ^ Long.rotateLeft(courseId.getLeastSignificantBits(), 17))
+            ^ mix(studentId.getLeastSignificantBits() + courseId.getMostSignificantBits());
+    }
+
+    private static long hash2(UUID studentId, UUID courseId) {
+        // Odd, so the probe sequence does not collapse onto a few bits
+        return mix(courseId.getMostSignificantBits() ^ Long.rotateLeft(studentId.getLeastSignificantBits(), 31)
+            ^ 0x9E3779B97F4A7C15L) | 1L;
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
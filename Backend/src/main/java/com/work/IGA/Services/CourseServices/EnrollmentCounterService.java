@@ -0,0 +1,101 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.ProgressEnum;
+import com.work.IGA.Repositories.CourseEnrollmentCounterRepository;
+import com.work.IGA.Repositories.EnrollmentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps course_enrollment_counters in step with enrollments. Every method must run in the
+ * transaction that changes the enrollment, so a rollback takes the delta with it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentCounterService {
+
+    private final CourseEnrollmentCounterRepository counterRepository;
+    private final EnrollmentRepository enrollmentRepository;
+
+    public void recordEnrolled(UUID courseId, String progress) {
+        apply(courseId, 1, progress, 1);
+    }
+
+    public void recordRemoved(UUID courseId, String progress) {
+        apply(courseId, -1, progress, -1);
+    }
+
+    public void recordProgressChange(UUID courseId, String from, String to) {
+        if (normalize(from) == normalize(to)) {
+            return;
+        }
+        long notStarted = 0;
+        long inProgress = 0;
+        long completed = 0;
+        switch (normalize(from)) {
+            case IN_PROGRESS -> inProgress--;
+            case COMPLETED -> completed--;
+            default -> notStarted--;
+        }
+        switch (normalize(to)) {
+            case IN_PROGRESS -> inProgress++;
+            case COMPLETED -> completed++;
+            default -> notStarted++;
+        }
+        counterRepository.addDeltas(courseId, 0, notStarted, inProgress, completed, LocalDateTime.now());
+    }
+
+    private void apply(UUID courseId, long total, String progress, long delta) {
+        ProgressEnum state = normalize(progress);
+        counterRepository.addDeltas(courseId, total,
+            state == ProgressEnum.NOT_STARTED ? delta : 0,
+            state == ProgressEnum.IN_PROGRESS ? delta : 0,
+            state == ProgressEnum.COMPLETED ? delta : 0,
+            LocalDateTime.now());
+    }
+
+    private static ProgressEnum normalize(String progress) {
+        if (progress == null) {
+            return ProgressEnum.NOT_STARTED;
+        }
+        try {
+            return ProgressEnum.valueOf(progress);
+        } catch (IllegalArgumentException ex) {
+            return ProgressEnum.NOT_STARTED;
+        }
+    }
+
+    /**
+     * Seeds the counters on first start after they were introduced
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillCounters() {
+        try {
+            if (counterRepository.count() == 0 && enrollmentRepository.count() > 0) {
+                int courses = counterRepository.rebuildFromEnrollments();
+                log.info("Backfilled enrollment counters for {} courses", courses);
+            }
+        } catch (Exception ex) {
+            log.error("Could not backfill enrollment counters: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Discards and recounts every course; run it while enrollments are quiet
+     */
+    @Transactional
+    public int rebuildCounters() {
+        counterRepository.deleteAllCounters();
+        return counterRepository.rebuildFromEnrollments();
+    }
+}
@@ -0,0 +1,286 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentFilterMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter of every (student, course) enrollment, letting access checks answer
+ * "not enrolled" without touching the entitlement cache or the database.
+ *
+ * The filter must never miss an enrollment. Enrollments committed on this node are added
+ * by EntitlementCache's after-commit hook; enrollments committed elsewhere are picked up by
+ * polling enrollment_date with an overlap wide enough for slow commits. Until that poll has
+ * seen them, a student another node reported a change for is always reported as possible,
+ * as is everyone after the invalidation bus may have missed changes. A periodic rebuild
+ * drops removed enrollments and resizes the filter; adds arriving while it scans go to the
+ * new filter as well. Until the first build finishes every pair is reported as possible.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentExistenceFilter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${entitlements.filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${entitlements.filter.memory-budget-mb:16}")
+    private long memoryBudgetMb;
+
+    @Value("${entitlements.filter.target-fpp:0.01}")
+    private double targetFpp;
+
+    // Room for enrollments added between rebuilds before the false-positive rate degrades
+    @Value("${entitlements.filter.growth-factor:1.5}")
+    private double growthFactor;
+
+    @Value("${entitlements.filter.catch-up-overlap-seconds:120}")
+    private long catchUpOverlapSeconds;
+
+    private volatile EnrollmentBloomFilter filter;
+    // Filter being rebuilt; receives the same adds as the live one
+    private volatile EnrollmentBloomFilter building;
+    private volatile LocalDateTime catchUpFrom;
+    private JdbcTemplate streamingTemplate;
+
+    // Students changed on another node, with the System.nanoTime() the change arrived at; the
+    // filter is bypassed for them until a catch-up or rebuild that started later has finished
+    private final ConcurrentHashMap<UUID, Long> changedElsewhere = new ConcurrentHashMap<>();
+    // Same for every student, after the bus may have dropped notifications; null when settled
+    private final AtomicReference<Long> allChangedElsewhere = new AtomicReference<>();
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder definiteNegatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder truePositives = new LongAdder();
+    private final LongAdder catchUpAdds = new LongAdder();
+    private final LongAdder bypassedChecks = new LongAdder();
+    private final LongAdder rebuilds = new LongAdder();
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    @PostConstruct
+    public void init() {
+        streamingTemplate = new JdbcTemplate(dataSource);
+        // Postgres only streams with a fetch size inside a transaction
+        streamingTemplate.setFetchSize(10_000);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * @return false only if the student is certainly not enrolled in the course
+     */
+    public boolean mightBeEnrolled(UUID studentId, UUID courseId) {
+        EnrollmentBloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        checks.increment();
+        if (current.mightContain(studentId, courseId)) {
+            return true;
+        }
+        if (isUnsettled(studentId)) {
+            bypassedChecks.increment();
+            return true;
+        }
+        definiteNegatives.increment();
+        return false;
+    }
+
+    /**
+     * Feeds back the authoritative answer for a pair the filter let through
+     */
+    public void recordOutcome(UUID studentId, boolean enrolled) {
+        if (filter == null || isUnsettled(studentId)) {
+            return;
+        }
+        if (enrolled) {
+            truePositives.increment();
+        } else {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Call once the enrollment has committed
+     */
+    public void add(UUID studentId, UUID courseId) {
+        EnrollmentBloomFilter current = filter;
+        if (current != null) {
+            current.add(studentId, courseId);
+        }
+        EnrollmentBloomFilter next = building;
+        if (next != null) {
+            next.add(studentId, courseId);
+        }
+    }
+
+    /**
+     * Another node changed the student's enrollments, which the filter may not hold yet
+     */
+    public void markChangedElsewhere(UUID studentId) {
+        changedElsewhere.put(studentId, System.nanoTime());
+    }
+
+    /**
+     * Changes by other nodes may have been missed altogether
+     */
+    public void markAllChangedElsewhere() {
+        allChangedElsewhere.set(System.nanoTime());
+    }
+
+    private boolean isUnsettled(UUID studentId) {
+        return allChangedElsewhere.get() != null || changedElsewhere.containsKey(studentId);
+    }
+
+    /**
+     * Ends the bypass for changes that arrived before a poll or scan that started at startedAt
+     */
+    private void settle(long startedAt) {
+        changedElsewhere.values().removeIf(arrivedAt -> arrivedAt - startedAt < 0);
+        Long all = allChangedElsewhere.get();
+        if (all != null && all - startedAt < 0) {
+            allChangedElsewhere.compareAndSet(all, null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${entitlements.filter.rebuild-interval-ms:3600000}",
+               initialDelayString = "${entitlements.filter.rebuild-interval-ms:3600000}")
+    public void scheduledRebuild() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            long start = System.nanoTime();
+            try {
+                Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollments", Long.class);
+                long expected = (long) Math.ceil((count == null ? 0 : count) * growthFactor);
+                EnrollmentBloomFilter next = EnrollmentBloomFilter.create(expected, targetFpp, memoryBudgetMb * 1024 * 1024);
+
+                // Registered before the scan: anything committed after its snapshot arrives through add()
+                building = next;
+                LocalDateTime scanStart = LocalDateTime.now();
+                long scanStartedAt = System.nanoTime();
+                transactionTemplate.executeWithoutResult(status -> streamingTemplate.query(
+                    "SELECT student_id, course_id FROM enrollments WHERE student_id IS NOT NULL AND course_id IS NOT NULL",
+                    rs -> {
+                        next.add(rs.getObject("student_id", UUID.class), rs.getObject("course_id", UUID.class));
+                    }
+                ));
+
+                filter = next;
+                catchUpFrom = scanStart.minusSeconds(catchUpOverlapSeconds);
+                settle(scanStartedAt);
+                rebuilds.increment();
+                lastRebuildAt = LocalDateTime.now();
+                lastRebuildMillis = (System.nanoTime() - start) / 1_000_000;
+                log.info("Enrollment filter rebuilt: {} pairs, {} KiB, {} hash functions, expected fpp {} ({} ms)",
+                    next.insertions(), next.memoryBytes() / 1024, next.hashFunctions(),
+                    String.format("%.4f", next.expectedFpp()), lastRebuildMillis);
+                if (next.expectedFpp() > targetFpp) {
+                    log.warn("Enrollment filter is over its memory budget of {} MB, expected fpp {} exceeds target {}",
+                        memoryBudgetMb, String.format("%.4f", next.expectedFpp()), targetFpp);
+                }
+            } catch (Exception ex) {
+                log.error("Enrollment filter rebuild failed, keeping the previous filter: {}", ex.getMessage());
+            } finally {
+                building = null;
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * Adds enrollments committed by other nodes; local ones are already in through add()
+     */
+    @Scheduled(fixedDelayString = "${entitlements.filter.catch-up-interval-ms:5000}",
+               initialDelayString = "${entitlements.filter.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        LocalDateTime from = catchUpFrom;
+        if (!enabled || filter == null || from == null) {
+            return;
+        }
+        LocalDateTime polledAt = LocalDateTime.now();
+        long pollStartedAt = System.nanoTime();
+        jdbcTemplate.query(
+            "SELECT student_id, course_id FROM enrollments WHERE enrollment_date > ?",
+            ps -> ps.setTimestamp(1, Timestamp.valueOf(from)),
+            rs -> {
+                add(rs.getObject("student_id", UUID.class), rs.getObject("course_id", UUID.class));
+                catchUpAdds.increment();
+            }
+        );
+        // A concurrent rebuild may have moved the window already; never move it backwards
+        LocalDateTime next = polledAt.minusSeconds(catchUpOverlapSeconds);
+        if (catchUpFrom == null || next.isAfter(catchUpFrom)) {
+            catchUpFrom = next;
+        }
+        settle(pollStartedAt);
+    }
+
+    public EnrollmentFilterMetricsDto getMetrics() {
+        EnrollmentBloomFilter current = filter;
+        long negatives = definiteNegatives.sum();
+        long fp = falsePositives.sum();
+        // Share of pairs that are not enrolled which the filter still let through
+        double observedFpp = negatives + fp == 0 ? 0.0 : (double) fp / (negatives + fp);
+        return new EnrollmentFilterMetricsDto(
+            current != null,
+            current == null ? 0 : current.bits(),
+            current == null ? 0 : current.memoryBytes(),
+            memoryBudgetMb * 1024 * 1024,
+            current == null ? 0 : current.hashFunctions(),
+            current == null ? 0 : current.insertions(),
+            current == null ? 0.0 : current.expectedFpp(),
+            targetFpp,
+            checks.sum(),
+            negatives,
+            truePositives.sum(),
+            fp,
+            observedFpp,
+            catchUpAdds.sum(),
+            bypassedChecks.sum(),
+            changedElsewhere.size(),
+            rebuilds.sum(),
+            lastRebuildMillis,
+            lastRebuildAt
+        );
+    }
+}
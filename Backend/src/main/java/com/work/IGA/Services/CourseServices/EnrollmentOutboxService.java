@@ -0,0 +1,332 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Models.Courses.EnrollmentOutboxEvent;
+import com.work.IGA.Models.Courses.OutboxStatus;
+import com.work.IGA.Models.Courses.Payment;
+import com.work.IGA.Models.Courses.ProgressEnum;
+import com.work.IGA.Repositories.EnrollmentOutboxRepository;
+import com.work.IGA.Repositories.EnrollmentRepository;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentOutboxMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transactional outbox between payment completion and enrollment.
+ *
+ * Completing a payment only records an outbox row in the same transaction, so a paid
+ * student can never be left without a pending enrollment. A single dispatcher thread
+ * claims due rows with SKIP LOCKED and enrolls a whole batch in one transaction; if the
+ * batch fails, its rows are retried one by one so a single bad row cannot hold back the
+ * rest. Inserting the enrollment is a no-op when the student is already enrolled or the
+ * payment has since been refunded, so every row can safely be dispatched more than once.
+ * That relies on the unique (student_id, course_id) constraint, which is put in place
+ * before the application starts; startup fails if it cannot be.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentOutboxService {
+
+    private static final List<OutboxStatus> UNPROCESSED = List.of(OutboxStatus.PENDING, OutboxStatus.RETRY);
+
+    private final EnrollmentOutboxRepository outboxRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EntitlementCache entitlementCache;
+    private final EnrollmentCounterService enrollmentCounters;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final WorkerThreads workerThreads;
+
+    @Value("${enrollment.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${enrollment.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${enrollment.outbox.retry-base-delay-ms:2000}")
+    private long retryBaseDelayMs;
+
+    @Value("${enrollment.outbox.retry-max-delay-ms:300000}")
+    private long retryMaxDelayMs;
+
+    // One running dispatch plus at most one queued; further wake-ups coalesce into it
+    private ThreadPoolExecutor dispatcher;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder enrolled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder batchFallbacks = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        ensureUniqueEnrollments();
+        dispatcher = new ThreadPoolExecutor(
+            1, 1,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            workerThreads.named("enrollment-outbox"),
+            new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+
+    /**
+     * Adds uk_enrollments_student_course if it is missing. Hibernate's schema update skips it
+     * when enrollments already holds duplicates, so those are merged first: the earliest
+     * enrollment per student and course is kept and takes over the others' grades and any
+     * resource progress it does not have yet.
+     */
+    private void ensureUniqueEnrollments() {
+        int merged;
+        try {
+            merged = transactionTemplate.execute(status -> {
+                Boolean present = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'enrollments'::regclass "
+                    + "AND conname = 'uk_enrollments_student_course')", Boolean.class);
+                if (Boolean.TRUE.equals(present)) {
+                    return 0;
+                }
+                jdbcTemplate.execute("LOCK TABLE enrollments IN SHARE ROW EXCLUSIVE MODE");
+                jdbcTemplate.execute("CREATE TEMPORARY TABLE enrollment_duplicates ON COMMIT DROP AS "
+                    + "SELECT id, keeper_id FROM (SELECT id, first_value(id) OVER ("
+                    + "PARTITION BY student_id, course_id ORDER BY enrollment_date, id) AS keeper_id "
+                    + "FROM enrollments WHERE student_id IS NOT NULL AND course_id IS NOT NULL) e "
+                    + "WHERE id <> keeper_id");
+                int duplicates = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM enrollment_duplicates", Integer.class);
+                if (duplicates > 0) {
+                    jdbcTemplate.update("UPDATE grades g SET enrollment_id = d.keeper_id "
+                        + "FROM enrollment_duplicates d WHERE g.enrollment_id = d.id");
+                    jdbcTemplate.update("INSERT INTO resource_progress (enrollment_id, resource_id, module_id, percent, updated_at) "
+                        + "SELECT d.keeper_id, p.resource_id, p.module_id, p.percent, p.updated_at "
+                        + "FROM resource_progress p JOIN enrollment_duplicates d ON d.id = p.enrollment_id "
+                        + "ON CONFLICT (enrollment_id, resource_id) DO NOTHING");
+                    jdbcTemplate.update("DELETE FROM resource_progress p USING enrollment_duplicates d WHERE p.enrollment_id = d.id");
+                    jdbcTemplate.update("DELETE FROM enrollments e USING enrollment_duplicates d WHERE e.id = d.id");
+                }
+                jdbcTemplate.execute("ALTER TABLE enrollments ADD CONSTRAINT uk_enrollments_student_course "
+                    + "UNIQUE (student_id, course_id)");
+                return duplicates;
+            });
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Could not enforce one enrollment per student and course: " + ex.getMessage(), ex);
+        }
+        if (merged > 0) {
+            int courses = enrollmentCounters.rebuildCounters();
+            log.warn("Merged {} duplicate enrollments and recounted {} courses", merged, courses);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Undispatched rows stay in the outbox and are picked up on the next start
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Records the enrollment owed for a payment that has just been marked COMPLETED.
+     * Must run inside the transaction that saves the payment.
+     */
+    public void recordCompletedPayment(Payment payment) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Enrollment outbox events must be written in the payment transaction");
+        }
+        outboxRepository.upsertPending(UUID.randomUUID(), payment.getId(),
+            payment.getStudent().getId(), payment.getCourse().getId(), LocalDateTime.now());
+        recorded.increment();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestDispatch();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOutbox() {
+        requestDispatch();
+    }
+
+    @Scheduled(fixedDelayString = "${enrollment.outbox.poll-interval-ms:5000}")
+    public void pollOutbox() {
+        requestDispatch();
+    }
+
+    private void requestDispatch() {
+        if (!dispatcher.isShutdown()) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        List<UUID> claimed = new ArrayList<>();
+        try {
+            DispatchCounts counts = transactionTemplate.execute(status -> {
+                DispatchCounts batch = new DispatchCounts();
+                LocalDateTime now = LocalDateTime.now();
+                List<EnrollmentOutboxEvent> due = outboxRepository.lockDue(now, batchSize);
+                due.forEach(event -> claimed.add(event.getId()));
+                for (EnrollmentOutboxEvent event : due) {
+                    apply(event, now, batch);
+                }
+                return batch;
+            });
+            counts.publish();
+        } catch (Exception ex) {
+            if (claimed.isEmpty()) {
+                log.error("Could not claim enrollment outbox events: {}", ex.getMessage());
+                return;
+            }
+            // Postgres aborts the whole batch on the first error, so isolate the failing row
+            log.warn("Enrollment outbox batch of {} failed, dispatching one by one: {}", claimed.size(), ex.getMessage());
+            batchFallbacks.increment();
+            claimed.forEach(this::dispatchOne);
+        }
+        if (claimed.size() == batchSize) {
+            // More may be waiting; keep draining without waiting for the next tick
+            requestDispatch();
+        }
+    }
+
+    private void dispatchOne(UUID eventId) {
+        try {
+            DispatchCounts counts = transactionTemplate.execute(status -> {
+                DispatchCounts single = new DispatchCounts();
+                outboxRepository.lockIfDue(eventId).forEach(event -> apply(event, LocalDateTime.now(), single));
+                return single;
+            });
+            counts.publish();
+        } catch (Exception ex) {
+            recordFailure(eventId, ex);
+        }
+    }
+
+    private void apply(EnrollmentOutboxEvent event, LocalDateTime now, DispatchCounts counts) {
+        int inserted = enrollmentRepository.insertIfPaid(UUID.randomUUID(), event.getStudentId(),
+            event.getCourseId(), event.getPaymentId(), now);
+        if (inserted > 0) {
+            enrollmentCounters.recordEnrolled(event.getCourseId(), ProgressEnum.NOT_STARTED.name());
+            entitlementCache.grantEnrolledAfterCommit(event.getStudentId(), event.getCourseId());
+            counts.enrolled++;
+        } else {
+            counts.skipped++;
+        }
+        event.setStatus(OutboxStatus.PROCESSED);
+        event.setProcessedAt(now);
+        event.setLastError(null);
+        event.setAttempts((event.getAttempts() == null ? 0 : event.getAttempts()) + 1);
+        outboxRepository.save(event);
+    }
+
+    private void recordFailure(UUID eventId, Exception cause) {
+        log.warn("Enrollment outbox event {} failed: {}", eventId, cause.getMessage());
+        try {
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.findById(eventId).ifPresent(event -> {
+                int attempts = (event.getAttempts() == null ? 0 : event.getAttempts()) + 1;
+                event.setAttempts(attempts);
+                event.setLastError(truncate(cause.getMessage()));
+                if (attempts >= maxAttempts) {
+                    event.setStatus(OutboxStatus.DEAD);
+                    dead.increment();
+                } else {
+                    event.setStatus(OutboxStatus.RETRY);
+                    event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(retryDelayMillis(attempts))));
+                    retried.increment();
+                }
+                outboxRepository.save(event);
+            }));
+        } catch (Exception ex) {
+            // The row is still due and is claimed again on the next poll
+            log.error("Could not record failure of enrollment outbox event {}: {}", eventId, ex.getMessage());
+        }
+    }
+
+    private long retryDelayMillis(int attempts) {
+        long exponential = retryBaseDelayMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(retryMaxDelayMs, exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    /**
+     * Puts a DEAD event back into the outbox with a fresh attempt budget
+     */
+    public boolean requeue(UUID eventId) {
+        Boolean requeued = transactionTemplate.execute(status -> outboxRepository.findById(eventId)
+            .filter(event -> event.getStatus() == OutboxStatus.DEAD)
+            .map(event -> {
+                event.setStatus(OutboxStatus.RETRY);
+                event.setAttempts(0);
+                event.setNextAttemptAt(LocalDateTime.now());
+                outboxRepository.save(event);
+                return true;
+            })
+            .orElse(false));
+        if (Boolean.TRUE.equals(requeued)) {
+            requestDispatch();
+            return true;
+        }
+        return false;
+    }
+
+    public List<EnrollmentOutboxEvent> getDeadEvents(int limit) {
+        return outboxRepository.findByStatusOrderByCreatedAtDesc(OutboxStatus.DEAD, PageRequest.of(0, limit));
+    }
+
+    public EnrollmentOutboxMetricsDto getMetrics() {
+        LocalDateTime oldest = outboxRepository.findOldestCreatedAt(UNPROCESSED);
+        return new EnrollmentOutboxMetricsDto(
+            outboxRepository.countByStatusIn(UNPROCESSED),
+            oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).getSeconds(),
+            recorded.sum(),
+            enrolled.sum(),
+            skipped.sum(),
+            retried.sum(),
+            dead.sum(),
+            batchFallbacks.sum()
+        );
+    }
+
+    // Counted only once the dispatch transaction has committed
+    private final class DispatchCounts {
+        private long enrolled;
+        private long skipped;
+
+        private void publish() {
+            EnrollmentOutboxService.this.enrolled.add(enrolled);
+            EnrollmentOutboxService.this.skipped.add(skipped);
+        }
+    }
+}
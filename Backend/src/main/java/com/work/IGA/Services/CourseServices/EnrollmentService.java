@@ -1,12 +1,15 @@
 package com.work.IGA.Services.CourseServices;
 
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentDto;
+import com.work.IGA.Utils.EnrollmentUtils.EnrollmentProgressDto;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentException;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentResponse;
 import com.work.IGA.Utils.EnrollmentUtils.EnrollmentStatisticsDto;
+import com.work.IGA.Utils.EnrollmentUtils.ProgressEventRequest;
 import com.work.IGA.Models.Courses.ProgressEnum;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import java.util.List;
 import java.util.UUID;
 
 public interface EnrollmentService {
@@ -49,6 +52,25 @@ public interface EnrollmentService {
      */
     EnrollmentResponse updateEnrollmentProgress(UUID enrollmentId, ProgressEnum progress, String token) throws EnrollmentException;
 
+    /**
+     * Buffer resource progress events; they are written on the next flush
+     * @param enrollmentId - enrollment ID
+     * @param events - resource completion percentages
+     * @param token - JWT token (student)
+     * @return number of events accepted into the buffer
+     * @throws EnrollmentException if the token is invalid or the buffer is full
+     */
+    int recordProgressEvents(UUID enrollmentId, List<ProgressEventRequest> events, String token) throws EnrollmentException;
+
+    /**
+     * Get per-module and per-resource completion of an enrollment
+     * @param enrollmentId - enrollment ID
+     * @param token - JWT token (student)
+     * @return enrollment progress
+     * @throws EnrollmentException if unauthorized or enrollment not found
+     */
+    EnrollmentProgressDto getEnrollmentProgress(UUID enrollmentId, String token) throws EnrollmentException;
+
     /**
      * Get enrollment statistics for instructor
      * @param token - JWT token (instructor)
@@ -3,17 +3,27 @@ package com.work.IGA.Services.CourseServices;
 import com.work.IGA.Configuration.JwtUtils;
 import com.work.IGA.Models.Courses.CoursesSchema;
 import com.work.IGA.Models.Courses.Enrollment;
+import com.work.IGA.Models.Courses.Modules;
 import com.work.IGA.Models.Courses.ProgressEnum;
+import com.work.IGA.Models.Courses.ResourceProgress;
+import com.work.IGA.Models.Courses.ResourceSchema;
 import com.work.IGA.Models.Users.UserSchema;
+import com.work.IGA.Models.Courses.CourseEnrollmentCounter;
+import com.work.IGA.Repositories.CourseEnrollmentCounterRepository;
 import com.work.IGA.Repositories.CourseRepo;
 import com.work.IGA.Repositories.EnrollmentRepository;
+import com.work.IGA.Repositories.ModulesRepository;
+import com.work.IGA.Repositories.ResourceProgressRepository;
+import com.work.IGA.Repositories.ResourceRepository;
 import com.work.IGA.Repositories.UserRepository;
 import com.work.IGA.Utils.EnrollmentUtils.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
@@ -28,6 +38,16 @@ public class EnrollmentServiceImpl implements EnrollmentService {
     private final UserRepository userRepository;
     private final CourseRepo courseRepository;
     private final JwtUtils jwtUtils;
+    private final EntitlementCache entitlementCache;
+    private final EnrollmentCounterService enrollmentCounters;
+    private final CourseEnrollmentCounterRepository counterRepository;
+    private final ProgressEventBuffer progressEventBuffer;
+    private final ModulesRepository modulesRepository;
+    private final ResourceRepository resourceRepository;
+    private final ResourceProgressRepository resourceProgressRepository;
+
+    @Value("${progress.events.max-per-request:200}")
+    private int maxEventsPerRequest;
 
     @Override
     public Page<EnrollmentDto> getStudentEnrollments(String token, Pageable pageable) throws EnrollmentException {
@@ -126,8 +146,8 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             UserSchema student = userRepository.findByEmail(email)
                 .orElseThrow(() -> new EnrollmentException("Student not found", "STUDENT_NOT_FOUND"));
 
-            // Get enrollment
-            Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+            // Get enrollment; locked so the counter delta is taken against the value being replaced
+            Enrollment enrollment = enrollmentRepository.findByIdForUpdate(enrollmentId)
                 .orElseThrow(() -> new EnrollmentException("Enrollment not found", "ENROLLMENT_NOT_FOUND"));
 
             // Verify student owns this enrollment
@@ -136,10 +156,12 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             }
 
             // Update progress
+            String previousProgress = enrollment.getProgress();
             enrollment.setProgress(progress.name());
             // Note: Completion date would need to be added to the Enrollment model if required
 
             enrollment = enrollmentRepository.save(enrollment);
+            enrollmentCounters.recordProgressChange(enrollment.getCourse().getId(), previousProgress, progress.name());
 
             log.info("Enrollment {} progress updated to {}", enrollmentId, progress);
 
@@ -153,6 +175,89 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         }
     }
 
+    @Override
+    // Runs on every player tick, so it must not open a transaction (and with it a connection)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int recordProgressEvents(UUID enrollmentId, List<ProgressEventRequest> events, String token) throws EnrollmentException {
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+        if (events.size() > maxEventsPerRequest) {
+            throw new EnrollmentException("At most " + maxEventsPerRequest + " events per request", "TOO_MANY_EVENTS");
+        }
+
+        // Ownership is enforced when the events are flushed, so the token is all that is read here
+        UUID studentId = resolveUserId(extractToken(token));
+
+        for (ProgressEventRequest event : events) {
+            if (event.getResourceId() == null || event.getPercent() == null
+                    || event.getPercent() < 0 || event.getPercent() > 100) {
+                throw new EnrollmentException("Each event needs a resourceId and a percent between 0 and 100", "INVALID_PROGRESS_EVENT");
+            }
+        }
+
+        int accepted = 0;
+        for (ProgressEventRequest event : events) {
+            if (!progressEventBuffer.record(enrollmentId, studentId, event.getResourceId(), event.getPercent())) {
+                throw new EnrollmentException("Progress tracking is busy, please retry", "PROGRESS_BUFFER_FULL");
+            }
+            accepted++;
+        }
+        return accepted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public EnrollmentProgressDto getEnrollmentProgress(UUID enrollmentId, String token) throws EnrollmentException {
+        try {
+            UUID studentId = resolveUserId(extractToken(token));
+
+            Enrollment enrollment = enrollmentRepository.findById(enrollmentId)
+                .orElseThrow(() -> new EnrollmentException("Enrollment not found", "ENROLLMENT_NOT_FOUND"));
+            if (!enrollment.getStudent().getId().equals(studentId)) {
+                throw new EnrollmentException("Unauthorized to view this enrollment", "UNAUTHORIZED_ACCESS");
+            }
+            UUID courseId = enrollment.getCourse().getId();
+
+            Map<UUID, Integer> percentByResource = new HashMap<>();
+            for (ResourceProgress row : resourceProgressRepository.findByIdEnrollmentId(enrollmentId)) {
+                percentByResource.put(row.getId().getResourceId(), row.getPercent());
+            }
+            Map<UUID, List<ResourceProgressDto>> resourcesByModule = new HashMap<>();
+            for (ResourceSchema resource : resourceRepository.findByCourseIdWithModule(courseId)) {
+                resourcesByModule.computeIfAbsent(resource.getModule().getId(), id -> new ArrayList<>())
+                    .add(new ResourceProgressDto(
+                        resource.getId(),
+                        resource.getTitle(),
+                        resource.getResourceType().name(),
+                        percentByResource.getOrDefault(resource.getId(), 0)
+                    ));
+            }
+
+            List<ModuleProgressDto> modules = new ArrayList<>();
+            for (Modules module : modulesRepository.findByCourseIdOrderByPosition(courseId)) {
+                List<ResourceProgressDto> resources = resourcesByModule.getOrDefault(module.getId(), List.of());
+                int modulePercent = resources.isEmpty() ? 0
+                    : (int) (resources.stream().mapToLong(ResourceProgressDto::getPercent).sum() / resources.size());
+                modules.add(new ModuleProgressDto(module.getId(), module.getTitle(), module.getPosition(), modulePercent, resources));
+            }
+
+            return new EnrollmentProgressDto(
+                enrollmentId,
+                courseId,
+                enrollment.getProgress() == null ? ProgressEnum.NOT_STARTED : ProgressEnum.valueOf(enrollment.getProgress()),
+                enrollment.getCompletionPercent() != null ? enrollment.getCompletionPercent() : 0,
+                modules
+            );
+
+        } catch (EnrollmentException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Error fetching enrollment progress: {}", e.getMessage());
+            throw new EnrollmentException("Failed to fetch progress", "FETCH_PROGRESS_FAILED");
+        }
+    }
+
     @Override
     public EnrollmentStatisticsDto getInstructorEnrollmentStatistics(String token) throws EnrollmentException {
         try {
@@ -169,43 +274,37 @@ public class EnrollmentServiceImpl implements EnrollmentService {
                 throw new EnrollmentException("Only instructors can view enrollment statistics", "INVALID_USER_TYPE");
             }
 
-            // Calculate statistics
-            List<Enrollment> allEnrollments = enrollmentRepository.findByCourseInstructorId(instructor.getId());
-            
-            long totalEnrollments = allEnrollments.size();
-            long activeEnrollments = allEnrollments.stream()
-                .mapToLong(e -> e.getProgress().equals(ProgressEnum.IN_PROGRESS.name()) ? 1 : 0)
-                .sum();
-            long completedEnrollments = allEnrollments.stream()
-                .mapToLong(e -> e.getProgress().equals(ProgressEnum.COMPLETED.name()) ? 1 : 0)
-                .sum();
-            long inProgressEnrollments = activeEnrollments;
-            long droppedEnrollments = allEnrollments.stream()
-                .mapToLong(e -> e.getProgress().equals("DROPPED") ? 1 : 0)
-                .sum();
-            
-            double completionRate = totalEnrollments > 0 ? 
+            // Per-course counters are maintained on every enrollment change, so this reads one row per course
+            List<CourseEnrollmentCounts> courseCounts = counterRepository.findCountsByInstructor(instructor.getId());
+
+            long totalEnrollments = 0;
+            long inProgressEnrollments = 0;
+            long completedEnrollments = 0;
+            for (CourseEnrollmentCounts counts : courseCounts) {
+                totalEnrollments += counts.total();
+                inProgressEnrollments += counts.inProgress();
+                completedEnrollments += counts.completed();
+            }
+            long activeEnrollments = inProgressEnrollments;
+            // There is no DROPPED progress state; removed enrollments are deleted outright
+            long droppedEnrollments = 0;
+
+            double completionRate = totalEnrollments > 0 ?
                 (double) completedEnrollments / totalEnrollments * 100 : 0.0;
 
             // Find most and least popular courses
-            Map<String, Long> courseCounts = new HashMap<>();
-            allEnrollments.forEach(e -> 
-                courseCounts.merge(e.getCourse().getCourseName(), 1L, Long::sum));
-            
-            String mostPopularCourse = courseCounts.entrySet().stream()
-                .max(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
+            String mostPopularCourse = courseCounts.stream()
+                .max(Comparator.comparingLong(CourseEnrollmentCounts::total))
+                .map(CourseEnrollmentCounts::courseName)
                 .orElse("N/A");
-            
-            String leastPopularCourse = courseCounts.entrySet().stream()
-                .min(Map.Entry.comparingByValue())
-                .map(Map.Entry::getKey)
+
+            String leastPopularCourse = courseCounts.stream()
+                .min(Comparator.comparingLong(CourseEnrollmentCounts::total))
+                .map(CourseEnrollmentCounts::courseName)
                 .orElse("N/A");
 
-            long totalStudents = allEnrollments.stream()
-                .map(e -> e.getStudent().getId())
-                .collect(HashSet::new, (set, id) -> set.add(id), HashSet::addAll)
-                .size();
+            // A student can be in several courses, so this one is counted by the database
+            long totalStudents = enrollmentRepository.countDistinctStudentsByInstructorId(instructor.getId());
 
             return new EnrollmentStatisticsDto(
                 totalEnrollments,
@@ -233,16 +332,17 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             // Extract JWT token
             String cleanToken = extractToken(token);
             
-            // Get user from token
-            String email = jwtUtils.getEmailFromJwtToken(cleanToken);
-            UserSchema student = userRepository.findByEmail(email).orElse(null);
-            
-            if (student == null) return false;
-
-            CoursesSchema course = courseRepository.findById(courseId).orElse(null);
-            if (course == null) return false;
+            // Get user from token; the id claim saves the user lookup
+            UUID studentId = jwtUtils.getUserIdFromJwtToken(cleanToken);
+            if (studentId == null) {
+                String email = jwtUtils.getEmailFromJwtToken(cleanToken);
+                UserSchema student = userRepository.findByEmail(email).orElse(null);
+                if (student == null) return false;
+                studentId = student.getId();
+            }
 
-            return enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), course.getId());
+            // An enrollment implies the course exists, so the course lookup is not needed either
+            return entitlementCache.isEnrolled(studentId, courseId, 3);
 
         } catch (Exception e) {
             log.error("Error checking enrollment status: {}", e.getMessage());
@@ -256,7 +356,9 @@ public class EnrollmentServiceImpl implements EnrollmentService {
             CoursesSchema course = courseRepository.findById(courseId).orElse(null);
             if (course == null) return 0;
 
-            return enrollmentRepository.countByCourseId(courseId);
+            return counterRepository.findById(courseId)
+                .map(CourseEnrollmentCounter::getTotalEnrollments)
+                .orElse(0L);
 
         } catch (Exception e) {
             log.error("Error getting course enrollment count: {}", e.getMessage());
@@ -264,6 +366,20 @@ public class EnrollmentServiceImpl implements EnrollmentService {
         }
     }
 
+    /**
+     * User id from the token's id claim, falling back to the email for tokens issued without it
+     */
+    private UUID resolveUserId(String cleanToken) throws EnrollmentException {
+        UUID userId = jwtUtils.getUserIdFromJwtToken(cleanToken);
+        if (userId != null) {
+            return userId;
+        }
+        String email = jwtUtils.getEmailFromJwtToken(cleanToken);
+        return userRepository.findByEmail(email)
+            .map(UserSchema::getId)
+            .orElseThrow(() -> new EnrollmentException("Student not found", "STUDENT_NOT_FOUND"));
+    }
+
     /**
      * Extract clean token from Authorization header or direct token
      */
@@ -0,0 +1,252 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.work.IGA.Models.Courses.Payment;
+import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Models.Users.UserSchema;
+import com.work.IGA.Repositories.EnrollmentRepository;
+import com.work.IGA.Repositories.PaymentRepository;
+import com.work.IGA.Services.CacheServices.CacheInvalidationBus;
+import com.work.IGA.Services.CacheServices.CacheInvalidationSubscriber;
+import com.work.IGA.Utils.EnrollmentUtils.CourseIdSet;
+import com.work.IGA.Utils.EnrollmentUtils.EntitlementMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Per-student cache of the courses a student has paid for and is enrolled in, used by
+ * the access checks that run on almost every student request.
+ *
+ * An entry is loaded with two queries the first time a student is checked. Grants are
+ * applied to a cached entry once the transaction that created them commits, so a
+ * student can open a course right after paying. Revocations (refunds, removed
+ * enrollments) drop the entry after commit. The cache is bounded by the number of
+ * course ids it holds, and entries expire after a TTL as a safety net for changes made
+ * outside these services. Enrollment checks first consult EnrollmentExistenceFilter, which
+ * answers most negative checks without loading an entry.
+ *
+ * Grants, revocations, settled payments and changed users are published on the cache
+ * invalidation bus, and other instances drop the student's entry so their next check reloads it.
+ * They also stop trusting their enrollment filter for that student until it has caught up.
+ *
+ * A miss loads on the calling thread after a pending entry has been put in the map, not
+ * inside the map's compute: that would hold a monitor across both queries and pin a virtual
+ * thread to its carrier. Concurrent lookups of the same student wait for the pending entry.
+ */
+@Service
+@RequiredArgsConstructor
+public class EntitlementCache implements CacheInvalidationSubscriber {
+
+    public static final String TOPIC = "entitlements";
+    public static final String USERS_TOPIC = "users";
+
+    private final PaymentRepository paymentRepository;
+    private final EnrollmentRepository enrollmentRepository;
+    private final EnrollmentExistenceFilter enrollmentFilter;
+    private final CacheInvalidationBus invalidationBus;
+
+    @Value("${entitlements.cache.max-weight:500000}")
+    private long maximumWeight;
+
+    @Value("${entitlements.cache.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    private AsyncCache<UUID, Entitlements> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder queriesAvoided = new LongAdder();
+    private final LongAdder loadQueries = new LongAdder();
+    private final LongAdder grants = new LongAdder();
+    private final LongAdder revocations = new LongAdder();
+    private final LongAdder remoteInvalidations = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumWeight(maximumWeight)
+            // Weight is the number of course ids held, plus one for the entry itself
+            .weigher((UUID studentId, Entitlements entitlements) -> 1 + entitlements.paid().size() + entitlements.enrolled().size())
+            .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+            // Entries are completed by the caller; nothing is left for a pool to run
+            .executor(Runnable::run)
+            .buildAsync();
+
+        // A pending payment grants nothing; any other status may have changed what the student paid for
+        invalidationBus.publishEntityChanges(Payment.class, TOPIC, (payment, id) ->
+            payment.getPaymentStatus() == PaymentStatus.PENDING || payment.getStudent() == null ? null : payment.getStudent().getId());
+        invalidationBus.publishEntityChanges(UserSchema.class, USERS_TOPIC, (user, id) -> id);
+        invalidationBus.subscribe(TOPIC, this);
+        invalidationBus.subscribe(USERS_TOPIC, this);
+    }
+
+    private Entitlements load(UUID studentId) {
+        loadQueries.add(2);
+        return new Entitlements(
+            CourseIdSet.of(paymentRepository.findCourseIdsByStudentIdAndStatus(studentId, PaymentStatus.COMPLETED)),
+            CourseIdSet.of(enrollmentRepository.findCourseIdsByStudentId(studentId))
+        );
+    }
+
+    /**
+     * @param queriesReplaced How many queries the caller would have run without the cache
+     */
+    public boolean hasPaid(UUID studentId, UUID courseId, int queriesReplaced) {
+        return lookup(studentId, queriesReplaced).paid().contains(courseId);
+    }
+
+    /**
+     * @param queriesReplaced How many queries the caller would have run without the cache
+     */
+    public boolean isEnrolled(UUID studentId, UUID courseId, int queriesReplaced) {
+        // Most unenrolled visitors stop here instead of loading an entry for a student who has none
+        if (!enrollmentFilter.mightBeEnrolled(studentId, courseId)) {
+            queriesAvoided.add(queriesReplaced);
+            return false;
+        }
+        boolean enrolled = lookup(studentId, queriesReplaced).enrolled().contains(courseId);
+        enrollmentFilter.recordOutcome(studentId, enrolled);
+        return enrolled;
+    }
+
+    private Entitlements lookup(UUID studentId, int queriesReplaced) {
+        queriesAvoided.add(queriesReplaced);
+        CompletableFuture<Entitlements> cached = cache.getIfPresent(studentId);
+        if (cached != null) {
+            hits.increment();
+            return await(cached);
+        }
+        misses.increment();
+        CompletableFuture<Entitlements> loading = new CompletableFuture<>();
+        CompletableFuture<Entitlements> existing = cache.asMap().putIfAbsent(studentId, loading);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            // A failed entry is dropped by the cache, so the next lookup retries
+            loading.complete(load(studentId));
+        } catch (RuntimeException ex) {
+            loading.completeExceptionally(ex);
+            throw ex;
+        }
+        return await(loading);
+    }
+
+    private static Entitlements await(CompletableFuture<Entitlements> entry) {
+        try {
+            return entry.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    public void grantPaidAfterCommit(UUID studentId, UUID courseId) {
+        invalidationBus.publish(TOPIC, studentId);
+        afterCommit(() -> {
+            grants.increment();
+            // Applied to a pending load as well, once it completes
+            cache.asMap().computeIfPresent(studentId, (id, entitlements) -> entitlements.thenApply(e -> e.withPaid(courseId)));
+        });
+    }
+
+    public void grantEnrolledAfterCommit(UUID studentId, UUID courseId) {
+        invalidationBus.publish(TOPIC, studentId);
+        afterCommit(() -> {
+            grants.increment();
+            enrollmentFilter.add(studentId, courseId);
+            cache.asMap().computeIfPresent(studentId, (id, entitlements) -> entitlements.thenApply(e -> e.withEnrolled(courseId)));
+        });
+    }
+
+    /**
+     * Drops the student's entry once the revoking transaction commits; dropping it earlier
+     * would let a concurrent load cache the pre-commit state again
+     */
+    public void revokeAfterCommit(UUID studentId) {
+        invalidationBus.publish(TOPIC, studentId);
+        afterCommit(() -> {
+            revocations.increment();
+            cache.synchronous().invalidate(studentId);
+        });
+    }
+
+    /**
+     * Students whose entitlements another instance changed
+     */
+    @Override
+    public void invalidate(Set<String> keys) {
+        for (String key : keys) {
+            UUID studentId = UUID.fromString(key);
+            // Before the entry goes, so a reload never meets a filter that still says no
+            enrollmentFilter.markChangedElsewhere(studentId);
+            cache.synchronous().invalidate(studentId);
+        }
+        remoteInvalidations.add(keys.size());
+    }
+
+    @Override
+    public void invalidateAll() {
+        enrollmentFilter.markAllChangedElsewhere();
+        cache.synchronous().invalidateAll();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public EntitlementMetricsDto getMetrics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        long loads = loadQueries.sum();
+        return new EntitlementMetricsDto(
+            cache.synchronous().estimatedSize(),
+            cache.synchronous().policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L),
+            maximumWeight,
+            hitCount,
+            missCount,
+            lookups == 0 ? 0.0 : (double) hitCount / lookups,
+            queriesAvoided.sum() - loads,
+            loads,
+            grants.sum(),
+            revocations.sum(),
+            remoteInvalidations.sum()
+        );
+    }
+
+    private record Entitlements(CourseIdSet paid, CourseIdSet enrolled) {
+        Entitlements withPaid(UUID courseId) {
+            return new Entitlements(paid.with(courseId), enrolled);
+        }
+
+        Entitlements withEnrolled(UUID courseId) {
+            return new Entitlements(paid, enrolled.with(courseId));
+        }
+    }
+}
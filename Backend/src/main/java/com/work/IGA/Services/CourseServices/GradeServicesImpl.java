@@ -8,6 +8,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.work.IGA.Models.Courses.CoursesSchema;
 import com.work.IGA.Models.Courses.Enrollment;
@@ -31,6 +32,7 @@ public class GradeServicesImpl implements GradesServices {
 
 
      @Override
+    @Transactional(readOnly = true)
     public GradeResponse<List<GradeDto>> getGradesForCourse(UUID studentId, UUID courseId) {
         try {
             List<Grades> grades = gradesRepository.findByStudentIdAndCourseId(studentId, courseId);
@@ -49,6 +51,7 @@ public class GradeServicesImpl implements GradesServices {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public GradeResponse<Map<UUID, List<GradeDto>>> getOverallGrades(UUID studentId) {
         try {
             List<Enrollment> enrollments = enrollmentRepository.findByStudentIdOrderByEnrollmentDateDesc(studentId);
@@ -73,6 +76,7 @@ public class GradeServicesImpl implements GradesServices {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public GradeResponse<List<GradeDto>> getAllGradesForCourse(UUID instructorId, UUID courseId) {
         try {
             CoursesSchema course = courseRepo.findById(courseId)
@@ -100,6 +104,7 @@ public class GradeServicesImpl implements GradesServices {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public GradeResponse<Map<UUID, Double>> getOverallGradePercentages(UUID studentId) {
         try {
             List<Enrollment> enrollments = enrollmentRepository.findByStudentIdOrderByEnrollmentDateDesc(studentId);
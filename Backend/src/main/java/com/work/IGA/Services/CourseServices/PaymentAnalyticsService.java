@@ -0,0 +1,178 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.Payment;
+import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Repositories.PaymentRepository;
+import com.work.IGA.Repositories.PaymentRevenueDailyRepository;
+import com.work.IGA.Utils.PaymentUtils.PaymentAnalytics;
+import com.work.IGA.Utils.PaymentUtils.PaymentStatusTotals;
+import com.work.IGA.Utils.PaymentUtils.RevenueBucketDto;
+import com.work.IGA.Utils.PaymentUtils.RevenueGranularity;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Instructor earnings computed in the database: totals with a GROUP BY over payments,
+ * time series from the payment_revenue_daily rollup, which also outlives archived payment partitions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentAnalyticsService {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentRevenueDailyRepository revenueRepository;
+    private final PaymentPartitionManager partitionManager;
+
+    @Transactional(readOnly = true)
+    public PaymentAnalytics getInstructorEarnings(UUID instructorId) {
+        Map<PaymentStatus, PaymentStatusTotals> totals = new HashMap<>();
+        int totalPayments = 0;
+        for (PaymentStatusTotals row : paymentRepository.sumByStatusForInstructor(instructorId)) {
+            totals.put(row.status(), row);
+            totalPayments += row.count().intValue();
+        }
+
+        int completedPayments = countOf(totals, PaymentStatus.COMPLETED);
+        PaymentStatusTotals completed = totals.get(PaymentStatus.COMPLETED);
+        double totalRevenue = completed == null || completed.amount() == null ? 0.0 : completed.amount();
+
+        return PaymentAnalytics.builder()
+            .totalPayments(totalPayments)
+            .successfulPayments(completedPayments)
+            .pendingPayments(countOf(totals, PaymentStatus.PENDING))
+            .failedPayments(countOf(totals, PaymentStatus.FAILED))
+            .cancelledPayments(countOf(totals, PaymentStatus.CANCELLED))
+            .refundedPayments(countOf(totals, PaymentStatus.REFUNDED))
+            .totalRevenue(totalRevenue)
+            .averagePaymentAmount(completedPayments > 0 ? totalRevenue / completedPayments : 0.0)
+            .build();
+    }
+
+    private static int countOf(Map<PaymentStatus, PaymentStatusTotals> totals, PaymentStatus status) {
+        PaymentStatusTotals row = totals.get(status);
+        return row == null ? 0 : row.count().intValue();
+    }
+
+    /**
+     * Revenue per day, week or month between two dates, with empty buckets filled in
+     * @param courseId Restrict to one of the instructor's courses, or null for all of them
+     */
+    @Transactional(readOnly = true)
+    public List<RevenueBucketDto> getRevenueSeries(UUID instructorId, UUID courseId, RevenueGranularity granularity,
+                                                   LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        LocalDate first = granularity.bucketStart(from);
+        LocalDate last = granularity.bucketStart(to);
+        long buckets = switch (granularity) {
+            case WEEK -> ChronoUnit.WEEKS.between(first, last) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, last) + 1;
+            default -> ChronoUnit.DAYS.between(first, last) + 1;
+        };
+        if (buckets > granularity.getMaxBuckets()) {
+            throw new IllegalArgumentException("Range too large: at most " + granularity.getMaxBuckets()
+                + " " + granularity.getTruncUnit() + " buckets per request");
+        }
+
+        Map<LocalDate, RevenueBucketDto> byStart = new HashMap<>();
+        for (Object[] row : revenueRepository.findRevenueSeries(instructorId,
+                courseId == null ? null : courseId.toString(), granularity.getTruncUnit(), from, to)) {
+            LocalDate start = toLocalDate(row[0]);
+            long completedCount = toLong(row[1]);
+            double gross = toDouble(row[2]);
+            long reversedCount = toLong(row[3]);
+            double reversed = toDouble(row[4]);
+            byStart.put(start, new RevenueBucketDto(start, completedCount, gross, reversedCount, reversed, gross - reversed));
+        }
+
+        List<RevenueBucketDto> series = new ArrayList<>((int) buckets);
+        for (LocalDate start = first; !start.isAfter(last); start = granularity.next(start)) {
+            RevenueBucketDto bucket = byStart.get(start);
+            series.add(bucket != null ? bucket : new RevenueBucketDto(start, 0, 0.0, 0, 0.0, 0.0));
+        }
+        return series;
+    }
+
+    /**
+     * Books a status change into today's bucket. Call it in the same transaction as the
+     * payment update; only moves into or out of COMPLETED change revenue.
+     */
+    public void recordTransition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        if (from == to || payment.getCourse() == null) {
+            return;
+        }
+        UUID courseId = payment.getCourse().getId();
+        LocalDate today = LocalDate.now();
+        if (to == PaymentStatus.COMPLETED) {
+            revenueRepository.addToBucket(courseId, today, 1, payment.getAmount(), 0, 0.0);
+        } else if (from == PaymentStatus.COMPLETED) {
+            revenueRepository.addToBucket(courseId, today, 0, 0.0, 1, payment.getAmount());
+        }
+    }
+
+    /**
+     * Seeds the rollup on first start after it was introduced
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillRollup() {
+        try {
+            if (revenueRepository.count() == 0 && paymentRepository.existsByPaymentStatus(PaymentStatus.COMPLETED)) {
+                int buckets = revenueRepository.rebuildFromPayments();
+                log.info("Backfilled {} revenue rollup buckets from payments", buckets);
+            }
+        } catch (Exception ex) {
+            log.error("Could not backfill revenue rollup: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Discards and recomputes the rollup; run it while no payments are being settled.
+     * Buckets of archived months are kept, their payments are no longer in the table.
+     */
+    @Transactional
+    public int rebuildRollup() {
+        Optional<LocalDate> archivedBefore = partitionManager.archivedBefore();
+        if (archivedBefore.isPresent()) {
+            revenueRepository.deleteBucketsFrom(archivedBefore.get());
+        } else {
+            revenueRepository.deleteAllBuckets();
+        }
+        return revenueRepository.rebuildFromPayments();
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate date) {
+            return date;
+        }
+        if (value instanceof Date date) {
+            return date.toLocalDate();
+        }
+        return LocalDate.parse(value.toString().substring(0, 10));
+    }
+
+    private static long toLong(Object value) {
+        return value == null ? 0L : ((Number) value).longValue();
+    }
+
+    private static double toDouble(Object value) {
+        return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+}
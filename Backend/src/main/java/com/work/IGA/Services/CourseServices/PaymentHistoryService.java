@@ -0,0 +1,100 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Repositories.PaymentRepository;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryCursor;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto;
+import com.work.IGA.Utils.PaymentUtils.PaymentHistoryPage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Payment listings read as PaymentHistoryDto projections, newest first.
+ *
+ * Cursor pages seek on (createdAt, id) through the composite indexes on payments,
+ * so the cost of a page does not grow with how far back the caller has scrolled.
+ * One extra row is fetched to tell whether another page exists.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PaymentHistoryService {
+
+    private final PaymentRepository paymentRepository;
+
+    @Value("${payment.history.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${payment.history.max-page-size:100}")
+    private int maxPageSize;
+
+    public PaymentHistoryPage forStudent(UUID studentId, String cursor, Integer limit) {
+        PaymentHistoryCursor position = PaymentHistoryCursor.decode(cursor);
+        int size = pageSize(limit);
+        return page(paymentRepository.findHistoryByStudent(studentId, position.createdAt(), position.id(), probe(size)), size);
+    }
+
+    public PaymentHistoryPage forCourse(UUID courseId, String cursor, Integer limit) {
+        PaymentHistoryCursor position = PaymentHistoryCursor.decode(cursor);
+        int size = pageSize(limit);
+        return page(paymentRepository.findHistoryByCourse(courseId, position.createdAt(), position.id(), probe(size)), size);
+    }
+
+    public PaymentHistoryPage forStatus(PaymentStatus status, String cursor, Integer limit) {
+        PaymentHistoryCursor position = PaymentHistoryCursor.decode(cursor);
+        int size = pageSize(limit);
+        return page(paymentRepository.findHistoryByStatus(status, position.createdAt(), position.id(), probe(size)), size);
+    }
+
+    /**
+     * @param courseId Restrict to one of the instructor's courses, or null for all of them
+     */
+    public PaymentHistoryPage forInstructor(UUID instructorId, UUID courseId, String cursor, Integer limit) {
+        PaymentHistoryCursor position = PaymentHistoryCursor.decode(cursor);
+        int size = pageSize(limit);
+        LocalDateTime beforeDate = position.createdAt();
+        List<PaymentHistoryDto> rows = courseId == null
+            ? paymentRepository.findHistoryByInstructor(instructorId, beforeDate, position.id(), probe(size))
+            : paymentRepository.findHistoryByInstructorAndCourse(instructorId, courseId, beforeDate, position.id(), probe(size));
+        return page(rows, size);
+    }
+
+    /**
+     * Offset page for callers that still page by number; sorting is fixed to newest first
+     */
+    public Page<PaymentHistoryDto> pageForStudent(UUID studentId, int page, int size) {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), pageSize(size));
+        return paymentRepository.findHistoryPageByStudent(studentId, pageable);
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private static Pageable probe(int size) {
+        return PageRequest.of(0, size + 1);
+    }
+
+    private static PaymentHistoryPage page(List<PaymentHistoryDto> rows, int size) {
+        if (rows.size() <= size) {
+            return new PaymentHistoryPage(rows, null, false);
+        }
+        List<PaymentHistoryDto> items = rows.subList(0, size);
+        String nextCursor = PaymentHistoryCursor.after(items.get(size - 1)).encode();
+        return new PaymentHistoryPage(List.copyOf(items), nextCursor, true);
+    }
+}
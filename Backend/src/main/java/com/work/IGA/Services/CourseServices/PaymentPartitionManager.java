@@ -0,0 +1,582 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.work.IGA.Utils.PaymentUtils.PaymentPartitionDto;
+import com.work.IGA.Utils.PaymentUtils.PaymentPartitionStatusDto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the payments table range-partitioned by month on created_at.
+ *
+ * created_at is set once when the payment is created, unlike payment_date which every
+ * status change moves forward, so completions and refunds never move a row between
+ * partitions. Before the application starts serving, created_at is backfilled and
+ * transaction_reference uniqueness is put in place; startup fails if either is not possible.
+ *
+ * Hibernate creates payments as a plain table, so the first run converts it in one
+ * transaction: the table is renamed, a partitioned parent is created with the same
+ * columns, indexes and foreign keys, the rows are copied across and the old table is
+ * dropped. A partitioned table can only enforce uniqueness on keys that include
+ * created_at, so the primary key becomes (id, created_at) and references are kept unique
+ * by the plain payment_references table, maintained by triggers on payments.
+ * Afterwards each run creates the partitions for the coming months,
+ * moving any rows that landed in the default partition, and optionally archives months
+ * older than the horizon: the partition is detached, exported as gzip-compressed CSV and
+ * dropped once the row count of the file matches. Runs are single-active across nodes
+ * through a session-level advisory lock.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentPartitionManager {
+
+    // "IGA_PART" as a 64-bit advisory lock key
+    private static final long ADVISORY_LOCK_KEY = 0x4947415F50415254L;
+
+    private static final String PARENT = "payments";
+    private static final String DEFAULT_PARTITION = "payments_default";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("payments_p(\\d{4})_(\\d{2})");
+    private static final String ARCHIVE_SUFFIX = ".csv.gz";
+    private static final String REFERENCE_INDEX = "uk_payments_transaction_reference";
+
+    private final DataSource dataSource;
+
+    @Value("${payment.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${payment.partitioning.archive.enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${payment.partitioning.archive.after-months:24}")
+    private int archiveAfterMonths;
+
+    @Value("${payment.partitioning.archive.dir}")
+    private String archiveDir;
+
+    // Not synchronized: a virtual thread blocked on the archive I/O would pin its carrier
+    private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+    private final LongAdder partitionsCreated = new LongAdder();
+    private final LongAdder rowsMovedFromDefault = new LongAdder();
+    private final LongAdder partitionsArchived = new LongAdder();
+    private final LongAdder rowsArchived = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunDurationMillis;
+    private volatile String lastError;
+
+    /**
+     * Runs after Hibernate's schema update and before the web server starts, so a payments
+     * table without created_at or without unique references never takes traffic
+     */
+    @PostConstruct
+    public void prepareSchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            inTransaction(connection, () -> {
+                String kind = relationKind(connection, PARENT);
+                if (kind == null) {
+                    throw new SQLException("Table " + PARENT + " does not exist yet");
+                }
+                execute(connection, "ALTER TABLE payments ADD COLUMN IF NOT EXISTS created_at timestamp(6)");
+                execute(connection, "ALTER TABLE payments ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP");
+                long backfilled = executeUpdate(connection,
+                    "UPDATE payments SET created_at = COALESCE(payment_date, CURRENT_TIMESTAMP) WHERE created_at IS NULL");
+                if (backfilled > 0) {
+                    log.info("Backfilled created_at on {} payments", backfilled);
+                }
+                // Listings page on created_at now; the payment_date indexes they used only cost writes
+                execute(connection, "DROP INDEX IF EXISTS idx_payments_student_date_id");
+                execute(connection, "DROP INDEX IF EXISTS idx_payments_course_date_id");
+                if ("p".equals(kind)) {
+                    String key = queryStrings(connection, "SELECT pg_get_partkeydef('payments'::regclass)").get(0);
+                    if (!"RANGE (created_at)".equals(key)) {
+                        throw new SQLException("payments is partitioned by " + key + ", expected RANGE (created_at)");
+                    }
+                    ensureReferenceLookup(connection);
+                } else {
+                    ensureReferenceIndex(connection);
+                }
+            });
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepareOnStartup() {
+        if (enabled) {
+            runSafely();
+        }
+    }
+
+    @Scheduled(cron = "${payment.partitioning.maintenance-cron:0 15 3 * * *}")
+    public void scheduledMaintenance() {
+        if (enabled) {
+            runSafely();
+        }
+    }
+
+    private void runSafely() {
+        try {
+            maintain();
+        } catch (Exception ex) {
+            log.error("Payment partition maintenance failed: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Converts the table if needed, creates upcoming partitions and archives old ones
+     * @return false if another node is running maintenance right now
+     */
+    public boolean maintain() throws SQLException, IOException {
+        maintenanceLock.lock();
+        try {
+            return maintainLocked();
+        } finally {
+            maintenanceLock.unlock();
+        }
+    }
+
+    private boolean maintainLocked() throws SQLException, IOException {
+        if (!enabled) {
+            throw new IllegalStateException("Payment partitioning is disabled (payment.partitioning.enabled)");
+        }
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            if (!tryAdvisoryLock(connection)) {
+                log.info("Payment partition maintenance skipped, another node holds the lock");
+                return false;
+            }
+            try {
+                YearMonth current = YearMonth.now();
+                inTransaction(connection, () -> {
+                    String kind = relationKind(connection, PARENT);
+                    if ("r".equals(kind)) {
+                        convertToPartitioned(connection, current);
+                    } else if (!"p".equals(kind)) {
+                        throw new SQLException("Table " + PARENT + " does not exist yet");
+                    }
+                    ensurePartitions(connection, current, current.plusMonths(monthsAhead));
+                });
+                if (archiveEnabled) {
+                    archiveOldPartitions(connection, current.minusMonths(archiveAfterMonths));
+                }
+                lastError = null;
+                return true;
+            } catch (SQLException | IOException | RuntimeException ex) {
+                lastError = ex.getMessage();
+                throw ex;
+            } finally {
+                advisoryUnlock(connection);
+                lastRunAt = LocalDateTime.now();
+                lastRunDurationMillis = (System.nanoTime() - start) / 1_000_000;
+            }
+        }
+    }
+
+    private void convertToPartitioned(Connection connection, YearMonth current) throws SQLException {
+        long started = System.nanoTime();
+        execute(connection, "LOCK TABLE payments IN ACCESS EXCLUSIVE MODE");
+
+        // Captured before the rename, so the definitions still name the payments table
+        List<String[]> foreignKeys = queryPairs(connection,
+            "SELECT conname, pg_get_constraintdef(oid) FROM pg_constraint "
+            + "WHERE conrelid = 'payments'::regclass AND contype = 'f'");
+        List<String[]> indexes = queryPairs(connection,
+            "SELECT i.relname, pg_get_indexdef(x.indexrelid) FROM pg_index x JOIN pg_class i ON i.oid = x.indexrelid "
+            + "WHERE x.indrelid = 'payments'::regclass AND NOT x.indisunique AND NOT x.indisprimary");
+
+        execute(connection, "ALTER TABLE payments RENAME TO payments_unpartitioned");
+        execute(connection, "CREATE TABLE payments (LIKE payments_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE (created_at)");
+        // The partition key is part of the primary key and must be set; prepareSchema has backfilled it
+        execute(connection, "ALTER TABLE payments ALTER COLUMN created_at SET NOT NULL");
+
+        YearMonth oldest = current;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT MIN(created_at) FROM payments_unpartitioned")) {
+            if (result.next() && result.getTimestamp(1) != null) {
+                oldest = YearMonth.from(result.getTimestamp(1).toLocalDateTime());
+            }
+        }
+        ensurePartitions(connection, oldest.isBefore(current) ? oldest : current, current);
+
+        long rows = executeUpdate(connection, "INSERT INTO payments SELECT * FROM payments_unpartitioned");
+        execute(connection, "DROP TABLE payments_unpartitioned");
+
+        // Built after the copy, which is much faster than maintaining them row by row
+        execute(connection, "ALTER TABLE payments ADD CONSTRAINT payments_pkey PRIMARY KEY (id, created_at)");
+        ensureReferenceLookup(connection);
+        for (String[] index : indexes) {
+            execute(connection, index[1]);
+        }
+        for (String[] foreignKey : foreignKeys) {
+            execute(connection, "ALTER TABLE payments ADD CONSTRAINT " + quoteIdentifier(foreignKey[0]) + " " + foreignKey[1]);
+        }
+        execute(connection, "ANALYZE payments");
+        log.info("Converted payments to a partitioned table: {} rows from {} in {} ms",
+            rows, oldest, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Unique index on the reference of the plain table, unless one already exists (for
+     * example the constraint Hibernate generated while the column was declared unique)
+     */
+    private void ensureReferenceIndex(Connection connection) throws SQLException {
+        long existing = queryLong(connection,
+            "SELECT COUNT(*) FROM pg_index x JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = x.indkey[0] "
+            + "WHERE x.indrelid = 'payments'::regclass AND x.indisunique AND x.indnatts = 1 "
+            + "AND x.indpred IS NULL AND a.attname = 'transaction_reference'");
+        if (existing == 0) {
+            execute(connection, "CREATE UNIQUE INDEX " + REFERENCE_INDEX + " ON payments (transaction_reference)");
+            log.info("Created unique index {} on payments", REFERENCE_INDEX);
+        }
+    }
+
+    /**
+     * Keeps every reference in payments in the plain payment_references table, whose primary
+     * key rejects a second payment with the same reference in any partition. References of
+     * archived months stay reserved, since dropping a partition fires no triggers. Idempotent.
+     */
+    private void ensureReferenceLookup(Connection connection) throws SQLException {
+        execute(connection, "CREATE TABLE IF NOT EXISTS payment_references (transaction_reference varchar(255) PRIMARY KEY)");
+        // Lookups by reference still need an index on payments itself
+        execute(connection, "CREATE INDEX IF NOT EXISTS idx_payments_transaction_reference ON payments (transaction_reference)");
+        execute(connection, "CREATE OR REPLACE FUNCTION payments_track_reference() RETURNS trigger LANGUAGE plpgsql AS $$ "
+            + "BEGIN "
+            + "IF TG_OP IN ('UPDATE', 'DELETE') THEN "
+            + "DELETE FROM payment_references WHERE transaction_reference = OLD.transaction_reference; "
+            + "END IF; "
+            + "IF TG_OP IN ('INSERT', 'UPDATE') THEN "
+            + "INSERT INTO payment_references (transaction_reference) VALUES (NEW.transaction_reference); "
+            + "END IF; "
+            + "RETURN NULL; "
+            + "END $$");
+        List<String> triggers = queryStrings(connection,
+            "SELECT tgname FROM pg_trigger WHERE tgrelid = 'payments'::regclass AND NOT tgisinternal");
+        if (!triggers.contains("payments_reference_insert")) {
+            execute(connection, "CREATE TRIGGER payments_reference_insert AFTER INSERT ON payments "
+                + "FOR EACH ROW EXECUTE FUNCTION payments_track_reference()");
+        }
+        if (!triggers.contains("payments_reference_update")) {
+            execute(connection, "CREATE TRIGGER payments_reference_update AFTER UPDATE OF transaction_reference ON payments "
+                + "FOR EACH ROW WHEN (OLD.transaction_reference IS DISTINCT FROM NEW.transaction_reference) "
+                + "EXECUTE FUNCTION payments_track_reference()");
+        }
+        if (!triggers.contains("payments_reference_delete")) {
+            execute(connection, "CREATE TRIGGER payments_reference_delete AFTER DELETE ON payments "
+                + "FOR EACH ROW EXECUTE FUNCTION payments_track_reference()");
+        }
+
+        List<String> duplicates = queryStrings(connection,
+            "SELECT transaction_reference FROM payments GROUP BY transaction_reference HAVING COUNT(*) > 1 LIMIT 10");
+        if (!duplicates.isEmpty()) {
+            throw new SQLException("payments has duplicate transaction references: " + duplicates);
+        }
+        long added = executeUpdate(connection, "INSERT INTO payment_references (transaction_reference) "
+            + "SELECT transaction_reference FROM payments ON CONFLICT DO NOTHING");
+        if (added > 0) {
+            log.info("Added {} references to payment_references", added);
+        }
+    }
+
+    /**
+     * Creates the monthly partitions from..to inclusive that do not exist yet
+     */
+    private void ensurePartitions(Connection connection, YearMonth from, YearMonth to) throws SQLException {
+        if (relationKind(connection, DEFAULT_PARTITION) == null) {
+            execute(connection, "CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF payments DEFAULT");
+        }
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String name = partitionName(month);
+            if (relationKind(connection, name) != null) {
+                continue;
+            }
+            String bounds = "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+            String range = "created_at >= '" + month.atDay(1) + "' AND created_at < '" + month.plusMonths(1).atDay(1) + "'";
+
+            // A new partition cannot overlap rows in the default one, so those are moved in first
+            long stray = queryLong(connection, "SELECT COUNT(*) FROM " + DEFAULT_PARTITION + " WHERE " + range);
+            if (stray == 0) {
+                execute(connection, "CREATE TABLE " + name + " PARTITION OF payments " + bounds);
+            } else {
+                execute(connection, "CREATE TABLE " + name + " (LIKE payments INCLUDING DEFAULTS)");
+                execute(connection, "WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range + " RETURNING *) "
+                    + "INSERT INTO " + name + " SELECT * FROM moved");
+                execute(connection, "ALTER TABLE payments ATTACH PARTITION " + name + " " + bounds);
+                rowsMovedFromDefault.add(stray);
+                log.info("Moved {} payments from the default partition into {}", stray, name);
+            }
+            partitionsCreated.increment();
+        }
+    }
+
+    private void archiveOldPartitions(Connection connection, YearMonth cutoff) throws SQLException, IOException {
+        // Detach first, each month in its own short transaction, so exports never hold a lock on payments
+        for (PaymentPartitionDto partition : listPartitions(connection)) {
+            if (partition.getRangeStart() == null || !YearMonth.from(partition.getRangeStart()).isBefore(cutoff)) {
+                continue;
+            }
+            String name = partition.getName();
+            inTransaction(connection, () -> {
+                if (queryLong(connection, "SELECT COUNT(*) FROM " + name + " WHERE payment_status = 'PENDING'") > 0) {
+                    log.warn("Not archiving {}: it still has PENDING payments", name);
+                    return;
+                }
+                execute(connection, "ALTER TABLE payments DETACH PARTITION " + name);
+            });
+        }
+
+        // Detached months are exported and dropped; one left over from an interrupted run is picked up here
+        Path directory = Paths.get(archiveDir).toAbsolutePath().normalize();
+        Files.createDirectories(directory);
+        for (String name : queryStrings(connection,
+                "SELECT c.relname FROM pg_class c JOIN pg_namespace n ON n.oid = c.relnamespace "
+                + "WHERE n.nspname = current_schema() AND c.relkind = 'r' AND NOT c.relispartition "
+                + "AND c.relname LIKE 'payments\\_p%' ORDER BY c.relname")) {
+            if (MONTH_PARTITION.matcher(name).matches()) {
+                exportAndDrop(connection, name, directory);
+            }
+        }
+    }
+
+    private void exportAndDrop(Connection connection, String name, Path directory) throws SQLException, IOException {
+        Path target = directory.resolve(name + ARCHIVE_SUFFIX);
+        Path partial = directory.resolve(name + ARCHIVE_SUFFIX + ".part");
+        long expected = queryLong(connection, "SELECT COUNT(*) FROM " + name);
+        long copied;
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(partial), 64 * 1024)) {
+            copied = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyOut("COPY " + name + " TO STDOUT WITH (FORMAT csv, HEADER true)", out);
+        }
+        if (copied != expected) {
+            Files.deleteIfExists(partial);
+            throw new IOException("Archive of " + name + " has " + copied + " rows, expected " + expected);
+        }
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        inTransaction(connection, () -> execute(connection, "DROP TABLE " + name));
+
+        partitionsArchived.increment();
+        rowsArchived.add(copied);
+        log.info("Archived {} payments from {} to {}", copied, name, target);
+    }
+
+    /**
+     * First day after the newest archived month, or empty while nothing has been archived.
+     * Payments before that date only exist in the archive files.
+     */
+    public Optional<LocalDate> archivedBefore() {
+        List<String> archives = listArchives();
+        if (archives.isEmpty()) {
+            return Optional.empty();
+        }
+        Matcher matcher = MONTH_PARTITION.matcher(archives.get(archives.size() - 1).replace(ARCHIVE_SUFFIX, ""));
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+        return Optional.of(month.plusMonths(1).atDay(1));
+    }
+
+    private List<String> listArchives() {
+        Path directory = Paths.get(archiveDir).toAbsolutePath().normalize();
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                .filter(file -> file.endsWith(ARCHIVE_SUFFIX))
+                .sorted()
+                .toList();
+        } catch (IOException ex) {
+            log.warn("Could not list payment archives in {}: {}", directory, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    private List<PaymentPartitionDto> listPartitions(Connection connection) throws SQLException {
+        List<PaymentPartitionDto> partitions = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname, GREATEST(c.reltuples, 0)::bigint, pg_total_relation_size(c.oid) "
+                + "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass('payments') ORDER BY c.relname");
+             ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                String name = result.getString(1);
+                Matcher matcher = MONTH_PARTITION.matcher(name);
+                LocalDate rangeStart = null;
+                LocalDate rangeEnd = null;
+                if (matcher.matches()) {
+                    YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                    rangeStart = month.atDay(1);
+                    rangeEnd = month.plusMonths(1).atDay(1);
+                }
+                partitions.add(new PaymentPartitionDto(name, rangeStart, rangeEnd, result.getLong(2), result.getLong(3)));
+            }
+        }
+        return partitions;
+    }
+
+    public PaymentPartitionStatusDto getStatus() {
+        boolean partitioned = false;
+        List<PaymentPartitionDto> partitions = List.of();
+        try (Connection connection = dataSource.getConnection()) {
+            partitioned = "p".equals(relationKind(connection, PARENT));
+            if (partitioned) {
+                partitions = listPartitions(connection);
+            }
+        } catch (SQLException ex) {
+            log.warn("Could not read payment partitions: {}", ex.getMessage());
+        }
+        return new PaymentPartitionStatusDto(
+            enabled,
+            partitioned,
+            archiveEnabled,
+            monthsAhead,
+            archiveAfterMonths,
+            partitions,
+            listArchives(),
+            partitionsCreated.sum(),
+            rowsMovedFromDefault.sum(),
+            partitionsArchived.sum(),
+            rowsArchived.sum(),
+            lastRunAt,
+            lastRunDurationMillis,
+            lastError
+        );
+    }
+
+    // ---- JDBC helpers ----
+
+    private interface SqlWork {
+        void run() throws SQLException;
+    }
+
+    private static void inTransaction(Connection connection, SqlWork work) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            work.run();
+            connection.commit();
+        } catch (SQLException | RuntimeException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("payments_p%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * @return pg_class.relkind ('r' plain table, 'p' partitioned table), or null if there is no such relation
+     */
+    private static String relationKind(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relkind FROM pg_class c WHERE c.oid = to_regclass(?)")) {
+            statement.setString(1, name);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? result.getString(1) : null;
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private static long executeUpdate(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeLargeUpdate(sql);
+        }
+    }
+
+    private static long queryLong(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            return result.next() ? result.getLong(1) : 0;
+        }
+    }
+
+    private static List<String> queryStrings(Connection connection, String sql) throws SQLException {
+        List<String> values = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            while (result.next()) {
+                values.add(result.getString(1));
+            }
+        }
+        return values;
+    }
+
+    private static List<String[]> queryPairs(Connection connection, String sql) throws SQLException {
+        List<String[]> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            while (result.next()) {
+                rows.add(new String[] { result.getString(1), result.getString(2) });
+            }
+        }
+        return rows;
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    private boolean tryAdvisoryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void advisoryUnlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+}
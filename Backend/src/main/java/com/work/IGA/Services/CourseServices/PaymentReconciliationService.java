@@ -0,0 +1,299 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.work.IGA.Configuration.FlutterwaveClient;
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Models.Courses.PaymentStatus;
+import com.work.IGA.Repositories.PaymentRepository;
+import com.work.IGA.Utils.PaymentUtils.PaymentKey;
+import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
+import com.work.IGA.Utils.PaymentUtils.ReconciliationMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Settles payments that stayed PENDING because their webhook never arrived.
+ *
+ * Aged pending payments are read in keyset pages ordered by (paymentDate, id), so a run
+ * never loads the whole backlog and its position survives rows changing status under it.
+ * Each page is verified against Flutterwave by a small worker pool, and the result goes
+ * through the same locked transitions as the webhook path. A session-level Postgres
+ * advisory lock keeps the job single-active across nodes; it is held for the whole run on a
+ * connection of its own outside the pool, so the run never takes a pooled connection away
+ * from requests, and is released automatically if the node dies. The workers are capped at
+ * two fewer than the pool size, leaving connections for request traffic while they settle.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentReconciliationService {
+
+    // "IGA_RECO" as a 64-bit advisory lock key
+    private static final long ADVISORY_LOCK_KEY = 0x4947415F5245434FL;
+
+    private static final UUID KEYSET_START_ID = new UUID(0L, 0L);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final FlutterwaveClient flutterwaveClient;
+    private final WorkerThreads workerThreads;
+
+    @Value("${payment.reconciliation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${payment.reconciliation.min-age-minutes:30}")
+    private long minAgeMinutes;
+
+    @Value("${payment.reconciliation.abandon-after-hours:24}")
+    private long abandonAfterHours;
+
+    // Anything older has long been abandoned; the bound keeps the scan to the recent partitions
+    @Value("${payment.reconciliation.lookback-days:7}")
+    private long lookbackDays;
+
+    @Value("${payment.reconciliation.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.reconciliation.parallelism:4}")
+    private int parallelism;
+
+    @Value("${payment.reconciliation.max-per-run:2000}")
+    private int maxPerRun;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int poolSize;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private ExecutorService verifiers;
+    private ExecutorService trigger;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder skippedLockHeld = new LongAdder();
+    private final LongAdder examined = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder stillPending = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile long lastRunDurationMillis;
+    private volatile int lastRunExamined;
+
+    @PostConstruct
+    public void init() {
+        int workers = Math.max(1, Math.min(parallelism, poolSize - 2));
+        if (workers < parallelism) {
+            log.info("Payment reconciliation uses {} workers instead of {} to leave pool connections for requests",
+                workers, parallelism);
+        }
+        verifiers = new ThreadPoolExecutor(
+            workers, workers,
+            0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            workerThreads.numbered("payment-reconcile-")
+        );
+        trigger = new ThreadPoolExecutor(
+            1, 1,
+            0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1),
+            workerThreads.named("payment-reconcile-trigger"),
+            new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        trigger.shutdownNow();
+        verifiers.shutdownNow();
+    }
+
+    /**
+     * Hands the run to the trigger thread; a run can take minutes of gateway calls and the
+     * scheduler's single thread also drives the outbox, heartbeats and health checks
+     */
+    @Scheduled(fixedDelayString = "${payment.reconciliation.interval-ms:300000}",
+               initialDelayString = "${payment.reconciliation.initial-delay-ms:60000}")
+    public void scheduledRun() {
+        if (enabled) {
+            triggerRun();
+        }
+    }
+
+    /**
+     * Starts a run in the background unless one is already running on this node
+     */
+    public boolean triggerRun() {
+        if (running.get()) {
+            return false;
+        }
+        trigger.execute(this::runOnce);
+        return true;
+    }
+
+    private void runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try (Connection lockConnection = DriverManager.getConnection(url, username, password)) {
+            if (!tryAdvisoryLock(lockConnection)) {
+                skippedLockHeld.increment();
+                return;
+            }
+            try {
+                reconcile();
+            } finally {
+                advisoryUnlock(lockConnection);
+            }
+        } catch (SQLException ex) {
+            log.error("Payment reconciliation could not take its lock: {}", ex.getMessage());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void reconcile() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long start = System.nanoTime();
+        LocalDateTime olderThan = startedAt.minusMinutes(minAgeMinutes);
+        LocalDateTime abandonedBefore = startedAt.minusHours(abandonAfterHours);
+
+        LocalDateTime createdSince = startedAt.minusDays(lookbackDays);
+        LocalDateTime afterDate = createdSince;
+        UUID afterId = KEYSET_START_ID;
+        int examinedThisRun = 0;
+
+        while (examinedThisRun < maxPerRun) {
+            // Stop early rather than hammer a gateway that is already failing
+            if (!flutterwaveClient.isAcceptingPayments()) {
+                log.warn("Payment reconciliation paused: gateway circuit is open");
+                break;
+            }
+            int limit = Math.min(batchSize, maxPerRun - examinedThisRun);
+            List<PaymentKey> page = paymentRepository.findKeysByStatusAfter(
+                PaymentStatus.PENDING, olderThan, createdSince, afterDate, afterId, PageRequest.of(0, limit));
+            if (page.isEmpty()) {
+                break;
+            }
+
+            List<Callable<Void>> batch = new ArrayList<>(page.size());
+            for (PaymentKey key : page) {
+                boolean abandoned = key.paymentDate().isBefore(abandonedBefore);
+                batch.add(() -> {
+                    reconcileOne(key, abandoned);
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> future : verifiers.invokeAll(batch)) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception ex) {
+                // reconcileOne handles its own failures
+            }
+
+            examinedThisRun += page.size();
+            PaymentKey last = page.get(page.size() - 1);
+            afterDate = last.paymentDate();
+            afterId = last.id();
+            if (page.size() < limit) {
+                break;
+            }
+        }
+
+        runs.increment();
+        lastRunStartedAt = startedAt;
+        lastRunExamined = examinedThisRun;
+        lastRunDurationMillis = (System.nanoTime() - start) / 1_000_000;
+        if (examinedThisRun > 0) {
+            log.info("Payment reconciliation examined {} pending payments in {} ms", examinedThisRun, lastRunDurationMillis);
+        }
+    }
+
+    private void reconcileOne(PaymentKey key, boolean abandoned) {
+        examined.increment();
+        try {
+            PaymentResponse response = paymentService.reconcilePendingPayment(key.transactionReference(), abandoned);
+            PaymentStatus status = response.getPaymentStatus();
+            if (status == PaymentStatus.COMPLETED) {
+                completed.increment();
+            } else if (status == PaymentStatus.PENDING) {
+                stillPending.increment();
+            } else {
+                failed.increment();
+            }
+        } catch (Exception ex) {
+            errors.increment();
+            log.warn("Could not reconcile payment {}: {}", key.transactionReference(), ex.getMessage());
+        }
+    }
+
+    private boolean tryAdvisoryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private void advisoryUnlock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, ADVISORY_LOCK_KEY);
+            statement.execute();
+        }
+    }
+
+    public ReconciliationMetricsDto getMetrics() {
+        return new ReconciliationMetricsDto(
+            enabled,
+            running.get(),
+            runs.sum(),
+            skippedLockHeld.sum(),
+            lastRunStartedAt,
+            lastRunDurationMillis,
+            lastRunExamined,
+            examined.sum(),
+            completed.sum(),
+            failed.sum(),
+            stillPending.sum(),
+            errors.sum()
+        );
+    }
+}
@@ -44,6 +44,15 @@ public interface PaymentService {
      */
       PaymentResponse handlePaymentWebhook(String transactionId, String reference, String status) throws PaymentException;
 
+       /**
+     * Settle a PENDING payment whose webhook never arrived by asking Flutterwave about its reference
+     * @param reference - Payment reference (tx_ref)
+     * @param abandoned - Mark the payment FAILED if the gateway has no charge for it
+     * @return PaymentResponse with the resulting status
+     * @throws PaymentException if the gateway cannot be reached
+     */
+      PaymentResponse reconcilePendingPayment(String reference, boolean abandoned) throws PaymentException;
+
 
        /**
      * Get payment by ID
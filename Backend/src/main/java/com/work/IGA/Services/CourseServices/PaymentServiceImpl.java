@@ -2,11 +2,6 @@ package com.work.IGA.Services.CourseServices;
 
 import java.time.LocalDateTime;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 
 import java.util.HashMap;
 import java.util.List;
@@ -19,22 +14,24 @@ import org.springframework.boot.autoconfigure.graphql.GraphQlProperties.Http;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.work.IGA.Configuration.FlutterwaveClient;
 import com.work.IGA.Configuration.JwtUtils;
 import com.work.IGA.Models.Courses.CoursesSchema;
 import com.work.IGA.Models.Courses.Enrollment;
 import com.work.IGA.Models.Courses.Payment;
 import com.work.IGA.Models.Courses.PaymentStatus;
-import com.work.IGA.Models.Courses.ProgressEnum;
 import com.work.IGA.Models.Users.UserSchema;
 import com.work.IGA.Repositories.CourseRepo;
 import com.work.IGA.Repositories.EnrollmentRepository;
 import com.work.IGA.Repositories.PaymentRepository;
+import com.work.IGA.Repositories.ResourceProgressRepository;
 import com.work.IGA.Repositories.UserRepository;
 import com.work.IGA.Utils.PaymentUtils.PaymentAnalytics;
 import com.work.IGA.Utils.PaymentUtils.PaymentException;
+import com.work.IGA.Utils.PaymentUtils.PaymentReferenceGenerator;
 import com.work.IGA.Utils.PaymentUtils.PaymentRequest;
 import com.work.IGA.Utils.PaymentUtils.PaymentResponse;
 import com.work.IGA.Utils.PaymentUtils.PaymentVerificationRequest;
@@ -47,26 +44,36 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentRepository paymentRepository;
     private final UserRepository userRepository;
     private final CourseRepo courseRepository;
-    private final RestTemplate restTemplate;
+    private final FlutterwaveClient flutterwaveClient;
     private final ObjectMapper objectMapper;
     private final JwtUtils jwtUtils;
     private final EnrollmentRepository enrollmentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentAnalyticsService paymentAnalyticsService;
+    private final EntitlementCache entitlementCache;
+    private final PaymentReferenceGenerator paymentReferenceGenerator;
+    private final PaymentHistoryService paymentHistoryService;
+    private final EnrollmentOutboxService enrollmentOutboxService;
+    private final EnrollmentCounterService enrollmentCounterService;
+    private final ResourceProgressRepository resourceProgressRepository;
 
 
-    @Value("${flutterwave.api.base.url}")
-    private String flutterwaveBaseUrl;
-
-    @Value("${flutterwave.api.secret.key}")
-    private String flutterwaveSecretKey;
-
     @Value("${flutterwave.api.public.key}")
     private String flutterwavePublicKey;
 
     @Value("${flutterwave.api.callback.url}")
     private String flutterwaveCallbackUrl;
 
+    // How far back the unpaged status and instructor listings reach once payments are partitioned
+    @Value("${payment.listing.window-days:365}")
+    private long listingWindowDays;
+
+    @Value("${payment.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
     @Override
     public PaymentResponse initiatePayment(PaymentRequest paymentRequest) throws PaymentException {
+        FlutterwaveClient.CheckoutPermit permit = null;
         try  {
              
             // Extract and validate token 
@@ -114,8 +121,11 @@ public class PaymentServiceImpl implements PaymentService {
                 throw PaymentException.invalidAmount(course.get().getPrice());
             }
 
-            // Generate unique payment reference
-            String paymentReference = "IGA_" + System.currentTimeMillis() + "_" + user.get().getId().toString().substring(0, 8);
+            // Take the breaker's permit first, so a refused checkout never leaves a PENDING payment behind
+            permit = flutterwaveClient.acquireCheckout();
+
+            // Time-ordered and unique per node, so retries in the same millisecond cannot collide
+            String paymentReference = paymentReferenceGenerator.nextReference();
 
             // Create and  save payment record 
             Payment payment = new Payment();
@@ -124,6 +134,7 @@ public class PaymentServiceImpl implements PaymentService {
             payment.setAmount(course.get().getPrice());
             payment.setPaymentStatus(PaymentStatus.PENDING);
             payment.setTransactionReference(paymentReference);
+            payment.setCurrency(paymentRequest.getCurrency() != null ? paymentRequest.getCurrency() : "RWF");
             payment.setPaymentDate(LocalDateTime.now());
 
             Payment savedPayment = paymentRepository.save(payment);
@@ -132,7 +143,7 @@ public class PaymentServiceImpl implements PaymentService {
             Map<String, Object> payload = new HashMap<>();
             payload.put("tx_ref", paymentReference);
             payload.put("amount", course.get().getPrice());
-            payload.put("currency", paymentRequest.getCurrency() != null ? paymentRequest.getCurrency() : "RWF");
+            payload.put("currency", payment.getCurrency());
             
             // Set redirect URL to our verification endpoint with payment reference
             String verificationUrl = "http://localhost:8080/api/public/payments/callback?payment_reference=" + paymentReference;
@@ -161,48 +172,32 @@ public class PaymentServiceImpl implements PaymentService {
 
 
             // Call flutterwave Api 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization","Bearer " +  flutterwaveSecretKey);
-
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
-
-            String url = flutterwaveBaseUrl + "/payments";
-            ResponseEntity<Map> response = restTemplate.exchange(
-                url, HttpMethod.POST, requestEntity, Map.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> responseBody = response.getBody();
-
-                if ("success".equals(responseBody.get("status"))) {
-                    Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
-                    String paymentLink = (String) data.get("link");
-
-                    // Return success response
-                    return PaymentResponse.builder()
-                        .success(true)
-                        .message("Payment initiated successfully")
-                        .paymentLink(paymentLink)
-                        .paymentReference(paymentReference)
-                        .paymentId(savedPayment.getId())
-                        .amount(course.get().getPrice())
-                        .currency(paymentRequest.getCurrency() != null ? paymentRequest.getCurrency() : "RWF")
-                        .paymentStatus(PaymentStatus.PENDING)
-                        .courseId(course.get().getId())
-                        .courseName(course.get().getCourseName())
-                        .userId(user.get().getId())
-                        .customerName(user.get().getFirstName() + " " + user.get().getLastName())
-                        .customerEmail(user.get().getEmail())
-                        .timestamp(LocalDateTime.now())
-                        .build();
-                } else {
-                    String message = (String) responseBody.get("message");
-                    throw PaymentException.paymentGatewayError("Flutterwave API error :  " + message);
-                }
-            }
-            else {
-                throw PaymentException.paymentGatewayError("Failed to get response from payment gateway");
+            Map<String, Object> responseBody = flutterwaveClient.initiatePayment(permit, payload);
+
+            if ("success".equals(responseBody.get("status"))) {
+                Map<String, Object> data = (Map<String, Object>) responseBody.get("data");
+                String paymentLink = (String) data.get("link");
+
+                // Return success response
+                return PaymentResponse.builder()
+                    .success(true)
+                    .message("Payment initiated successfully")
+                    .paymentLink(paymentLink)
+                    .paymentReference(paymentReference)
+                    .paymentId(savedPayment.getId())
+                    .amount(course.get().getPrice())
+                    .currency(payment.getCurrency())
+                    .paymentStatus(PaymentStatus.PENDING)
+                    .courseId(course.get().getId())
+                    .courseName(course.get().getCourseName())
+                    .userId(user.get().getId())
+                    .customerName(user.get().getFirstName() + " " + user.get().getLastName())
+                    .customerEmail(user.get().getEmail())
+                    .timestamp(LocalDateTime.now())
+                    .build();
+            } else {
+                String message = (String) responseBody.get("message");
+                throw PaymentException.paymentGatewayError("Flutterwave API error :  " + message);
             }
 
 
@@ -212,6 +207,10 @@ public class PaymentServiceImpl implements PaymentService {
             throw new PaymentException("PAYMENT_INITIATION_ERROR", 
             "Failed to initiate payment: " + e.getMessage(),
             "Payment initiation failed. Please try again later.");
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
         }
     }
 
@@ -259,6 +258,9 @@ public class PaymentServiceImpl implements PaymentService {
                                 Double amount = ((Number) data.get("amount")).doubleValue();
                                 String currency = (String) data.get("currency");
 
+                                // Refuse a charge made for another payment before touching this one
+                                checkChargeBelongsTo(payment, verificationRequest.getTransactionId(), data);
+
                                 // Validate payment details 
                                 if (!"successful".equals(status)) {
                                     // Update payment status to failed 
@@ -277,18 +279,21 @@ public class PaymentServiceImpl implements PaymentService {
                                 throw PaymentException.paymentVerificationFailed(verificationRequest.getTransactionId());
                               }
 
-                              // Payment is successful -update payment status 
+                              // Payment is successful -update payment status. The enrollment is written to the
+                              // outbox in the same transaction and created by the enrollment dispatcher
+                              PaymentStatus previousStatus = payment.getPaymentStatus();
                               payment.setPaymentStatus(PaymentStatus.COMPLETED);
                               payment.setPaymentDate(LocalDateTime.now());
-                              Payment savedPayment = paymentRepository.save(payment);
-
-                                // Create enrollment for student
-                                UUID enrollmentId = createEnrollmentForStudent(payment.getStudent(), payment.getCourse());
+                              Payment savedPayment = transactionTemplate.execute(txStatus -> {
+                                  Payment saved = paymentRepository.save(payment);
+                                  onStatusTransition(saved, previousStatus, PaymentStatus.COMPLETED);
+                                  return saved;
+                              });
 
                                 // Return success response
                                 return PaymentResponse.builder()
                                        .success(true)
-                                       .message("Payment verified successfully and enrollment completed")
+                                       .message("Payment verified successfully, enrollment is being processed")
                                        .paymentId(savedPayment.getId())
                                        .transactionId(verificationRequest.getTransactionId())
                                        .paymentReference(savedPayment.getTransactionReference())
@@ -301,9 +306,7 @@ public class PaymentServiceImpl implements PaymentService {
                                        .userId(savedPayment.getStudent().getId())
                                        .customerName(savedPayment.getStudent().getFirstName() + " " + savedPayment.getStudent().getLastName())
                                        .customerEmail(savedPayment.getStudent().getEmail())
-                                       .enrollmentId(enrollmentId)
-                                       .enrollmentStatus("ENROLLED")
-                                       .enrollmentDate(LocalDateTime.now())
+                                       .enrollmentStatus("PENDING")
                                        .timestamp(LocalDateTime.now())
                                        .build();
 
@@ -328,66 +331,19 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     private Map<String, Object> verifyWithFlutterwave(String transactionId) throws PaymentException {
-        try {
-
-            // Build  verification  URL  
-            String verificationUrl = flutterwaveBaseUrl + "/transactions/" + transactionId + "/verify";
-            // Set up headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + flutterwaveSecretKey);
-
-            // Create request  entity  
-            HttpEntity<String> requestEntity = new HttpEntity<>(headers);
-            
-            // Call flutterwave verification API
-            ResponseEntity<Map> response = restTemplate.exchange(
-                verificationUrl, HttpMethod.GET, requestEntity, Map.class
-            );
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return response.getBody();
-            }
-            else {
-                throw PaymentException.paymentGatewayError(
-                    "Failed to get response from Flutterwave verification API"
-                );
-
-            }
-        } catch (Exception e) {
-           throw PaymentException.paymentGatewayError("Error calling Flutterwave verification API: " + e.getMessage());
-        }
+        // Timeouts and retries of this idempotent call are handled by the gateway client
+        return flutterwaveClient.verifyTransaction(transactionId);
     }
 
-    private UUID createEnrollmentForStudent(UserSchema student, CoursesSchema course) throws PaymentException {
-        try {
-            // Check  if student is already enrolled in the course 
-            if (enrollmentRepository.existsByStudentIdAndCourseId(student.getId(), course.getId())) {
-                Optional<Enrollment> existingEnrollment = enrollmentRepository
-                          .findByStudentIdAndCourseId(student.getId(),course.getId() );
-
-                          if (existingEnrollment.isPresent()) {
-                            return existingEnrollment.get().getId();
-                          }
-            }
-
-            // Create new enrollment
-            Enrollment enrollment = new Enrollment();
-            enrollment.setStudent(student);
-            enrollment.setCourse(course);
-            enrollment.setEnrollmentDate(LocalDateTime.now());
-            enrollment.setProgress(ProgressEnum.NOT_STARTED.name());
-
-            Enrollment savedErrollment = enrollmentRepository.save(enrollment);
-            return savedErrollment.getId();
-
-
-
-        } catch (Exception e) {
-            throw new PaymentException(
-               "ENROLLMENT_ERROR",
-               "Failed to create enrollment for student: " + e.getMessage(),
-               "Payment was successful but enrollment failed. Please contact support for assistance."
-            );
+    // Keeps the revenue rollup, the entitlement cache and the enrollment outbox in step with a
+    // payment status change. Must run in the transaction that saves the payment.
+    private void onStatusTransition(Payment payment, PaymentStatus from, PaymentStatus to) {
+        paymentAnalyticsService.recordTransition(payment, from, to);
+        if (to == PaymentStatus.COMPLETED && from != PaymentStatus.COMPLETED) {
+            entitlementCache.grantPaidAfterCommit(payment.getStudent().getId(), payment.getCourse().getId());
+            enrollmentOutboxService.recordCompletedPayment(payment);
+        } else if (from == PaymentStatus.COMPLETED && to != PaymentStatus.COMPLETED) {
+            entitlementCache.revokeAfterCommit(payment.getStudent().getId());
         }
     }
 
@@ -422,81 +378,53 @@ public class PaymentServiceImpl implements PaymentService {
                 );
             }
 
-            // Find payment by reference in our database 
-            Payment payment = paymentRepository.findByTransactionReference(reference)
-                                .orElseThrow( () -> new PaymentException(
-                                    "PAYMENT_NOT_FOUND",
-                                    "payment not found with reference : " + reference,
-                                    "Payment record not found"
-                                ));
             // Log webhook received for debugging
            System.out.println("Webhook received - Reference: " + reference + 
                           ", Transaction ID: " + transactionId + 
                           ", Status: " + status);
 
-           // If  payment is already processed , return existing status
-           if (payment.getPaymentStatus() == PaymentStatus.COMPLETED) {
-            return PaymentResponse.builder()
-                .success(true)
-                .message("Payment already processed and completed")
-                .paymentId(payment.getId())
-                .paymentReference(payment.getTransactionReference())
-                .transactionId(transactionId)
-                .amount(payment.getAmount())
-                .paymentStatus(PaymentStatus.COMPLETED)
-                .paymentDate(payment.getPaymentDate())
-                .courseId(payment.getCourse().getId())
-                .courseName(payment.getCourse().getCourseName())
-                .userId(payment.getStudent().getId())
-                .customerName(payment.getStudent().getFirstName() + " " + payment.getStudent().getLastName())
-                .customerEmail(payment.getStudent().getEmail())
-                .timestamp(LocalDateTime.now())
-                .build();
-
+           // If  payment is already processed , return existing status without calling the gateway
+           PaymentResponse alreadyProcessed = inTransaction(() -> {
+               Payment payment = findPaymentForWebhook(reference, false);
+               return isWebhookTerminal(payment) ? alreadyProcessedResponse(payment, transactionId) : null;
+           });
+           if (alreadyProcessed != null) {
+               return alreadyProcessed;
            }
 
-           // Verify  the  webhook by  calling Flutterwave API to double-check 
+           // Verify  the  webhook by  calling Flutterwave API to double-check.
+           // This happens outside any transaction so the HTTP call never holds the payment row lock
            Map<String, Object> verificationResponse = verifyWithFlutterwave(transactionId);
 
-           if (verificationResponse != null && "success".equals(verificationResponse.get("status"))) {
-            Map<String, Object> data = (Map<String, Object>) verificationResponse.get("data");
-            String verifiedStatus = (String) data.get("status");
-            Double verifiedAmount = ((Number) data.get("amount")).doubleValue();
-            String currency = (String) data.get("currency");
-
-
-            // Process base on  verified status 
-            switch (verifiedStatus.toLowerCase()) {
-                case "successful" : 
-                    return handleSuccessfulPayment(payment, transactionId, verifiedAmount, currency);
-                case "failed" : 
-                    return handleFailedPayment(payment, transactionId, "Payment failed at gateway");
-                
-                case "cancelled" :
-                   return handleCancelledPayment(payment, transactionId);
-                
-                default: 
-                  // Keeep as pending for statuses we don't recognize yet
-                  return handlePendingPayment(payment, transactionId, verifiedStatus);
-            }
-           }
-           else {
-              // Verification failed - mark as failed
-            payment.setPaymentStatus(PaymentStatus.FAILED);
-            payment.setPaymentDate(LocalDateTime.now());
-            paymentRepository.save(payment);
+           // Duplicate deliveries for the same reference queue up on the row lock and
+           // re-check the status, so every transition is applied at most once
+           return inTransaction(() -> {
+               Payment payment = findPaymentForWebhook(reference, true);
+               if (isWebhookTerminal(payment)) {
+                   return alreadyProcessedResponse(payment, transactionId);
+               }
+
+               if (verificationResponse != null && "success".equals(verificationResponse.get("status"))) {
+                return applyVerifiedStatus(payment, transactionId, (Map<String, Object>) verificationResponse.get("data"));
+               }
+               else {
+                  // Verification failed - mark as failed
+                payment.setPaymentStatus(PaymentStatus.FAILED);
+                payment.setPaymentDate(LocalDateTime.now());
+                paymentRepository.save(payment);
 
-            return PaymentResponse.builder()
-                .success(false)
-                .message("Webhook verification failed")
-                .errorCode("WEBHOOK_VERIFICATION_FAILED")
-                .paymentId(payment.getId())
-                .paymentReference(reference)
-                .transactionId(transactionId)
-                .paymentStatus(PaymentStatus.FAILED)
-                .timestamp(LocalDateTime.now())
-                .build();
-           }
+                return PaymentResponse.builder()
+                    .success(false)
+                    .message("Webhook verification failed")
+                    .errorCode("WEBHOOK_VERIFICATION_FAILED")
+                    .paymentId(payment.getId())
+                    .paymentReference(reference)
+                    .transactionId(transactionId)
+                    .paymentStatus(PaymentStatus.FAILED)
+                    .timestamp(LocalDateTime.now())
+                    .build();
+               }
+           });
 
          }
          catch (Exception e) {
@@ -508,6 +436,145 @@ public class PaymentServiceImpl implements PaymentService {
          }
     }
 
+    @Override
+    public PaymentResponse reconcilePendingPayment(String reference, boolean abandoned) throws PaymentException {
+        // Pending payments only carry our tx_ref, so look the charge up by reference
+        Map<String, Object> verificationResponse = flutterwaveClient.verifyByReference(reference);
+
+        return inTransaction(() -> {
+            Payment payment = findPaymentForWebhook(reference, true);
+            // A webhook may have settled it while the gateway was being asked
+            if (payment.getPaymentStatus() != PaymentStatus.PENDING) {
+                return alreadyProcessedResponse(payment, null);
+            }
+
+            if ("success".equals(verificationResponse.get("status"))) {
+                Map<String, Object> data = (Map<String, Object>) verificationResponse.get("data");
+                return applyVerifiedStatus(payment, String.valueOf(data.get("id")), data);
+            }
+
+            // The gateway has no charge for this reference: the checkout was never completed
+            if (abandoned) {
+                return handleFailedPayment(payment, null, "No transaction found at gateway");
+            }
+            return handlePendingPayment(payment, null, "not_found");
+        });
+    }
+
+    // Process base on  verified status 
+    private PaymentResponse applyVerifiedStatus(Payment payment, String transactionId, Map<String, Object> data)
+            throws PaymentException {
+        String verifiedStatus = (String) data.get("status");
+        Double verifiedAmount = ((Number) data.get("amount")).doubleValue();
+        String currency = (String) data.get("currency");
+
+        checkChargeBelongsTo(payment, transactionId, data);
+
+        switch (verifiedStatus.toLowerCase()) {
+            case "successful" : 
+                return handleSuccessfulPayment(payment, transactionId, verifiedAmount, currency);
+            case "failed" : 
+                return handleFailedPayment(payment, transactionId, "Payment failed at gateway");
+            
+            case "cancelled" :
+               return handleCancelledPayment(payment, transactionId);
+            
+            default: 
+              // Keeep as pending for statuses we don't recognize yet
+              return handlePendingPayment(payment, transactionId, verifiedStatus);
+        }
+    }
+
+    /**
+     * The transaction id comes from the caller, so the charge it names must be this payment's:
+     * same tx_ref and same currency. A mismatch changes nothing, the charge is either forged
+     * or meant for another payment
+     */
+    private void checkChargeBelongsTo(Payment payment, String transactionId, Map<String, Object> data)
+            throws PaymentException {
+        Object verifiedReference = data.get("tx_ref");
+        if (verifiedReference == null || !payment.getTransactionReference().equals(String.valueOf(verifiedReference))) {
+            throw new PaymentException(
+                "REFERENCE_MISMATCH",
+                "Transaction " + transactionId + " belongs to reference " + verifiedReference +
+                ", not " + payment.getTransactionReference(),
+                "Payment verification failed"
+            );
+        }
+        String expectedCurrency = payment.getCurrency() != null ? payment.getCurrency() : "RWF";
+        Object currency = data.get("currency");
+        if (!expectedCurrency.equalsIgnoreCase(String.valueOf(currency))) {
+            throw new PaymentException(
+                "CURRENCY_MISMATCH",
+                "Currency mismatch for transaction " + transactionId + ". Expected :" + expectedCurrency +
+                ", Got :" + currency,
+                "Payment verification failed"
+            );
+        }
+    }
+
+    private Payment findPaymentForWebhook(String reference, boolean lock) throws PaymentException {
+        Optional<Payment> payment = lock
+            ? paymentRepository.findByTransactionReferenceForUpdate(reference)
+            : paymentRepository.findByTransactionReference(reference);
+        return payment.orElseThrow(() -> new PaymentException(
+            "PAYMENT_NOT_FOUND",
+            "payment not found with reference : " + reference,
+            "Payment record not found"
+        ));
+    }
+
+    // A webhook never moves a payment out of these states
+    private boolean isWebhookTerminal(Payment payment) {
+        return payment.getPaymentStatus() == PaymentStatus.COMPLETED
+            || payment.getPaymentStatus() == PaymentStatus.REFUNDED;
+    }
+
+    private PaymentResponse alreadyProcessedResponse(Payment payment, String transactionId) {
+        return PaymentResponse.builder()
+            .success(payment.getPaymentStatus() == PaymentStatus.COMPLETED)
+            .message("Payment already processed: " + payment.getPaymentStatus())
+            .paymentId(payment.getId())
+            .paymentReference(payment.getTransactionReference())
+            .transactionId(transactionId)
+            .amount(payment.getAmount())
+            .paymentStatus(payment.getPaymentStatus())
+            .paymentDate(payment.getPaymentDate())
+            .courseId(payment.getCourse().getId())
+            .courseName(payment.getCourse().getCourseName())
+            .userId(payment.getStudent().getId())
+            .customerName(payment.getStudent().getFirstName() + " " + payment.getStudent().getLastName())
+            .customerEmail(payment.getStudent().getEmail())
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+
+    /**
+     * Runs webhook work in its own transaction. A PaymentException is rethrown after the
+     * commit so status changes recorded before the failure (e.g. FAILED on an amount
+     * mismatch) are kept, as they were before this path became transactional.
+     */
+    private PaymentResponse inTransaction(WebhookWork work) throws PaymentException {
+        PaymentException[] failure = new PaymentException[1];
+        PaymentResponse response = transactionTemplate.execute(status -> {
+            try {
+                return work.run();
+            } catch (PaymentException e) {
+                failure[0] = e;
+                return null;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        return response;
+    }
+
+    @FunctionalInterface
+    private interface WebhookWork {
+        PaymentResponse run() throws PaymentException;
+    }
+
     private PaymentResponse handleSuccessfulPayment(Payment payment, String transactionId, Double verifiedAmount,
             String currency) throws PaymentException {
          try  {
@@ -525,12 +592,12 @@ public class PaymentServiceImpl implements PaymentService {
             }
 
             // Update payment status to completed 
+            PaymentStatus previousStatus = payment.getPaymentStatus();
             payment.setPaymentStatus(PaymentStatus.COMPLETED);
             payment.setPaymentDate(LocalDateTime.now());
             Payment savedPayment = paymentRepository.save(payment);
-
-            // Create enrollment for student 
-            UUID enrollmentId = createEnrollmentForStudent(payment.getStudent(), payment.getCourse());
+            // Also records the enrollment in the outbox, committed together with the payment
+            onStatusTransition(savedPayment, previousStatus, PaymentStatus.COMPLETED);
 
             return PaymentResponse.builder()
                 .success(true)
@@ -547,9 +614,7 @@ public class PaymentServiceImpl implements PaymentService {
                 .userId(savedPayment.getStudent().getId())
                 .customerName(savedPayment.getStudent().getFirstName() + " " + savedPayment.getStudent().getLastName())
                 .customerEmail(savedPayment.getStudent().getEmail())
-                .enrollmentId(enrollmentId)
-                .enrollmentStatus("ENROLLED")
-                .enrollmentDate(LocalDateTime.now())
+                .enrollmentStatus("PENDING")
                 .timestamp(LocalDateTime.now())
                 .build();
 
@@ -761,11 +826,19 @@ public class PaymentServiceImpl implements PaymentService {
     @Override
     public Page<com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto> getUserPaymentHistoryByToken(String token, Pageable pageable) {
         try {
-            // Get payments page
-            Page<Payment> payments = getUserPaymentsByToken(token, pageable);
-            
-            // Convert to DTOs
-            return payments.map(com.work.IGA.Utils.PaymentUtils.PaymentHistoryDto::new);
+            if (token == null || token.trim().isEmpty()) {
+                throw new IllegalArgumentException("Token cannot be null or empty");
+            }
+            if (pageable == null) {
+                throw new IllegalArgumentException("Pageable cannot be null");
+            }
+
+            // Projected straight to DTOs, newest first, without loading the entities
+            UUID studentId = jwtUtils.getUserIdFromJwtToken(token);
+            if (studentId == null) {
+                throw new IllegalArgumentException("Token does not carry a user id");
+            }
+            return paymentHistoryService.pageForStudent(studentId, pageable.getPageNumber(), pageable.getPageSize());
             
         } catch (Exception e) {
             System.err.println("Error fetching user payment history by token: " + e.getMessage());
@@ -818,7 +891,7 @@ public class PaymentServiceImpl implements PaymentService {
             }
 
             // Get  payments by status 
-            List<Payment> payments = paymentRepository.findByPaymentStatus(paymentStatus);
+            List<Payment> payments = paymentRepository.findByPaymentStatus(paymentStatus, listingWindowStart());
 
             System.out.println("Found" + payments.size() + " payments with status :" + status);
 
@@ -863,21 +936,12 @@ public class PaymentServiceImpl implements PaymentService {
         payment.setPaymentStatus(status);
         payment.setPaymentDate(LocalDateTime.now());
 
-        // Handle status-specific logic
-        if (status == PaymentStatus.COMPLETED && oldStatus != PaymentStatus.COMPLETED) {
-            // Create enrollment if payment is completed for the first time
-            try {
-                createEnrollmentForStudent(payment.getStudent(), payment.getCourse());
-                System.out.println("Enrollment created for payment completion: " + paymentId);
-            } catch (PaymentException e) {
-                System.err.println("Failed to create enrollment for payment: " + paymentId + 
-                                 ". Error: " + e.getMessage());
-                // Continue with payment status update even if enrollment fails
-            }
-        }
-
-        // Save the updated payment
-        Payment updatedPayment = paymentRepository.save(payment);
+        // Save the updated payment; completing it queues the enrollment in the same transaction
+        Payment updatedPayment = transactionTemplate.execute(txStatus -> {
+            Payment saved = paymentRepository.save(payment);
+            onStatusTransition(saved, oldStatus, status);
+            return saved;
+        });
 
         System.out.println("Payment status updated successfully from " + oldStatus + " to " + status + 
                           " for payment ID: " + paymentId);
@@ -938,11 +1002,7 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
         System.out.println("Checking payment status for user ID: " + userId + " and course ID: " + courseId);
 
         // Check if there's a completed payment for this user and course
-        boolean hasPaid = paymentRepository.existsByStudentIdAndCourseIdAndPaymentStatus(
-            userId, 
-            courseId, 
-            PaymentStatus.COMPLETED
-        );
+        boolean hasPaid = entitlementCache.hasPaid(userId, courseId, 1);
 
         System.out.println("Payment check result - User: " + userId + 
                           ", Course: " + courseId + 
@@ -973,19 +1033,19 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
 
             // Extract username (email) from JWT token
             String email = jwtUtils.getEmailFromJwtToken(token);
-            
-            // Find user by email
-            UserSchema user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
+
+            // The id claim saves the user lookup; older tokens without it fall back to the email
+            UUID userId = jwtUtils.getUserIdFromJwtToken(token);
+            if (userId == null) {
+                userId = userRepository.findByEmail(email)
+                        .orElseThrow(() -> new RuntimeException("User not found with email: " + email))
+                        .getId();
+            }
 
             System.out.println("Checking payment status for user email: " + email + " and course ID: " + courseId);
 
             // Check if there's a completed payment for this user and course
-            boolean hasPaid = paymentRepository.existsByStudentIdAndCourseIdAndPaymentStatus(
-                user.getId(), 
-                courseId, 
-                PaymentStatus.COMPLETED
-            );
+            boolean hasPaid = entitlementCache.hasPaid(userId, courseId, 2);
 
             System.out.println("Payment check result - User: " + email + 
                               ", Course: " + courseId + 
@@ -1053,9 +1113,15 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
 
             if ("successful".equals(refundStatus) || "pending".equals(refundStatus)) {
                 // Update payment status to refunded 
+                PaymentStatus previousStatus = payment.getPaymentStatus();
                 payment.setPaymentStatus(PaymentStatus.REFUNDED);
                 payment.setPaymentDate(LocalDateTime.now());
-                Payment savedPayment = paymentRepository.save(payment);
+                // The rollup reversal commits with the status change or not at all
+                Payment savedPayment = transactionTemplate.execute(txStatus -> {
+                    Payment saved = paymentRepository.save(payment);
+                    onStatusTransition(saved, previousStatus, PaymentStatus.REFUNDED);
+                    return saved;
+                });
 
             // Remove enrollment if exists
             removeStudentEnrollment(payment.getStudent(), payment.getCourse());
@@ -1111,37 +1177,15 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
     // Helper method to create a success response refund Fliutterwave 
     private Map<String, Object> processFlutterwaveRefund(Payment payment, String reason) throws PaymentException {
         try {
-            // Build refund URL 
-            String refundUrl = flutterwaveBaseUrl + "/transactions/" + payment.getId() + "/refund";
-            
             // Prepare refund payload 
             Map<String, Object> payload = new HashMap<>();
             payload.put("amount", payment.getAmount());
             payload.put("reason", reason);
 
-            // Set up headers 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            headers.set("Authorization", "Bearer " + flutterwaveSecretKey);
-
-            // Create request entity
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(payload, headers);
-
             System.out.println("Calling Flutterwave refund API for payment: " + payment.getId());
 
             // call Flutterwave refund API 
-            ResponseEntity<Map> response = restTemplate.exchange(
-                refundUrl, HttpMethod.POST, requestEntity, Map.class
-            );
-
-            if (response.getStatusCode().is2xxSuccessful() &&  response.getBody() != null) {
-                return response.getBody();
-            }else {
-                throw new PaymentException(
-                    "REFUND_API_ERROR",
-                    "Failed to get response from Flutterwave refund API",
-                    "Refund processing failed at  payment gateway"
-                );            }
+            return flutterwaveClient.refund(payment.getId().toString(), payload);
         } catch (Exception e) {
             throw new PaymentException(
                 "REFUND_API_CALL_ERROR",
@@ -1158,7 +1202,14 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
                 .findByStudentIdAndCourseId(student.getId(), course.getId());
 
             if (enrollmentOpt.isPresent()) {
-                enrollmentRepository.delete(enrollmentOpt.get());
+                Enrollment enrollment = enrollmentOpt.get();
+                // The delete and the counter delta commit together
+                transactionTemplate.executeWithoutResult(status -> {
+                    resourceProgressRepository.deleteByEnrollmentId(enrollment.getId());
+                    enrollmentRepository.delete(enrollment);
+                    enrollmentCounterService.recordRemoved(course.getId(), enrollment.getProgress());
+                    entitlementCache.revokeAfterCommit(student.getId());
+                });
                 System.out.println("Enrollment removed for student:" + student.getId() + 
                                    ", Course:" + course.getId());
             } else {
@@ -1247,43 +1298,8 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
     @Override
     public PaymentAnalytics getInstructorEarnings(UUID instructorId) {
         try {
-            List<Payment> instructorPayments = getInstructorPayments(instructorId);
-            
-            int totalPayments = instructorPayments.size();
-            int completedPayments = (int) instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED)
-                .count();
-            int pendingPayments = (int) instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.PENDING)
-                .count();
-            int failedPayments = (int) instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.FAILED)
-                .count();
-            int cancelledPayments = (int) instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.CANCELLED)
-                .count();
-            int refundedPayments = (int) instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.REFUNDED)
-                .count();
-            
-            double totalRevenue = instructorPayments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED)
-                .mapToDouble(Payment::getAmount)
-                .sum();
-            
-            double averagePaymentAmount = completedPayments > 0 ? 
-                totalRevenue / completedPayments : 0.0;
-
-            return PaymentAnalytics.builder()
-                .totalPayments(totalPayments)
-                .successfulPayments(completedPayments)
-                .pendingPayments(pendingPayments)
-                .failedPayments(failedPayments)
-                .cancelledPayments(cancelledPayments)
-                .refundedPayments(refundedPayments)
-                .totalRevenue(totalRevenue)
-                .averagePaymentAmount(averagePaymentAmount)
-                .build();
+            // Aggregated per status in the database
+            return paymentAnalyticsService.getInstructorEarnings(instructorId);
                 
         } catch (Exception e) {
             // Return empty analytics if error occurs
@@ -1304,10 +1320,20 @@ private boolean isValidStatusTransition(PaymentStatus oldStatus, PaymentStatus n
     public List<Payment> getInstructorPayments(UUID instructorId) {
         try {
             // Get all payments for courses taught by this instructor
-            return paymentRepository.findPaymentsByInstructorId(instructorId);
+            return paymentRepository.findPaymentsByInstructorId(instructorId, listingWindowStart());
         } catch (Exception e) {
             return List.of(); // Return empty list if error occurs
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Lets the listings skip old partitions; an unpartitioned table keeps listing everything
+     */
+    private LocalDateTime listingWindowStart() {
+        if (!partitioningEnabled || listingWindowDays <= 0) {
+            return LocalDateTime.of(1970, 1, 1, 0, 0);
+        }
+        return LocalDateTime.now().minusDays(listingWindowDays);
+    }
+
+}
@@ -0,0 +1,370 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Models.Courses.PaymentWebhookEvent;
+import com.work.IGA.Models.Courses.WebhookInboxStatus;
+import com.work.IGA.Repositories.PaymentWebhookEventRepository;
+import com.work.IGA.Utils.PaymentUtils.DeadWebhookDto;
+import com.work.IGA.Utils.PaymentUtils.WebhookInboxMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Durable inbox for Flutterwave notifications.
+ *
+ * The webhook endpoint only inserts the notification (deduplicated on the gateway
+ * transaction id and payment reference) and returns. Rows are claimed with SKIP LOCKED under a lease and
+ * handed to single-threaded stripes chosen by payment reference, so notifications for
+ * one payment are applied in arrival order on this node, while the payment row lock
+ * in PaymentServiceImpl serialises them across nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentWebhookInboxService {
+
+    private static final List<WebhookInboxStatus> UNPROCESSED =
+        List.of(WebhookInboxStatus.RECEIVED, WebhookInboxStatus.PROCESSING, WebhookInboxStatus.RETRY);
+
+    private final PaymentWebhookEventRepository inboxRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final WorkerThreads workerThreads;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${payment.webhook.workers:4}")
+    private int workers;
+
+    @Value("${payment.webhook.batch-size:50}")
+    private int batchSize;
+
+    @Value("${payment.webhook.max-in-flight:200}")
+    private int maxInFlight;
+
+    @Value("${payment.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${payment.webhook.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${payment.webhook.retry-base-delay-ms:5000}")
+    private long retryBaseDelayMs;
+
+    @Value("${payment.webhook.retry-max-delay-ms:600000}")
+    private long retryMaxDelayMs;
+
+    private ThreadPoolExecutor[] stripes;
+
+    // One running poll plus at most one queued; further wake-ups coalesce into it
+    private ThreadPoolExecutor poller;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder dead = new LongAdder();
+    private final LongAdder lagTotalMillis = new LongAdder();
+    private final LongAccumulator lagMaxMillis = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        ensureDeliveryKey();
+        stripes = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            String name = "payment-webhook-" + (i + 1);
+            stripes[i] = new ThreadPoolExecutor(
+                1, 1,
+                0L, TimeUnit.MILLISECONDS,
+                // Bounded in practice by max-in-flight, which limits what is claimed
+                new LinkedBlockingQueue<>(),
+                workerThreads.named(name)
+            );
+        }
+        poller = new ThreadPoolExecutor(
+            1, 1,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1),
+            workerThreads.named("payment-webhook-poller"),
+            new ThreadPoolExecutor.DiscardPolicy()
+        );
+    }
+
+    /**
+     * Inboxes created before deliveries were keyed on the reference too still carry Hibernate's
+     * unique constraint on transaction_id alone, which would keep treating a notification with
+     * a forged reference as the genuine one. It is replaced by the (transaction_id, reference) key.
+     */
+    private void ensureDeliveryKey() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean present = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'payment_webhook_inbox'::regclass "
+                    + "AND conname = ?)", Boolean.class, PaymentWebhookEvent.DELIVERY_KEY);
+                if (!Boolean.TRUE.equals(present)) {
+                    jdbcTemplate.execute("ALTER TABLE payment_webhook_inbox ADD CONSTRAINT "
+                        + PaymentWebhookEvent.DELIVERY_KEY + " UNIQUE (transaction_id, reference)");
+                }
+                List<String> legacy = jdbcTemplate.queryForList(
+                    "SELECT c.conname FROM pg_constraint c JOIN pg_attribute a "
+                    + "ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] "
+                    + "WHERE c.conrelid = 'payment_webhook_inbox'::regclass AND c.contype = 'u' "
+                    + "AND cardinality(c.conkey) = 1 AND a.attname = 'transaction_id'", String.class);
+                for (String constraint : legacy) {
+                    jdbcTemplate.execute("ALTER TABLE payment_webhook_inbox DROP CONSTRAINT \"" + constraint + "\"");
+                    log.info("Dropped {}, webhook deliveries are now keyed on transaction id and reference", constraint);
+                }
+            });
+        } catch (RuntimeException ex) {
+            throw new IllegalStateException("Could not key the webhook inbox on transaction id and reference: "
+                + ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Claimed rows that are not finished keep their lease and are reclaimed once it expires
+        poller.shutdownNow();
+        for (ThreadPoolExecutor stripe : stripes) {
+            stripe.shutdown();
+        }
+        for (ThreadPoolExecutor stripe : stripes) {
+            if (!stripe.awaitTermination(10, TimeUnit.SECONDS)) {
+                stripe.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Records a gateway notification in the inbox
+     * @return false when the transaction id was already received for this reference
+     */
+    public boolean accept(String transactionId, String reference, String gatewayStatus, String source, String payload) {
+        if (transactionId == null || transactionId.isBlank() || reference == null || reference.isBlank()) {
+            throw new IllegalArgumentException("Transaction id and reference are required");
+        }
+        Integer inserted = transactionTemplate.execute(status -> {
+            int rows = inboxRepository.insertIfAbsent(UUID.randomUUID(), transactionId.trim(), reference.trim(),
+                gatewayStatus == null || gatewayStatus.isBlank() ? "unknown" : gatewayStatus, source, payload, LocalDateTime.now());
+            if (rows > 0) {
+                // Pick the row up straight away instead of waiting for the next poll
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        requestPoll();
+                    }
+                });
+            }
+            return rows;
+        });
+        if (inserted != null && inserted > 0) {
+            received.increment();
+            return true;
+        }
+        duplicates.increment();
+        return false;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverInbox() {
+        requestPoll();
+    }
+
+    @Scheduled(fixedDelayString = "${payment.webhook.poll-interval-ms:1000}")
+    public void pollInbox() {
+        requestPoll();
+    }
+
+    private void requestPoll() {
+        if (!poller.isShutdown()) {
+            poller.execute(this::claimAndDispatch);
+        }
+    }
+
+    private void claimAndDispatch() {
+        try {
+            int limit = Math.min(batchSize, maxInFlight - inFlight.get());
+            if (limit <= 0) {
+                return;
+            }
+            List<WebhookTask> claimed = transactionTemplate.execute(status -> claim(limit));
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            for (WebhookTask task : claimed) {
+                inFlight.incrementAndGet();
+                stripes[Math.floorMod(task.reference().hashCode(), stripes.length)].execute(() -> process(task));
+            }
+            if (claimed.size() == limit) {
+                // More may be waiting; keep draining without waiting for the next tick
+                requestPoll();
+            }
+        } catch (Exception ex) {
+            log.error("Could not claim webhook inbox entries: {}", ex.getMessage());
+        }
+    }
+
+    private List<WebhookTask> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<UUID> ids = inboxRepository.lockClaimable(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        inboxRepository.markClaimed(ids, WebhookInboxStatus.PROCESSING, now.plusSeconds(leaseSeconds));
+        return inboxRepository.findAllById(ids).stream()
+            .sorted(Comparator.comparing(PaymentWebhookEvent::getReceivedAt))
+            .map(event -> new WebhookTask(event.getId(), event.getTransactionId(), event.getReference(),
+                event.getGatewayStatus(), event.getAttempts(), event.getReceivedAt()))
+            .toList();
+    }
+
+    private void process(WebhookTask task) {
+        try {
+            paymentService.handlePaymentWebhook(task.transactionId(), task.reference(), task.gatewayStatus());
+            markProcessed(task);
+        } catch (Exception ex) {
+            recordFailure(task, ex);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private void markProcessed(WebhookTask task) {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> inboxRepository.findById(task.id()).ifPresent(event -> {
+            event.setStatus(WebhookInboxStatus.PROCESSED);
+            event.setProcessedAt(now);
+            event.setLockedUntil(null);
+            event.setLastError(null);
+            inboxRepository.save(event);
+        }));
+        long lag = Duration.between(task.receivedAt(), now).toMillis();
+        processed.increment();
+        lagTotalMillis.add(lag);
+        lagMaxMillis.accumulate(lag);
+    }
+
+    private void recordFailure(WebhookTask task, Exception cause) {
+        log.warn("Webhook {} for payment {} failed on attempt {}: {}",
+            task.transactionId(), task.reference(), task.attempts(), cause.getMessage());
+        try {
+            transactionTemplate.executeWithoutResult(status -> inboxRepository.findById(task.id()).ifPresent(event -> {
+                event.setLockedUntil(null);
+                event.setLastError(truncate(cause.getMessage()));
+                if (task.attempts() >= maxAttempts) {
+                    event.setStatus(WebhookInboxStatus.DEAD);
+                    dead.increment();
+                } else {
+                    event.setStatus(WebhookInboxStatus.RETRY);
+                    event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(retryDelayMillis(task.attempts()))));
+                    retried.increment();
+                }
+                inboxRepository.save(event);
+            }));
+        } catch (Exception ex) {
+            // The lease expires and the row is claimed again
+            log.error("Could not record failure of webhook {}: {}", task.transactionId(), ex.getMessage());
+        }
+    }
+
+    // Exponential backoff with jitter so a gateway outage does not retry in lockstep
+    private long retryDelayMillis(int attempts) {
+        long exponential = retryBaseDelayMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(retryMaxDelayMs, exponential);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+
+    /**
+     * Puts a DEAD notification back into the queue with a fresh attempt budget
+     */
+    public boolean requeue(UUID eventId) {
+        Boolean requeued = transactionTemplate.execute(status -> inboxRepository.findById(eventId)
+            .filter(event -> event.getStatus() == WebhookInboxStatus.DEAD)
+            .map(event -> {
+                event.setStatus(WebhookInboxStatus.RETRY);
+                event.setAttempts(0);
+                event.setNextAttemptAt(LocalDateTime.now());
+                inboxRepository.save(event);
+                return true;
+            })
+            .orElse(false));
+        if (Boolean.TRUE.equals(requeued)) {
+            requestPoll();
+            return true;
+        }
+        return false;
+    }
+
+    public List<DeadWebhookDto> getDeadEvents(int limit) {
+        return inboxRepository.findByStatusOrderByReceivedAtDesc(WebhookInboxStatus.DEAD, PageRequest.of(0, limit))
+            .stream()
+            .map(event -> new DeadWebhookDto(
+                event.getId(),
+                event.getTransactionId(),
+                event.getReference(),
+                event.getGatewayStatus(),
+                event.getSource(),
+                event.getAttempts(),
+                event.getLastError(),
+                event.getReceivedAt()))
+            .toList();
+    }
+
+    public WebhookInboxMetricsDto getMetrics() {
+        LocalDateTime oldest = inboxRepository.findOldestReceivedAt(UNPROCESSED);
+        long processedCount = processed.sum();
+        return new WebhookInboxMetricsDto(
+            workers,
+            inFlight.get(),
+            inboxRepository.countByStatusIn(UNPROCESSED),
+            oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).getSeconds(),
+            processedCount == 0 ? 0 : lagTotalMillis.sum() / processedCount,
+            lagMaxMillis.get(),
+            received.sum(),
+            duplicates.sum(),
+            processedCount,
+            retried.sum(),
+            dead.sum()
+        );
+    }
+
+    private record WebhookTask(UUID id, String transactionId, String reference, String gatewayStatus,
+                               int attempts, LocalDateTime receivedAt) {
+    }
+}
@@ -0,0 +1,272 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Models.Courses.ProgressEnum;
+import com.work.IGA.Utils.EnrollmentUtils.ProgressEventMetricsDto;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Coalesces resource progress events in memory and writes them in batches.
+ *
+ * Events only ever raise a resource's percentage, so repeated events for the same
+ * enrollment and resource collapse into one entry holding the highest value, and a flush
+ * (or a retry of a failed one) can be applied any number of times. The flush upserts
+ * resource_progress, recomputes completion for the enrollments that changed and derives
+ * their ProgressEnum. Ownership is checked by the upsert itself: it only matches when the
+ * enrollment belongs to the student and the resource belongs to the enrollment's course.
+ *
+ * Events still buffered when the node dies are lost; the next event from the player
+ * reports the same or a higher percentage, so nothing is lost for good.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProgressEventBuffer {
+
+    // Only raises the stored percentage; the WHERE makes an equal or lower value a no-op (count 0)
+    private static final String UPSERT_PROGRESS =
+        "INSERT INTO resource_progress (enrollment_id, resource_id, module_id, percent, updated_at) " +
+        "SELECT e.id, r.id, r.module_id, ?, ? FROM enrollments e " +
+        "JOIN resources r ON r.id = ? " +
+        "JOIN modules_schema m ON m.id = r.module_id AND m.course_id = e.course_id " +
+        "WHERE e.id = ? AND e.student_id = ? " +
+        "ON CONFLICT (enrollment_id, resource_id) DO UPDATE SET " +
+        "percent = EXCLUDED.percent, updated_at = EXCLUDED.updated_at " +
+        "WHERE resource_progress.percent < EXCLUDED.percent";
+
+    private static final String LOCK_ENROLLMENTS =
+        "SELECT id, course_id, progress FROM enrollments WHERE id = ANY(?) ORDER BY id FOR UPDATE";
+
+    // Resources without a progress row count as 0%
+    private static final String COMPLETION =
+        "SELECT e.id, COUNT(r.id) AS resources, COALESCE(SUM(rp.percent), 0) AS percent_sum " +
+        "FROM enrollments e " +
+        "JOIN modules_schema m ON m.course_id = e.course_id " +
+        "JOIN resources r ON r.module_id = m.id " +
+        "LEFT JOIN resource_progress rp ON rp.enrollment_id = e.id AND rp.resource_id = r.id " +
+        "WHERE e.id = ANY(?) GROUP BY e.id";
+
+    private static final String UPDATE_ENROLLMENT =
+        "UPDATE enrollments SET progress = ?, completion_percent = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EnrollmentCounterService enrollmentCounters;
+
+    @Value("${progress.events.max-buffered:200000}")
+    private int maxBuffered;
+
+    @Value("${progress.events.batch-size:1000}")
+    private int batchSize;
+
+    // Writers share the read lock; the flush takes the write lock only to swap the map
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<ProgressKey, Integer> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder enrollmentsUpdated = new LongAdder();
+    private volatile long lastFlushMillis;
+
+    /**
+     * Buffers one event
+     * @return false when the buffer is full and the event was dropped
+     */
+    public boolean record(UUID enrollmentId, UUID studentId, UUID resourceId, int percent) {
+        ProgressKey key = new ProgressKey(enrollmentId, studentId, resourceId);
+        swapLock.readLock().lock();
+        try {
+            Integer previous = pending.putIfAbsent(key, percent);
+            if (previous == null) {
+                if (pending.size() > maxBuffered) {
+                    pending.remove(key, percent);
+                    dropped.increment();
+                    return false;
+                }
+            } else {
+                pending.merge(key, percent, Math::max);
+                coalesced.increment();
+            }
+            accepted.increment();
+            return true;
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${progress.events.flush-interval-ms:2000}",
+               initialDelayString = "${progress.events.flush-interval-ms:2000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<ProgressKey, Integer> drained;
+            swapLock.writeLock().lock();
+            try {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                drained = pending;
+                pending = new ConcurrentHashMap<>();
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            // A fixed row order keeps concurrent flushes on several nodes from deadlocking
+            List<Map.Entry<ProgressKey, Integer>> entries = new ArrayList<>(drained.entrySet());
+            entries.sort(Map.Entry.comparingByKey());
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<ProgressKey, Integer>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writeBatch(batch));
+                    flushes.increment();
+                } catch (Exception ex) {
+                    failedFlushes.increment();
+                    requeue(batch);
+                    log.warn("Progress flush of {} events failed, kept for the next flush: {}", batch.size(), ex.getMessage());
+                }
+            }
+            lastFlushMillis = (System.nanoTime() - start) / 1_000_000;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void requeue(List<Map.Entry<ProgressKey, Integer>> batch) {
+        swapLock.readLock().lock();
+        try {
+            for (Map.Entry<ProgressKey, Integer> entry : batch) {
+                pending.merge(entry.getKey(), entry.getValue(), Math::max);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private void writeBatch(List<Map.Entry<ProgressKey, Integer>> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<ProgressKey, Integer> entry : batch) {
+            ProgressKey key = entry.getKey();
+            rows.add(new Object[] { entry.getValue(), now, key.resourceId(), key.enrollmentId(), key.studentId() });
+        }
+        int[] counts = jdbcTemplate.batchUpdate(UPSERT_PROGRESS, rows);
+
+        Set<UUID> changed = new TreeSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                changed.add(batch.get(i).getKey().enrollmentId());
+                rowsWritten.increment();
+            }
+        }
+        if (!changed.isEmpty()) {
+            updateEnrollments(changed.toArray(new UUID[0]));
+        }
+    }
+
+    private void updateEnrollments(UUID[] enrollmentIds) {
+        Map<UUID, EnrollmentState> current = new HashMap<>();
+        jdbcTemplate.query(LOCK_ENROLLMENTS,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", enrollmentIds)),
+            rs -> {
+                current.put(rs.getObject("id", UUID.class),
+                    new EnrollmentState(rs.getObject("course_id", UUID.class), rs.getString("progress")));
+            });
+
+        List<Object[]> updates = new ArrayList<>();
+        jdbcTemplate.query(COMPLETION,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", enrollmentIds)),
+            rs -> {
+                UUID id = rs.getObject("id", UUID.class);
+                EnrollmentState state = current.get(id);
+                if (state == null) {
+                    return;
+                }
+                long resources = rs.getLong("resources");
+                long percentSum = rs.getLong("percent_sum");
+                int percent = (int) (percentSum / resources);
+
+                ProgressEnum previous = state.progress() == null ? ProgressEnum.NOT_STARTED : ProgressEnum.valueOf(state.progress());
+                ProgressEnum next = derive(percentSum, resources);
+                // Derived progress only moves forward; a student's explicit choice is not undone
+                if (next.ordinal() < previous.ordinal()) {
+                    next = previous;
+                }
+                updates.add(new Object[] { next.name(), percent, id });
+                if (next != previous) {
+                    enrollmentCounters.recordProgressChange(state.courseId(), state.progress(), next.name());
+                }
+            });
+
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ENROLLMENT, updates);
+            enrollmentsUpdated.add(updates.size());
+        }
+    }
+
+    static ProgressEnum derive(long percentSum, long resources) {
+        if (percentSum <= 0) {
+            return ProgressEnum.NOT_STARTED;
+        }
+        return percentSum >= 100 * resources ? ProgressEnum.COMPLETED : ProgressEnum.IN_PROGRESS;
+    }
+
+    public ProgressEventMetricsDto getMetrics() {
+        return new ProgressEventMetricsDto(
+            pending.size(),
+            accepted.sum(),
+            coalesced.sum(),
+            dropped.sum(),
+            flushes.sum(),
+            failedFlushes.sum(),
+            rowsWritten.sum(),
+            enrollmentsUpdated.sum(),
+            lastFlushMillis
+        );
+    }
+
+    private record ProgressKey(UUID enrollmentId, UUID studentId, UUID resourceId) implements Comparable<ProgressKey> {
+        private static final Comparator<ProgressKey> ORDER =
+            Comparator.comparing(ProgressKey::enrollmentId).thenComparing(ProgressKey::resourceId);
+
+        @Override
+        public int compareTo(ProgressKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private record EnrollmentState(UUID courseId, String progress) {
+    }
+}
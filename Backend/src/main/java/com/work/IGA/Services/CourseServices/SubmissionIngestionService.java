@@ -0,0 +1,294 @@
+package com.work.IGA.Services.CourseServices;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Configuration.SubmissionStagingStore;
+import com.work.IGA.Configuration.SupabaseStorageService;
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Models.Courses.AssignmentSubmission;
+import com.work.IGA.Models.Courses.SubmissionStatus;
+import com.work.IGA.Repositories.AssignmentSubmissionRepository;
+import com.work.IGA.Services.NotificationServices.NotificationHub;
+import com.work.IGA.Services.SimilarityServices.SubmissionSimilarityService;
+import com.work.IGA.Utils.NotificationUtils.NotificationEvent;
+import com.work.IGA.Utils.NotificationUtils.NotificationType;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.IngestionMetricsDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Uploads staged submission files to Supabase from a bounded worker pool.
+ *
+ * A submission is persisted as PENDING together with its staged file before the
+ * request returns, so the database is the source of truth: anything that is not
+ * uploaded when the node stops is picked up again by the startup recovery and the
+ * periodic sweep. When the queue is full the task is simply left PENDING.
+ *
+ * Staged files are on this node's disk, so the sweep only takes submissions staged into
+ * this node's staging directory. Rows from before the directory was recorded are taken by
+ * whichever node still has the file.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionIngestionService {
+
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final SupabaseStorageService storageService;
+    private final SubmissionStagingStore stagingStore;
+    private final TransactionTemplate transactionTemplate;
+    private final SubmissionSimilarityService similarityService;
+    private final NotificationHub notificationHub;
+    private final WorkerThreads workerThreads;
+
+    @Value("${submission.ingestion.workers:4}")
+    private int workers;
+
+    @Value("${submission.ingestion.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${submission.ingestion.max-attempts:5}")
+    private int maxAttempts;
+
+    private ThreadPoolExecutor executor;
+
+    // Ids that are queued or being uploaded on this node
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder uploaded = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(
+            workers, workers,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            workerThreads.numbered("submission-ingest-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Queued work stays PENDING in the database and is recovered on the next start
+        executor.shutdown();
+        if (!executor.awaitTermination(20, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Schedules the upload once the surrounding transaction has committed,
+     * so a worker never sees a submission that might still roll back.
+     */
+    public void enqueueAfterCommit(UUID submissionId) {
+        accepted.increment();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(submissionId);
+                }
+            });
+        } else {
+            enqueue(submissionId);
+        }
+    }
+
+    private void enqueue(UUID submissionId) {
+        if (!inFlight.add(submissionId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> process(submissionId));
+        } catch (RejectedExecutionException ex) {
+            inFlight.remove(submissionId);
+            rejected.increment();
+            log.warn("Ingestion queue full, submission {} left PENDING for the next sweep", submissionId);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingSubmissions() {
+        int requeued = requeuePending();
+        if (requeued > 0) {
+            log.info("Recovered {} pending submissions after startup", requeued);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${submission.ingestion.sweep-interval-ms:30000}",
+               initialDelayString = "${submission.ingestion.sweep-interval-ms:30000}")
+    public void sweepPendingSubmissions() {
+        requeuePending();
+    }
+
+    private int requeuePending() {
+        int free = executor.getQueue().remainingCapacity();
+        if (free <= 0) {
+            return 0;
+        }
+        List<UUID> pending = submissionRepository.findIdsByStatusAndStagingNode(
+            SubmissionStatus.PENDING, stagingStore.nodeId(), PageRequest.of(0, free));
+        int requeued = 0;
+        for (UUID id : pending) {
+            if (!inFlight.contains(id)) {
+                enqueue(id);
+                requeued++;
+            }
+        }
+        return requeued;
+    }
+
+    private void process(UUID submissionId) {
+        try {
+            UploadTask task = transactionTemplate.execute(status -> loadTask(submissionId));
+            if (task == null) {
+                return;
+            }
+
+            // Storage I/O happens outside any transaction so it never holds a pooled connection
+            String fileUrl;
+            Path stagedFile;
+            try {
+                stagedFile = stagingStore.resolve(task.stagedUri());
+                if (task.stagingNode() == null && !Files.exists(stagedFile)) {
+                    // Staged before the directory was recorded, presumably on another node
+                    return;
+                }
+                fileUrl = storageService.uploadStagedFile(stagedFile, task.originalFileName(), task.contentType(), task.folder());
+            } catch (Exception ex) {
+                recordFailure(submissionId, task.stagedUri(), ex);
+                return;
+            }
+
+            Boolean stored = transactionTemplate.execute(status -> markStored(submissionId, task.stagedUri(), fileUrl));
+            if (Boolean.TRUE.equals(stored)) {
+                uploaded.increment();
+                // Fingerprint while the file is still local; a failure here must not fail the submission
+                try {
+                    similarityService.fingerprint(submissionId, task.assignmentId(), stagedFile,
+                        task.originalFileName(), task.contentType());
+                } catch (Exception ex) {
+                    log.warn("Could not fingerprint submission {}: {}", submissionId, ex.getMessage());
+                }
+                stagingStore.discard(task.stagedUri());
+            }
+        } catch (Exception ex) {
+            log.error("Unexpected error ingesting submission {}: {}", submissionId, ex.getMessage());
+        } finally {
+            inFlight.remove(submissionId);
+        }
+    }
+
+    private UploadTask loadTask(UUID submissionId) {
+        AssignmentSubmission submission = submissionRepository.findById(submissionId).orElse(null);
+        if (submission == null || submission.getStatus() != SubmissionStatus.PENDING) {
+            return null;
+        }
+        UUID courseId = submission.getAssignment().getModule().getCourse().getId();
+        return new UploadTask(
+            submission.getAssignment().getId(),
+            submission.getSubmissionFile(),
+            submission.getStagingNode(),
+            submission.getOriginalFileName(),
+            submission.getContentType(),
+            "submissions/" + courseId + "/" + submission.getAssignment().getId()
+        );
+    }
+
+    private Boolean markStored(UUID submissionId, String stagedUri, String fileUrl) {
+        AssignmentSubmission submission = submissionRepository.findById(submissionId).orElse(null);
+        // The student may have replaced or deleted the file while it was uploading
+        if (submission == null || submission.getStatus() != SubmissionStatus.PENDING
+                || !stagedUri.equals(submission.getSubmissionFile())) {
+            return false;
+        }
+        submission.setSubmissionFile(fileUrl);
+        submission.setStatus(SubmissionStatus.STORED);
+        submission.setUploadError(null);
+        submissionRepository.save(submission);
+        notificationHub.publishAfterCommit(submission.getStudent().getId(), submissionEvent(NotificationType.SUBMISSION_STORED, submission));
+        return true;
+    }
+
+    private void recordFailure(UUID submissionId, String stagedUri, Exception cause) {
+        log.warn("Upload of submission {} failed: {}", submissionId, cause.getMessage());
+        transactionTemplate.executeWithoutResult(status -> {
+            AssignmentSubmission submission = submissionRepository.findById(submissionId).orElse(null);
+            if (submission == null || !stagedUri.equals(submission.getSubmissionFile())) {
+                return;
+            }
+            int attempts = (submission.getUploadAttempts() == null ? 0 : submission.getUploadAttempts()) + 1;
+            submission.setUploadAttempts(attempts);
+            submission.setUploadError(cause.getMessage());
+            if (attempts >= maxAttempts) {
+                // Keep the staged file so an operator can retry it by hand
+                submission.setStatus(SubmissionStatus.FAILED);
+                failed.increment();
+                notificationHub.publishAfterCommit(submission.getStudent().getId(), submissionEvent(NotificationType.SUBMISSION_FAILED, submission));
+            } else {
+                retried.increment();
+            }
+            submissionRepository.save(submission);
+        });
+    }
+
+    private NotificationEvent submissionEvent(NotificationType type, AssignmentSubmission submission) {
+        return NotificationEvent.builder()
+            .type(type)
+            .submissionId(submission.getId())
+            .assignmentId(submission.getAssignment().getId())
+            .assignmentTitle(submission.getAssignment().getTitle())
+            .courseId(submission.getAssignment().getModule().getCourse().getId())
+            .occurredAt(LocalDateTime.now())
+            .build();
+    }
+
+    public IngestionMetricsDto getMetrics() {
+        return new IngestionMetricsDto(
+            executor.getMaximumPoolSize(),
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            queueCapacity,
+            inFlight.size(),
+            submissionRepository.countByStatus(SubmissionStatus.PENDING),
+            accepted.sum(),
+            uploaded.sum(),
+            retried.sum(),
+            failed.sum(),
+            rejected.sum()
+        );
+    }
+
+    private record UploadTask(UUID assignmentId, String stagedUri, String stagingNode,
+                              String originalFileName, String contentType, String folder) {
+    }
+}
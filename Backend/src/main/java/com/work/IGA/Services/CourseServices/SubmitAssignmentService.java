@@ -22,6 +22,8 @@ public interface SubmitAssignmentService {
     // Student query methods 
     SubmissionResponse<List<SubmissionDto>> getStudentSubmissions(UUID studentId, UUID courseId);
     SubmissionResponse<SubmissionDto> getSubmissionById(UUID submissionId, UUID studentId);
+    SubmissionResponse<SubmissionDto> getSubmissionStatus(UUID submissionId, UUID studentId);
+    SubmissionResponse<List<SubmissionDto>> getSubmissionsForAssignmentByLateness(UUID assignmentId, boolean late, UUID instructorId);
     SubmissionResponse<List<AssignmentsSchema>> getAvailableAssignments(UUID studentId, UUID courseId); 
     
     // Instructor grading  methods 
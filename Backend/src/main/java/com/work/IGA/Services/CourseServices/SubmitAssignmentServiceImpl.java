@@ -8,35 +8,48 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import com.work.IGA.Configuration.SupabaseStorageService;
+import com.work.IGA.Configuration.SubmissionStagingStore;
 import com.work.IGA.Models.Courses.AssignmentSubmission;
 import com.work.IGA.Models.Courses.AssignmentsSchema;
 import com.work.IGA.Models.Courses.CoursesSchema;
 import com.work.IGA.Models.Courses.Enrollment;
 import com.work.IGA.Models.Courses.Grades;
+import com.work.IGA.Models.Courses.SubmissionStatus;
 import com.work.IGA.Models.Users.UserSchema;
 import com.work.IGA.Repositories.AssignmentRepo;
 import com.work.IGA.Repositories.AssignmentSubmissionRepository;
 import com.work.IGA.Repositories.CourseRepo;
 import com.work.IGA.Repositories.EnrollmentRepository;
 import com.work.IGA.Repositories.GradesRepository;
+import com.work.IGA.Repositories.SubmissionFingerprintRepository;
 import com.work.IGA.Repositories.UserRepository;
+import com.work.IGA.Services.NotificationServices.NotificationHub;
 import com.work.IGA.Utils.AssignmentUtils.SubmissionRequest;
 import com.work.IGA.Utils.AssignmentUtils.SubmissionStatisticsDto;
+import com.work.IGA.Utils.NotificationUtils.NotificationEvent;
+import com.work.IGA.Utils.NotificationUtils.NotificationType;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.GradeRequest;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionException;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionResponse;
 import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionDto;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionLateness;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
+@Slf4j
 public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
     
     
@@ -44,10 +57,14 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
     private final AssignmentSubmissionRepository submissionRepository;
     private final AssignmentRepo assignmentRepo;
     private final EnrollmentRepository enrollmentRepository;
+    private final EntitlementCache entitlementCache;
     private final GradesRepository gradesRepository;
     private final UserRepository userRepository;
     private final CourseRepo courseRepository;
-    private final SupabaseStorageService storageService;
+    private final SubmissionStagingStore stagingStore;
+    private final SubmissionIngestionService ingestionService;
+    private final SubmissionFingerprintRepository fingerprintRepository;
+    private final NotificationHub notificationHub;
 
     // Helper method to convert AssignmentSubmission to SubmissionDto
     private SubmissionDto convertToDto(AssignmentSubmission submission) {
@@ -57,9 +74,16 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
         dto.setAssignmentTitle(submission.getAssignment().getTitle());
         dto.setStudentId(submission.getStudent().getId());
         dto.setStudentName(submission.getStudent().getFirstName() + " " + submission.getStudent().getLastName());
-        dto.setSubmissionFile(submission.getSubmissionFile());
         dto.setFeedback(submission.getFeedback());
         dto.setSubmittedAt(submission.getSubmittedAt());
+        dto.setLate(Boolean.TRUE.equals(submission.getLate()));
+        dto.setMinutesLate(submission.getMinutesLate());
+
+        // Rows created before the ingestion pipeline have no status and are already stored
+        SubmissionStatus status = submission.getStatus() != null ? submission.getStatus() : SubmissionStatus.STORED;
+        dto.setStatus(status);
+        // Never leak the local staging path, only the public storage URL
+        dto.setSubmissionFile(status == SubmissionStatus.STORED ? submission.getSubmissionFile() : null);
         
         // Handle grade information
         if (submission.getGrades() != null) {
@@ -73,6 +97,29 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
         return dto;
     }
 
+    private NotificationEvent gradeEvent(NotificationType type, AssignmentSubmission submission, Grades grade) {
+        return NotificationEvent.builder()
+            .type(type)
+            .submissionId(submission.getId())
+            .assignmentId(submission.getAssignment().getId())
+            .assignmentTitle(submission.getAssignment().getTitle())
+            .courseId(submission.getAssignment().getModule().getCourse().getId())
+            .grade(grade.getPointAwarded())
+            .maxPoints(submission.getAssignment().getMaxPoints())
+            .feedback(submission.getFeedback())
+            .occurredAt(grade.getGradedAt())
+            .build();
+    }
+
+    // Submissions stored before lateness was precomputed get it once, in bulk
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillLateness() {
+        int updated = submissionRepository.backfillMissingLateness();
+        if (updated > 0) {
+            log.info("Backfilled lateness for {} submissions", updated);
+        }
+    }
+
     // =================STUDENT SUBMISSION Methods=====================
 
     @Override
@@ -104,7 +151,7 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
           UUID courseId = assignment.getModule().getCourse().getId();
 
           // Check if student is enrolled in the course
-          boolean isEnrolled = enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId);
+          boolean isEnrolled = entitlementCache.isEnrolled(studentId, courseId, 1);
           if (!isEnrolled) {
                 return SubmissionResponse.error("Student is not enrolled in the course");
           }
@@ -116,26 +163,26 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
                 return SubmissionResponse.error("Assignment has already been submitted. Use update instead.");
           }
 
-          // Upload file to storage
-          String fileUrl = null;
+          // Stage file locally; the upload to storage happens on the ingestion workers
+          String stagedUri = null;
           try {
-              fileUrl = storageService.uploadToInstructorFile(
-                  request.getSubmissionFile(),
-                  "submissions/" + courseId + "/" + request.getAssignmentId()
-              );
+              stagedUri = stagingStore.stage(request.getSubmissionFile()).toString();
           } catch (Exception ex) {
-              throw new SubmissionException("FILE_UPLOAD_ERROR", "Error uploading file: " + ex.getMessage());
-          }
-          if (fileUrl == null || fileUrl.isEmpty()) {
-              throw new SubmissionException("FILE_URL_NULL", "File URL is null or empty after upload");
+              throw new SubmissionException("FILE_UPLOAD_ERROR", "Error staging file: " + ex.getMessage());
           }
+          discardOnRollback(stagedUri);
 
           // Create submission entity
           AssignmentSubmission submission = new AssignmentSubmission();
           submission.setAssignment(assignment);
           submission.setStudent(student);
-          submission.setSubmissionFile(fileUrl);
+          submission.setSubmissionFile(stagedUri);
+          submission.setStagingNode(stagingStore.nodeId());
+          submission.setOriginalFileName(request.getSubmissionFile().getOriginalFilename());
+          submission.setContentType(request.getSubmissionFile().getContentType());
+          submission.setStatus(SubmissionStatus.PENDING);
           submission.setSubmittedAt(LocalDateTime.now());
+          SubmissionLateness.apply(submission, assignment.getDueDate());
 
           AssignmentSubmission savedSubmission = null;
           try {
@@ -147,8 +194,10 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
               throw new SubmissionException("SUBMISSION_SAVE_NULL", "Saved submission is null after database save");
           }
 
+          ingestionService.enqueueAfterCommit(savedSubmission.getId());
+
           SubmissionDto responseDto = convertToDto(savedSubmission);
-          return SubmissionResponse.success("Assignment submitted successfully", responseDto);
+          return SubmissionResponse.success("Assignment accepted, file upload in progress", responseDto);
        } catch (SubmissionException se) {
            // Rethrow custom exceptions with details
            throw se;
@@ -182,21 +231,32 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
                 return SubmissionResponse.error("Cannot update a submission that has already been graded");
          }
 
-            // Upload new file to storage
-            UUID courseId = submission.getAssignment().getModule().getCourse().getId();
-            String newFileUrl = storageService.uploadToInstructorFile(
-                newFile,
-                "submissions/" + courseId + "/" + submission.getAssignment().getId()
-            );
+            // Stage new file; the ingestion workers upload it after commit
+            String stagedUri = stagingStore.stage(newFile).toString();
+            discardOnRollback(stagedUri);
+
+            // A previous file that never left staging is superseded by this one
+            String previousFile = submission.getSubmissionFile();
+            if (stagingStore.isStaged(previousFile)) {
+                discardAfterCommit(previousFile);
+            }
 
             // Update submission 
-            submission.setSubmissionFile(newFileUrl);
+            submission.setSubmissionFile(stagedUri);
+            submission.setStagingNode(stagingStore.nodeId());
+            submission.setOriginalFileName(newFile.getOriginalFilename());
+            submission.setContentType(newFile.getContentType());
+            submission.setStatus(SubmissionStatus.PENDING);
+            submission.setUploadAttempts(0);
+            submission.setUploadError(null);
             submission.setSubmittedAt(LocalDateTime.now());
+            SubmissionLateness.apply(submission, submission.getAssignment().getDueDate());
 
             AssignmentSubmission updatedSubmission = submissionRepository.save(submission);
+            ingestionService.enqueueAfterCommit(updatedSubmission.getId());
             SubmissionDto responseDto = convertToDto(updatedSubmission);
 
-            return SubmissionResponse.success("Submission updated successfully", responseDto);
+            return SubmissionResponse.success("Submission updated, file upload in progress", responseDto);
           }
           catch (Exception e) {
               throw new SubmissionException(
@@ -223,6 +283,10 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
             }
 
             // Delete submission 
+            if (stagingStore.isStaged(submission.getSubmissionFile())) {
+                discardAfterCommit(submission.getSubmissionFile());
+            }
+            fingerprintRepository.deleteBySubmissionId(submission.getId());
             submissionRepository.delete(submission);
 
             return SubmissionResponse.success("Submission deleted successfully", "SUBMISSION_DELETED");
@@ -237,7 +301,7 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
     public SubmissionResponse<List<SubmissionDto>> getStudentSubmissions(UUID studentId, UUID courseId) {
       try {
         // Verify enrollment 
-        boolean isEnrolled = enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId);
+        boolean isEnrolled = entitlementCache.isEnrolled(studentId, courseId, 1);
         if (!isEnrolled) {
             return SubmissionResponse.error("Student is not enrolled in the course");
         }
@@ -260,7 +324,7 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
         try  {
 
             // Verify enrollment 
-            boolean isEnrolled = enrollmentRepository.existsByCourseIdAndStudentId(courseId, studentId);
+            boolean isEnrolled = entitlementCache.isEnrolled(studentId, courseId, 1);
             if (!isEnrolled) {
                 return SubmissionResponse.error("Student is not enrolled in the course");
             }
@@ -331,6 +395,8 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
                 submissionRepository.save(submission);
             }
 
+            notificationHub.publishAfterCommit(studentId, gradeEvent(NotificationType.SUBMISSION_GRADED, submission, savedGrade));
+
             return SubmissionResponse.success("Submission graded successfully", savedGrade);
 
         } catch (Exception e) {
@@ -377,6 +443,10 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
                 submissionRepository.save(submission);
             }
 
+            AssignmentSubmission gradedSubmission = grade.getAssignmentSubmission();
+            notificationHub.publishAfterCommit(gradedSubmission.getStudent().getId(),
+                gradeEvent(NotificationType.GRADE_UPDATED, gradedSubmission, updatedGrade));
+
             return SubmissionResponse.success("Grade updated successfully", updatedGrade);
 
         }
@@ -414,6 +484,33 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
         }
     }
 
+    @Override
+    public SubmissionResponse<List<SubmissionDto>> getSubmissionsForAssignmentByLateness(UUID assignmentId,
+            boolean late, UUID instructorId) {
+         try {
+            // Get assignment and verify instructor ownership (instructorId from JWT token)
+            AssignmentsSchema assignment = assignmentRepo.findById(assignmentId)
+                .orElseThrow(() -> new SubmissionException("Assignment not found", "ASSIGNMENT_NOT_FOUND"));
+
+            UUID courseInstructorId = assignment.getModule().getCourse().getInstructor().getId();
+            if (!courseInstructorId.equals(instructorId)) {
+                return SubmissionResponse.error("Unauthorized: You can only view submissions from your assignments");
+            }
+
+            List<AssignmentSubmission> submissions = submissionRepository.findByAssignmentIdAndLate(assignmentId, late);
+            List<SubmissionDto> submissionDtos = submissions.stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+
+            return SubmissionResponse.success((late ? "Late" : "On-time") + " submissions retrieved successfully", submissionDtos);
+
+        } catch (SubmissionException e) {
+            return SubmissionResponse.error(e.getMessage());
+        } catch (Exception e) {
+            return SubmissionResponse.error("Failed to retrieve submissions: " + e.getMessage());
+        }
+    }
+
     @Override
     public SubmissionResponse<List<SubmissionDto>> getSubmissionsForCourse(UUID courseId, UUID instructorId) {
          try {
@@ -455,7 +552,7 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
             long totalSubmissions = submissionRepository.countByAssignmentId(assignmentInd);
             long gradedSubmissions = submissionRepository.countGradedByAssignmentId(assignmentInd);
             long ungradedSubmissions = totalSubmissions - gradedSubmissions;
-            long lateSubmissions = submissionRepository.countLateSubmissionsByAssignmentId(assignmentInd);
+            long lateSubmissions = submissionRepository.countByAssignmentIdAndLateTrue(assignmentInd);
             Double averageGrade = submissionRepository.getAverageGradeByAssignmentId(assignmentInd);
 
             SubmissionStatisticsDto stats = new SubmissionStatisticsDto();
@@ -463,6 +560,7 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
             stats.setGradedSubmissions(gradedSubmissions);
             stats.setUngradedSubmissions(ungradedSubmissions);
             stats.setLateSubmissions(lateSubmissions);
+            stats.setOnTimeSubmissions(totalSubmissions - lateSubmissions);
             stats.setAverageGrade(averageGrade);
 
             return SubmissionResponse.success("Statistics retrieved successfully", stats);
@@ -500,6 +598,47 @@ public class SubmitAssignmentServiceImpl implements SubmitAssignmentService {
         }
     }
 
+    @Override
+    public SubmissionResponse<SubmissionDto> getSubmissionStatus(UUID submissionId, UUID studentId) {
+        Optional<AssignmentSubmission> submission = submissionRepository.findById(submissionId);
+        if (!submission.isPresent()) {
+            return SubmissionResponse.error("Submission not found");
+        }
+        if (!submission.get().getStudent().getId().equals(studentId)) {
+            return SubmissionResponse.error("Unauthorized: You can only view your own submissions");
+        }
+        SubmissionDto dto = convertToDto(submission.get());
+        return SubmissionResponse.success("Submission status: " + dto.getStatus(), dto);
+    }
+
+    // Staged files are only referenced by the database, so they follow its outcome
+    private void discardOnRollback(String stagedUri) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    stagingStore.discard(stagedUri);
+                }
+            }
+        });
+    }
+
+    private void discardAfterCommit(String stagedUri) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stagingStore.discard(stagedUri);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stagingStore.discard(stagedUri);
+            }
+        });
+    }
+
     @Override
     public SubmissionResponse<SubmissionDto> getSubmissionById(UUID submissionId, UUID studentId) {
           try {
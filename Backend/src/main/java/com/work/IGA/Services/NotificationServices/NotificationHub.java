@@ -0,0 +1,287 @@
+package com.work.IGA.Services.NotificationServices;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Utils.NotificationUtils.NotificationEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-user fan-out of server-sent events.
+ *
+ * Idle streams are servlet async requests, so they hold a socket but no request thread and no
+ * database connection. Writes go through a small dispatch pool with a bounded queue so a slow
+ * client never blocks the request or worker thread that published the event. When the queue is
+ * full the event's stream is closed instead of the event being lost silently, and a stream whose
+ * write has been blocked for longer than the send timeout is closed too; either way the client
+ * reconnects and re-fetches. A periodic comment line keeps proxies from closing idle streams and
+ * detects dead clients.
+ *
+ * Events reach subscribers connected to this node; a client that reconnects should re-fetch once.
+ */
+@Service
+@Slf4j
+public class NotificationHub {
+
+    @Value("${notifications.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${notifications.max-streams-per-user:5}")
+    private int maxStreamsPerUser;
+
+    @Value("${notifications.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private final Map<UUID, List<SseEmitter>> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder disconnected = new LongAdder();
+
+    // Streams with writes in progress, since the System.nanoTime() the oldest one started at
+    private final Map<SseEmitter, Writes> sending = new ConcurrentHashMap<>();
+
+    private record Writes(long startedAt, int count) {
+    }
+
+    // Streams already dropped from streams whose completion waits for their write to return
+    private final Set<SseEmitter> closing = ConcurrentHashMap.newKeySet();
+
+    private final ThreadPoolExecutor dispatcher;
+    private final long sendTimeoutNanos;
+
+    public NotificationHub(@Value("${notifications.dispatch-threads:4}") int dispatchThreads,
+                           @Value("${notifications.dispatch-queue-capacity:1000}") int queueCapacity,
+                           @Value("${notifications.send-timeout-ms:10000}") long sendTimeoutMs,
+                           WorkerThreads workerThreads) {
+        this.dispatcher = new ThreadPoolExecutor(
+            dispatchThreads, dispatchThreads,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            workerThreads.numbered("notification-dispatch-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+    }
+
+    public SseEmitter subscribe(UUID userId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        // Many open tabs should not pin unbounded sockets, the oldest stream is closed first
+        List<SseEmitter> evicted = new ArrayList<>();
+        streams.compute(userId, (id, userStreams) -> {
+            List<SseEmitter> list = userStreams != null ? userStreams : new CopyOnWriteArrayList<>();
+            while (list.size() >= maxStreamsPerUser) {
+                evicted.add(list.remove(0));
+            }
+            list.add(emitter);
+            return list;
+        });
+        openStreams.addAndGet(1 - evicted.size());
+        evicted.forEach(this::close);
+
+        Runnable cleanup = () -> remove(userId, emitter);
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        try {
+            emitter.send(SseEmitter.event().name("connected").reconnectTime(reconnectDelayMs).data("ok"));
+        } catch (IOException ex) {
+            remove(userId, emitter);
+        }
+        return emitter;
+    }
+
+    /**
+     * Publishes once the surrounding transaction has committed, so a client never
+     * sees a grade that is then rolled back
+     */
+    public void publishAfterCommit(UUID userId, NotificationEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(userId, event);
+                }
+            });
+        } else {
+            publish(userId, event);
+        }
+    }
+
+    public void publish(UUID userId, NotificationEvent event) {
+        List<SseEmitter> userStreams = streams.get(userId);
+        if (userStreams == null || userStreams.isEmpty()) {
+            return;
+        }
+        for (SseEmitter emitter : userStreams) {
+            try {
+                dispatcher.execute(() -> send(userId, emitter, SseEmitter.event()
+                    .name(event.getType().name())
+                    .data(event, MediaType.APPLICATION_JSON)));
+            } catch (RejectedExecutionException ex) {
+                // The client would miss this event; closing the stream makes it reconnect and re-fetch
+                dropped.increment();
+                disconnect(userId, emitter, "dispatch queue full");
+            }
+        }
+    }
+
+    @Scheduled(fixedRateString = "${notifications.heartbeat-ms:25000}")
+    public void heartbeat() {
+        streams.forEach((userId, userStreams) -> {
+            for (SseEmitter emitter : userStreams) {
+                try {
+                    dispatcher.execute(() -> send(userId, emitter, SseEmitter.event().comment("heartbeat")));
+                } catch (RejectedExecutionException ex) {
+                    // A missed heartbeat loses nothing; the next one tries again
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops streams whose write has been blocked on a slow client for longer than the send timeout.
+     * The blocked write itself only returns at the connector's socket timeout and the stream is
+     * completed then, on its dispatch thread; its stream gets nothing more queued in the meantime.
+     */
+    @Scheduled(fixedDelayString = "${notifications.send-timeout-ms:10000}")
+    public void closeStalledStreams() {
+        long now = System.nanoTime();
+        sending.forEach((emitter, writes) -> {
+            if (now - writes.startedAt() > sendTimeoutNanos) {
+                streams.forEach((userId, userStreams) -> {
+                    if (userStreams.contains(emitter)) {
+                        disconnect(userId, emitter, "send timed out");
+                    }
+                });
+            }
+        });
+    }
+
+    private void send(UUID userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        // Registered before the membership check so close() either sees this write or it sees the close
+        long startedAt = System.nanoTime();
+        sending.compute(emitter, (key, writes) ->
+            writes == null ? new Writes(startedAt, 1) : new Writes(writes.startedAt(), writes.count() + 1));
+        try {
+            List<SseEmitter> userStreams = streams.get(userId);
+            if (userStreams == null || !userStreams.contains(emitter)) {
+                // Closed while this write was queued
+                return;
+            }
+            emitter.send(event);
+            delivered.increment();
+        } catch (Exception ex) {
+            // Client went away, the container will also call onError/onCompletion
+            dropped.increment();
+            remove(userId, emitter);
+            closing.remove(emitter);
+            complete(emitter, ex);
+        } finally {
+            sending.computeIfPresent(emitter, (key, writes) ->
+                writes.count() == 1 ? null : new Writes(writes.startedAt(), writes.count() - 1));
+            if (!sending.containsKey(emitter) && closing.remove(emitter)) {
+                complete(emitter, null);
+            }
+        }
+    }
+
+    private void disconnect(UUID userId, SseEmitter emitter, String reason) {
+        remove(userId, emitter);
+        disconnected.increment();
+        log.debug("Closing notification stream of user {}: {}", userId, reason);
+        close(emitter);
+    }
+
+    /**
+     * Completes a stream that is no longer in streams. Completing takes the emitter's write lock,
+     * so a stream with a write in progress is left to the thread doing the write, which completes
+     * it once the write returns; the scheduler and request threads never wait on a slow client.
+     */
+    private void close(SseEmitter emitter) {
+        closing.add(emitter);
+        if (!sending.containsKey(emitter) && closing.remove(emitter)) {
+            complete(emitter, null);
+        }
+    }
+
+    private static void complete(SseEmitter emitter, Exception error) {
+        try {
+            if (error != null) {
+                emitter.completeWithError(error);
+            } else {
+                emitter.complete();
+            }
+        } catch (IllegalStateException alreadyCompleted) {
+            // Nothing left to close
+        }
+    }
+
+    private void remove(UUID userId, SseEmitter emitter) {
+        streams.computeIfPresent(userId, (id, userStreams) -> {
+            if (userStreams.remove(emitter)) {
+                openStreams.decrementAndGet();
+            }
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    public int getOpenStreams() {
+        return openStreams.get();
+    }
+
+    public int getSubscribedUsers() {
+        return streams.size();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Streams closed because the dispatch queue was full or a write stalled
+     */
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+    public int getDispatchQueueDepth() {
+        return dispatcher.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        streams.values().forEach(userStreams -> userStreams.forEach(SseEmitter::complete));
+        dispatcher.shutdownNow();
+    }
+}
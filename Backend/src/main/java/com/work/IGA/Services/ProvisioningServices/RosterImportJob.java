@@ -0,0 +1,126 @@
+package com.work.IGA.Services.ProvisioningServices;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.work.IGA.Utils.ProvisioningUtils.RosterImportJobDto;
+import com.work.IGA.Utils.ProvisioningUtils.RosterImportStatus;
+import com.work.IGA.Utils.ProvisioningUtils.RosterRowError;
+
+/**
+ * Progress of one roster import. Written by the single import worker running the job
+ * and read by status requests, so counters are atomic and the lists are guarded by the job.
+ */
+final class RosterImportJob {
+
+    final UUID id = UUID.randomUUID();
+    final UUID courseId;
+    final String format;
+    final Path stagedFile;
+    final LocalDateTime queuedAt = LocalDateTime.now();
+
+    private final int maxReportedErrors;
+
+    final AtomicLong rowsRead = new AtomicLong();
+    final AtomicLong usersCreated = new AtomicLong();
+    final AtomicLong usersExisting = new AtomicLong();
+    final AtomicLong enrollmentsCreated = new AtomicLong();
+    final AtomicLong alreadyEnrolled = new AtomicLong();
+    final AtomicLong rejected = new AtomicLong();
+
+    private volatile RosterImportStatus status = RosterImportStatus.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String failureMessage;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    private final List<RosterRowError> errors = new ArrayList<>();
+    // email -> plain invite token, handed out once
+    private final Map<String, String> invites = new LinkedHashMap<>();
+
+    RosterImportJob(UUID courseId, String format, Path stagedFile, int maxReportedErrors) {
+        this.courseId = courseId;
+        this.format = format;
+        this.stagedFile = stagedFile;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    void markRunning() {
+        startedNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        status = RosterImportStatus.RUNNING;
+    }
+
+    void markFinished(String failure) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        failureMessage = failure;
+        status = failure == null ? RosterImportStatus.COMPLETED : RosterImportStatus.FAILED;
+    }
+
+    RosterImportStatus status() {
+        return status;
+    }
+
+    LocalDateTime finishedAt() {
+        return finishedAt;
+    }
+
+    void reject(long line, String email, String message) {
+        rejected.incrementAndGet();
+        synchronized (this) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new RosterRowError(line, email, message));
+            }
+        }
+    }
+
+    synchronized void addInvites(Map<String, String> created) {
+        invites.putAll(created);
+    }
+
+    synchronized Map<String, String> takeInvites() {
+        Map<String, String> taken = new LinkedHashMap<>(invites);
+        invites.clear();
+        return taken;
+    }
+
+    double rowsPerSecond() {
+        if (startedNanos == 0) {
+            return 0.0;
+        }
+        long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+        double seconds = Duration.ofNanos(end - startedNanos).toMillis() / 1000.0;
+        return seconds > 0 ? rowsRead.get() / seconds : 0.0;
+    }
+
+    synchronized RosterImportJobDto snapshot() {
+        return new RosterImportJobDto(
+            id,
+            courseId,
+            format,
+            status,
+            rowsRead.get(),
+            usersCreated.get(),
+            usersExisting.get(),
+            enrollmentsCreated.get(),
+            alreadyEnrolled.get(),
+            rejected.get(),
+            rowsPerSecond(),
+            invites.size(),
+            queuedAt,
+            startedAt,
+            finishedAt,
+            failureMessage,
+            List.copyOf(errors)
+        );
+    }
+}
@@ -0,0 +1,456 @@
+package com.work.IGA.Services.ProvisioningServices;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.work.IGA.Configuration.WorkerThreads;
+import com.work.IGA.Models.Courses.ProgressEnum;
+import com.work.IGA.Models.Users.Roles;
+import com.work.IGA.Repositories.CourseEnrollmentCounterRepository;
+import com.work.IGA.Repositories.CourseRepo;
+import com.work.IGA.Services.CourseServices.EntitlementCache;
+import com.work.IGA.Utils.ProvisioningUtils.ProvisioningException;
+import com.work.IGA.Utils.ProvisioningUtils.RosterEntry;
+import com.work.IGA.Utils.ProvisioningUtils.RosterImportJobDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provisions a course roster in bulk: student accounts are created for unknown emails
+ * and every listed student is enrolled, in chunks written with JDBC batches.
+ *
+ * The roster is staged to disk on the request thread and read back row by row by an
+ * import worker. New accounts get a random invite token as their initial password;
+ * the BCrypt hashes are computed on a separate pool before the chunk's transaction
+ * opens, so the slow part never holds a connection. Both inserts skip rows that already
+ * exist, which makes a failed or interrupted import safe to submit again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RosterImportService {
+
+    // Same shape as @Email accepts for ordinary addresses, without a full RFC parser
+    private static final Pattern EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private static final String INSERT_USER =
+        "INSERT INTO users (id, first_name, last_name, email, password, role) " +
+        "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (email) DO NOTHING";
+
+    // Per-row counts tell inserted from skipped; keep reWriteBatchedInserts off for this to hold
+    private static final String INSERT_ENROLLMENT =
+        "INSERT INTO enrollments (id, student_id, course_id, enrollment_date, progress) " +
+        "VALUES (?, ?, ?, ?, ?) ON CONFLICT (student_id, course_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final ObjectMapper objectMapper;
+    private final CourseRepo courseRepository;
+    private final CourseEnrollmentCounterRepository counterRepository;
+    private final EntitlementCache entitlementCache;
+    private final WorkerThreads workerThreads;
+
+    @Value("${provisioning.staging.dir}")
+    private String stagingDir;
+
+    @Value("${provisioning.import.workers:2}")
+    private int workers;
+
+    @Value("${provisioning.import.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${provisioning.import.batch-size:500}")
+    private int batchSize;
+
+    // 0 uses one thread per available processor
+    @Value("${provisioning.import.hash-threads:0}")
+    private int hashThreads;
+
+    @Value("${provisioning.import.max-roster-bytes:52428800}")
+    private long maxRosterBytes;
+
+    @Value("${provisioning.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    @Value("${provisioning.import.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final SecureRandom random = new SecureRandom();
+    private final Map<UUID, RosterImportJob> jobs = new ConcurrentHashMap<>();
+
+    private Path stagingRoot;
+    private ThreadPoolExecutor importExecutor;
+    private ExecutorService hashExecutor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        stagingRoot = Paths.get(stagingDir).toAbsolutePath().normalize();
+        Files.createDirectories(stagingRoot);
+        // Jobs live in memory only, so rosters staged before a restart have no job left to run them
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(stagingRoot, "*.roster")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+
+        importExecutor = new ThreadPoolExecutor(
+            workers, workers,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            workerThreads.numbered("roster-import-"),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        // Password hashing is CPU-bound and stays on platform threads
+        AtomicInteger hashThreadCount = new AtomicInteger();
+        int threads = hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors();
+        hashExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "roster-hash-" + hashThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Chunks already committed stay; resubmitting the roster finishes the rest
+        importExecutor.shutdownNow();
+        hashExecutor.shutdownNow();
+        importExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stages the roster and queues its import
+     * @param courseId The course every listed student is enrolled in
+     * @param format {@code csv} or {@code json}
+     * @param body The roster as sent by the client; read to the end and closed
+     * @return The queued job
+     */
+    public RosterImportJobDto submit(UUID courseId, String format, InputStream body) throws ProvisioningException {
+        if (!courseRepository.existsById(courseId)) {
+            throw new ProvisioningException("Course not found", ProvisioningException.COURSE_NOT_FOUND);
+        }
+
+        Path staged = stagingRoot.resolve(UUID.randomUUID() + ".roster");
+        try {
+            stage(body, staged);
+            // Fail on a bad CSV header or a non-array JSON body now rather than in the job
+            try (RosterReader ignored = RosterReader.open(staged, format, objectMapper)) {
+            }
+        } catch (ProvisioningException ex) {
+            deleteQuietly(staged);
+            throw ex;
+        } catch (IOException ex) {
+            deleteQuietly(staged);
+            throw new ProvisioningException("Invalid roster: " + ex.getMessage(), ProvisioningException.INVALID_ROSTER, ex);
+        }
+
+        RosterImportJob job = new RosterImportJob(courseId, format, staged, maxReportedErrors);
+        jobs.put(job.id, job);
+        try {
+            importExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException ex) {
+            jobs.remove(job.id);
+            deleteQuietly(staged);
+            throw new ProvisioningException("Too many roster imports queued, try again later", ProvisioningException.IMPORT_QUEUE_FULL);
+        }
+        log.info("Queued roster import {} for course {} ({})", job.id, courseId, format);
+        return job.snapshot();
+    }
+
+    public Optional<RosterImportJobDto> getJob(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(RosterImportJob::snapshot);
+    }
+
+    public List<RosterImportJobDto> listJobs() {
+        return jobs.values().stream()
+            .sorted(Comparator.comparing((RosterImportJob job) -> job.queuedAt).reversed())
+            .map(RosterImportJob::snapshot)
+            .toList();
+    }
+
+    /**
+     * Hands out the invite tokens created so far and forgets them; tokens are never stored in plain text
+     * @return email -> invite token, or empty when the job is unknown
+     */
+    public Optional<Map<String, String>> takeInvites(UUID jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(RosterImportJob::takeInvites);
+    }
+
+    @Scheduled(fixedDelayString = "${provisioning.import.sweep-interval-ms:300000}")
+    public void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.finishedAt() != null && job.finishedAt().isBefore(cutoff));
+    }
+
+    private void stage(InputStream body, Path target) throws IOException, ProvisioningException {
+        long total = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = body; OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxRosterBytes) {
+                    throw new ProvisioningException("Roster is larger than " + maxRosterBytes + " bytes", ProvisioningException.ROSTER_TOO_LARGE);
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        if (total == 0) {
+            throw new IOException("roster is empty");
+        }
+    }
+
+    private void run(RosterImportJob job) {
+        job.markRunning();
+        String failure = null;
+        try (RosterReader reader = RosterReader.open(job.stagedFile, job.format, objectMapper)) {
+            List<RosterEntry> chunk = new ArrayList<>(batchSize);
+            RosterEntry entry;
+            while ((entry = reader.next()) != null) {
+                job.rowsRead.incrementAndGet();
+                if (validate(job, entry)) {
+                    chunk.add(entry);
+                }
+                if (chunk.size() >= batchSize) {
+                    importChunk(job, chunk);
+                    chunk.clear();
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException("import interrupted by shutdown");
+                }
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(job, chunk);
+            }
+        } catch (Exception ex) {
+            failure = ex.getMessage() != null ? ex.getMessage() : ex.getClass().getSimpleName();
+            log.error("Roster import {} failed after {} rows: {}", job.id, job.rowsRead.get(), failure);
+        } finally {
+            job.markFinished(failure);
+            deleteQuietly(job.stagedFile);
+        }
+        log.info("Roster import {} for course {} {}: {} rows, {} users created, {} enrollments created, {} rejected, {} rows/s",
+            job.id, job.courseId, job.status(), job.rowsRead.get(), job.usersCreated.get(),
+            job.enrollmentsCreated.get(), job.rejected.get(), String.format("%.1f", job.rowsPerSecond()));
+    }
+
+    // Mirrors the constraints on UserSchema, which JDBC inserts do not go through
+    private boolean validate(RosterImportJob job, RosterEntry entry) {
+        entry.setEmail(trim(entry.getEmail()));
+        entry.setFirstName(trim(entry.getFirstName()));
+        entry.setLastName(trim(entry.getLastName()));
+
+        if (entry.getEmail() == null || entry.getEmail().length() > 255 || !EMAIL.matcher(entry.getEmail()).matches()) {
+            job.reject(entry.getLine(), entry.getEmail(), "Invalid email");
+            return false;
+        }
+        if (!validName(entry.getFirstName()) || !validName(entry.getLastName())) {
+            job.reject(entry.getLine(), entry.getEmail(), "First and last name must be 2 to 50 characters");
+            return false;
+        }
+        return true;
+    }
+
+    private void importChunk(RosterImportJob job, List<RosterEntry> chunk) {
+        Map<String, RosterEntry> byEmail = new LinkedHashMap<>();
+        for (RosterEntry entry : chunk) {
+            if (byEmail.putIfAbsent(entry.getEmail(), entry) != null) {
+                job.reject(entry.getLine(), entry.getEmail(), "Email listed more than once");
+            }
+        }
+
+        Map<String, AccountRef> existing = findAccounts(byEmail.keySet());
+        List<UUID> students = new ArrayList<>();
+        List<NewStudent> toCreate = new ArrayList<>();
+        for (RosterEntry entry : byEmail.values()) {
+            AccountRef account = existing.get(entry.getEmail());
+            if (account == null) {
+                toCreate.add(new NewStudent(UUID.randomUUID(), entry, newInviteToken()));
+            } else if (account.isStudent()) {
+                students.add(account.id());
+            } else {
+                job.reject(entry.getLine(), entry.getEmail(), "Account exists with role " + account.role());
+            }
+        }
+        job.usersExisting.addAndGet(students.size());
+
+        List<String> hashes = hashInviteTokens(toCreate);
+
+        ChunkResult result = transactionTemplate.execute(status -> writeChunk(job, students, toCreate, hashes));
+        if (result == null) {
+            return;
+        }
+        job.usersCreated.addAndGet(result.invites().size());
+        job.usersExisting.addAndGet(result.raced());
+        job.enrollmentsCreated.addAndGet(result.enrolled());
+        job.alreadyEnrolled.addAndGet(result.alreadyEnrolled());
+        job.addInvites(result.invites());
+        log.debug("Roster import {}: {} rows read, {} rows/s", job.id, job.rowsRead.get(), String.format("%.1f", job.rowsPerSecond()));
+    }
+
+    private ChunkResult writeChunk(RosterImportJob job, List<UUID> students, List<NewStudent> toCreate, List<String> hashes) {
+        List<UUID> toEnroll = new ArrayList<>(students);
+        Map<String, String> invites = new LinkedHashMap<>();
+        int raced = 0;
+
+        if (!toCreate.isEmpty()) {
+            List<Object[]> userRows = new ArrayList<>(toCreate.size());
+            for (int i = 0; i < toCreate.size(); i++) {
+                NewStudent student = toCreate.get(i);
+                userRows.add(new Object[] {
+                    student.id(), student.entry().getFirstName(), student.entry().getLastName(),
+                    student.entry().getEmail(), hashes.get(i), Roles.STUDENT.name()
+                });
+            }
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+
+            List<NewStudent> lost = new ArrayList<>();
+            for (int i = 0; i < toCreate.size(); i++) {
+                NewStudent student = toCreate.get(i);
+                if (inserted[i] > 0) {
+                    toEnroll.add(student.id());
+                    invites.put(student.entry().getEmail(), student.inviteToken());
+                } else {
+                    lost.add(student);
+                }
+            }
+
+            // Signed up on their own since the lookup; enroll the account that won
+            if (!lost.isEmpty()) {
+                Map<String, AccountRef> winners = findAccounts(lost.stream().map(s -> s.entry().getEmail()).toList());
+                for (NewStudent student : lost) {
+                    AccountRef account = winners.get(student.entry().getEmail());
+                    if (account != null && account.isStudent()) {
+                        toEnroll.add(account.id());
+                        raced++;
+                    } else {
+                        job.reject(student.entry().getLine(), student.entry().getEmail(), "Account was created concurrently and is not a student");
+                    }
+                }
+            }
+        }
+
+        if (toEnroll.isEmpty()) {
+            return new ChunkResult(invites, raced, 0, 0);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> enrollmentRows = new ArrayList<>(toEnroll.size());
+        for (UUID studentId : toEnroll) {
+            enrollmentRows.add(new Object[] { UUID.randomUUID(), studentId, job.courseId, now, ProgressEnum.NOT_STARTED.name() });
+        }
+        int[] enrolledCounts = jdbcTemplate.batchUpdate(INSERT_ENROLLMENT, enrollmentRows);
+
+        int enrolled = 0;
+        for (int i = 0; i < toEnroll.size(); i++) {
+            if (enrolledCounts[i] > 0) {
+                enrolled++;
+                entitlementCache.grantEnrolledAfterCommit(toEnroll.get(i), job.courseId);
+            }
+        }
+        if (enrolled > 0) {
+            counterRepository.addDeltas(job.courseId, enrolled, enrolled, 0, 0, now);
+        }
+        return new ChunkResult(invites, raced, enrolled, toEnroll.size() - enrolled);
+    }
+
+    private Map<String, AccountRef> findAccounts(Collection<String> emails) {
+        Map<String, AccountRef> found = new HashMap<>();
+        if (emails.isEmpty()) {
+            return found;
+        }
+        jdbcTemplate.query(
+            "SELECT id, email, role FROM users WHERE email = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", emails.toArray())),
+            rs -> {
+                found.put(rs.getString("email"), new AccountRef(rs.getObject("id", UUID.class), rs.getString("role")));
+            }
+        );
+        return found;
+    }
+
+    private List<String> hashInviteTokens(List<NewStudent> students) {
+        List<CompletableFuture<String>> hashes = students.stream()
+            .map(student -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(student.inviteToken()), hashExecutor))
+            .toList();
+        return hashes.stream().map(CompletableFuture::join).toList();
+    }
+
+    private String newInviteToken() {
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static boolean validName(String name) {
+        return name != null && name.length() >= 2 && name.length() <= 50;
+    }
+
+    private static String trim(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete staged roster {}: {}", file, ex.getMessage());
+        }
+    }
+
+    private record AccountRef(UUID id, String role) {
+        boolean isStudent() {
+            return Roles.STUDENT.name().equals(role);
+        }
+    }
+
+    private record NewStudent(UUID id, RosterEntry entry, String inviteToken) {
+    }
+
+    private record ChunkResult(Map<String, String> invites, int raced, int enrolled, int alreadyEnrolled) {
+    }
+}
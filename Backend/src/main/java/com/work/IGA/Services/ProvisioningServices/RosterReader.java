@@ -0,0 +1,162 @@
+package com.work.IGA.Services.ProvisioningServices;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.work.IGA.Utils.ProvisioningUtils.RosterEntry;
+
+/**
+ * Reads a staged roster one entry at a time, so memory does not grow with the file.
+ *
+ * CSV needs a header row naming email, first name and last name columns (any order,
+ * case and separators ignored); quoted fields are supported but may not span lines.
+ * JSON is a top-level array of objects with email, firstName and lastName.
+ */
+final class RosterReader implements Closeable {
+
+    static final String CSV = "csv";
+    static final String JSON = "json";
+
+    private final BufferedReader csv;
+    private final JsonParser json;
+    private final ObjectMapper objectMapper;
+
+    private int emailColumn = -1;
+    private int firstNameColumn = -1;
+    private int lastNameColumn = -1;
+    private long line;
+
+    private RosterReader(BufferedReader csv, JsonParser json, ObjectMapper objectMapper) {
+        this.csv = csv;
+        this.json = json;
+        this.objectMapper = objectMapper;
+    }
+
+    static RosterReader open(Path file, String format, ObjectMapper objectMapper) throws IOException {
+        if (CSV.equals(format)) {
+            RosterReader reader = new RosterReader(Files.newBufferedReader(file, StandardCharsets.UTF_8), null, null);
+            reader.readHeader();
+            return reader;
+        }
+        JsonParser parser = objectMapper.getFactory().createParser(file.toFile());
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("JSON roster must be an array of objects");
+        }
+        return new RosterReader(null, parser, objectMapper);
+    }
+
+    /**
+     * @return The next entry, or null at the end of the roster. A CSV line with a
+     *         missing column comes back with the missing fields null.
+     */
+    RosterEntry next() throws IOException {
+        return csv != null ? nextCsv() : nextJson();
+    }
+
+    private void readHeader() throws IOException {
+        String header = readNonBlankLine();
+        if (header == null) {
+            throw new IOException("CSV roster is empty");
+        }
+        List<String> columns = splitCsvLine(stripBom(header));
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "")) {
+                case "email", "emailaddress" -> emailColumn = i;
+                case "firstname", "givenname" -> firstNameColumn = i;
+                case "lastname", "surname", "familyname" -> lastNameColumn = i;
+                default -> { }
+            }
+        }
+        if (emailColumn < 0 || firstNameColumn < 0 || lastNameColumn < 0) {
+            throw new IOException("CSV header must contain email, first name and last name columns");
+        }
+    }
+
+    private RosterEntry nextCsv() throws IOException {
+        String row = readNonBlankLine();
+        if (row == null) {
+            return null;
+        }
+        List<String> fields = splitCsvLine(row);
+        return new RosterEntry(field(fields, emailColumn), field(fields, firstNameColumn), field(fields, lastNameColumn), line);
+    }
+
+    private RosterEntry nextJson() throws IOException {
+        JsonToken token = json.nextToken();
+        if (token == JsonToken.END_ARRAY || token == null) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("JSON roster entry " + (line + 1) + " is not an object");
+        }
+        RosterEntry entry = objectMapper.readValue(json, RosterEntry.class);
+        entry.setLine(++line);
+        return entry;
+    }
+
+    private String readNonBlankLine() throws IOException {
+        String row;
+        do {
+            row = csv.readLine();
+            line++;
+        } while (row != null && row.isBlank());
+        return row;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static String stripBom(String header) {
+        return header.startsWith("\uFEFF") ? header.substring(1) : header;
+    }
+
+    static List<String> splitCsvLine(String row) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < row.length(); i++) {
+            char c = row.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < row.length() && row.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString().trim());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString().trim());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (csv != null) {
+            csv.close();
+        }
+        if (json != null) {
+            json.close();
+        }
+    }
+}
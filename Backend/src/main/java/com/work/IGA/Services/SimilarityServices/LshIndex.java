@@ -0,0 +1,124 @@
+package com.work.IGA.Services.SimilarityServices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Locality-sensitive hashing over MinHash signatures.
+ *
+ * The signature is cut into {@code bands} bands of {@code rows} slots. Two documents become a
+ * candidate pair when all rows of at least one band agree, which happens with probability
+ * 1 - (1 - s^rows)^bands for Jaccard similarity s. Candidate generation is therefore linear in
+ * the number of documents plus the number of colliding pairs, instead of comparing every pair.
+ * Adding is not thread-safe; once built, queries only read and may run concurrently.
+ */
+public class LshIndex<K> {
+
+    public record SimilarPair<K>(K first, K second, double similarity) {
+    }
+
+    private final int bands;
+    private final int rows;
+    private final int maxBucketSize;
+    private final List<K> keys = new ArrayList<>();
+    private final List<int[]> signatures = new ArrayList<>();
+    private final Map<Long, int[]> buckets = new HashMap<>();
+    private final Map<Long, Integer> bucketSizes = new HashMap<>();
+
+    /**
+     * @param maxBucketSize Buckets larger than this (e.g. hundreds of identical template files)
+     *                      are skipped to keep the pair count bounded; see {@link #oversizedBuckets()}
+     */
+    public LshIndex(int bands, int rows, int maxBucketSize) {
+        this.bands = bands;
+        this.rows = rows;
+        this.maxBucketSize = maxBucketSize;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public void add(K key, int[] signature) {
+        if (signature.length < bands * rows) {
+            throw new IllegalArgumentException("Signature has " + signature.length + " slots, index needs " + bands * rows);
+        }
+        int index = keys.size();
+        keys.add(key);
+        signatures.add(signature);
+        for (int band = 0; band < bands; band++) {
+            long bucket = bucketKey(signature, band);
+            int size = bucketSizes.getOrDefault(bucket, 0);
+            int[] members = buckets.get(bucket);
+            if (members == null) {
+                members = new int[2];
+            } else if (size == members.length) {
+                members = Arrays.copyOf(members, size * 2);
+            }
+            members[size] = index;
+            buckets.put(bucket, members);
+            bucketSizes.put(bucket, size + 1);
+        }
+    }
+
+    /**
+     * Candidate pairs that are confirmed by the full signature to reach {@code minSimilarity}
+     */
+    public List<SimilarPair<K>> similarPairs(double minSimilarity) {
+        Set<Long> seen = new HashSet<>();
+        List<SimilarPair<K>> pairs = new ArrayList<>();
+
+        for (Map.Entry<Long, int[]> bucket : buckets.entrySet()) {
+            int size = bucketSizes.get(bucket.getKey());
+            if (size < 2) {
+                continue;
+            }
+            if (size > maxBucketSize) {
+                continue;
+            }
+            int[] members = bucket.getValue();
+            for (int i = 0; i < size; i++) {
+                for (int j = i + 1; j < size; j++) {
+                    int a = Math.min(members[i], members[j]);
+                    int b = Math.max(members[i], members[j]);
+                    if (!seen.add(((long) a << 32) | b)) {
+                        continue;
+                    }
+                    double similarity = MinHasher.estimateSimilarity(signatures.get(a), signatures.get(b));
+                    if (similarity >= minSimilarity) {
+                        pairs.add(new SimilarPair<>(keys.get(a), keys.get(b), similarity));
+                    }
+                }
+            }
+        }
+        pairs.sort((x, y) -> Double.compare(y.similarity(), x.similarity()));
+        return pairs;
+    }
+
+    /**
+     * Number of buckets that {@link #similarPairs(double)} skips for being larger than maxBucketSize
+     */
+    public int oversizedBuckets() {
+        int oversized = 0;
+        for (int size : bucketSizes.values()) {
+            if (size > maxBucketSize) {
+                oversized++;
+            }
+        }
+        return oversized;
+    }
+
+    private long bucketKey(int[] signature, int band) {
+        long h = (band + 1) * 0x9e3779b97f4a7c15L;
+        int offset = band * rows;
+        for (int r = 0; r < rows; r++) {
+            h = (h ^ signature[offset + r]) * 0x100000001b3L;
+        }
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,136 @@
+package com.work.IGA.Services.SimilarityServices;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Word-shingle MinHash signatures.
+ *
+ * Content is split into words (ASCII letters/digits, plus any non-ASCII byte so UTF-8 text keeps
+ * its words), lower-cased, and every run of {@code shingleSize} consecutive words becomes one
+ * 64-bit shingle. Each of the {@code numHashes} slots keeps the minimum of an independent
+ * multiply-shift hash over all shingles, so two signatures agree in a slot with probability equal
+ * to the Jaccard similarity of the shingle sets.
+ */
+public class MinHasher {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final int numHashes;
+    private final int shingleSize;
+    private final long[] multipliers;
+    private final long[] increments;
+
+    public MinHasher(int numHashes, int shingleSize, long seed) {
+        if (numHashes <= 0 || shingleSize <= 0) {
+            throw new IllegalArgumentException("numHashes and shingleSize must be positive");
+        }
+        this.numHashes = numHashes;
+        this.shingleSize = shingleSize;
+        this.multipliers = new long[numHashes];
+        this.increments = new long[numHashes];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = 0; i < numHashes; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            increments[i] = random.nextLong();
+        }
+    }
+
+    public int numHashes() {
+        return numHashes;
+    }
+
+    /**
+     * @return Signature of the content, or null when it contains no words at all
+     */
+    public int[] signature(byte[] content) {
+        long[] shingles = shingles(content);
+        return shingles.length == 0 ? null : signature(shingles, shingles.length);
+    }
+
+    public int[] signature(long[] shingles, int count) {
+        int[] signature = new int[numHashes];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int s = 0; s < count; s++) {
+            long shingle = shingles[s];
+            for (int i = 0; i < numHashes; i++) {
+                int h = (int) ((multipliers[i] * shingle + increments[i]) >>> 33);
+                if (h < signature[i]) {
+                    signature[i] = h;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Hashes of every window of {@code shingleSize} consecutive words. Documents shorter than
+     * one window yield a single shingle over all their words.
+     */
+    public long[] shingles(byte[] content) {
+        long[] words = new long[Math.max(16, content.length / 6)];
+        int wordCount = 0;
+        long hash = FNV_OFFSET;
+        boolean inWord = false;
+
+        for (byte raw : content) {
+            int c = raw & 0xff;
+            boolean wordChar = (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || (c >= 'A' && c <= 'Z') || c >= 0x80;
+            if (wordChar) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                hash = (hash ^ c) * FNV_PRIME;
+                inWord = true;
+            } else if (inWord) {
+                if (wordCount == words.length) {
+                    words = Arrays.copyOf(words, wordCount * 2);
+                }
+                words[wordCount++] = hash;
+                hash = FNV_OFFSET;
+                inWord = false;
+            }
+        }
+        if (inWord) {
+            if (wordCount == words.length) {
+                words = Arrays.copyOf(words, wordCount + 1);
+            }
+            words[wordCount++] = hash;
+        }
+
+        if (wordCount == 0) {
+            return new long[0];
+        }
+        int window = Math.min(shingleSize, wordCount);
+        long[] shingles = new long[wordCount - window + 1];
+        for (int start = 0; start < shingles.length; start++) {
+            long shingle = FNV_OFFSET;
+            for (int w = start; w < start + window; w++) {
+                shingle = (shingle ^ words[w]) * FNV_PRIME;
+            }
+            shingles[start] = mix(shingle);
+        }
+        return shingles;
+    }
+
+    /**
+     * Estimated Jaccard similarity: share of signature slots that agree
+     */
+    public static double estimateSimilarity(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    // Final avalanche step (from SplitMix64) so similar word sequences do not give correlated shingles
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,206 @@
+package com.work.IGA.Services.SimilarityServices;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.work.IGA.Models.Courses.AssignmentSubmission;
+import com.work.IGA.Models.Courses.AssignmentsSchema;
+import com.work.IGA.Models.Courses.SubmissionFingerprint;
+import com.work.IGA.Repositories.AssignmentRepo;
+import com.work.IGA.Repositories.AssignmentSubmissionRepository;
+import com.work.IGA.Repositories.SubmissionFingerprintRepository;
+import com.work.IGA.Utils.SimilarityUtils.SimilarPairDto;
+import com.work.IGA.Utils.SimilarityUtils.SimilarityReportDto;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionException;
+import com.work.IGA.Utils.SubmitionAssignmentUtils.SubmissionResponse;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Near-duplicate detection for submissions.
+ *
+ * The ingestion workers fingerprint the text of each file while it is still staged locally; the signatures are
+ * stored so any node can answer a report. Reports use an LSH index per assignment that is cached and
+ * rebuilt only when the assignment's fingerprints changed, so an instructor gets candidate pairs
+ * without comparing every pair of the cohort.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SubmissionSimilarityService {
+
+    private final SubmissionFingerprintRepository fingerprintRepository;
+    private final AssignmentSubmissionRepository submissionRepository;
+    private final AssignmentRepo assignmentRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final SubmissionTextExtractor textExtractor;
+
+    @Value("${similarity.minhash.hashes:128}")
+    private int numHashes;
+
+    @Value("${similarity.minhash.shingle-size:5}")
+    private int shingleSize;
+
+    @Value("${similarity.lsh.bands:32}")
+    private int bands;
+
+    @Value("${similarity.lsh.max-bucket-size:500}")
+    private int maxBucketSize;
+
+    // Same seed on every node, signatures written by one node must compare with another's
+    @Value("${similarity.minhash.seed:20250101}")
+    private long seed;
+
+    private MinHasher minHasher;
+
+    private final Map<UUID, CachedIndex> indexes = new ConcurrentHashMap<>();
+
+    private record CachedIndex(long count, LocalDateTime latest, LshIndex<UUID> index) {
+    }
+
+    @PostConstruct
+    public void init() {
+        if (numHashes % bands != 0) {
+            throw new IllegalStateException("similarity.minhash.hashes must be a multiple of similarity.lsh.bands");
+        }
+        minHasher = new MinHasher(numHashes, shingleSize, seed);
+    }
+
+    /**
+     * Fingerprints the text of a staged submission file, replacing any earlier fingerprint of the
+     * submission. Files whose text cannot be extracted keep no fingerprint.
+     */
+    public void fingerprint(UUID submissionId, UUID assignmentId, Path file, String fileName, String contentType)
+            throws IOException {
+        String text = textExtractor.extract(submissionId, file, fileName, contentType);
+        if (text == null) {
+            return;
+        }
+        long[] shingles = minHasher.shingles(text.getBytes(StandardCharsets.UTF_8));
+        if (shingles.length == 0) {
+            log.debug("Submission {} has no text to fingerprint", submissionId);
+            return;
+        }
+        int[] signature = minHasher.signature(shingles, shingles.length);
+
+        SubmissionFingerprint fingerprint = new SubmissionFingerprint();
+        fingerprint.setSubmissionId(submissionId);
+        fingerprint.setAssignmentId(assignmentId);
+        fingerprint.setSignature(toBytes(signature));
+        fingerprint.setShingleCount(shingles.length);
+        fingerprint.setFingerprintedAt(LocalDateTime.now());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            fingerprintRepository.deleteBySubmissionId(submissionId);
+            fingerprintRepository.save(fingerprint);
+        });
+        indexes.remove(assignmentId);
+    }
+
+    @Transactional(readOnly = true)
+    public SubmissionResponse<SimilarityReportDto> getSimilarityReport(UUID assignmentId, double minSimilarity, UUID instructorId) {
+        try {
+            long start = System.currentTimeMillis();
+
+            // Get assignment and verify instructor ownership (instructorId from JWT token)
+            AssignmentsSchema assignment = assignmentRepo.findById(assignmentId)
+                .orElseThrow(() -> new SubmissionException("Assignment not found", "ASSIGNMENT_NOT_FOUND"));
+            UUID courseInstructorId = assignment.getModule().getCourse().getInstructor().getId();
+            if (!courseInstructorId.equals(instructorId)) {
+                return SubmissionResponse.error("Unauthorized: You can only view reports for your assignments");
+            }
+
+            LshIndex<UUID> index = indexFor(assignmentId);
+            List<LshIndex.SimilarPair<UUID>> pairs = index.similarPairs(minSimilarity);
+
+            // Only the submissions that appear in a pair need their student names loaded
+            List<UUID> involved = pairs.stream()
+                .flatMap(pair -> Stream.of(pair.first(), pair.second()))
+                .distinct()
+                .collect(Collectors.toList());
+            Map<UUID, AssignmentSubmission> submissions = submissionRepository.findAllById(involved).stream()
+                .collect(Collectors.toMap(AssignmentSubmission::getId, Function.identity()));
+
+            List<SimilarPairDto> pairDtos = pairs.stream()
+                .filter(pair -> submissions.containsKey(pair.first()) && submissions.containsKey(pair.second()))
+                .map(pair -> new SimilarPairDto(
+                    pair.first(),
+                    studentName(submissions.get(pair.first())),
+                    pair.second(),
+                    studentName(submissions.get(pair.second())),
+                    pair.similarity()))
+                .collect(Collectors.toList());
+
+            SimilarityReportDto report = new SimilarityReportDto(
+                assignmentId,
+                submissionRepository.countByAssignmentId(assignmentId),
+                index.size(),
+                minSimilarity,
+                index.oversizedBuckets(),
+                System.currentTimeMillis() - start,
+                pairDtos
+            );
+            return SubmissionResponse.success("Found " + pairDtos.size() + " similar submission pairs", report);
+
+        } catch (SubmissionException e) {
+            return SubmissionResponse.error(e.getMessage());
+        } catch (Exception e) {
+            return SubmissionResponse.error("Failed to build similarity report: " + e.getMessage());
+        }
+    }
+
+    private LshIndex<UUID> indexFor(UUID assignmentId) {
+        long count = fingerprintRepository.countByAssignmentId(assignmentId);
+        LocalDateTime latest = fingerprintRepository.findLatestFingerprintedAt(assignmentId);
+
+        CachedIndex cached = indexes.get(assignmentId);
+        if (cached != null && cached.count() == count && Objects.equals(cached.latest(), latest)) {
+            return cached.index();
+        }
+
+        // Index is only read after it is built, never mutated afterwards
+        LshIndex<UUID> index = new LshIndex<>(bands, numHashes / bands, maxBucketSize);
+        for (SubmissionFingerprint fingerprint : fingerprintRepository.findByAssignmentId(assignmentId)) {
+            int[] signature = toInts(fingerprint.getSignature());
+            if (signature.length == numHashes) {
+                index.add(fingerprint.getSubmissionId(), signature);
+            }
+        }
+        indexes.put(assignmentId, new CachedIndex(count, latest, index));
+        return index;
+    }
+
+    private static String studentName(AssignmentSubmission submission) {
+        return submission.getStudent().getFirstName() + " " + submission.getStudent().getLastName();
+    }
+
+    private static byte[] toBytes(int[] signature) {
+        ByteBuffer buffer = ByteBuffer.allocate(signature.length * Integer.BYTES);
+        buffer.asIntBuffer().put(signature);
+        return buffer.array();
+    }
+
+    private static int[] toInts(byte[] bytes) {
+        int[] signature = new int[bytes.length / Integer.BYTES];
+        ByteBuffer.wrap(bytes).asIntBuffer().get(signature);
+        return signature;
+    }
+}
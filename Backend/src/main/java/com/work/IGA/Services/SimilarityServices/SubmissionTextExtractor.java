@@ -0,0 +1,110 @@
+package com.work.IGA.Services.SimilarityServices;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.UUID;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.poi.hwpf.HWPFDocument;
+import org.apache.poi.hwpf.extractor.WordExtractor;
+import org.apache.poi.xwpf.extractor.XWPFWordExtractor;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pulls the text out of a submitted file so fingerprints compare what students wrote rather than
+ * the bytes of a compressed container; re-saving the same text then gives the same shingles.
+ * PDF, Word (.docx and .doc) and plain text are read. Archives and anything else are skipped with
+ * the reason logged, as are files over max-file-bytes. Text beyond max-text-chars is ignored.
+ */
+@Component
+@Slf4j
+public class SubmissionTextExtractor {
+
+    private enum Format { PDF, DOCX, DOC, TEXT }
+
+    @Value("${similarity.extract.max-file-bytes:10485760}")
+    private long maxFileBytes;
+
+    @Value("${similarity.extract.max-text-chars:1000000}")
+    private int maxTextChars;
+
+    /**
+     * @return The file's text, or null when it cannot be fingerprinted
+     */
+    public String extract(UUID submissionId, Path file, String fileName, String contentType) throws IOException {
+        Format format = formatOf(fileName, contentType);
+        if (format == null) {
+            log.info("Not fingerprinting submission {}: no text extraction for {} ({})", submissionId, fileName, contentType);
+            return null;
+        }
+        long size = Files.size(file);
+        if (size > maxFileBytes) {
+            log.info("Not fingerprinting submission {}: {} bytes is over the {} byte limit", submissionId, size, maxFileBytes);
+            return null;
+        }
+
+        String text;
+        switch (format) {
+            case PDF -> {
+                try (PDDocument document = Loader.loadPDF(file.toFile())) {
+                    if (document.isEncrypted()) {
+                        log.info("Not fingerprinting submission {}: the PDF is encrypted", submissionId);
+                        return null;
+                    }
+                    text = new PDFTextStripper().getText(document);
+                }
+            }
+            case DOCX -> {
+                try (InputStream in = Files.newInputStream(file);
+                     XWPFWordExtractor extractor = new XWPFWordExtractor(new XWPFDocument(in))) {
+                    text = extractor.getText();
+                }
+            }
+            case DOC -> {
+                try (InputStream in = Files.newInputStream(file);
+                     WordExtractor extractor = new WordExtractor(new HWPFDocument(in))) {
+                    text = extractor.getText();
+                }
+            }
+            default -> text = Files.readString(file, StandardCharsets.UTF_8);
+        }
+        return text.length() > maxTextChars ? text.substring(0, maxTextChars) : text;
+    }
+
+    // The extension decides, the browser-supplied content type is only a fallback
+    private static Format formatOf(String fileName, String contentType) {
+        String name = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+        if (name.endsWith(".pdf")) {
+            return Format.PDF;
+        }
+        if (name.endsWith(".docx")) {
+            return Format.DOCX;
+        }
+        if (name.endsWith(".doc")) {
+            return Format.DOC;
+        }
+        if (name.endsWith(".txt")) {
+            return Format.TEXT;
+        }
+        if (contentType == null) {
+            return null;
+        }
+        return switch (contentType.toLowerCase(Locale.ROOT)) {
+            case "application/pdf" -> Format.PDF;
+            case "application/vnd.openxmlformats-officedocument.wordprocessingml.document" -> Format.DOCX;
+            case "application/msword" -> Format.DOC;
+            case "text/plain" -> Format.TEXT;
+            default -> null;
+        };
+    }
+}
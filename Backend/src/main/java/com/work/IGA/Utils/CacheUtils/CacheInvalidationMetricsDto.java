@@ -0,0 +1,32 @@
+package com.work.IGA.Utils.CacheUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheInvalidationMetricsDto {
+    private boolean enabled;
+    // Whether the LISTEN connection is up
+    private boolean listening;
+    private List<String> topics;
+    // One notification per committed transaction, however many keys it changed
+    private long notificationsSent;
+    private long keysPublished;
+    // Batches too large for one notification, sent as "invalidate the whole topic"
+    private long oversizedBatches;
+    private long notificationsReceived;
+    private long keysReceived;
+    // Sequence numbers of another instance that never arrived within the grace period
+    private long gapsDetected;
+    private long fullRefreshes;
+    private long reconnects;
+    private long subscriberErrors;
+    private int trackedSenders;
+    private LocalDateTime lastNotificationAt;
+}
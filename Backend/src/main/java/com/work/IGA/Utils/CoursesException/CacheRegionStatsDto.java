@@ -0,0 +1,18 @@
+package com.work.IGA.Utils.CoursesException;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CacheRegionStatsDto {
+    private String region;
+    // Entries currently held, estimated by Caffeine
+    private long size;
+    private long hits;
+    private long misses;
+    private long puts;
+    private double hitRatio;
+}
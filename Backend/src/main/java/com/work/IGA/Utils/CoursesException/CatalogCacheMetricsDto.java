@@ -0,0 +1,20 @@
+package com.work.IGA.Utils.CoursesException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CatalogCacheMetricsDto {
+    // Catalog rows changed by other instances and evicted here (counted again on re-delivery)
+    private long remoteInvalidations;
+    // Whole-catalog evictions after the invalidation bus may have missed changes
+    private long fullEvictions;
+    private LocalDateTime lastRemoteInvalidationAt;
+    private List<CacheRegionStatsDto> regions;
+}
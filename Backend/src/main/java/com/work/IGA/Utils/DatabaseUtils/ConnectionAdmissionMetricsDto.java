@@ -0,0 +1,22 @@
+package com.work.IGA.Utils.DatabaseUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConnectionAdmissionMetricsDto {
+    private int maxConnections;
+    private int maxWaiting;
+    private int inUse;
+    private int waiting;
+    private long admitted;
+    // Requests that found every connection in use and waited for one
+    private long queued;
+    // Refused at once because max-waiting requests were already queued
+    private long rejected;
+    private long timedOut;
+    private double meanWaitMillis;
+}
@@ -0,0 +1,24 @@
+package com.work.IGA.Utils.DatabaseUtils;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReplicaRoutingMetricsDto {
+    private int replicas;
+    private int eligibleReplicas;
+    private long maxLagMillis;
+    // Read-only transactions served by a replica
+    private long replicaReads;
+    // Read-only transactions kept on the primary because the thread or user wrote recently
+    private long pinnedReads;
+    // Read-only transactions sent to the primary because no replica was eligible or reachable
+    private long fallbackReads;
+    private long primaryConnections;
+    private List<ReplicaStatusDto> replicaStatus;
+}
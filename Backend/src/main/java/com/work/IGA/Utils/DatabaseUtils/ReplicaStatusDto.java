@@ -0,0 +1,24 @@
+package com.work.IGA.Utils.DatabaseUtils;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReplicaStatusDto {
+    private String pool;
+    // Reachable, replaying the primary's WAL and within the lag limits
+    private boolean eligible;
+    private boolean reachable;
+    private long lagMillis;
+    private long lagBytes;
+    private int activeConnections;
+    private int idleConnections;
+    private long reads;
+    private String lastError;
+    private LocalDateTime lastCheckedAt;
+}
@@ -0,0 +1,7 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+/**
+ * Counter row of one course joined with its name
+ */
+public record CourseEnrollmentCounts(String courseName, Long total, Long inProgress, Long completed) {
+}
@@ -0,0 +1,91 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Immutable set of course ids stored as a sorted array of (msb, lsb) pairs.
+ * 16 bytes per course instead of a HashSet node and a UUID object, and lookups are
+ * a binary search; students hold only a handful of courses, so copy-on-add is cheap.
+ */
+public final class CourseIdSet {
+
+    public static final CourseIdSet EMPTY = new CourseIdSet(new long[0]);
+
+    private final long[] bits;
+
+    private CourseIdSet(long[] bits) {
+        this.bits = bits;
+    }
+
+    public static CourseIdSet of(Collection<UUID> courseIds) {
+        long[][] pairs = courseIds.stream()
+            .distinct()
+            .map(id -> new long[] {id.getMostSignificantBits(), id.getLeastSignificantBits()})
+            .sorted(CourseIdSet::compare)
+            .toArray(long[][]::new);
+        long[] bits = new long[pairs.length * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            bits[2 * i] = pairs[i][0];
+            bits[2 * i + 1] = pairs[i][1];
+        }
+        return bits.length == 0 ? EMPTY : new CourseIdSet(bits);
+    }
+
+    public boolean contains(UUID courseId) {
+        return indexOf(courseId.getMostSignificantBits(), courseId.getLeastSignificantBits()) >= 0;
+    }
+
+    public CourseIdSet with(UUID courseId) {
+        long msb = courseId.getMostSignificantBits();
+        long lsb = courseId.getLeastSignificantBits();
+        int index = indexOf(msb, lsb);
+        if (index >= 0) {
+            return this;
+        }
+        int insertAt = -(index + 1);
+        long[] grown = new long[bits.length + 2];
+        System.arraycopy(bits, 0, grown, 0, insertAt * 2);
+        grown[insertAt * 2] = msb;
+        grown[insertAt * 2 + 1] = lsb;
+        System.arraycopy(bits, insertAt * 2, grown, insertAt * 2 + 2, bits.length - insertAt * 2);
+        return new CourseIdSet(grown);
+    }
+
+    public int size() {
+        return bits.length / 2;
+    }
+
+    // Binary search over pairs; returns -(insertion point) - 1 when absent
+    private int indexOf(long msb, long lsb) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(bits[2 * mid], bits[2 * mid + 1], msb, lsb);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int compare(long[] a, long[] b) {
+        return compare(a[0], a[1], b[0], b[1]);
+    }
+
+    private static int compare(long msbA, long lsbA, long msbB, long lsbB) {
+        int cmp = Long.compare(msbA, msbB);
+        return cmp != 0 ? cmp : Long.compare(lsbA, lsbB);
+    }
+
+    @Override
+    public String toString() {
+        return "CourseIdSet" + Arrays.toString(bits);
+    }
+}
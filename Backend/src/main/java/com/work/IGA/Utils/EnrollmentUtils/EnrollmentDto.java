@@ -26,6 +26,7 @@ public class EnrollmentDto {
     private String studentEmail;
     private LocalDateTime enrollmentDate;
     private ProgressEnum progress;
+    private Integer completionPercent;
     private double coursePrice;
     private String courseImageUrl;
     private int courseDurationInHours;
@@ -35,6 +36,7 @@ public class EnrollmentDto {
         this.id = enrollment.getId();
         this.enrollmentDate = enrollment.getEnrollmentDate();
         this.progress = ProgressEnum.valueOf(enrollment.getProgress());
+        this.completionPercent = enrollment.getCompletionPercent() != null ? enrollment.getCompletionPercent() : 0;
         
         if (enrollment.getCourse() != null) {
             this.courseId = enrollment.getCourse().getId();
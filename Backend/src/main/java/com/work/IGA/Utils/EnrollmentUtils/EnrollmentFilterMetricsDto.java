@@ -0,0 +1,36 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentFilterMetricsDto {
+    private boolean ready;
+    private long bits;
+    private long memoryBytes;
+    private long memoryBudgetBytes;
+    private int hashFunctions;
+    private long insertions;
+    // Predicted from the fill level: (1 - e^(-kn/m))^k
+    private double expectedFpp;
+    private double targetFpp;
+    private long checks;
+    // Checks answered "not enrolled" without a cache or database lookup
+    private long definiteNegatives;
+    private long truePositives;
+    private long falsePositives;
+    // falsePositives / (definiteNegatives + falsePositives), i.e. over pairs that are not enrolled
+    private double observedFpp;
+    private long catchUpAdds;
+    // Checks the filter would have answered "not enrolled" for a student changed on another node
+    private long bypassedChecks;
+    private long studentsAwaitingCatchUp;
+    private long rebuilds;
+    private long lastRebuildMillis;
+    private LocalDateTime lastRebuildAt;
+}
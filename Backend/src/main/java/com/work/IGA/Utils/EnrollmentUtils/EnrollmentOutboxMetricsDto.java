@@ -0,0 +1,21 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentOutboxMetricsDto {
+    private long backlog;
+    // Age of the oldest completed payment still waiting for its enrollment
+    private long oldestPendingSeconds;
+    private long recorded;
+    private long enrolled;
+    // Dispatched without a new row: already enrolled, or the payment is no longer COMPLETED
+    private long skipped;
+    private long retried;
+    private long dead;
+    private long batchFallbacks;
+}
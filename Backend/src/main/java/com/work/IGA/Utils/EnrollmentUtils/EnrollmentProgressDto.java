@@ -0,0 +1,21 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import com.work.IGA.Models.Courses.ProgressEnum;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnrollmentProgressDto {
+    private UUID enrollmentId;
+    private UUID courseId;
+    private ProgressEnum progress;
+    private int completionPercent;
+    private List<ModuleProgressDto> modules;
+}
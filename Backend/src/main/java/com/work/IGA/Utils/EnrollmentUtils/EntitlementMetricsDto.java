@@ -0,0 +1,24 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntitlementMetricsDto {
+    private long cachedStudents;
+    private long weightedSize;
+    private long maximumWeight;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    // Queries the uncached checks would have issued, minus the queries spent loading entries
+    private long databaseQueriesAvoided;
+    private long loadQueries;
+    private long grants;
+    private long revocations;
+    // Entries dropped because another instance changed the student's entitlements
+    private long remoteInvalidations;
+}
@@ -0,0 +1,20 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ModuleProgressDto {
+    private UUID moduleId;
+    private String title;
+    private int position;
+    // Average of the module's resources; a module without resources reports 0
+    private int completionPercent;
+    private List<ResourceProgressDto> resources;
+}
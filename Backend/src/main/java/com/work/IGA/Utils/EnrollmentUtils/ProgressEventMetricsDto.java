@@ -0,0 +1,23 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgressEventMetricsDto {
+    // Distinct (enrollment, resource) pairs waiting for the next flush
+    private long buffered;
+    private long accepted;
+    // Events folded into a pair that was already buffered
+    private long coalesced;
+    private long dropped;
+    private long flushes;
+    private long failedFlushes;
+    // Upserts that raised a resource's percentage
+    private long rowsWritten;
+    private long enrollmentsUpdated;
+    private long lastFlushMillis;
+}
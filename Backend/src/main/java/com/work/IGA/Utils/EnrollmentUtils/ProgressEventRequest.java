@@ -0,0 +1,17 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProgressEventRequest {
+    private UUID resourceId;
+
+    // How far the student got through the resource (0-100), e.g. video position or slides seen
+    private Integer percent;
+}
@@ -0,0 +1,17 @@
+package com.work.IGA.Utils.EnrollmentUtils;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ResourceProgressDto {
+    private UUID resourceId;
+    private String title;
+    private String resourceType;
+    private int percent;
+}
@@ -0,0 +1,29 @@
+package com.work.IGA.Utils.NotificationUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Payload pushed to a student's notification stream.
+ * Carries what the grade and submission screens display, so clients do not need to re-fetch.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationEvent {
+    private NotificationType type;
+    private UUID submissionId;
+    private UUID assignmentId;
+    private String assignmentTitle;
+    private UUID courseId;
+    private Integer grade;
+    private Integer maxPoints;
+    private String feedback;
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,8 @@
+package com.work.IGA.Utils.NotificationUtils;
+
+public enum NotificationType {
+    SUBMISSION_GRADED,
+    GRADE_UPDATED,
+    SUBMISSION_STORED,
+    SUBMISSION_FAILED
+}
@@ -0,0 +1,26 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A dead webhook inbox row for the admin API; the gateway payload holds customer and card
+ * details and is left out
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeadWebhookDto {
+    private UUID id;
+    private String transactionId;
+    private String reference;
+    private String gatewayStatus;
+    private String source;
+    private Integer attempts;
+    private String lastError;
+    private LocalDateTime receivedAt;
+}
@@ -0,0 +1,146 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+/**
+ * Count-based circuit breaker for the payment gateway.
+ *
+ * The outcomes of the last {@code windowSize} calls are kept in a ring buffer. Once at
+ * least {@code minimumCalls} are recorded and the failure rate reaches the threshold the
+ * breaker opens for {@code openMillis}; after that a single probe call is let through
+ * and its outcome decides whether the breaker closes again.
+ */
+public class GatewayCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openMillis;
+
+    private int recorded;
+    private int position;
+    private int failureCount;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long timesOpened;
+
+    public GatewayCircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMillis) {
+        this.failures = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.failures.length));
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * @return true if the call may go ahead; in HALF_OPEN only the probe call is allowed
+     */
+    public synchronized boolean tryAcquire() {
+        refresh();
+        if (state == State.OPEN) {
+            return false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Gives back a permit whose call was never made, so a HALF_OPEN breaker can let another probe through
+     */
+    public synchronized void releaseUnused() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * Outcomes are recorded for every gateway call, including ones that are not gated
+     * by {@link #tryAcquire()}, so any call made after the open period can close the breaker.
+     */
+    public synchronized void recordSuccess() {
+        refresh();
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            reset();
+            state = State.CLOSED;
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void recordFailure() {
+        refresh();
+        if (state == State.OPEN) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && failureCount * 100 >= failureRateThreshold * recorded) {
+            open();
+        }
+    }
+
+    private void refresh() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[position]) {
+                failureCount--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[position] = failure;
+        if (failure) {
+            failureCount++;
+        }
+        position = (position + 1) % failures.length;
+    }
+
+    private void open() {
+        reset();
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+        timesOpened++;
+    }
+
+    private void reset() {
+        recorded = 0;
+        position = 0;
+        failureCount = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        refresh();
+        return state;
+    }
+
+    public synchronized int getFailureRate() {
+        return recorded == 0 ? 0 : failureCount * 100 / recorded;
+    }
+
+    public synchronized long getTimesOpened() {
+        return timesOpened;
+    }
+}
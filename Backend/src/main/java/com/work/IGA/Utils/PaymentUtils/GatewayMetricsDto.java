@@ -0,0 +1,22 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GatewayMetricsDto {
+    private String circuitState;
+    private int failureRate;
+    private long timesOpened;
+    private long rejectedByCircuit;
+    private long retries;
+    private int leasedConnections;
+    private int availableConnections;
+    private int pendingConnectionRequests;
+    private Map<String, LatencyHistogram.Snapshot> latency;
+}
@@ -0,0 +1,84 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket latency histogram in milliseconds. Recording is lock-free; percentiles
+ * are estimated as the upper bound of the bucket that contains them.
+ */
+public class LatencyHistogram {
+
+    private static final long[] BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder errors = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long millis, boolean error) {
+        int index = 0;
+        while (index < BOUNDS_MS.length && millis > BOUNDS_MS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalMillis.add(millis);
+        maxMillis.accumulate(millis);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < counts.length; i++) {
+            distribution.put(i < BOUNDS_MS.length ? "le_" + BOUNDS_MS[i] : "gt_" + BOUNDS_MS[BOUNDS_MS.length - 1], counts[i]);
+        }
+        long max = maxMillis.get();
+        return new Snapshot(
+            total,
+            errors.sum(),
+            total == 0 ? 0 : totalMillis.sum() / total,
+            percentile(counts, total, 0.50, max),
+            percentile(counts, total, 0.95, max),
+            percentile(counts, total, 0.99, max),
+            max,
+            distribution
+        );
+    }
+
+    private static long percentile(long[] counts, long total, double quantile, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BOUNDS_MS.length ? Math.min(BOUNDS_MS[i], max) : max;
+            }
+        }
+        return max;
+    }
+
+    public record Snapshot(long count, long errors, long meanMillis, long p50Millis, long p95Millis,
+                           long p99Millis, long maxMillis, Map<String, Long> buckets) {
+    }
+}
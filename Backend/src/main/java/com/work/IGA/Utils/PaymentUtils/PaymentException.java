@@ -108,4 +108,10 @@ public class PaymentException extends Exception {
         "Payment process timed out", 
         "The payment process took too long and has timed out. Please try again.");
    }
-}
\ No newline at end of file
+
+   public static PaymentException gatewayUnavailable() {
+        return new PaymentException("PAYMENT_GATEWAY_UNAVAILABLE",
+        "Payment gateway circuit is open",
+        "Payments are temporarily unavailable. Please try again in a few minutes.");
+   }
+}
@@ -0,0 +1,44 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque position in a payment listing ordered by (createdAt, id) descending.
+ * The next page is everything strictly before the last row of the previous one.
+ */
+public record PaymentHistoryCursor(LocalDateTime createdAt, UUID id) {
+
+    // Sorts after every real row, so the first page uses the same query as the rest
+    public static final PaymentHistoryCursor START =
+        new PaymentHistoryCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), new UUID(-1L, -1L));
+
+    public static PaymentHistoryCursor after(PaymentHistoryDto last) {
+        return new PaymentHistoryCursor(last.getCreatedAt(), last.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException If the cursor was not produced by {@link #encode()}
+     */
+    public static PaymentHistoryCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new PaymentHistoryCursor(
+                LocalDateTime.parse(raw.substring(0, separator)),
+                UUID.fromString(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new IllegalArgumentException("Invalid payment history cursor");
+        }
+    }
+}
@@ -26,6 +26,7 @@ public class PaymentHistoryDto {
     private String transactionReference;
     private String paymentMethod;
     private LocalDateTime paymentDate;
+    private LocalDateTime createdAt;
 
     // Constructor to convert from Payment entity
     public PaymentHistoryDto(Payment payment) {
@@ -35,6 +36,7 @@ public class PaymentHistoryDto {
         this.transactionReference = payment.getTransactionReference();
         this.paymentMethod = payment.getPaymentMethod();
         this.paymentDate = payment.getPaymentDate();
+        this.createdAt = payment.getCreatedAt();
         
         // Safely extract course information
         if (payment.getCourse() != null) {
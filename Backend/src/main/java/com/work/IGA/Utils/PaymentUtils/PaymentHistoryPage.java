@@ -0,0 +1,17 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentHistoryPage {
+    private List<PaymentHistoryDto> items;
+    // Pass back as ?cursor= to fetch the next page; null on the last page
+    private String nextCursor;
+    private boolean hasMore;
+}
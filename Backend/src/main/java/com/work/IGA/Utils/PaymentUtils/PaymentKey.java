@@ -0,0 +1,10 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Position of a payment in a keyset scan ordered by (paymentDate, id)
+ */
+public record PaymentKey(UUID id, String transactionReference, LocalDateTime paymentDate) {
+}
@@ -0,0 +1,20 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentPartitionDto {
+    private String name;
+    // Null for the default partition
+    private LocalDate rangeStart;
+    private LocalDate rangeEnd;
+    // Planner estimate from the last ANALYZE, not an exact count
+    private long estimatedRows;
+    private long sizeBytes;
+}
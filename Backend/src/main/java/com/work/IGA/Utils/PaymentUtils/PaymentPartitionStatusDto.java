@@ -0,0 +1,29 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentPartitionStatusDto {
+    private boolean enabled;
+    private boolean partitioned;
+    private boolean archiveEnabled;
+    private int monthsAhead;
+    private int archiveAfterMonths;
+    private List<PaymentPartitionDto> partitions;
+    // Archive files written so far, oldest first
+    private List<String> archives;
+    private long partitionsCreated;
+    private long rowsMovedFromDefault;
+    private long partitionsArchived;
+    private long rowsArchived;
+    private LocalDateTime lastRunAt;
+    private long lastRunDurationMillis;
+    private String lastError;
+}
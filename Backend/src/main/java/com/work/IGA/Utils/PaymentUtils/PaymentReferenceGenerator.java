@@ -0,0 +1,114 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake-style payment references: 41 bits of milliseconds since 2025-01-01,
+ * 10 bits of node id and a 12-bit per-millisecond sequence, rendered as 13 Crockford
+ * base32 characters after an "IGA_" prefix.
+ *
+ * References from one node are strictly increasing, and those from different nodes are
+ * time-ordered to the millisecond, so inserts land on the right edge of the unique
+ * index instead of at random pages. No coordination is needed beyond giving every
+ * node its own id. When the sequence of a millisecond runs out, or the wall clock goes
+ * backwards, the generator keeps counting from its last timestamp instead of blocking.
+ */
+public final class PaymentReferenceGenerator {
+
+    public static final String PREFIX = "IGA_";
+
+    // 2025-01-01T00:00:00Z
+    public static final long EPOCH_MILLIS = 1735689600000L;
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int ENCODED_LENGTH = 13;
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+    private final long nodeBits;
+
+    // (timestamp << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong state = new AtomicLong();
+
+    public PaymentReferenceGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE + ": " + nodeId);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+    }
+
+    public long nextId() {
+        long previous;
+        long next;
+        do {
+            previous = state.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long lastTimestamp = previous >>> SEQUENCE_BITS;
+            if (now > lastTimestamp) {
+                next = now << SEQUENCE_BITS;
+            } else {
+                // Same millisecond or clock stepped back: the packed state simply counts up,
+                // carrying into the next millisecond when the sequence is exhausted
+                next = previous + 1;
+            }
+        } while (!state.compareAndSet(previous, next));
+
+        long timestamp = next >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+    }
+
+    public String nextReference() {
+        return format(nextId());
+    }
+
+    /**
+     * Fixed-width encoding, so string order matches numeric order
+     */
+    public static String format(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * @return The id encoded in a generated reference, or -1 for references in another format
+     */
+    public static long parse(String reference) {
+        if (reference == null || reference.length() != PREFIX.length() + ENCODED_LENGTH || !reference.startsWith(PREFIX)) {
+            return -1;
+        }
+        long id = 0;
+        for (int i = PREFIX.length(); i < reference.length(); i++) {
+            int digit = decode(reference.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            id = (id << 5) | digit;
+        }
+        return id;
+    }
+
+    public static long timestampMillis(long id) {
+        return (id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH_MILLIS;
+    }
+
+    public static long nodeId(long id) {
+        return (id >>> SEQUENCE_BITS) & MAX_NODE;
+    }
+
+    private static int decode(char c) {
+        for (int i = 0; i < ALPHABET.length; i++) {
+            if (ALPHABET[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
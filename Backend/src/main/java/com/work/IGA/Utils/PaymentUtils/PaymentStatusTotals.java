@@ -0,0 +1,9 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import com.work.IGA.Models.Courses.PaymentStatus;
+
+/**
+ * One row of a GROUP BY payment status aggregate
+ */
+public record PaymentStatusTotals(PaymentStatus status, Long count, Double amount) {
+}
@@ -0,0 +1,26 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationMetricsDto {
+    private boolean enabled;
+    private boolean running;
+    private long runs;
+    // Runs skipped because another node held the advisory lock
+    private long skippedLockHeld;
+    private LocalDateTime lastRunStartedAt;
+    private long lastRunDurationMillis;
+    private int lastRunExamined;
+    private long examined;
+    private long completed;
+    private long failed;
+    private long stillPending;
+    private long errors;
+}
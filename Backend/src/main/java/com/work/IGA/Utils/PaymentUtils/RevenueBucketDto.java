@@ -0,0 +1,19 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RevenueBucketDto {
+    private LocalDate bucketStart;
+    private long completedPayments;
+    private double grossRevenue;
+    private long reversedPayments;
+    private double reversedAmount;
+    private double netRevenue;
+}
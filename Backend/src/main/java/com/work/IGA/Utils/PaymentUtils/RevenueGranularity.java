@@ -0,0 +1,62 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum RevenueGranularity {
+    DAY("day", 366),
+    WEEK("week", 260),
+    MONTH("month", 120);
+
+    // Unit name understood by Postgres date_trunc
+    private final String truncUnit;
+    private final int maxBuckets;
+
+    RevenueGranularity(String truncUnit, int maxBuckets) {
+        this.truncUnit = truncUnit;
+        this.maxBuckets = maxBuckets;
+    }
+
+    public String getTruncUnit() {
+        return truncUnit;
+    }
+
+    public int getMaxBuckets() {
+        return maxBuckets;
+    }
+
+    // Same boundaries as date_trunc: ISO weeks start on Monday
+    public LocalDate bucketStart(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH:
+                return date.withDayOfMonth(1);
+            default:
+                return date;
+        }
+    }
+
+    public LocalDate next(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK:
+                return bucketStart.plusWeeks(1);
+            case MONTH:
+                return bucketStart.plusMonths(1);
+            default:
+                return bucketStart.plusDays(1);
+        }
+    }
+
+    public LocalDate defaultFrom(LocalDate to) {
+        switch (this) {
+            case WEEK:
+                return to.minusWeeks(11);
+            case MONTH:
+                return to.minusMonths(11);
+            default:
+                return to.minusDays(29);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class WebhookInboxMetricsDto {
+    private int workers;
+    private int inFlight;
+    private long backlog;
+    // Age of the oldest notification that has not been processed yet
+    private long oldestPendingSeconds;
+    private long averageLagMillis;
+    private long maxLagMillis;
+    private long received;
+    private long duplicates;
+    private long processed;
+    private long retried;
+    private long dead;
+}
@@ -0,0 +1,26 @@
+package com.work.IGA.Utils.ProvisioningUtils;
+
+import lombok.Getter;
+
+@Getter
+public class ProvisioningException extends Exception {
+
+    private final String errorCode;
+
+    public ProvisioningException(String message, String errorCode) {
+        super(message);
+        this.errorCode = errorCode;
+    }
+
+    public ProvisioningException(String message, String errorCode, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+    }
+
+    // Common error codes
+    public static final String COURSE_NOT_FOUND = "COURSE_NOT_FOUND";
+    public static final String INVALID_ROSTER = "INVALID_ROSTER";
+    public static final String ROSTER_TOO_LARGE = "ROSTER_TOO_LARGE";
+    public static final String IMPORT_QUEUE_FULL = "IMPORT_QUEUE_FULL";
+    public static final String JOB_NOT_FOUND = "JOB_NOT_FOUND";
+}
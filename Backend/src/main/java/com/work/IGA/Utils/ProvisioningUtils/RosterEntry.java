@@ -0,0 +1,25 @@
+package com.work.IGA.Utils.ProvisioningUtils;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RosterEntry {
+    private String email;
+
+    @JsonAlias("first_name")
+    private String firstName;
+
+    @JsonAlias("last_name")
+    private String lastName;
+
+    // Line in the CSV file or position in the JSON array, for error reports
+    private long line;
+}
@@ -0,0 +1,35 @@
+package com.work.IGA.Utils.ProvisioningUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RosterImportJobDto {
+    private UUID jobId;
+    private UUID courseId;
+    private String format;
+    private RosterImportStatus status;
+    private long rowsRead;
+    private long usersCreated;
+    private long usersExisting;
+    private long enrollmentsCreated;
+    private long alreadyEnrolled;
+    private long rejected;
+    // Rows read per second of processing time, from start until now or until the job finished
+    private double rowsPerSecond;
+    // Invite tokens of created users that have not been downloaded yet
+    private int pendingInvites;
+    private LocalDateTime queuedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String failureMessage;
+    // First rejected rows only, see provisioning.import.max-reported-errors
+    private List<RosterRowError> errors;
+}
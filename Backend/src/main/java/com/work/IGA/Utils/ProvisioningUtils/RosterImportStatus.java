@@ -0,0 +1,8 @@
+package com.work.IGA.Utils.ProvisioningUtils;
+
+public enum RosterImportStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,7 @@
+package com.work.IGA.Utils.ProvisioningUtils;
+
+/**
+ * A roster row that was skipped; line is the CSV line or the position in the JSON array
+ */
+public record RosterRowError(long line, String email, String message) {
+}
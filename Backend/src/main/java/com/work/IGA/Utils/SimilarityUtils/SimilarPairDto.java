@@ -0,0 +1,18 @@
+package com.work.IGA.Utils.SimilarityUtils;
+
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarPairDto {
+    private UUID firstSubmissionId;
+    private String firstStudentName;
+    private UUID secondSubmissionId;
+    private String secondStudentName;
+    private double estimatedSimilarity;
+}
@@ -0,0 +1,21 @@
+package com.work.IGA.Utils.SimilarityUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimilarityReportDto {
+    private UUID assignmentId;
+    private long totalSubmissions;
+    private long fingerprintedSubmissions;
+    private double minSimilarity;
+    private int oversizedBuckets;
+    private long elapsedMs;
+    private List<SimilarPairDto> pairs;
+}
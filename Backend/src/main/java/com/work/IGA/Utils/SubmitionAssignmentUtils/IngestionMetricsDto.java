@@ -0,0 +1,22 @@
+package com.work.IGA.Utils.SubmitionAssignmentUtils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IngestionMetricsDto {
+    private int workers;
+    private int activeWorkers;
+    private int queueDepth;
+    private int queueCapacity;
+    private int inFlight;
+    private long pendingInDatabase;
+    private long accepted;
+    private long uploaded;
+    private long retried;
+    private long failed;
+    private long rejected;
+}
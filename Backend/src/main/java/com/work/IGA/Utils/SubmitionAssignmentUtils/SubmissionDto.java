@@ -3,6 +3,7 @@ package com.work.IGA.Utils.SubmitionAssignmentUtils;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import com.work.IGA.Models.Courses.SubmissionStatus;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -21,4 +22,7 @@ public class SubmissionDto {
     private Integer grade;
     private LocalDateTime gradedAt;
     private boolean isGraded;
+    private SubmissionStatus status;
+    private boolean late;
+    private Integer minutesLate;
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.work.IGA.Utils.SubmitionAssignmentUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import com.work.IGA.Models.Courses.AssignmentSubmission;
+
+/**
+ * Lateness rules for submissions.
+ * An assignment's dueDate is a calendar day, so a submission is on time until the end of that day.
+ * The bulk queries in AssignmentSubmissionRepository use the same rule in SQL (due_date + 1).
+ */
+public final class SubmissionLateness {
+
+    private SubmissionLateness() {
+    }
+
+    public static LocalDateTime deadlineFor(LocalDate dueDate) {
+        return dueDate.plusDays(1).atStartOfDay();
+    }
+
+    /**
+     * Sets late and minutesLate on the submission from its submittedAt and the given due date
+     */
+    public static void apply(AssignmentSubmission submission, LocalDate dueDate) {
+        if (dueDate == null || submission.getSubmittedAt() == null) {
+            submission.setLate(false);
+            submission.setMinutesLate(0);
+            return;
+        }
+        LocalDateTime deadline = deadlineFor(dueDate);
+        boolean late = !submission.getSubmittedAt().isBefore(deadline);
+        submission.setLate(late);
+        submission.setMinutesLate(late ? (int) ChronoUnit.MINUTES.between(deadline, submission.getSubmittedAt()) : 0);
+    }
+}
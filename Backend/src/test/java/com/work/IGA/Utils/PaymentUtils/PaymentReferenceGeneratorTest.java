@@ -0,0 +1,75 @@
+package com.work.IGA.Utils.PaymentUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class PaymentReferenceGeneratorTest {
+
+    private static final int THREADS = 32;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void idsDrawnConcurrentlyAreUniqueAndIncreasingPerThread() throws InterruptedException {
+        PaymentReferenceGenerator generator = new PaymentReferenceGenerator(7);
+        long[][] drawn = new long[THREADS][IDS_PER_THREAD];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            long[] ids = drawn[t];
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = generator.nextId();
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            long[] ids = drawn[t];
+            for (int i = 1; i < ids.length; i++) {
+                assertThat(ids[i])
+                        .as("thread %d, id %d", t, i)
+                        .isGreaterThan(ids[i - 1]);
+            }
+            System.arraycopy(ids, 0, all, t * IDS_PER_THREAD, ids.length);
+        }
+        assertThat(Arrays.stream(all).distinct().count()).isEqualTo(all.length);
+        assertThat(Arrays.stream(all).allMatch(id -> PaymentReferenceGenerator.nodeId(id) == 7)).isTrue();
+    }
+
+    @Test
+    void referencesSortInIdOrderAndParseBack() {
+        PaymentReferenceGenerator generator = new PaymentReferenceGenerator(1);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        String firstReference = PaymentReferenceGenerator.format(first);
+        String secondReference = PaymentReferenceGenerator.format(second);
+
+        assertThat(firstReference).startsWith(PaymentReferenceGenerator.PREFIX).isLessThan(secondReference);
+        assertThat(PaymentReferenceGenerator.parse(secondReference)).isEqualTo(second);
+        assertThat(PaymentReferenceGenerator.parse("IGA_not-a-reference")).isEqualTo(-1);
+    }
+
+    @Test
+    void rejectsNodeIdsOutOfRange() {
+        assertThatThrownBy(() -> new PaymentReferenceGenerator(1024)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PaymentReferenceGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1757,4 +1757,58 @@ export const formatGradeDate = (dateString: string): string => {
     } catch (error) {
         return dateString;
     }
-}; 
\ No newline at end of file
+}; 
+// ===================== REAL-TIME NOTIFICATIONS =====================
+
+export type NotificationType = 'SUBMISSION_GRADED' | 'GRADE_UPDATED' | 'SUBMISSION_STORED' | 'SUBMISSION_FAILED';
+
+export interface NotificationEvent {
+    type: NotificationType;
+    submissionId: string;
+    assignmentId: string;
+    assignmentTitle: string;
+    courseId: string;
+    grade?: number;
+    maxPoints?: number;
+    feedback?: string;
+    occurredAt: string;
+}
+
+/**
+ * Subscribe to grade and submission events pushed by the server (SSE) instead of polling.
+ * EventSource reconnects on its own; callers should re-fetch once in onReconnect since
+ * events sent while disconnected are not replayed.
+ * Returns a function that closes the stream.
+ */
+export const subscribeToNotifications = (
+    onEvent: (event: NotificationEvent) => void,
+    onReconnect?: () => void
+): (() => void) => {
+    const token = getAuthToken();
+    if (!token || typeof EventSource === 'undefined') {
+        return () => {};
+    }
+
+    const source = new EventSource(`${CONNECTIONURL}/notifications/stream?token=${encodeURIComponent(token)}`);
+    let connectedOnce = false;
+
+    source.addEventListener('connected', () => {
+        if (connectedOnce && onReconnect) {
+            onReconnect();
+        }
+        connectedOnce = true;
+    });
+
+    const types: NotificationType[] = ['SUBMISSION_GRADED', 'GRADE_UPDATED', 'SUBMISSION_STORED', 'SUBMISSION_FAILED'];
+    types.forEach(type => {
+        source.addEventListener(type, (message: MessageEvent) => {
+            try {
+                onEvent(JSON.parse(message.data) as NotificationEvent);
+            } catch (error) {
+                console.warn('Ignoring malformed notification', error);
+            }
+        });
+    });
+
+    return () => source.close();
+};
@@ -22,6 +22,7 @@ import {
   getGradeLetterGrade,
   getGradeColor,
   formatGradeDate,
+  subscribeToNotifications,
   GradeDto
 } from '@/ApiConfig/StudentConnection';
 
@@ -78,6 +79,15 @@ const MyGrades: React.FC = () => {
     loadProfile();
   }, []);
 
+  // Grades are pushed by the server; reload only when one actually changes
+  useEffect(() => {
+    return subscribeToNotifications(event => {
+      if (event.type === 'SUBMISSION_GRADED' || event.type === 'GRADE_UPDATED') {
+        loadGradingData();
+      }
+    }, () => loadGradingData());
+  }, []);
+
   const loadProfile = async () => {
     try {
       if (!profile) {